@@ -0,0 +1,96 @@
+package com.security.async;
+
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 权限上下文的异步传递工具
+ * <p>
+ * 包装时在提交线程捕获快照，执行时在工作线程恢复，结束后还原工作线程原有状态。
+ * 快照不可变且在请求内复用，包装只增加一个引用，不复制主体和目标参数的值列表。
+ * CompletableFuture的xxxAsync方法传入{@link #wrap(Executor)}即可让每个阶段获得上下文。
+ */
+public final class PermissionContextExecutors {
+
+    private PermissionContextExecutors() {
+    }
+
+    /**
+     * 包装执行器：每次execute时捕获当前上下文
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ContextExecutor) {
+            return executor;
+        }
+        return new ContextExecutor(executor);
+    }
+
+    public static Runnable wrap(Runnable task) {
+        ContextSnapshot snapshot = PermissionContext.capture();
+        if (snapshot == null) {
+            return task;
+        }
+        return () -> {
+            try (PermissionContext.Scope ignored = PermissionContext.restore(snapshot)) {
+                task.run();
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        ContextSnapshot snapshot = PermissionContext.capture();
+        if (snapshot == null) {
+            return task;
+        }
+        return () -> {
+            try (PermissionContext.Scope ignored = PermissionContext.restore(snapshot)) {
+                return task.call();
+            }
+        };
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> supplier) {
+        ContextSnapshot snapshot = PermissionContext.capture();
+        if (snapshot == null) {
+            return supplier;
+        }
+        return () -> {
+            try (PermissionContext.Scope ignored = PermissionContext.restore(snapshot)) {
+                return supplier.get();
+            }
+        };
+    }
+
+    public static <T, R> Function<T, R> wrap(Function<T, R> function) {
+        ContextSnapshot snapshot = PermissionContext.capture();
+        if (snapshot == null) {
+            return function;
+        }
+        return value -> {
+            try (PermissionContext.Scope ignored = PermissionContext.restore(snapshot)) {
+                return function.apply(value);
+            }
+        };
+    }
+
+    /**
+     * 传递上下文的执行器
+     */
+    private static final class ContextExecutor implements Executor {
+        private final Executor delegate;
+
+        private ContextExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(wrap(command));
+        }
+    }
+}
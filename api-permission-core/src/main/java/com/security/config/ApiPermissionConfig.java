@@ -0,0 +1,1132 @@
+package com.security.config;
+
+import com.security.enums.EnforcementMode;
+import com.security.enums.EngineMode;
+import com.security.enums.ExtractorType;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.enums.PolicyOperator;
+import com.security.enums.TenantKeySource;
+import com.security.enums.ValueType;
+import com.security.extractor.ContentDecoding;
+import com.security.extractor.JwtVerifier;
+import com.security.policy.CompiledPolicy;
+import com.security.policy.CompiledUriPattern;
+import com.security.policy.PolicyCompiler;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * API权限配置类（完全手动实现验证逻辑，不依赖注解校验器）
+ * <p>
+ * 核心模块中为普通对象：Spring Boot下由自动配置按前缀api.permission绑定后调用{@link #initialize()}，
+ * 其他环境（网关、批处理）手动构造、赋值后调用。
+ */
+@Data
+@Slf4j
+public class ApiPermissionConfig {
+
+    private boolean enabled = false; // 全局开关（默认关闭）
+    private EngineMode engineMode = EngineMode.INTERPRETED; // 规则执行引擎模式
+    private EnforcementMode enforcementMode = EnforcementMode.INTERCEPTOR; // 校验执行位置
+    private AsyncEnforcement asyncEnforcement = new AsyncEnforcement(); // 异步校验线程池配置（ASYNC_FILTER模式生效）
+    private ReactiveEnforcement reactive = new ReactiveEnforcement(); // WebFlux适配配置（引入api-permission-webflux时生效）
+    private int formMaxBytes = 64 * 1024; // 解析FORM参数时允许读取的最大表单请求体字节数
+    private int bodyMaxBytes = 1024 * 1024; // 过滤器阶段校验BODY参数时允许预读的最大请求体字节数
+    private Multipart multipart = new Multipart(); // 文件上传请求的字段扫描上限（FORM_FIELD解析方式）
+    private Session session = new Session(); // 会话属性提取的缓存配置（SESSION来源）
+    private Jwt jwt = new Jwt(); // JWT令牌的验签密钥与声明缓存（JWT_CLAIM解析方式）
+    private Decompression decompression = new Decompression(); // 压缩请求体（Content-Encoding）的解压上限
+    private Reload reload = new Reload(); // 规则热更新（监听本地规则文件）
+    private Shadow shadow = new Shadow(); // 候选规则的影子评估（按比例抽样，不影响生效规则的决策）
+    private Bundle bundle = new Bundle(); // 预编译规则包（启动时替代rules，加载失败时回退为rules）
+    private Tenants tenants = new Tenants(); // 多租户规则（按租户标识选择各自的规则表，按需加载）
+    private List<Rule> rules;
+
+    // 当前生效的规则快照（initialize与热更新时整体替换，不参与配置绑定）
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient volatile RuleSnapshot snapshot;
+
+    // 快照发布的监听器与发布锁（加载、发布串行进行，读取方不加锁）
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final transient List<RuleSnapshotListener> snapshotListeners = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final transient Object publishLock = new Object();
+
+    /**
+     * 验证配置并预编译规则（属性赋值完成后调用一次）
+     */
+    public void initialize() {
+        log.info("开始验证API权限配置...");
+
+        // 1. 全局配置验证（收集所有错误）；规则包中的规则已在构建时验证，只检查与全局配置相关的约束
+        List<Rule> bundledRules = loadBundle();
+        List<String> allErrors = new ArrayList<>();
+        if (bundledRules != null) {
+            this.rules = bundledRules;
+            validateGlobalConfig(allErrors);
+            if (enabled && bundledRules.isEmpty()) {
+                allErrors.add("全局开关已开启，但规则包中没有任何规则");
+            }
+            validateJwtUsage(bundledRules, allErrors);
+        } else {
+            allErrors.addAll(validate());
+        }
+
+        // 2. 统一处理错误
+        if (!allErrors.isEmpty()) {
+            log.error("配置验证失败，共发现{}个错误：", allErrors.size());
+            allErrors.forEach(error -> log.error("- {}", error));
+
+            // 自动关闭全局开关
+            if (enabled) {
+                log.error("因配置错误，自动关闭全局开关");
+                this.enabled = false;
+            }
+        } else {
+            log.info("API权限配置验证通过");
+        }
+
+        // 3. 预编译规则的策略树（仅编译通过验证的规则，规则包中已编译），发布为首个快照
+        synchronized (publishLock) {
+            if (bundledRules == null) {
+                compileRules(rules);
+            }
+            publish(enabled, bundledRules != null ? "规则包：" + bundle.getFile() : "启动配置", rules);
+        }
+    }
+
+    // 加载规则包（未配置时返回null；文件不存在、格式版本不兼容或内容损坏时回退为配置文件中的规则）
+    private List<Rule> loadBundle() {
+        if (bundle == null || bundle.getFile() == null || bundle.getFile().trim().isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(bundle.getFile().trim());
+        long start = System.nanoTime();
+        try {
+            RuleBundle loaded = RuleBundle.read(path);
+            log.info("规则包加载完成：{}，格式版本: {}，构建时间: {}，共{}条规则，耗时{}ms", path, loaded.getFormatVersion(),
+                    Instant.ofEpochMilli(loaded.getCreatedAt()), loaded.getRules().size(), (System.nanoTime() - start) / 1_000_000.0);
+            return loaded.getRules();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("规则包加载失败，回退为配置文件中的规则：{}，{}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 验证并编译规则（不依赖全局配置，供规则包构建使用；JWT密钥等与全局配置相关的约束在加载规则包时检查）
+     *
+     * @return 验证错误，为空表示规则均已编译
+     */
+    static List<String> validateAndCompile(List<Rule> rules) {
+        List<String> errors = new ArrayList<>();
+        if (rules == null || rules.isEmpty()) {
+            errors.add("未配置任何规则（rules不能为空）");
+        }
+        validateRules(rules, errors);
+        if (errors.isEmpty()) {
+            compileRules(rules);
+        }
+        return errors;
+    }
+
+    /**
+     * 热更新规则：在调用线程中验证、编译新规则并构建快照，全部成功后一次替换当前快照
+     * <p>
+     * 与启动时不同，存在任何验证错误时整批拒绝（不会只关闭出错的规则），当前快照保持不变。
+     * 新规则对象交由配置类持有，调用方之后不得再修改；当前生效的规则对象不会被修改，处理中的请求不受影响。
+     *
+     * @param enabled 全局开关，为null时沿用当前值
+     * @param rules   新规则列表
+     * @param source  规则来源（用于日志）
+     * @return 验证错误，为空表示新规则已生效
+     */
+    public List<String> reload(Boolean enabled, List<Rule> rules, String source) {
+        synchronized (publishLock) {
+            boolean nextEnabled = enabled != null ? enabled : isEnabled();
+            List<String> errors = new ArrayList<>();
+            validateRuleSet(nextEnabled, rules, errors);
+            if (!errors.isEmpty()) {
+                return errors;
+            }
+            compileRules(rules);
+            try {
+                publish(nextEnabled, source, rules);
+            } catch (RuntimeException e) {
+                log.error("规则快照发布失败（来源: {}），保留当前规则", source, e);
+                errors.add("规则快照发布失败：" + e.getMessage());
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 准备候选规则：与热更新相同的验证与编译，但不发布，当前快照保持不变（供影子评估使用）
+     * <p>
+     * 返回的快照版本为0，规则对象交由配置类持有，调用方之后不得再修改。
+     *
+     * @param enabled 全局开关，为null时沿用当前值
+     * @param errors  接收验证错误
+     * @return 候选快照，存在验证错误时返回null
+     */
+    public RuleSnapshot prepareCandidate(Boolean enabled, List<Rule> rules, String source, List<String> errors) {
+        synchronized (publishLock) {
+            boolean nextEnabled = enabled != null ? enabled : isEnabled();
+            int before = errors.size();
+            validateRuleSet(nextEnabled, rules, errors);
+            if (errors.size() > before) {
+                return null;
+            }
+            compileRules(rules);
+            return new RuleSnapshot(0, nextEnabled, source, rules);
+        }
+    }
+
+    /**
+     * 准备租户规则：与热更新相同的验证与编译，构建该租户独立的快照（不替换全局快照，供{@link TenantRuleTables}使用）
+     *
+     * @param enabled 租户规则的开关，为null时沿用全局开关
+     * @param errors  接收验证错误
+     * @return 租户快照，存在验证错误时返回null
+     */
+    RuleSnapshot prepareTenant(String tenant, long version, Boolean enabled, List<Rule> rules, String source, List<String> errors) {
+        boolean nextEnabled = enabled != null ? enabled : isEnabled();
+        int before = errors.size();
+        validateRuleSet(nextEnabled, rules, errors);
+        if (errors.size() > before) {
+            return null;
+        }
+        compileRules(rules);
+        if (rules != null) {
+            for (Rule rule : rules) {
+                if (rule != null) {
+                    rule.tenant = tenant;
+                }
+            }
+        }
+        return new RuleSnapshot(version, nextEnabled, source, rules, tenant);
+    }
+
+    /**
+     * 将候选规则提升为生效规则：监听器准备完成后一次替换当前快照（候选规则已验证、编译，不再重复）
+     *
+     * @return 发布错误，为空表示候选规则已生效
+     */
+    public List<String> promote(RuleSnapshot candidate) {
+        synchronized (publishLock) {
+            List<String> errors = new ArrayList<>();
+            try {
+                publish(candidate.isEnabled(), candidate.getSource(), candidate.getRules());
+            } catch (RuntimeException e) {
+                log.error("候选规则提升失败（来源: {}），保留当前规则", candidate.getSource(), e);
+                errors.add("规则快照发布失败：" + e.getMessage());
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 当前生效的规则快照（initialize之前为null）
+     */
+    public RuleSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 全局开关：initialize之后以当前快照为准（热更新可切换）
+     */
+    public boolean isEnabled() {
+        RuleSnapshot current = snapshot;
+        return current != null ? current.isEnabled() : enabled;
+    }
+
+    /**
+     * 规则列表：initialize之后返回当前快照中的规则（不可修改）
+     */
+    public List<Rule> getRules() {
+        RuleSnapshot current = snapshot;
+        return current != null ? current.getRules() : rules;
+    }
+
+    /**
+     * 注册快照监听器：已有快照时立即以当前快照回调一次，之后每次发布前后回调
+     */
+    public void addSnapshotListener(RuleSnapshotListener listener) {
+        synchronized (publishLock) {
+            snapshotListeners.add(listener);
+            RuleSnapshot current = snapshot;
+            if (current != null) {
+                listener.prepare(current);
+                listener.published(current);
+            }
+        }
+    }
+
+    // 构建并发布快照（调用方持有publishLock）：监听器全部prepare成功后才替换
+    private void publish(boolean enabled, String source, List<Rule> rules) {
+        RuleSnapshot current = snapshot;
+        RuleSnapshot next = new RuleSnapshot(current == null ? 1 : current.getVersion() + 1, enabled, source, rules);
+        for (RuleSnapshotListener listener : snapshotListeners) {
+            listener.prepare(next);
+        }
+        snapshot = next;
+        for (RuleSnapshotListener listener : snapshotListeners) {
+            listener.published(next);
+        }
+    }
+
+    // ApiPermissionConfig类中
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        // 仅负责全局配置验证
+        validateGlobalConfig(errors);
+        // 规则集验证（规则自身的验证委托给规则）
+        validateRuleSet(enabled, rules, errors);
+        return errors;
+    }
+
+    // 全局配置验证（独立方法）
+    private void validateGlobalConfig(List<String> errors) {
+        if (enforcementMode == null) {
+            errors.add("校验执行位置（enforcement-mode）不能为空");
+        } else if (enforcementMode == EnforcementMode.ASYNC_FILTER) {
+            if (asyncEnforcement == null) {
+                errors.add("ASYNC_FILTER模式下异步校验配置（async-enforcement）不能为空");
+            } else {
+                errors.addAll(asyncEnforcement.validate());
+            }
+        }
+        if (reactive == null || reactive.getMaxBodyBytes() <= 0) {
+            errors.add("WebFlux请求体上限（reactive.max-body-bytes）必须大于0");
+        }
+        if (formMaxBytes <= 0) {
+            errors.add("表单请求体上限（form-max-bytes）必须大于0");
+        }
+        if (bodyMaxBytes <= 0) {
+            errors.add("请求体预读上限（body-max-bytes）必须大于0");
+        }
+        if (multipart == null) {
+            errors.add("文件上传字段扫描配置（multipart）不能为空");
+        } else {
+            errors.addAll(multipart.validate());
+        }
+        if (session == null) {
+            errors.add("会话属性缓存配置（session）不能为空");
+        } else {
+            errors.addAll(session.validate());
+        }
+        if (decompression == null) {
+            errors.add("请求体解压配置（decompression）不能为空");
+        } else {
+            errors.addAll(decompression.validate());
+        }
+        if (reload == null) {
+            errors.add("规则热更新配置（reload）不能为空");
+        } else {
+            errors.addAll(reload.validate());
+        }
+        if (shadow == null) {
+            errors.add("影子评估配置（shadow）不能为空");
+        } else {
+            errors.addAll(shadow.validate());
+        }
+        if (bundle == null) {
+            errors.add("规则包配置（bundle）不能为空");
+        }
+        if (tenants == null) {
+            errors.add("多租户规则配置（tenants）不能为空");
+        } else {
+            errors.addAll(tenants.validate());
+        }
+        if (jwt == null) {
+            errors.add("JWT配置（jwt）不能为空");
+        } else {
+            errors.addAll(jwt.validate());
+        }
+    }
+
+    // 规则集验证（启动与热更新共用）：全局开关与规则列表的一致性、依赖全局配置的解析方式、各规则自身
+    private void validateRuleSet(boolean enabled, List<Rule> rules, List<String> errors) {
+        if (enabled && (rules == null || rules.isEmpty())) {
+            errors.add("全局开关已开启，但未配置任何规则（rules不能为空）");
+        }
+        validateRules(rules, errors);
+        validateJwtUsage(rules, errors);
+    }
+
+    // 使用JWT_CLAIM解析方式时必须配置验签密钥
+    private void validateJwtUsage(List<Rule> rules, List<String> errors) {
+        if (jwt != null && !jwt.hasKeys() && usesParseMethod(rules, ExtractorType.JWT_CLAIM)) {
+            errors.add("规则使用了JWT_CLAIM解析方式，但未配置验签密钥（jwt.hmac-secret或jwt.rsa-public-keys）");
+        }
+    }
+
+    // 是否有规则使用指定的解析方式
+    private static boolean usesParseMethod(List<Rule> rules, ExtractorType extractorType) {
+        if (rules == null) {
+            return false;
+        }
+        for (Rule rule : rules) {
+            if (rule == null) {
+                continue;
+            }
+            if (rule.getPrincipalParam() != null && rule.getPrincipalParam().getParseMethod() != null
+                    && ExtractorType.fromString(rule.getPrincipalParam().getParseMethod()) == extractorType) {
+                return true;
+            }
+            if (rule.getParamRules() != null) {
+                for (ParamRule paramRule : rule.getParamRules()) {
+                    if (paramRule.getParseMethod() != null && ExtractorType.fromString(paramRule.getParseMethod()) == extractorType) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // 规则列表验证（独立方法）
+    private static void validateRules(List<Rule> rules, List<String> errors) {
+        if (rules != null) {
+            for (Rule rule : rules) {
+                if (rule == null) {
+                    errors.add("rules中存在空对象");
+                    continue;
+                }
+                List<String> ruleErrors = rule.validate().stream()
+                        .map(error -> "规则[" + (rule.getUriPattern() != null ? rule.getUriPattern() : "未设置URI") + "]：" + error)
+                        .collect(Collectors.toList());
+                errors.addAll(ruleErrors);
+                if (!ruleErrors.isEmpty()) {
+                    rule.setEnabled(false);
+                }
+            }
+        }
+    }
+
+    // 规则策略预编译（独立方法）
+    private static void compileRules(List<Rule> rules) {
+        if (rules == null) {
+            return;
+        }
+        for (Rule rule : rules) {
+            if (rule == null) {
+                continue;
+            }
+            if (rule.getUriPattern() != null) {
+                rule.compiledPattern = CompiledUriPattern.compile(rule.getUriPattern());
+            }
+            if (!rule.isEnabled()) {
+                continue;
+            }
+            rule.compiledPolicy = PolicyCompiler.compile(rule);
+            log.debug("规则[{}]策略编译完成：{}", rule.getUriPattern(), rule.compiledPolicy);
+        }
+    }
+
+    /**
+     * 规则热更新配置：监听本地规则文件（JSON），内容变化时重新加载规则
+     */
+    @Data
+    public static class Reload {
+        private String file; // 规则文件路径，为空时不监听
+        private long debounceMillis = 300; // 文件变化后等待写入完成的时间（毫秒），期间的多次变化只加载一次
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (debounceMillis < 0) {
+                errors.add("规则文件防抖时间（reload.debounce-millis）不能小于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 预编译规则包配置：启动时直接加载{@link RuleBundleCompiler}生成的二进制规则包，跳过规则的绑定、验证与编译
+     */
+    @Data
+    public static class Bundle {
+        private String file; // 规则包路径，为空时使用rules；加载失败（文件不存在、格式版本不兼容、内容损坏）时回退为rules
+    }
+
+    /**
+     * 多租户规则配置：从请求中解析租户标识，携带标识且有专属规则的租户只匹配自己的规则表
+     * <p>
+     * 租户规则表在首次访问时加载，超过数量上限或空闲超时后卸载；没有专属规则的租户与未携带标识的请求使用全局规则。
+     */
+    @Data
+    public static class Tenants {
+        private String directory; // 租户规则目录（每个租户一个"<租户标识>.json"文件，格式同reload.file），为空时不启用
+        private TenantKeySource keySource = TenantKeySource.HEADER; // 租户标识来源（HEADER/PATH/HOST）
+        private String header = "X-Tenant-Id"; // HEADER来源的请求头名称
+        private int pathSegment = 0; // PATH来源取URI的第几个分段（从0开始，/t1/api/orders的第0段为t1）
+        private int maxLoadedTenants = 1000; // 同时保留的租户数上限（含没有专属规则的租户），超过时卸载最久未访问的租户
+        private long idleSeconds = 1800; // 超过该时间未访问的租户被卸载（0表示只按数量卸载）
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (keySource == null) {
+                errors.add("租户标识来源（tenants.key-source）不能为空");
+            } else if (keySource == TenantKeySource.HEADER && (header == null || header.trim().isEmpty())) {
+                errors.add("HEADER来源的租户请求头名称（tenants.header）不能为空");
+            }
+            if (pathSegment < 0) {
+                errors.add("租户标识所在的URI分段（tenants.path-segment）不能小于0");
+            }
+            if (maxLoadedTenants <= 0) {
+                errors.add("租户数上限（tenants.max-loaded-tenants）必须大于0");
+            }
+            if (idleSeconds < 0) {
+                errors.add("租户空闲卸载时间（tenants.idle-seconds）不能小于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 影子评估配置：候选规则文件（JSON，格式与热更新相同）与抽样、线程池参数
+     */
+    @Data
+    public static class Shadow {
+        private String file; // 候选规则文件路径，为空时不启用影子评估
+        private double sampleRate = 0.05; // 抽样比例（0~1），只有抽中的请求执行候选规则
+        private int poolSize = 2; // 候选规则求值的线程数
+        private int queueCapacity = 1024; // 等待求值的队列长度，队列满时丢弃本次抽样（不阻塞请求）
+        private int maxDivergenceRecords = 200; // 保留的最近决策差异条数
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (sampleRate < 0 || sampleRate > 1) {
+                errors.add("影子评估抽样比例（shadow.sample-rate）必须在0到1之间");
+            }
+            if (poolSize <= 0) {
+                errors.add("影子评估线程数（shadow.pool-size）必须大于0");
+            }
+            if (queueCapacity <= 0) {
+                errors.add("影子评估队列长度（shadow.queue-capacity）必须大于0");
+            }
+            if (maxDivergenceRecords <= 0) {
+                errors.add("决策差异记录条数（shadow.max-divergence-records）必须大于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 异步校验线程池配置
+     */
+    @Data
+    public static class AsyncEnforcement {
+        private int corePoolSize = 8;        // 核心线程数
+        private int maxPoolSize = 64;        // 最大线程数
+        private int queueCapacity = 1024;    // 等待队列容量（队列满时由容器线程同步执行）
+        private long timeoutMillis = 5000;   // 单个请求的校验超时（毫秒，提前校验时包含读取请求体的时间）
+        // JSON请求体边读边匹配：非阻塞读取请求体，JSONPath参数全部确定后立即校验，拒绝的请求不再读取剩余内容
+        private boolean earlyBodyEvaluation = false;
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (corePoolSize <= 0) {
+                errors.add("异步校验核心线程数（core-pool-size）必须大于0");
+            }
+            if (maxPoolSize < corePoolSize) {
+                errors.add("异步校验最大线程数（max-pool-size）不能小于核心线程数");
+            }
+            if (queueCapacity < 0) {
+                errors.add("异步校验队列容量（queue-capacity）不能为负数");
+            }
+            if (timeoutMillis <= 0) {
+                errors.add("异步校验超时（timeout-millis）必须大于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * WebFlux适配配置
+     */
+    @Data
+    public static class ReactiveEnforcement {
+        private int maxBodyBytes = 256 * 1024; // 校验BODY参数时允许聚合的最大请求体字节数
+    }
+
+    /**
+     * 文件上传请求的字段扫描配置：只读取第一个文件部分之前的文本字段，文件内容不缓存
+     */
+    @Data
+    public static class Multipart {
+        private int maxFieldBytes = 8 * 1024;  // 单个文本字段的最大字节数
+        private int maxScanBytes = 64 * 1024;  // 文件部分之前最多读取的字节数
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (maxFieldBytes <= 0) {
+                errors.add("文本字段上限（multipart.max-field-bytes）必须大于0");
+            }
+            if (maxScanBytes < maxFieldBytes) {
+                errors.add("扫描上限（multipart.max-scan-bytes）不能小于文本字段上限");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 会话属性提取的缓存配置：按会话ID缓存从会话属性得到的参数值，会话属性变更、会话销毁时失效
+     */
+    @Data
+    public static class Session {
+        private long cacheTtlSeconds = 300;     // 缓存值的最长有效期（0表示不缓存，每次读取会话属性）
+        private int maxCachedSessions = 10000;  // 最多缓存的会话数（超出时不再缓存新会话）
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (cacheTtlSeconds < 0) {
+                errors.add("会话缓存有效期（session.cache-ttl-seconds）不能小于0");
+            }
+            if (maxCachedSessions <= 0) {
+                errors.add("会话缓存数量上限（session.max-cached-sessions）必须大于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 压缩请求体的解压上限：BODY参数按Content-Encoding（gzip/deflate）流式解压，超出上限的请求体无法提取参数
+     */
+    @Data
+    public static class Decompression {
+        private long maxInflatedBytes = ContentDecoding.DEFAULT_MAX_INFLATED_BYTES;  // 解压输出的最大字节数
+        private int maxRatio = ContentDecoding.DEFAULT_MAX_RATIO;  // 解压输出与压缩输入的最大比值
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (maxInflatedBytes <= 0) {
+                errors.add("解压上限（decompression.max-inflated-bytes）必须大于0");
+            }
+            if (maxRatio <= 0) {
+                errors.add("解压比上限（decompression.max-ratio）必须大于0");
+            }
+            return errors;
+        }
+
+        /**
+         * 按当前配置创建解压器
+         */
+        public ContentDecoding toContentDecoding() {
+            return new ContentDecoding(maxInflatedBytes, maxRatio);
+        }
+    }
+
+    /**
+     * JWT令牌配置：本地验签密钥、签发者/受众校验与验签结果缓存
+     */
+    @Data
+    public static class Jwt {
+        private static final int MIN_HMAC_SECRET_BYTES = 32;
+
+        private String hmacSecret;  // HS256/HS384/HS512的共享密钥（至少32字节）
+        private Map<String, String> rsaPublicKeys = new LinkedHashMap<>();  // kid -> RSA公钥（PEM或Base64的X.509格式，RS256/RS384/RS512）
+        private String issuer;  // 要求的签发者（iss），为空时不校验
+        private String audience;  // 要求的受众（aud），为空时不校验
+        private long clockSkewSeconds = 30;  // 校验exp/nbf时允许的时钟偏差
+        private boolean requireExp = true;  // 是否拒绝不带exp的令牌（关闭后此类令牌只受缓存有效期限制）
+        private int cacheMaxSize = 10000;  // 验签结果缓存的令牌数上限（0表示不缓存），达到上限时淘汰最早到期的条目
+        private long cacheTtlSeconds = 300;  // 验签结果的最长缓存时间（与exp取较早者）
+
+        public boolean hasKeys() {
+            return (hmacSecret != null && !hmacSecret.isEmpty()) || (rsaPublicKeys != null && !rsaPublicKeys.isEmpty());
+        }
+
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            if (hmacSecret != null && !hmacSecret.isEmpty()
+                    && hmacSecret.getBytes(StandardCharsets.UTF_8).length < MIN_HMAC_SECRET_BYTES) {
+                errors.add("JWT共享密钥（jwt.hmac-secret）至少需要" + MIN_HMAC_SECRET_BYTES + "字节");
+            }
+            if (rsaPublicKeys != null) {
+                rsaPublicKeys.forEach((kid, pem) -> {
+                    try {
+                        JwtVerifier.parseRsaPublicKey(pem);
+                    } catch (IllegalArgumentException e) {
+                        errors.add("JWT公钥（jwt.rsa-public-keys." + kid + "）" + e.getMessage());
+                    }
+                });
+            }
+            if (clockSkewSeconds < 0) {
+                errors.add("JWT时钟偏差（jwt.clock-skew-seconds）不能小于0");
+            }
+            if (cacheMaxSize < 0) {
+                errors.add("JWT缓存上限（jwt.cache-max-size）不能小于0");
+            }
+            if (cacheTtlSeconds <= 0) {
+                errors.add("JWT缓存有效期（jwt.cache-ttl-seconds）必须大于0");
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * 接口级规则（手动验证所有参数）
+     */
+    @Data
+    public static class Rule {
+        private String uriPattern;
+        private boolean enabled = false;
+
+        private PrincipalParam principalParam;
+
+        private List<ParamRule> paramRules;
+
+        private MultiParamMode multiParamMode = MultiParamMode.ANY_MATCH;
+
+        // 策略树（可选）：配置后替代multiParamMode，按AND/OR/NOT组合paramRules中的参数校验
+        private PolicyNode policy;
+
+        // 加载时编译的策略（由配置类在验证通过后写入，不参与配置绑定）
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient CompiledPolicy compiledPolicy;
+
+        // 加载时编译的URI模式（匹配规则时同时记录路径变量位置）
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient CompiledUriPattern compiledPattern;
+
+        // 所属租户（租户规则加载时写入，全局规则为null）
+        @Setter(AccessLevel.NONE)
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private transient String tenant;
+
+        // 规则包加载时还原编译结果（URI模式编译开销很小，按原文重新编译）
+        void restoreCompiled(CompiledPolicy policy) {
+            this.compiledPolicy = policy;
+            this.compiledPattern = uriPattern != null ? CompiledUriPattern.compile(uriPattern) : null;
+        }
+
+        /**
+         * 规则参数手动验证
+         */
+        // Rule类中
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+            // 1. 自身属性验证（uriPattern、multiParamMode）
+            validateBasicProperties(errors);
+            // 2. 主体参数验证（委托给PrincipalParam）
+            validatePrincipalParam(errors);
+            // 3. 目标参数验证（委托给ParamRule）
+            validateParamRules(errors);
+            // 4. 跨参数验证（如重复参数名）
+            validateCrossParamConstraints(errors);
+            // 5. 策略树验证（引用的参数必须存在于paramRules）
+            validatePolicy(errors);
+            return errors;
+        }
+
+        // 1. 基础属性验证（uriPattern格式、multiParamMode）
+        private void validateBasicProperties(List<String> errors) {
+            if (uriPattern == null || uriPattern.trim().isEmpty()) {
+                errors.add("uriPattern不能为空（需指定Ant风格URI，如/api/users/**）");
+            } else if (!uriPattern.startsWith("/")) {
+                errors.add("uriPattern必须以/开头（Ant风格）");
+            }
+            if (multiParamMode == null) {
+                errors.add("multiParamMode不能为空（需指定ALL_MATCH/ANY_MATCH）");
+            } else if (multiParamMode != MultiParamMode.ALL_MATCH && multiParamMode != MultiParamMode.ANY_MATCH) {
+                errors.add("multiParamMode必须为ALL_MATCH或ANY_MATCH，当前值：" + multiParamMode);
+            }
+        }
+
+        // 2. 主体参数验证
+        private void validatePrincipalParam(List<String> errors) {
+            if (principalParam == null) {
+                errors.add("principalParam不能为空（需配置主体参数）");
+            } else {
+                List<String> principalErrors = principalParam.validate().stream()
+                        .map(error -> "主体参数：" + error)
+                        .collect(Collectors.toList());
+                errors.addAll(principalErrors);
+            }
+        }
+
+        // 3. 目标参数验证
+        private void validateParamRules(List<String> errors) {
+            if (paramRules == null || paramRules.isEmpty()) {
+                errors.add("paramRules不能为空（需至少配置一个目标参数规则）");
+                return;
+            }
+            for (ParamRule paramRule : paramRules) {
+                if (paramRule == null) {
+                    errors.add("paramRules中存在空对象");
+                    continue;
+                }
+                String paramName = paramRule.getParamName() != null ? paramRule.getParamName() : "未命名参数";
+                List<String> paramErrors = paramRule.validate().stream()
+                        .map(error -> "参数[" + paramName + "]：" + error)
+                        .collect(Collectors.toList());
+                errors.addAll(paramErrors);
+            }
+        }
+
+        // 4. 跨参数约束验证（如重复参数名）
+        private void validateCrossParamConstraints(List<String> errors) {
+            if (paramRules == null || paramRules.isEmpty()) return;
+            // 检查是否已有paramRules为空的错误，有则跳过
+            if (errors.stream().anyMatch(e -> e.contains("paramRules不能为空"))) return;
+
+            List<String> duplicates = getDuplicateParamNames();
+            if (!duplicates.isEmpty()) {
+                errors.add("存在重复参数名：" + duplicates);
+            }
+        }
+
+        // 5. 策略树验证
+        private void validatePolicy(List<String> errors) {
+            if (policy == null) return;
+            Set<String> paramNames = new HashSet<>();
+            if (paramRules != null) {
+                for (ParamRule paramRule : paramRules) {
+                    if (paramRule != null && paramRule.getParamName() != null) {
+                        paramNames.add(paramRule.getParamName());
+                    }
+                }
+            }
+            List<String> policyErrors = policy.validate(paramNames).stream()
+                    .map(error -> "策略树：" + error)
+                    .collect(Collectors.toList());
+            errors.addAll(policyErrors);
+        }
+
+        // 获取重复的参数名
+        private List<String> getDuplicateParamNames() {
+            return paramRules.stream().filter(paramRule -> paramRule.getParamName() != null && !paramRule.getParamName().trim().isEmpty()).map(ParamRule::getParamName).collect(Collectors.groupingBy(name -> name, Collectors.counting())).entrySet().stream().filter(entry -> entry.getValue() > 1).map(Map.Entry::getKey).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 主体参数配置（手动验证所有参数）
+     */
+    @Data
+    public static class PrincipalParam {
+        private String name;
+        private ParamSource source;
+        private String parseMethod;
+        private String parseConfig;
+        private ValueType valueType = ValueType.STRING; // 值类型（LONG/UUID在提取后解析一次）
+
+        /**
+         * 主体参数手动验证
+         */
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+
+            // 1. 验证name非空
+            if (name == null || name.trim().isEmpty()) {
+                errors.add("name不能为空（需指定主体参数名，如staffId）");
+            }
+
+            // 2. 验证source非空及合法性
+            boolean isSourceValid = false;
+            if (source == null) {
+                errors.add("source不能为空（需指定PATH/BODY/QUERY等）");
+            } else {
+                isSourceValid = ParamSource.contains(source);
+                if (!isSourceValid) {
+                    errors.add("source值无效：" + source);
+                } else {
+                    // 当source有效且parseMethod为空时，自动赋值
+                    if (parseMethod == null || parseMethod.trim().isEmpty()) {
+                        if (ParamSource.PATH.equals(source)) {
+                            parseMethod = ExtractorType.PATH_MATCH.name();
+                        } else if (Arrays.asList(ParamSource.QUERY, ParamSource.HEADER, ParamSource.COOKIE, ParamSource.FORM).contains(source)) {
+                            parseMethod = ExtractorType.DEFAULT.name();
+                        } else if (ParamSource.SESSION.equals(source)) {
+                            parseMethod = ExtractorType.SESSION_ATTRIBUTE.name();
+                        }
+                        // 其他source（如BODY）不自动赋值，保留后续验证
+                    }
+                }
+            }
+
+            // 3. 验证parseMethod非空及合法性（此时可能已被自动赋值）
+            if (parseMethod == null || parseMethod.trim().isEmpty()) {
+                errors.add("parseMethod不能为空（需指定解析方式）");
+            } else {
+                ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+                if (ExtractorType.NONE.equals(extractorType)) {
+                    errors.add("parseMethod值无效：" + parseMethod);
+                }
+            }
+
+            // 4. 验证解析方式与来源的匹配性
+            if (isSourceValid && parseMethod != null && !parseMethod.trim().isEmpty()) {
+                if (!isValidCombination(source, parseMethod)) {
+                    errors.add("来源[" + source + "]不支持解析方式[" + parseMethod + "]");
+                }
+            }
+
+            // 5. 验证必要的parseConfig
+            if (parseMethod != null && !parseMethod.trim().isEmpty()) {
+                ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+                if ((ExtractorType.JSON_PATH.equals(extractorType) || ExtractorType.JWT_CLAIM.equals(extractorType))
+                        && (parseConfig == null || parseConfig.trim().isEmpty())) {
+                    errors.add("解析方式[" + extractorType + "]必须配置parseConfig");
+                } else if (ExtractorType.JWT_CLAIM.equals(extractorType) && ParamSource.COOKIE.equals(source)
+                        && parseConfig.indexOf(':') < 0) {
+                    errors.add("COOKIE来源的JWT_CLAIM需在parseConfig中指定Cookie名（格式：Cookie名:声明路径）");
+                }
+            }
+
+            // 6. 验证值类型
+            if (valueType == null) {
+                errors.add("valueType不能为空（需指定STRING/LONG/UUID）");
+            }
+
+            return errors;
+        }
+
+        // 验证来源与解析方式的匹配性
+        private boolean isValidCombination(ParamSource source, String parseMethod) {
+            ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+            // 自定义类型默认支持所有来源（可根据实际需求修改）
+            if (ExtractorType.CUSTOM.equals(extractorType)) {
+                return true;
+            }
+
+            switch (source) {
+                case PATH:
+                    return ExtractorType.PATH_MATCH.equals(extractorType);
+                case BODY:
+                    return ExtractorType.JSON_PATH.equals(extractorType) || ExtractorType.FORM_FIELD.equals(extractorType);
+                case QUERY:
+                case FORM:
+                    return ExtractorType.DEFAULT.equals(extractorType);
+                case HEADER:
+                case COOKIE:
+                    return ExtractorType.DEFAULT.equals(extractorType) || ExtractorType.JWT_CLAIM.equals(extractorType);
+                case SESSION:
+                    return ExtractorType.SESSION_ATTRIBUTE.equals(extractorType);
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 目标参数规则（手动验证所有参数）
+     */
+    @Data
+    public static class ParamRule {
+        private String paramName;
+        private ParamSource source;
+        private String parseMethod;
+        private String parseConfig;
+        private String validatorId;
+        private ValueType valueType = ValueType.STRING; // 值类型（LONG/UUID在提取后解析一次）
+        private boolean distinctValues = true; // 提取后去重（LONG值同时按数值去重并升序排列）
+        private int maxValues = 0; // 值个数上限（去重后计数，0表示不限制），超过时拒绝请求
+
+        /**
+         * 目标参数手动验证
+         */
+        public List<String> validate() {
+            List<String> errors = new ArrayList<>();
+
+            // 1. 验证paramName非空
+            if (paramName == null || paramName.trim().isEmpty()) {
+                errors.add("paramName不能为空（需指定参数名，如userId）");
+            }
+
+            // 2. 验证source非空及合法性
+            boolean isSourceValid = false;
+            if (source == null) {
+                errors.add("source不能为空（需指定PATH/BODY/QUERY等）");
+            } else {
+                isSourceValid = ParamSource.contains(source);
+                if (!isSourceValid) {
+                    errors.add("source值无效：" + source);
+                } else {
+                    // 当source有效且parseMethod为空时，自动赋值
+                    if (parseMethod == null || parseMethod.trim().isEmpty()) {
+                        if (ParamSource.PATH.equals(source)) {
+                            parseMethod = ExtractorType.PATH_MATCH.name();
+                        } else if (Arrays.asList(ParamSource.QUERY, ParamSource.HEADER, ParamSource.COOKIE, ParamSource.FORM).contains(source)) {
+                            parseMethod = ExtractorType.DEFAULT.name();
+                        } else if (ParamSource.SESSION.equals(source)) {
+                            parseMethod = ExtractorType.SESSION_ATTRIBUTE.name();
+                        }
+                        // 其他source（如BODY）不自动赋值，保留后续验证
+                    }
+                }
+            }
+
+            // 3. 验证parseMethod非空及合法性（此时可能已被自动赋值）
+            if (parseMethod == null || parseMethod.trim().isEmpty()) {
+                errors.add("parseMethod不能为空");
+            } else {
+                ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+                if (ExtractorType.NONE.equals(extractorType)) {
+                    errors.add("parseMethod值无效：" + parseMethod);
+                }
+            }
+
+            // 4. 验证validatorId非空及格式
+            if (validatorId == null || validatorId.trim().isEmpty()) {
+                errors.add("validatorId不能为空（需指定验证器ID）");
+            }
+
+            // 5. 验证解析方式与来源的匹配性
+            if (isSourceValid && parseMethod != null && !parseMethod.trim().isEmpty()) {
+                if (!isValidCombination(source, parseMethod)) {
+                    errors.add("来源[" + source + "]不支持解析方式[" + parseMethod + "]");
+                }
+            }
+
+            // 6. 验证必要的parseConfig
+            if (parseMethod != null && !parseMethod.trim().isEmpty()) {
+                ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+                if ((ExtractorType.JSON_PATH.equals(extractorType) || ExtractorType.JWT_CLAIM.equals(extractorType))
+                        && (parseConfig == null || parseConfig.trim().isEmpty())) {
+                    errors.add("解析方式[" + extractorType + "]必须配置parseConfig");
+                } else if (ExtractorType.JWT_CLAIM.equals(extractorType) && ParamSource.COOKIE.equals(source)
+                        && parseConfig.indexOf(':') < 0) {
+                    errors.add("COOKIE来源的JWT_CLAIM需在parseConfig中指定Cookie名（格式：Cookie名:声明路径）");
+                }
+            }
+
+            // 7. 验证值类型
+            if (valueType == null) {
+                errors.add("valueType不能为空（需指定STRING/LONG/UUID）");
+            }
+
+            // 8. 验证值个数上限
+            if (maxValues < 0) {
+                errors.add("maxValues不能为负数（0表示不限制）");
+            }
+
+            return errors;
+        }
+
+        // 验证来源与解析方式的匹配性
+        private boolean isValidCombination(ParamSource source, String parseMethod) {
+            ExtractorType extractorType = ExtractorType.fromString(parseMethod);
+            // 自定义类型默认支持所有来源（可根据实际需求修改）
+            if (ExtractorType.CUSTOM.equals(extractorType)) {
+                return true;
+            }
+
+            switch (source) {
+                case PATH:
+                    return ExtractorType.PATH_MATCH.equals(extractorType);
+                case BODY:
+                    return ExtractorType.JSON_PATH.equals(extractorType) || ExtractorType.FORM_FIELD.equals(extractorType);
+                case QUERY:
+                case FORM:
+                    return ExtractorType.DEFAULT.equals(extractorType);
+                case HEADER:
+                case COOKIE:
+                    return ExtractorType.DEFAULT.equals(extractorType) || ExtractorType.JWT_CLAIM.equals(extractorType);
+                case SESSION:
+                    return ExtractorType.SESSION_ATTRIBUTE.equals(extractorType);
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 策略树节点（手动验证所有参数）
+     */
+    @Data
+    public static class PolicyNode {
+        private PolicyOperator operator;
+        private String param; // PARAM节点引用的目标参数名（对应paramRules中的paramName）
+        private List<PolicyNode> children;
+
+        /**
+         * 策略节点手动验证（递归验证子节点）
+         *
+         * @param paramNames 规则中已配置的目标参数名
+         */
+        public List<String> validate(Set<String> paramNames) {
+            List<String> errors = new ArrayList<>();
+
+            // 1. 仅配置param时自动识别为PARAM节点
+            if (operator == null && param != null && !param.trim().isEmpty()) {
+                operator = PolicyOperator.PARAM;
+            }
+            if (operator == null) {
+                errors.add("operator不能为空（需指定AND/OR/NOT/PARAM）");
+                return errors;
+            }
+
+            // 2. 按节点类型验证
+            switch (operator) {
+                case PARAM:
+                    if (param == null || param.trim().isEmpty()) {
+                        errors.add("PARAM节点的param不能为空");
+                    } else if (!paramNames.contains(param)) {
+                        errors.add("PARAM节点引用的参数[" + param + "]未在paramRules中配置");
+                    }
+                    if (children != null && !children.isEmpty()) {
+                        errors.add("PARAM节点[" + param + "]不能配置children");
+                    }
+                    break;
+                case NOT:
+                    if (children == null || children.size() != 1) {
+                        errors.add("NOT节点必须且只能配置一个子节点");
+                    }
+                    break;
+                default:
+                    if (children == null || children.isEmpty()) {
+                        errors.add(operator + "节点至少需要配置一个子节点");
+                    }
+            }
+
+            // 3. 递归验证子节点
+            if (children != null) {
+                for (PolicyNode child : children) {
+                    if (child == null) {
+                        errors.add(operator + "节点的children中存在空对象");
+                        continue;
+                    }
+                    errors.addAll(child.validate(paramNames));
+                }
+            }
+
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.security.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 本地目录租户规则来源：每个租户一个"<租户标识>.json"文件，监听目录，文件变化时通知对应租户重新加载
+ * <p>
+ * 与{@link FileRuleConfigSource}相同，一次变化后等待防抖时间内没有新事件再通知，同一租户只通知一次。
+ * 租户标识在读取前已由{@link TenantRuleTables}校验（不含路径分隔符与'.'），不会读取目录之外的文件。
+ * 启动后在内存中维护目录中的租户清单（随文件变化更新），不在清单中的租户不访问磁盘。
+ * 文件名中的租户标识与请求中的一样不区分大小写（"Acme.json"对应租户acme），只差大小写的多个文件只使用其中一个并记录警告。
+ */
+@Slf4j
+public class DirectoryTenantRuleSource implements TenantRuleSource {
+
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+
+    private final long debounceMillis;
+
+    private volatile boolean running;
+
+    private WatchService watchService;
+
+    private Thread watcher;
+
+    private Consumer<String> changed;
+
+    // 目录中有规则文件的租户（小写）-> 文件名（启动前为null，此时按读取结果判断）
+    private volatile Map<String, String> tenants;
+
+    public DirectoryTenantRuleSource(Path directory, long debounceMillis) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.debounceMillis = debounceMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "directory:" + directory;
+    }
+
+    @Override
+    public String read(String tenant) throws IOException {
+        Map<String, String> known = tenants;
+        String fileName = known != null ? known.get(tenant) : find(tenant);
+        Path file = fileName != null ? directory.resolve(fileName) : null;
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean mayHaveRules(String tenant) {
+        Map<String, String> known = tenants;
+        return known == null || known.containsKey(tenant);
+    }
+
+    /**
+     * 启动目录监听线程
+     *
+     * @throws IllegalArgumentException 租户规则目录不存在
+     */
+    @Override
+    public synchronized void start(Consumer<String> changed) {
+        if (running) {
+            return;
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("租户规则目录不存在：" + directory);
+        }
+        this.changed = changed;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            // 先注册监听再列出目录，列出期间新增的文件也会收到事件
+            tenants = scan();
+        } catch (IOException e) {
+            throw new IllegalStateException("监听租户规则目录失败：" + directory, e);
+        }
+        log.info("租户规则目录中共有{}个租户：{}", tenants.size(), directory);
+
+        running = true;
+        watcher = new Thread(this::watch, "api-permission-tenant-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close(); // 唤醒阻塞在take上的监听线程
+        } catch (IOException e) {
+            log.warn("关闭租户规则目录监听失败：{}", e.getMessage());
+        }
+        watcher.interrupt();
+        tenants = null;
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                Set<String> fileNames = new LinkedHashSet<>();
+                boolean overflow = collect(watchService.take(), fileNames);
+                // 防抖：等到一段时间内没有新事件（文件写入完成）再通知
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, fileNames);
+                }
+                Set<String> modified = new LinkedHashSet<>();
+                if (overflow) {
+                    // 事件丢失：重新列出目录，清单前后的租户都通知一次（只有已加载的租户会重新加载）
+                    Map<String, String> previous = tenants;
+                    if (previous == null) {
+                        return;
+                    }
+                    Map<String, String> current = scan();
+                    modified.addAll(previous.keySet());
+                    modified.addAll(current.keySet());
+                    tenants = current;
+                    log.warn("租户规则目录的变化事件丢失，已重新列出目录：{}", directory);
+                } else {
+                    for (String fileName : fileNames) {
+                        modified.add(refresh(fileName));
+                    }
+                }
+                for (String tenant : modified) {
+                    changed.accept(tenant);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (IOException e) {
+                log.error("列出租户规则目录失败：{}", directory, e);
+            } catch (RuntimeException e) {
+                log.error("租户规则重新加载失败：{}", directory, e);
+            }
+        }
+    }
+
+    // 按文件是否存在更新租户清单（在通知重新加载之前，使新增的租户在首次访问时被读取），返回文件对应的租户
+    private String refresh(String fileName) throws IOException {
+        String tenant = tenantOf(fileName);
+        Map<String, String> known = tenants;
+        if (known == null) {
+            return tenant;
+        }
+        if (Files.isRegularFile(directory.resolve(fileName))) {
+            String existing = known.putIfAbsent(tenant, fileName);
+            if (existing != null && !existing.equals(fileName)) {
+                warnDuplicate(tenant, existing, fileName);
+            }
+        } else if (known.remove(tenant, fileName)) {
+            // 只差大小写的另一个文件仍在时改用该文件
+            String other = find(tenant);
+            if (other != null) {
+                known.putIfAbsent(tenant, other);
+            }
+        }
+        return tenant;
+    }
+
+    private Map<String, String> scan() throws IOException {
+        Map<String, String> found = new ConcurrentHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String tenant = tenantOf(fileName);
+                if (tenant != null && Files.isRegularFile(file)) {
+                    String existing = found.putIfAbsent(tenant, fileName);
+                    if (existing != null) {
+                        warnDuplicate(tenant, existing, fileName);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // 未启动时按租户查找规则文件（文件名不区分大小写）
+    private String find(String tenant) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (tenant.equals(tenantOf(fileName)) && Files.isRegularFile(file)) {
+                    return fileName;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void warnDuplicate(String tenant, String used, String ignored) {
+        log.warn("租户[{}]有多个只差大小写的规则文件，使用{}，忽略{}：{}", tenant, used, ignored, directory);
+    }
+
+    // 收集发生变化的租户规则文件名（编辑器的临时文件等其他文件忽略），返回是否有事件丢失
+    private static boolean collect(WatchKey key, Set<String> fileNames) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (context instanceof Path && tenantOf(context.toString()) != null) {
+                fileNames.add(context.toString());
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    // 文件名对应的租户标识（小写），不是租户规则文件时返回null
+    private static String tenantOf(String fileName) {
+        if (fileName.endsWith(SUFFIX) && fileName.length() > SUFFIX.length()) {
+            return TenantRuleTables.normalize(fileName.substring(0, fileName.length() - SUFFIX.length()));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.security.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地文件规则来源：监听规则文件所在目录，文件内容变化时交给处理方（热更新或加载候选规则）
+ * <p>
+ * 监听目录而不是文件本身，编辑器的"写临时文件再改名"、Kubernetes ConfigMap的符号链接切换都能感知；
+ * 一次变化后等待防抖时间内没有新事件再读取，内容与上次相同时不重复加载。文件被删除时保留当前规则。
+ */
+@Slf4j
+public class FileRuleConfigSource implements RuleConfigSource {
+
+    private final Path file;
+
+    private final long debounceMillis;
+
+    private volatile boolean running;
+
+    private WatchService watchService;
+
+    private Thread watcher;
+
+    private RuleDocumentHandler handler;
+
+    // 上次读取的文件内容（仅在启动线程与监听线程中先后访问）
+    private String lastContent;
+
+    public FileRuleConfigSource(Path file, long debounceMillis) {
+        this.file = file.toAbsolutePath().normalize();
+        this.debounceMillis = debounceMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + file;
+    }
+
+    /**
+     * 读取一次当前文件并启动监听线程
+     *
+     * @throws IllegalArgumentException 文件所在目录不存在
+     */
+    @Override
+    public synchronized void start(RuleDocumentHandler handler) {
+        if (running) {
+            return;
+        }
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("规则文件所在目录不存在：" + directory);
+        }
+        this.handler = handler;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new IllegalStateException("监听规则文件目录失败：" + directory, e);
+        }
+        loadIfChanged();
+
+        running = true;
+        watcher = new Thread(this::watch, "api-permission-rule-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close(); // 唤醒阻塞在take上的监听线程
+        } catch (IOException e) {
+            log.warn("关闭规则文件监听失败：{}", e.getMessage());
+        }
+        watcher.interrupt();
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                drain(watchService.take());
+                // 防抖：等到一段时间内没有新事件（文件写入完成）再读取
+                WatchKey key;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+                loadIfChanged();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("规则文件热更新失败：{}", file, e);
+            }
+        }
+    }
+
+    private static void drain(WatchKey key) {
+        key.pollEvents();
+        key.reset();
+    }
+
+    private void loadIfChanged() {
+        if (!Files.isRegularFile(file)) {
+            if (lastContent != null) {
+                log.warn("规则文件不存在，继续使用当前规则：{}", file);
+            } else {
+                log.info("规则文件尚不存在，创建后自动加载：{}", file);
+            }
+            return;
+        }
+        String content;
+        try {
+            content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("读取规则文件失败，继续使用当前规则：{}，{}", file, e.getMessage());
+            return;
+        }
+        if (content.equals(lastContent)) {
+            return;
+        }
+        // 验证失败的内容也记录下来，文件再次修改前不重复加载
+        lastContent = content;
+        handler.handle(getName(), content);
+    }
+}
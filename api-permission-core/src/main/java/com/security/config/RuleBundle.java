@@ -0,0 +1,427 @@
+package com.security.config;
+
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.enums.PolicyOperator;
+import com.security.enums.ValueType;
+import com.security.policy.CompiledPolicy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 预编译规则包：已验证的规则定义与编译后的策略DAG的二进制格式
+ * <p>
+ * 文件由固定长度的头部（魔数、格式版本、构建时间、规则数、内容长度与CRC32）和内容组成；内容先是去重的字符串表，
+ * 之后的规则只按下标引用字符串，整数使用变长编码。读取时内存映射文件，校验格式版本与CRC32后直接还原规则对象，
+ * 不经过配置绑定、规则验证与策略编译；枚举按名称保存，枚举顺序调整不影响已构建的规则包。
+ * <p>
+ * 格式不兼容时提升{@link #FORMAT_VERSION}，旧版本的规则包加载失败，由调用方回退为配置文件中的规则。
+ */
+public final class RuleBundle {
+
+    /**
+     * 当前的格式版本
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x41505242; // "APRB"
+    private static final int HEADER_BYTES = 32;
+
+    private static final int FLAG_ENABLED = 1;
+    private static final int FLAG_PRINCIPAL = 1 << 1;
+    private static final int FLAG_POLICY = 1 << 2;
+    private static final int FLAG_COMPILED = 1 << 3;
+    private static final int FLAG_DISTINCT = 1;
+
+    private final int formatVersion;
+    private final long createdAt;
+    private final List<ApiPermissionConfig.Rule> rules;
+
+    private RuleBundle(int formatVersion, long createdAt, List<ApiPermissionConfig.Rule> rules) {
+        this.formatVersion = formatVersion;
+        this.createdAt = createdAt;
+        this.rules = rules;
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    /**
+     * 构建时间（毫秒）
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 还原的规则（启用的规则已带有编译结果）
+     */
+    public List<ApiPermissionConfig.Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 写出规则包（先写临时文件再改名替换，监听该文件的进程不会读到写了一半的内容）
+     *
+     * @param rules 已通过验证并编译的规则（见{@link RuleBundleCompiler}）
+     * @return 写出的字节数
+     * @throws IllegalArgumentException 启用的规则尚未编译
+     */
+    public static long write(List<ApiPermissionConfig.Rule> rules, Path file) throws IOException {
+        Writer writer = new Writer();
+        for (ApiPermissionConfig.Rule rule : rules) {
+            writer.writeRule(rule);
+        }
+        byte[] payload = writer.finish();
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp);
+                 DataOutputStream data = new DataOutputStream(out)) {
+                data.writeInt(MAGIC);
+                data.writeShort(FORMAT_VERSION);
+                data.writeShort(0);
+                data.writeLong(System.currentTimeMillis());
+                data.writeInt(rules.size());
+                data.writeInt(payload.length);
+                data.writeInt((int) crc.getValue());
+                data.writeInt(0);
+                data.write(payload);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return HEADER_BYTES + payload.length;
+    }
+
+    /**
+     * 读取规则包
+     *
+     * @throws IOException              文件不存在或无法读取
+     * @throws IllegalArgumentException 不是规则包、格式版本不兼容或内容损坏
+     */
+    public static RuleBundle read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IllegalArgumentException("规则包长度不足：" + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("不是规则包文件");
+        }
+        int version = buffer.getShort() & 0xFFFF;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("规则包格式版本" + version + "不兼容（当前支持" + FORMAT_VERSION + "），请重新构建");
+        }
+        buffer.getShort();
+        long createdAt = buffer.getLong();
+        int ruleCount = buffer.getInt();
+        int payloadLength = buffer.getInt();
+        int checksum = buffer.getInt();
+        buffer.getInt();
+        if (payloadLength != buffer.remaining()) {
+            throw new IllegalArgumentException("规则包长度与头部记录不一致");
+        }
+        // 头部不在校验和内，规则数按内容长度限制（每条规则至少占用一个字节），避免按损坏的数值分配内存
+        if (ruleCount < 0 || ruleCount > payloadLength) {
+            throw new IllegalArgumentException("规则包头部的规则数不合法：" + ruleCount);
+        }
+        ByteBuffer payload = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalArgumentException("规则包校验和不一致，内容已损坏");
+        }
+
+        try {
+            Reader reader = new Reader(payload);
+            List<ApiPermissionConfig.Rule> rules = new ArrayList<>(ruleCount);
+            for (int i = 0; i < ruleCount; i++) {
+                rules.add(reader.readRule());
+            }
+            if (payload.hasRemaining()) {
+                throw new IllegalArgumentException("规则包末尾存在多余内容");
+            }
+            return new RuleBundle(version, createdAt, Collections.unmodifiableList(rules));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IllegalArgumentException("规则包内容不完整");
+        }
+    }
+
+    /**
+     * 内容写入：规则先写入缓冲区并登记字符串，结束时在前面补上字符串表
+     */
+    private static final class Writer {
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        void writeRule(ApiPermissionConfig.Rule rule) {
+            CompiledPolicy policy = rule.getCompiledPolicy();
+            if (rule.isEnabled() && policy == null) {
+                throw new IllegalArgumentException("规则[" + rule.getUriPattern() + "]尚未编译");
+            }
+            int flags = (rule.isEnabled() ? FLAG_ENABLED : 0)
+                    | (rule.getPrincipalParam() != null ? FLAG_PRINCIPAL : 0)
+                    | (rule.getPolicy() != null ? FLAG_POLICY : 0)
+                    | (policy != null ? FLAG_COMPILED : 0);
+            writeString(rule.getUriPattern());
+            body.write(flags);
+            writeEnum(rule.getMultiParamMode());
+
+            ApiPermissionConfig.PrincipalParam principal = rule.getPrincipalParam();
+            if (principal != null) {
+                writeString(principal.getName());
+                writeEnum(principal.getSource());
+                writeString(principal.getParseMethod());
+                writeString(principal.getParseConfig());
+                writeEnum(principal.getValueType());
+            }
+
+            List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+            writeVarint(paramRules == null ? 0 : paramRules.size() + 1);
+            if (paramRules != null) {
+                for (ApiPermissionConfig.ParamRule paramRule : paramRules) {
+                    writeString(paramRule.getParamName());
+                    writeEnum(paramRule.getSource());
+                    writeString(paramRule.getParseMethod());
+                    writeString(paramRule.getParseConfig());
+                    writeString(paramRule.getValidatorId());
+                    writeEnum(paramRule.getValueType());
+                    body.write(paramRule.isDistinctValues() ? FLAG_DISTINCT : 0);
+                    writeVarint(paramRule.getMaxValues());
+                }
+            }
+
+            if (rule.getPolicy() != null) {
+                writePolicyNode(rule.getPolicy());
+            }
+            if (policy != null) {
+                writeVarint(policy.size());
+                writeVarint(policy.root());
+                for (int node = 0; node < policy.size(); node++) {
+                    writeEnum(policy.operator(node));
+                    writeVarint(policy.paramIndex(node) + 1);
+                    writeVarint(policy.childCount(node));
+                    for (int i = 0; i < policy.childCount(node); i++) {
+                        writeVarint(policy.child(node, i));
+                    }
+                }
+            }
+        }
+
+        private void writePolicyNode(ApiPermissionConfig.PolicyNode node) {
+            writeEnum(node.getOperator());
+            writeString(node.getParam());
+            List<ApiPermissionConfig.PolicyNode> children = node.getChildren();
+            writeVarint(children == null ? 0 : children.size() + 1);
+            if (children != null) {
+                for (ApiPermissionConfig.PolicyNode child : children) {
+                    writePolicyNode(child);
+                }
+            }
+        }
+
+        private void writeEnum(Enum<?> value) {
+            writeString(value != null ? value.name() : null);
+        }
+
+        // 字符串按下标引用：0为null，i+1为字符串表中的第i项
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.put(value, index);
+            }
+            writeVarint(index + 1);
+        }
+
+        private void writeVarint(int value) {
+            writeVarint(body, value);
+        }
+
+        byte[] finish() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + strings.size() * 16);
+            writeVarint(out, strings.size());
+            for (String value : strings.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+            byte[] rules = body.toByteArray();
+            out.write(rules, 0, rules.length);
+            return out.toByteArray();
+        }
+
+        private static void writeVarint(ByteArrayOutputStream out, int value) {
+            if (value < 0) {
+                throw new IllegalArgumentException("不支持负数：" + value);
+            }
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    /**
+     * 内容读取：先读入字符串表，规则中的字符串直接引用表中的实例（相同字符串只占用一份内存）
+     */
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+            int count = readLength(readVarint(), "字符串表长度");
+            this.strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[readLength(readVarint(), "字符串长度")];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        ApiPermissionConfig.Rule readRule() {
+            ApiPermissionConfig.Rule rule = new ApiPermissionConfig.Rule();
+            rule.setUriPattern(readString());
+            int flags = buffer.get();
+            rule.setEnabled((flags & FLAG_ENABLED) != 0);
+            rule.setMultiParamMode(readEnum(MultiParamMode.class));
+
+            if ((flags & FLAG_PRINCIPAL) != 0) {
+                ApiPermissionConfig.PrincipalParam principal = new ApiPermissionConfig.PrincipalParam();
+                principal.setName(readString());
+                principal.setSource(readEnum(ParamSource.class));
+                principal.setParseMethod(readString());
+                principal.setParseConfig(readString());
+                principal.setValueType(readEnum(ValueType.class));
+                rule.setPrincipalParam(principal);
+            }
+
+            int paramCount = readLength(readVarint() - 1, "目标参数个数");
+            if (paramCount >= 0) {
+                List<ApiPermissionConfig.ParamRule> paramRules = new ArrayList<>(paramCount);
+                for (int i = 0; i < paramCount; i++) {
+                    ApiPermissionConfig.ParamRule paramRule = new ApiPermissionConfig.ParamRule();
+                    paramRule.setParamName(readString());
+                    paramRule.setSource(readEnum(ParamSource.class));
+                    paramRule.setParseMethod(readString());
+                    paramRule.setParseConfig(readString());
+                    paramRule.setValidatorId(readString());
+                    paramRule.setValueType(readEnum(ValueType.class));
+                    paramRule.setDistinctValues((buffer.get() & FLAG_DISTINCT) != 0);
+                    paramRule.setMaxValues(readVarint());
+                    paramRules.add(paramRule);
+                }
+                rule.setParamRules(paramRules);
+            }
+
+            if ((flags & FLAG_POLICY) != 0) {
+                rule.setPolicy(readPolicyNode(0));
+            }
+            if ((flags & FLAG_COMPILED) != 0) {
+                rule.restoreCompiled(readCompiledPolicy(paramCount));
+            } else {
+                rule.restoreCompiled(null);
+            }
+            return rule;
+        }
+
+        private ApiPermissionConfig.PolicyNode readPolicyNode(int depth) {
+            if (depth > 64) {
+                throw new IllegalArgumentException("规则包中的策略树嵌套过深");
+            }
+            ApiPermissionConfig.PolicyNode node = new ApiPermissionConfig.PolicyNode();
+            node.setOperator(readEnum(PolicyOperator.class));
+            node.setParam(readString());
+            int childCount = readLength(readVarint() - 1, "策略子节点数");
+            if (childCount >= 0) {
+                List<ApiPermissionConfig.PolicyNode> children = new ArrayList<>(childCount);
+                for (int i = 0; i < childCount; i++) {
+                    children.add(readPolicyNode(depth + 1));
+                }
+                node.setChildren(children);
+            }
+            return node;
+        }
+
+        private CompiledPolicy readCompiledPolicy(int paramCount) {
+            int size = readLength(readVarint(), "策略节点数");
+            int root = readVarint();
+            PolicyOperator[] operators = new PolicyOperator[size];
+            int[][] children = new int[size][];
+            int[] paramIndexes = new int[size];
+            for (int node = 0; node < size; node++) {
+                operators[node] = readEnum(PolicyOperator.class);
+                paramIndexes[node] = readVarint() - 1;
+                int childCount = readLength(readVarint(), "策略子节点数");
+                children[node] = new int[childCount];
+                for (int i = 0; i < childCount; i++) {
+                    children[node][i] = readVarint();
+                }
+            }
+            return CompiledPolicy.restore(operators, children, paramIndexes, root, Math.max(paramCount, 0));
+        }
+
+        // 长度与个数不超过剩余字节数（-1表示不存在），损坏的数值不会导致分配超大数组
+        private int readLength(int value, String name) {
+            if (value < -1 || value > buffer.remaining()) {
+                throw new IllegalArgumentException("规则包中的" + name + "不合法：" + value);
+            }
+            return value;
+        }
+
+        private <E extends Enum<E>> E readEnum(Class<E> type) {
+            String name = readString();
+            return name != null ? Enum.valueOf(type, name) : null;
+        }
+
+        private String readString() {
+            int index = readVarint();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("规则包中的整数编码不合法");
+        }
+    }
+}
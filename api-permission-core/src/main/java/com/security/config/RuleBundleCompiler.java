@@ -0,0 +1,62 @@
+package com.security.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 规则包构建工具：验证JSON规则文档（格式同热更新，见{@link RuleDefinitions}），编译后写出{@link RuleBundle}
+ * <p>
+ * 在构建流水线或发布前执行，验证失败时不写出文件并以非0状态退出：
+ * <pre>
+ * java -cp api-permission-core.jar:&lt;依赖&gt; com.security.config.RuleBundleCompiler rules.json rules.bundle
+ * </pre>
+ * JWT验签密钥等与全局配置相关的约束在服务加载规则包时检查。
+ */
+public final class RuleBundleCompiler {
+
+    private RuleBundleCompiler() {
+    }
+
+    /**
+     * 验证并编译规则文档，写出规则包
+     *
+     * @return 解析或验证错误，为空表示规则包已写出
+     */
+    public static List<String> compile(String content, Path output) throws IOException {
+        RuleDefinitions definitions;
+        try {
+            definitions = RuleDefinitions.parse(content);
+        } catch (IllegalArgumentException e) {
+            return Collections.singletonList(e.getMessage());
+        }
+        List<String> errors = ApiPermissionConfig.validateAndCompile(definitions.getRules());
+        if (errors.isEmpty()) {
+            RuleBundle.write(definitions.getRules(), output);
+        }
+        return errors;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法：RuleBundleCompiler <规则文档.json> <输出的规则包>");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        long start = System.nanoTime();
+        List<String> errors = compile(new String(Files.readAllBytes(input), StandardCharsets.UTF_8), output);
+        if (!errors.isEmpty()) {
+            System.err.println("规则验证失败，共发现" + errors.size() + "个错误，未写出规则包：");
+            errors.forEach(error -> System.err.println("- " + error));
+            System.exit(1);
+        }
+        RuleBundle bundle = RuleBundle.read(output);
+        System.out.printf("规则包已写出：%s，格式版本: %d，共%d条规则，%d字节，耗时%.1fms%n", output.toAbsolutePath(),
+                bundle.getFormatVersion(), bundle.getRules().size(), Files.size(output), (System.nanoTime() - start) / 1e6);
+    }
+}
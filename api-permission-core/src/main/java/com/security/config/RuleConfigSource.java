@@ -0,0 +1,25 @@
+package com.security.config;
+
+/**
+ * 规则来源SPI：监听外部配置（本地文件、配置中心等），内容变化时交给{@link RuleDocumentHandler}处理
+ * （{@link RuleReloader}热更新生效规则，影子评估加载候选规则）
+ * <p>
+ * 回调在来源自己的线程（文件监听线程、配置中心通知线程）中执行，不在请求路径上。
+ */
+public interface RuleConfigSource {
+
+    /**
+     * 来源名称（用于日志与快照记录）
+     */
+    String getName();
+
+    /**
+     * 开始监听（可在此先加载一次当前内容）
+     */
+    void start(RuleDocumentHandler handler);
+
+    /**
+     * 停止监听，释放线程与句柄
+     */
+    void stop();
+}
@@ -0,0 +1,52 @@
+package com.security.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 热更新的规则文档：{"enabled": true, "rules": [...]}，规则字段与yaml配置相同（驼峰命名）
+ */
+@Data
+public class RuleDefinitions {
+
+    private static final TypeReference<List<ApiPermissionConfig.Rule>> RULE_LIST = new TypeReference<List<ApiPermissionConfig.Rule>>() {
+    };
+
+    // 未知字段视为错误（拼写错误的规则不会被静默忽略），枚举值不区分大小写
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+
+    private Boolean enabled; // 全局开关，不设置时沿用当前值
+    private List<ApiPermissionConfig.Rule> rules;
+
+    /**
+     * 解析JSON规则文档（对象形式，或直接为规则数组）
+     *
+     * @throws IllegalArgumentException 文档为空、JSON格式错误或存在未知字段
+     */
+    public static RuleDefinitions parse(String content) {
+        String text = content == null ? "" : content.trim();
+        RuleDefinitions definitions;
+        try {
+            if (text.startsWith("[")) {
+                definitions = new RuleDefinitions();
+                definitions.setRules(OBJECT_MAPPER.readValue(text, RULE_LIST));
+            } else {
+                definitions = OBJECT_MAPPER.readValue(text, RuleDefinitions.class);
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("规则文档解析失败：" + e.getOriginalMessage());
+        }
+        if (definitions == null) {
+            throw new IllegalArgumentException("规则文档为空");
+        }
+        return definitions;
+    }
+}
@@ -0,0 +1,16 @@
+package com.security.config;
+
+import java.util.List;
+
+/**
+ * 规则文档的处理方：热更新生效规则（{@link RuleReloader}），或加载影子评估的候选规则
+ */
+public interface RuleDocumentHandler {
+
+    /**
+     * 处理来源读取到的JSON规则文档（格式见{@link RuleDefinitions}）
+     *
+     * @return 解析或验证错误，为空表示已生效
+     */
+    List<String> handle(String source, String content);
+}
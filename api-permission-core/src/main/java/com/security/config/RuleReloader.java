@@ -0,0 +1,97 @@
+package com.security.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 规则热更新入口：解析规则文档，交给{@link ApiPermissionConfig#reload}验证、编译并发布新快照
+ * <p>
+ * 加载在来源的线程中完成，请求线程只读取已发布的快照；多个来源的加载串行进行，最后成功的一次生效。
+ * 规则文档格式不正确或验证失败时整批拒绝，继续使用当前规则。
+ */
+@Slf4j
+public class RuleReloader implements RuleDocumentHandler, Closeable {
+
+    private final ApiPermissionConfig globalConfig;
+
+    private final List<RuleConfigSource> sources = new CopyOnWriteArrayList<>();
+
+    public RuleReloader(ApiPermissionConfig globalConfig) {
+        this.globalConfig = globalConfig;
+    }
+
+    /**
+     * 注册并启动规则来源
+     */
+    public void register(RuleConfigSource source) {
+        sources.add(source);
+        source.start(this);
+        log.info("规则来源已启动：{}", source.getName());
+    }
+
+    /**
+     * 解析JSON规则文档并热更新（对象形式见{@link RuleDefinitions}，也可直接为规则数组）
+     *
+     * @return 解析或验证错误，为空表示新规则已生效
+     */
+    public List<String> reload(String source, String content) {
+        RuleDefinitions definitions;
+        try {
+            definitions = RuleDefinitions.parse(content);
+        } catch (IllegalArgumentException e) {
+            List<String> errors = Collections.singletonList(e.getMessage());
+            logRejected(source, errors);
+            return errors;
+        }
+        return reload(source, definitions.getEnabled(), definitions.getRules());
+    }
+
+    @Override
+    public List<String> handle(String source, String content) {
+        return reload(source, content);
+    }
+
+    /**
+     * 以已解析的规则热更新（规则对象交由配置持有，调用方之后不得再修改）
+     *
+     * @return 验证错误，为空表示新规则已生效
+     */
+    public List<String> reload(String source, Boolean enabled, List<ApiPermissionConfig.Rule> rules) {
+        long start = System.nanoTime();
+        List<String> errors = globalConfig.reload(enabled, rules, source);
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (errors.isEmpty()) {
+            RuleSnapshot snapshot = globalConfig.getSnapshot();
+            log.info("规则热更新完成（来源: {}），快照版本: {}，全局开关: {}，共{}条规则，耗时{}ms",
+                    source, snapshot.getVersion(), snapshot.isEnabled(), snapshot.getRules().size(), elapsedMicros / 1000.0);
+        } else {
+            logRejected(source, errors);
+        }
+        return errors;
+    }
+
+    /**
+     * 停止所有规则来源
+     */
+    @Override
+    public void close() {
+        for (RuleConfigSource source : sources) {
+            try {
+                source.stop();
+            } catch (RuntimeException e) {
+                log.warn("停止规则来源失败：{}，{}", source.getName(), e.getMessage());
+            }
+        }
+        sources.clear();
+    }
+
+    private static void logRejected(String source, List<String> errors) {
+        log.error("规则热更新被拒绝（来源: {}），共发现{}个错误，继续使用当前规则：", source, errors.size());
+        errors.forEach(error -> log.error("- {}", error));
+    }
+}
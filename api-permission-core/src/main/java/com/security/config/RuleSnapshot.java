@@ -0,0 +1,128 @@
+package com.security.config;
+
+import com.security.policy.CompiledUriPattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已编译规则的不可变快照：一次加载（启动或热更新）得到的规则列表、全局开关与URI索引
+ * <p>
+ * 快照在请求路径之外完整构建，由{@link ApiPermissionConfig}通过一次volatile写整体替换；
+ * 读取方每次取到的都是完整快照，不加锁。快照中的规则对象发布后不再修改。
+ */
+public final class RuleSnapshot {
+
+    private static final ApiPermissionConfig.Rule[] NO_RULES = new ApiPermissionConfig.Rule[0];
+
+    private final long version;
+    private final boolean enabled;
+    private final String source;
+    private final String tenant;
+    private final List<ApiPermissionConfig.Rule> rules;
+    // 首个分段为字面量的规则按该分段分组（组内已并入通配规则，保持配置顺序）
+    private final Map<String, ApiPermissionConfig.Rule[]> rulesByFirstSegment;
+    // 首个分段不是字面量的规则（变量、通配符、回退模式），任何URI都需要尝试
+    private final ApiPermissionConfig.Rule[] unindexedRules;
+    private final ApiPermissionConfig.Rule[] allRules;
+
+    RuleSnapshot(long version, boolean enabled, String source, List<ApiPermissionConfig.Rule> rules) {
+        this(version, enabled, source, rules, null);
+    }
+
+    RuleSnapshot(long version, boolean enabled, String source, List<ApiPermissionConfig.Rule> rules, String tenant) {
+        this.version = version;
+        this.enabled = enabled;
+        this.source = source;
+        this.tenant = tenant;
+        List<ApiPermissionConfig.Rule> copy = new ArrayList<>();
+        if (rules != null) {
+            for (ApiPermissionConfig.Rule rule : rules) {
+                if (rule != null) {
+                    copy.add(rule);
+                }
+            }
+        }
+        this.rules = Collections.unmodifiableList(copy);
+        this.allRules = this.rules.toArray(NO_RULES);
+
+        Map<String, List<ApiPermissionConfig.Rule>> grouped = new HashMap<>();
+        List<ApiPermissionConfig.Rule> unindexed = new ArrayList<>();
+        for (ApiPermissionConfig.Rule rule : allRules) {
+            String segment = firstLiteralSegment(rule.getCompiledPattern());
+            if (segment == null) {
+                unindexed.add(rule);
+                // 通配规则追加到已有分组，保持与配置顺序一致
+                grouped.values().forEach(group -> group.add(rule));
+            } else {
+                grouped.computeIfAbsent(segment, key -> new ArrayList<>(unindexed)).add(rule);
+            }
+        }
+        Map<String, ApiPermissionConfig.Rule[]> index = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((segment, group) -> index.put(segment, group.toArray(NO_RULES)));
+        this.rulesByFirstSegment = index;
+        this.unindexedRules = unindexed.toArray(NO_RULES);
+    }
+
+    /**
+     * 快照版本（每次成功加载递增）
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 本次加载的全局开关（配置错误时已被关闭）
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 规则来源（启动配置、文件路径或配置中心名称）
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * 所属租户（全局规则为null）
+     */
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * 规则列表（不可修改，按配置顺序）
+     */
+    public List<ApiPermissionConfig.Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * URI可能匹配的规则（按配置顺序），调用方仍需逐条匹配（返回内部数组，不得修改）
+     * <p>
+     * 只按首个分段过滤：规则首段为字面量时，只有首段相同的URI才可能匹配；含连续斜杠或不以/开头的URI返回全部规则。
+     */
+    public ApiPermissionConfig.Rule[] candidates(String uri) {
+        if (rulesByFirstSegment.isEmpty() || !uri.startsWith("/") || uri.contains("//")) {
+            return allRules;
+        }
+        int end = uri.indexOf('/', 1);
+        ApiPermissionConfig.Rule[] group = rulesByFirstSegment.get(end < 0 ? uri.substring(1) : uri.substring(1, end));
+        return group != null ? group : unindexedRules;
+    }
+
+    private static String firstLiteralSegment(CompiledUriPattern pattern) {
+        return pattern != null && pattern.getPattern().startsWith("/") ? pattern.firstLiteralSegment() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSnapshot{" + (tenant != null ? "tenant=" + tenant + ", " : "") + "version=" + version + ", enabled=" + enabled
+                + ", source=" + source + ", rules=" + rules.size() + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.security.config;
+
+/**
+ * 规则快照发布的监听器：为新规则构建校验器等派生对象
+ * <p>
+ * 发布在单个锁内串行进行：先对所有监听器调用{@link #prepare}，全部成功后替换快照，再调用{@link #published}。
+ * prepare抛出异常时本次发布取消，当前快照保持不变。
+ */
+public interface RuleSnapshotListener {
+
+    /**
+     * 快照生效前调用（在加载线程中执行，不在请求路径上）
+     */
+    void prepare(RuleSnapshot next);
+
+    /**
+     * 快照生效后调用
+     */
+    default void published(RuleSnapshot current) {
+    }
+}
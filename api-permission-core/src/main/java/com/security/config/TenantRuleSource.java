@@ -0,0 +1,51 @@
+package com.security.config;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * 租户规则来源SPI：按租户标识读取该租户的规则文档（JSON，格式同{@link RuleDefinitions}）
+ * <p>
+ * {@link TenantRuleTables}在租户首次访问或单独重新加载时调用{@link #read}；来源能感知变化时通过{@link #start}的回调通知，
+ * 已加载的租户随即重新加载，其他租户不受影响。能列出租户清单的来源应实现{@link #mayHaveRules}，只放行有规则文档的租户。
+ * <p>
+ * 传入的租户标识均为小写（租户标识不区分大小写），来源应按同样的形式查找与通知。
+ */
+public interface TenantRuleSource {
+
+    /**
+     * 来源名称（用于日志与快照记录）
+     */
+    String getName();
+
+    /**
+     * 读取租户的规则文档（在加载线程中调用，首次访问时即为请求线程）
+     *
+     * @return 规则文档，租户没有专属规则时返回null
+     */
+    String read(String tenant) throws IOException;
+
+    /**
+     * 租户是否可能有专属规则（在请求线程中调用，应只查询内存中的租户清单，不读取内容）
+     * <p>
+     * 返回false的租户直接使用全局规则，不调用{@link #read}、不占用租户规则表，随机的租户标识不会引起读取与卸载；
+     * 默认返回true，每个新租户读取一次，没有专属规则的租户留在规则表中直到被卸载。
+     */
+    default boolean mayHaveRules(String tenant) {
+        return true;
+    }
+
+    /**
+     * 开始监听（默认不监听，租户规则变化后需调用{@link TenantRuleTables#reload(String)}）
+     *
+     * @param changed 接收内容发生变化的租户标识
+     */
+    default void start(Consumer<String> changed) {
+    }
+
+    /**
+     * 停止监听，释放线程与句柄
+     */
+    default void stop() {
+    }
+}
@@ -0,0 +1,514 @@
+package com.security.config;
+
+import com.security.enums.TenantKeySource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 多租户规则表：按租户标识选择各自独立编译、独立建索引的规则快照
+ * <p>
+ * 租户规则在首次访问时从{@link TenantRuleSource}读取并编译（同一租户只加载一次，其他租户的请求不受影响），
+ * 之后的请求只读取该租户的快照，不加锁。来源的租户清单中没有的租户（{@link TenantRuleSource#mayHaveRules}）直接使用全局快照，
+ * 不读取、不放入规则表。租户数超过上限时按访问顺序卸载最久未访问的租户（优先卸载没有专属规则的租户），
+ * 空闲超时的租户在之后的访问中被清理。单个租户可通过{@link #reload(String)}重新加载，不影响全局规则与其他租户。
+ * <p>
+ * 没有专属规则的租户与未携带租户标识的请求使用全局快照；租户规则加载失败时该租户的请求按服务端错误拒绝，
+ * 直到规则修正后重新加载，不会回退为全局规则。租户快照中没有匹配的规则时，请求由{@link com.security.engine.RuleMatcher#matchFor}
+ * 继续在全局规则中匹配。
+ * <p>
+ * 租户标识不区分大小写，统一转为小写后用于规则表、{@link TenantRuleSource}与监听器。
+ */
+@Slf4j
+public class TenantRuleTables implements Closeable {
+
+    private static final int MAX_TENANT_LENGTH = 64;
+    // 访问时间的更新粒度：同一租户在该间隔内的多次访问只写一次，避免热点租户的缓存行争用
+    private static final long TOUCH_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ApiPermissionConfig globalConfig;
+    private final TenantRuleSource source;
+    private final TenantKeySource keySource;
+    private final String header;
+    private final int pathSegment;
+    private final int maxLoadedTenants;
+    private final long idleNanos;
+
+    private final ConcurrentHashMap<String, TenantTable> tables = new ConcurrentHashMap<>();
+    // 按访问顺序排列的租户（最久未访问的在前），没有专属规则的租户单独排列以便优先卸载；仅在持有lruLock时访问
+    private final Object lruLock = new Object();
+    private final LinkedHashMap<String, TenantTable> recentWithRules = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, TenantTable> recentWithoutRules = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<TenantSnapshotListener> listeners = new CopyOnWriteArrayList<>();
+    // 租户快照版本（所有租户共用，每次加载递增）
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+    public TenantRuleTables(ApiPermissionConfig globalConfig, TenantRuleSource source) {
+        this.globalConfig = globalConfig;
+        this.source = source;
+        ApiPermissionConfig.Tenants config = globalConfig.getTenants();
+        this.keySource = config.getKeySource();
+        this.header = config.getHeader();
+        this.pathSegment = config.getPathSegment();
+        this.maxLoadedTenants = config.getMaxLoadedTenants();
+        this.idleNanos = TimeUnit.SECONDS.toNanos(config.getIdleSeconds());
+    }
+
+    /**
+     * 启动租户规则来源的监听（已加载的租户在规则变化时重新加载）
+     */
+    public void start() {
+        source.start(this::changed);
+        log.info("租户规则来源已启动：{}，租户标识来源: {}，租户数上限: {}", source.getName(), keySource, maxLoadedTenants);
+    }
+
+    /**
+     * 从请求中解析租户标识
+     *
+     * @param uri     请求URI（PATH来源）
+     * @param headers 按名称读取请求头（HEADER来源，可为null）
+     * @param host    请求的主机名（HOST来源，可为null）
+     * @return 租户标识（小写），请求未携带时返回null
+     * @throws IllegalArgumentException 租户标识格式不正确
+     */
+    public String resolveTenant(String uri, Function<String, String> headers, String host) {
+        String tenant;
+        switch (keySource) {
+            case HEADER:
+                tenant = headers != null ? headers.apply(header) : null;
+                tenant = tenant != null ? tenant.trim() : null;
+                break;
+            case PATH:
+                tenant = pathSegment(uri);
+                break;
+            default:
+                tenant = hostLabel(host);
+        }
+        if (tenant == null || tenant.isEmpty()) {
+            return null;
+        }
+        checkTenant(tenant);
+        return normalize(tenant);
+    }
+
+    /**
+     * 租户生效的规则快照：有专属规则时为该租户的快照，否则为全局快照（首次访问时在调用线程中加载，
+     * 来源的租户清单中没有的租户不加载）
+     *
+     * @param tenant 租户标识（不区分大小写），为null时返回全局快照
+     * @throws IllegalArgumentException 租户标识格式不正确
+     * @throws IllegalStateException    租户规则加载失败
+     */
+    public RuleSnapshot getSnapshot(String tenant) {
+        if (tenant == null) {
+            return globalConfig.getSnapshot();
+        }
+        tenant = normalize(tenant);
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        TenantTable table = tables.get(tenant);
+        if (table == null) {
+            checkTenant(tenant);
+            if (!source.mayHaveRules(tenant)) {
+                return globalConfig.getSnapshot();
+            }
+            table = admit(tenant, now);
+        } else if (now - table.lastAccessNanos > TOUCH_GRANULARITY_NANOS) {
+            touch(table, now);
+        }
+        if (!table.loaded) {
+            load(table);
+        }
+
+        String failure = table.failure;
+        if (failure != null) {
+            throw new IllegalStateException("租户[" + tenant + "]的规则加载失败：" + failure);
+        }
+        RuleSnapshot snapshot = table.snapshot;
+        return snapshot != null ? snapshot : globalConfig.getSnapshot();
+    }
+
+    /**
+     * 从租户规则来源重新加载单个租户（未加载的租户随即加载），验证失败时保留该租户当前的规则
+     *
+     * @return 读取、解析或验证错误，为空表示新规则已生效
+     */
+    public List<String> reload(String tenant) {
+        return reload(tenant, null, true);
+    }
+
+    /**
+     * 以指定的规则文档重新加载单个租户（供配置中心推送使用，content为null表示该租户改用全局规则）
+     *
+     * @return 解析或验证错误，为空表示新规则已生效
+     */
+    public List<String> reload(String tenant, String content) {
+        return reload(tenant, content, false);
+    }
+
+    /**
+     * 卸载租户（之后的访问重新加载）
+     *
+     * @return 租户此前是否已加载
+     */
+    public boolean unload(String tenant) {
+        TenantTable table = tenant != null ? tables.get(normalize(tenant)) : null;
+        return table != null && remove(table, "手动卸载");
+    }
+
+    /**
+     * 当前已加载专属规则的租户
+     */
+    public Set<String> loadedTenants() {
+        Set<String> tenants = new TreeSet<>();
+        for (TenantTable table : tables.values()) {
+            if (table.snapshot != null) {
+                tenants.add(table.tenant);
+            }
+        }
+        return Collections.unmodifiableSet(tenants);
+    }
+
+    /**
+     * 注册租户快照监听器：立即以已加载的租户快照回调一次，之后每次加载、卸载时回调
+     */
+    public void addListener(TenantSnapshotListener listener) {
+        listeners.add(listener);
+        for (TenantTable table : tables.values()) {
+            synchronized (table) {
+                if (table.snapshot != null && !table.removed) {
+                    listener.loaded(table.snapshot);
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止租户规则来源的监听
+     */
+    @Override
+    public void close() {
+        source.stop();
+    }
+
+    // 来源通知租户规则变化：只重新加载已加载的租户，其他租户在首次访问时读取最新内容
+    private void changed(String tenant) {
+        if (isValidTenant(tenant) && tables.containsKey(normalize(tenant))) {
+            reload(tenant);
+        }
+    }
+
+    private List<String> reload(String tenant, String content, boolean fromSource) {
+        checkTenant(tenant);
+        tenant = normalize(tenant);
+        long start = System.nanoTime();
+        TenantTable table = tables.get(tenant);
+        if (table == null) {
+            table = admit(tenant, start);
+        }
+        List<String> errors = new ArrayList<>();
+        RuleSnapshot next;
+        synchronized (table) {
+            String document = content;
+            if (fromSource) {
+                try {
+                    document = source.read(tenant);
+                } catch (IOException e) {
+                    errors.add("读取租户规则失败：" + e.getMessage());
+                }
+            }
+            next = errors.isEmpty() && document != null ? build(tenant, document, errors) : null;
+            if (errors.isEmpty() && next != null && !table.removed) {
+                errors.addAll(notifyLoaded(next));
+            }
+            if (!errors.isEmpty()) {
+                logRejected(tenant, errors);
+                return errors;
+            }
+            RuleSnapshot previous = table.snapshot;
+            table.snapshot = next;
+            table.failure = null;
+            table.loaded = true;
+            if (previous != null && next == null) {
+                notifyUnloaded(previous);
+            }
+            regroup(table);
+        }
+        if (next != null) {
+            logLoaded(next, start, "重新加载");
+        } else {
+            log.info("租户[{}]已没有专属规则，改用全局规则", tenant);
+        }
+        return errors;
+    }
+
+    // 首次访问的租户放入规则表，超过数量上限时按访问顺序卸载最久未访问的租户（优先卸载没有专属规则的租户，重新加载只需一次读取）
+    private TenantTable admit(String tenant, long now) {
+        TenantTable created = new TenantTable(tenant, now);
+        TenantTable existing = tables.putIfAbsent(tenant, created);
+        if (existing != null) {
+            return existing;
+        }
+        List<TenantTable> victims = new ArrayList<>();
+        synchronized (lruLock) {
+            if (tables.get(tenant) == created) {
+                recentWithRules.put(tenant, created);
+            }
+            int excess = recentWithRules.size() + recentWithoutRules.size() - maxLoadedTenants;
+            while (excess-- > 0) {
+                Iterator<TenantTable> eldest = (recentWithoutRules.isEmpty() ? recentWithRules : recentWithoutRules).values().iterator();
+                TenantTable victim = eldest.next();
+                if (victim == created) {
+                    break;
+                }
+                eldest.remove();
+                victims.add(victim);
+            }
+        }
+        victims.forEach(victim -> remove(victim, "超过租户数上限"));
+        return created;
+    }
+
+    // 记录访问：移到访问顺序的末尾
+    private void touch(TenantTable table, long now) {
+        table.lastAccessNanos = now;
+        synchronized (lruLock) {
+            if (recentWithRules.get(table.tenant) == null) {
+                recentWithoutRules.get(table.tenant);
+            }
+        }
+    }
+
+    // 加载完成后按是否有专属规则归入对应的访问顺序（加载视为一次访问，已卸载的租户不再加入）
+    private void regroup(TenantTable table) {
+        LinkedHashMap<String, TenantTable> group = table.snapshot == null && table.failure == null
+                ? recentWithoutRules : recentWithRules;
+        synchronized (lruLock) {
+            if (recentWithRules.remove(table.tenant, table) | recentWithoutRules.remove(table.tenant, table)) {
+                table.lastAccessNanos = System.nanoTime();
+                group.put(table.tenant, table);
+            }
+        }
+    }
+
+    // 清理空闲超时的租户（最多每半个空闲周期检查一次，由访问线程顺带执行，只检查访问顺序最前面的超时租户）
+    private void sweepIfDue(long now) {
+        if (idleNanos == 0) {
+            return;
+        }
+        long due = nextSweepNanos.get();
+        if (now - due < 0 || !nextSweepNanos.compareAndSet(due, now + idleNanos / 2)) {
+            return;
+        }
+        List<TenantTable> idle = new ArrayList<>();
+        synchronized (lruLock) {
+            collectIdle(recentWithRules, now, idle);
+            collectIdle(recentWithoutRules, now, idle);
+        }
+        idle.forEach(table -> remove(table, "空闲超时"));
+    }
+
+    // 访问顺序与访问时间一致，遇到未超时的租户即停止
+    private void collectIdle(LinkedHashMap<String, TenantTable> group, long now, List<TenantTable> idle) {
+        for (TenantTable table : group.values()) {
+            if (now - table.lastAccessNanos <= idleNanos) {
+                return;
+            }
+            idle.add(table);
+        }
+    }
+
+    private boolean remove(TenantTable table, String reason) {
+        if (!tables.remove(table.tenant, table)) {
+            return false;
+        }
+        synchronized (lruLock) {
+            recentWithRules.remove(table.tenant, table);
+            recentWithoutRules.remove(table.tenant, table);
+        }
+        RuleSnapshot snapshot;
+        synchronized (table) {
+            table.removed = true;
+            snapshot = table.snapshot;
+        }
+        if (snapshot != null) {
+            notifyUnloaded(snapshot);
+            log.info("租户[{}]的规则已卸载（{}）", table.tenant, reason);
+        }
+        return true;
+    }
+
+    // 首次访问时加载（同一租户的并发请求等待同一次加载）
+    private void load(TenantTable table) {
+        synchronized (table) {
+            if (table.loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            List<String> errors = new ArrayList<>();
+            RuleSnapshot snapshot = null;
+            try {
+                String content = source.read(table.tenant);
+                if (content != null) {
+                    snapshot = build(table.tenant, content, errors);
+                }
+            } catch (IOException e) {
+                errors.add("读取租户规则失败：" + e.getMessage());
+            }
+            // 加载期间已被卸载的租户只供本次请求使用，不通知监听器
+            if (errors.isEmpty() && snapshot != null && !table.removed) {
+                errors.addAll(notifyLoaded(snapshot));
+            }
+            if (!errors.isEmpty()) {
+                table.failure = String.join("；", errors);
+                logRejected(table.tenant, errors);
+            } else if (snapshot != null) {
+                table.snapshot = snapshot;
+                logLoaded(snapshot, start, "加载");
+            } else {
+                log.debug("租户[{}]没有专属规则，使用全局规则", table.tenant);
+            }
+            table.loaded = true;
+            regroup(table);
+        }
+    }
+
+    private RuleSnapshot build(String tenant, String content, List<String> errors) {
+        RuleDefinitions definitions;
+        try {
+            definitions = RuleDefinitions.parse(content);
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+            return null;
+        }
+        return globalConfig.prepareTenant(tenant, versions.incrementAndGet(), definitions.getEnabled(),
+                definitions.getRules(), source.getName(), errors);
+    }
+
+    // 通知监听器新快照即将生效，任一监听器失败时撤销已通知的监听器
+    private List<String> notifyLoaded(RuleSnapshot snapshot) {
+        List<TenantSnapshotListener> notified = new ArrayList<>();
+        for (TenantSnapshotListener listener : listeners) {
+            try {
+                listener.loaded(snapshot);
+                notified.add(listener);
+            } catch (RuntimeException e) {
+                log.error("租户[{}]的规则快照发布失败", snapshot.getTenant(), e);
+                notified.forEach(done -> done.unloaded(snapshot));
+                return Collections.singletonList("规则快照发布失败：" + e.getMessage());
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private void notifyUnloaded(RuleSnapshot snapshot) {
+        for (TenantSnapshotListener listener : listeners) {
+            try {
+                listener.unloaded(snapshot);
+            } catch (RuntimeException e) {
+                log.warn("租户[{}]的规则卸载通知失败：{}", snapshot.getTenant(), e.getMessage());
+            }
+        }
+    }
+
+    private String pathSegment(String uri) {
+        if (uri == null || !uri.startsWith("/")) {
+            return null;
+        }
+        int start = 1;
+        for (int i = 0; i < pathSegment; i++) {
+            int slash = uri.indexOf('/', start);
+            if (slash < 0) {
+                return null;
+            }
+            start = slash + 1;
+        }
+        int end = uri.indexOf('/', start);
+        return uri.substring(start, end < 0 ? uri.length() : end);
+    }
+
+    // 主机名的第一段（不含'.'的主机名与IPv4地址视为未携带租户标识）
+    private static String hostLabel(String host) {
+        if (host == null) {
+            return null;
+        }
+        int dot = host.indexOf('.');
+        if (dot <= 0 || Character.isDigit(host.charAt(host.length() - 1))) {
+            return null;
+        }
+        return host.substring(0, dot);
+    }
+
+    /**
+     * 统一租户标识的大小写（请求解析、规则表与租户规则来源的清单使用同一形式）
+     */
+    static String normalize(String tenant) {
+        return tenant.toLowerCase(Locale.ROOT);
+    }
+
+    private static void checkTenant(String tenant) {
+        if (!isValidTenant(tenant)) {
+            throw new IllegalArgumentException("租户标识格式不正确（只允许字母、数字、下划线与连字符，最长" + MAX_TENANT_LENGTH + "个字符）");
+        }
+    }
+
+    // 租户标识同时用作规则文件名，只允许字母、数字、下划线与连字符
+    private static boolean isValidTenant(String tenant) {
+        if (tenant == null || tenant.isEmpty() || tenant.length() > MAX_TENANT_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < tenant.length(); i++) {
+            char c = tenant.charAt(i);
+            boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            if (!alphanumeric && (i == 0 || (c != '_' && c != '-'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void logLoaded(RuleSnapshot snapshot, long start, String action) {
+        log.info("租户[{}]规则{}完成（来源: {}），快照版本: {}，开关: {}，共{}条规则，耗时{}ms", snapshot.getTenant(), action,
+                snapshot.getSource(), snapshot.getVersion(), snapshot.isEnabled(), snapshot.getRules().size(),
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private static void logRejected(String tenant, List<String> errors) {
+        log.error("租户[{}]规则加载失败，共发现{}个错误：", tenant, errors.size());
+        errors.forEach(error -> log.error("- {}", error));
+    }
+
+    /**
+     * 单个租户的规则表（snapshot为null且已加载表示该租户没有专属规则）
+     */
+    private static final class TenantTable {
+        private final String tenant;
+        private volatile long lastAccessNanos;
+        private volatile boolean loaded;
+        private volatile RuleSnapshot snapshot;
+        // 加载失败原因（该租户的请求按服务端错误拒绝，重新加载成功后清除）
+        private volatile String failure;
+        // 已从规则表移除（仅在持有该对象锁时访问）
+        private boolean removed;
+
+        private TenantTable(String tenant, long now) {
+            this.tenant = tenant;
+            this.lastAccessNanos = now;
+        }
+    }
+}
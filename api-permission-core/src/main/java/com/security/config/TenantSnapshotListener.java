@@ -0,0 +1,19 @@
+package com.security.config;
+
+/**
+ * 租户规则快照的监听器：为租户规则构建、释放校验器等派生对象
+ * <p>
+ * 同一租户的回调串行进行，不同租户之间可能并发。loaded抛出异常时本次加载失败，租户保持原有规则。
+ */
+public interface TenantSnapshotListener {
+
+    /**
+     * 租户快照生效前调用（替换同一租户之前的快照）
+     */
+    void loaded(RuleSnapshot snapshot);
+
+    /**
+     * 租户快照被卸载（空闲、超过数量上限或改用全局规则）后调用
+     */
+    void unloaded(RuleSnapshot snapshot);
+}
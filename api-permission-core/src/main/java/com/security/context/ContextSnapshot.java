@@ -0,0 +1,57 @@
+package com.security.context;
+
+import com.security.enums.MultiParamMode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 权限上下文的不可变快照
+ * <p>
+ * 请求内的ContextData由线程复用，请求结束后会被重置；需要在请求之外（异步任务、审计日志等）
+ * 使用主体或目标参数时，应通过{@link PermissionContext#snapshot()}获取快照。
+ */
+@Getter
+@ToString
+public final class ContextSnapshot {
+    private final String uri;
+    private final boolean enabled;
+    private final String principalName;       // 主体名称，未提取主体时为null
+    private final List<String> principalValues;
+    private final List<Target> targetParameters;
+    private final MultiParamMode multiParamMode;
+
+    ContextSnapshot(PermissionContext.ContextData data) {
+        this.uri = data.getUri();
+        this.enabled = data.isEnabled();
+        PermissionContext.PrincipalData principal = data.getPrincipalData();
+        this.principalName = principal != null ? principal.getName() : null;
+        this.principalValues = principal != null ? principal.getValues().toImmutableList() : Collections.<String>emptyList();
+        List<Target> targets = new ArrayList<>(data.getTargetParameters().size());
+        for (PermissionContext.TargetParameter target : data.getTargetParameters()) {
+            targets.add(new Target(target.getName(), target.getValues().toImmutableList(), target.getValidatorId()));
+        }
+        this.targetParameters = Collections.unmodifiableList(targets);
+        this.multiParamMode = data.getMultiParamMode();
+    }
+
+    /**
+     * 目标参数快照
+     */
+    @Getter
+    @ToString
+    public static final class Target {
+        private final String name;
+        private final List<String> values;
+        private final String validatorId;
+
+        Target(String name, List<String> values, String validatorId) {
+            this.name = name;
+            this.values = values;
+            this.validatorId = validatorId;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.security.context;
+
+/**
+ * 上下文数据的存储方式（Multi-Release）
+ * <p>
+ * 本类为Java 8版本：每个线程通过ThreadLocal持有一个复用的ContextData。
+ * 使用JDK 21构建时（JDK 25且显式指定-Pjava25时另含25版本），META-INF/versions下的同名类会替换本类（见pom中的java21/java25 profile），对外行为保持一致。
+ */
+final class ContextStorage {
+    // 线程复用的上下文容器
+    private static final ThreadLocal<PermissionContext.ContextData> THREAD_LOCAL = ThreadLocal.withInitial(PermissionContext.ContextData::new);
+
+    private ContextStorage() {
+    }
+
+    /**
+     * 当前线程（或当前绑定范围）的上下文容器
+     */
+    static PermissionContext.ContextData current() {
+        return THREAD_LOCAL.get();
+    }
+
+    /**
+     * 替换当前线程的上下文容器，null表示移除
+     */
+    static void set(PermissionContext.ContextData data) {
+        if (data == null) {
+            THREAD_LOCAL.remove();
+        } else {
+            THREAD_LOCAL.set(data);
+        }
+    }
+
+    /**
+     * 请求结束：重置容器并保留给下一个请求复用
+     */
+    static void clear() {
+        THREAD_LOCAL.get().reset();
+    }
+
+    /**
+     * 彻底移除当前线程的上下文容器
+     */
+    static void release() {
+        THREAD_LOCAL.remove();
+    }
+
+    /**
+     * 在上下文绑定范围内执行（Java 8版本直接执行）
+     */
+    static <X extends Exception> void runBound(PermissionContext.BoundAction<X> action) throws X {
+        action.run();
+    }
+
+    /**
+     * 绑定指定的上下文容器执行，返回前还原
+     */
+    static <X extends Exception> void runBound(PermissionContext.ContextData data, PermissionContext.BoundAction<X> action) throws X {
+        PermissionContext.ContextData previous = THREAD_LOCAL.get();
+        THREAD_LOCAL.set(data);
+        try {
+            action.run();
+        } finally {
+            THREAD_LOCAL.set(previous);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.security.context;
+
+import com.security.enums.ParamSource;
+
+import java.util.Objects;
+
+/**
+ * 提取结果的记忆键：来源、解析方式、解析配置与参数名都相同的两次提取结果一定相同
+ * <p>
+ * 参数名参与比较：DEFAULT、PATH_MATCH等解析方式按参数名取值。键在规则校验器构建时创建，请求时不分配。
+ */
+public final class ExtractionKey {
+
+    private final ParamSource source;
+    private final String parseMethod;
+    private final String parseConfig;
+    private final String paramName;
+    private final int hash;
+
+    public ExtractionKey(ParamSource source, String parseMethod, String parseConfig, String paramName) {
+        this.source = source;
+        this.parseMethod = parseMethod;
+        this.parseConfig = parseConfig;
+        this.paramName = paramName;
+        this.hash = Objects.hash(source, parseMethod, parseConfig, paramName);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExtractionKey)) {
+            return false;
+        }
+        ExtractionKey that = (ExtractionKey) o;
+        return hash == that.hash && source == that.source && Objects.equals(parseMethod, that.parseMethod)
+                && Objects.equals(parseConfig, that.parseConfig) && Objects.equals(paramName, that.paramName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return source + ":" + parseMethod + (parseConfig != null ? "(" + parseConfig + ")" : "") + ":" + paramName;
+    }
+}
@@ -0,0 +1,78 @@
+package com.security.context;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 请求级的提取记忆：同一请求内重复的参数提取与请求体解析只执行一次
+ * <p>
+ * 随ContextData在线程内复用，请求结束时释放引用、保留已分配的值列表；每个请求的条目很少，按顺序比较键。
+ */
+public final class ExtractionMemo {
+
+    private final List<ExtractionKey> keys = new ArrayList<>();
+    // 与keys下标对应的结果（容量只增不减）
+    private final List<ValueList> results = new ArrayList<>();
+    private int size;
+    private final Map<ParsedBodyKey<?>, Object> bodies = new IdentityHashMap<>(4);
+
+    /**
+     * 把已记忆的提取结果追加到values
+     *
+     * @return false：该键在当前请求中尚未提取
+     */
+    public boolean recall(ExtractionKey key, ValueList values) {
+        for (int i = 0; i < size; i++) {
+            if (keys.get(i).equals(key)) {
+                values.addAll(results.get(i));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记忆提取结果（复制到复用的值列表）
+     */
+    public void remember(ExtractionKey key, ValueList values) {
+        ValueList result;
+        if (size < results.size()) {
+            result = results.get(size);
+            result.clear();
+            keys.set(size, key);
+        } else {
+            result = new ValueList(values.size());
+            results.add(result);
+            keys.add(key);
+        }
+        result.addAll(values);
+        size++;
+    }
+
+    /**
+     * 获取请求体的解析结果，当前请求尚未解析时调用parser并记忆（parser抛出的异常不会被记忆）
+     */
+    public <T> T parsedBody(ParsedBodyKey<T> key, Supplier<T> parser) {
+        if (bodies.containsKey(key)) {
+            return key.cast(bodies.get(key));
+        }
+        T parsed = parser.get();
+        bodies.put(key, parsed);
+        return parsed;
+    }
+
+    /**
+     * 释放请求数据的引用
+     */
+    void reset() {
+        for (int i = 0; i < size; i++) {
+            keys.set(i, null);
+            results.get(i).clear();
+        }
+        size = 0;
+        bodies.clear();
+    }
+}
@@ -0,0 +1,34 @@
+package com.security.context;
+
+/**
+ * 请求体解析结果的类型化键（如JSON文档、XML文档），提取器通过
+ * {@link PermissionContext#parsedBody(ParsedBodyKey, java.util.function.Supplier)}共享同一请求的解析结果
+ *
+ * @param <T> 解析结果类型
+ */
+public final class ParsedBodyKey<T> {
+
+    private final String name;
+    private final Class<T> type;
+
+    private ParsedBodyKey(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * 创建键（按实例区分，通常声明为解析实现中的常量）
+     */
+    public static <T> ParsedBodyKey<T> of(String name, Class<T> type) {
+        return new ParsedBodyKey<>(name, type);
+    }
+
+    T cast(Object value) {
+        return type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return name + "<" + type.getSimpleName() + ">";
+    }
+}
@@ -0,0 +1,369 @@
+package com.security.context;
+
+import com.security.enums.MultiParamMode;
+import com.security.enums.ValueType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 权限上下文，存储验证过程中的相关数据
+ * <p>
+ * 每个线程持有一个可复用的ContextData：请求开始时重置，请求结束时释放引用但保留已分配的容器，
+ * 主体、目标参数及其值列表均在请求间复用，权限层在稳定状态下不再为每个请求分配上下文对象。
+ * 需要在请求之外使用的数据请通过{@link #snapshot()}获取不可变快照。
+ * <p>
+ * 异步执行（MVC异步请求、@Async、CompletableFuture等）时，由提交线程{@link #capture()}快照、
+ * 执行线程{@link #restore(ContextSnapshot)}恢复，执行线程通过{@link #snapshot()}读取，快照在任务间共享，不复制值列表。
+ * <p>
+ * 容器的存储方式由{@link ContextStorage}决定（Multi-Release：JDK 25上虚拟线程改用ScopedValue绑定），
+ * 请求入口需通过{@link #runBound(BoundAction)}执行，以便建立绑定范围。
+ */
+public class PermissionContext {
+    // 异步执行线程上恢复的快照
+    private static final ThreadLocal<ContextSnapshot> RESTORED = new ThreadLocal<>();
+
+    /**
+     * 初始化上下文（重置当前线程复用的ContextData）
+     */
+    public static void init() {
+        ContextStorage.current().reset().active = true;
+    }
+
+    /**
+     * 清理上下文（必须在请求结束时调用，释放请求数据的引用，保留容器供下次复用）
+     */
+    public static void clear() {
+        ContextStorage.clear();
+    }
+
+    /**
+     * 彻底移除当前线程的上下文容器（线程退出线程池或应用卸载时调用）
+     */
+    public static void release() {
+        ContextStorage.release();
+    }
+
+    /**
+     * 在上下文绑定范围内执行请求处理（在此范围内调用init/clear）
+     */
+    public static <X extends Exception> void runBound(BoundAction<X> action) throws X {
+        ContextStorage.runBound(action);
+    }
+
+    /**
+     * 在指定上下文数据的绑定范围内执行（同一请求转到其他线程继续处理时使用，如异步校验后的ASYNC分发），返回前还原为绑定前的容器
+     * <p>
+     * 与{@link #runBound(BoundAction)}相同，JDK 25的虚拟线程上以ScopedValue绑定，其余情况替换线程的ThreadLocal。
+     */
+    public static <X extends Exception> void runBound(ContextData data, BoundAction<X> action) throws X {
+        data.active = true;
+        ContextStorage.runBound(data, action);
+    }
+
+    /**
+     * 创建不绑定线程的上下文数据（跨线程执行校验时使用，由调用方通过{@link #runBound(ContextData, BoundAction)}绑定到处理线程）
+     */
+    public static ContextData detached() {
+        ContextData data = new ContextData();
+        data.active = true;
+        return data;
+    }
+
+    /**
+     * 将指定的上下文数据绑定到当前线程，返回的Scope关闭时还原为绑定前的容器
+     */
+    public static Scope bind(ContextData data) {
+        ContextData previous = ContextStorage.current();
+        data.active = true;
+        ContextStorage.set(data);
+        return () -> ContextStorage.set(previous);
+    }
+
+    /**
+     * 获取上下文数据（未初始化时返回null）
+     */
+    public static ContextData getContextData() {
+        ContextData data = ContextStorage.current();
+        return data.active ? data : null;
+    }
+
+    /**
+     * 设置上下文数据
+     */
+    public static void setContextData(ContextData data) {
+        if (data != null) {
+            data.active = true;
+        }
+        ContextStorage.set(data);
+    }
+
+    /**
+     * 获取当前请求中请求体的解析结果（同一请求内各提取器共享，只解析一次），上下文未初始化时直接调用parser
+     */
+    public static <T> T parsedBody(ParsedBodyKey<T> key, Supplier<T> parser) {
+        ContextData data = getContextData();
+        return data != null ? data.extractionMemo.parsedBody(key, parser) : parser.get();
+    }
+
+    /**
+     * 获取当前上下文的不可变快照：请求线程返回当前请求数据的快照，异步执行线程返回恢复的快照，都没有时返回null
+     */
+    public static ContextSnapshot snapshot() {
+        ContextData data = getContextData();
+        return data != null ? data.snapshot() : RESTORED.get();
+    }
+
+    /**
+     * 捕获当前上下文用于异步传递（同{@link #snapshot()}，同一请求内多次捕获复用同一个快照）
+     */
+    public static ContextSnapshot capture() {
+        return snapshot();
+    }
+
+    /**
+     * 在当前线程恢复快照，返回的Scope关闭时还原为恢复前的状态（支持嵌套）
+     */
+    public static Scope restore(ContextSnapshot snapshot) {
+        ContextSnapshot previous = RESTORED.get();
+        setRestored(snapshot);
+        return () -> setRestored(previous);
+    }
+
+    private static void setRestored(ContextSnapshot snapshot) {
+        if (snapshot == null) {
+            RESTORED.remove();
+        } else {
+            RESTORED.set(snapshot);
+        }
+    }
+
+    /**
+     * 绑定范围内执行的动作
+     */
+    @FunctionalInterface
+    public interface BoundAction<X extends Exception> {
+        void run() throws X;
+    }
+
+    /**
+     * 快照恢复范围
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 上下文核心数据（线程内复用）
+     */
+    @Getter
+    @ToString
+    public static class ContextData {
+        @Setter
+        private String uri; // 请求URI
+        @Setter
+        private boolean enabled; // 是否启用验证
+        @Getter(AccessLevel.NONE)
+        private final PrincipalData principalData = new PrincipalData(); // 主体数据（复用）
+        private final List<TargetParameter> targetParameters = new ArrayList<>(); // 目标参数列表（当前请求已提取的参数）
+        @Setter
+        private MultiParamMode multiParamMode; // 多参数验证模式
+        // 精简参数名：是否使用缓存的request获取参数
+        @Setter
+        private boolean useCachedRequest;
+
+        // 复用的目标参数对象池（容量只增不减）
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final List<TargetParameter> targetPool = new ArrayList<>();
+        // 策略求值的记忆数组（按需扩容）
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private byte[] policyMemo = new byte[16];
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private boolean active;
+        // 缓存的快照（主体或目标参数变化时失效）
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private ContextSnapshot cachedSnapshot;
+        // 请求内的提取结果与请求体解析结果
+        @ToString.Exclude
+        private final ExtractionMemo extractionMemo = new ExtractionMemo();
+
+        /**
+         * 获取主体数据（尚未提取主体时返回null）
+         */
+        public PrincipalData getPrincipalData() {
+            return principalData.getName() != null ? principalData : null;
+        }
+
+        /**
+         * 开始填充主体数据：设置主体名称并清空值列表，返回复用的主体对象
+         */
+        public PrincipalData beginPrincipal(String name) {
+            cachedSnapshot = null;
+            principalData.name = name;
+            principalData.values.clear();
+            principalData.typedValues.reset();
+            return principalData;
+        }
+
+        /**
+         * 取出一个复用的目标参数对象并追加到目标参数列表
+         */
+        public TargetParameter nextTarget(String name, String validatorId) {
+            cachedSnapshot = null;
+            int index = targetParameters.size();
+            TargetParameter target;
+            if (index < targetPool.size()) {
+                target = targetPool.get(index);
+                target.values.clear();
+                target.typedValues.reset();
+            } else {
+                target = new TargetParameter();
+                targetPool.add(target);
+            }
+            target.name = name;
+            target.validatorId = validatorId;
+            targetParameters.add(target);
+            return target;
+        }
+
+        /**
+         * 获取已清零的策略记忆数组（长度不小于size）
+         */
+        public byte[] policyMemo(int size) {
+            if (policyMemo.length < size) {
+                policyMemo = new byte[Math.max(size, policyMemo.length << 1)];
+            } else {
+                Arrays.fill(policyMemo, 0, size, (byte) 0);
+            }
+            return policyMemo;
+        }
+
+        /**
+         * 生成不可变快照（规则校验完成后上下文不再变化，多次调用复用同一个快照）
+         */
+        public ContextSnapshot snapshot() {
+            if (cachedSnapshot == null) {
+                cachedSnapshot = new ContextSnapshot(this);
+            }
+            return cachedSnapshot;
+        }
+
+        /**
+         * 重置为初始状态（释放请求数据引用，保留已分配的容器）
+         */
+        ContextData reset() {
+            uri = null;
+            enabled = false;
+            principalData.name = null;
+            principalData.values.clear();
+            principalData.typedValues.reset();
+            for (int i = 0; i < targetParameters.size(); i++) {
+                TargetParameter target = targetParameters.get(i);
+                target.name = null;
+                target.validatorId = null;
+                target.values.clear();
+                target.typedValues.reset();
+            }
+            targetParameters.clear();
+            multiParamMode = null;
+            useCachedRequest = false;
+            active = false;
+            cachedSnapshot = null;
+            extractionMemo.reset();
+            return this;
+        }
+    }
+
+    /**
+     * 主体数据（当前操作主体）
+     */
+    @Getter
+    @ToString
+    public static class PrincipalData {
+        @Setter
+        private String name; // 主体名称（如"staffId"）
+        private final ValueList values = new ValueList(); // 主体值（支持多值，复用存储）
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final TypedValues typedValues = new TypedValues(); // 主体值的原始类型视图
+
+        /**
+         * 设置主体值（复制到复用的值列表）
+         */
+        public void setValues(List<String> values) {
+            this.values.clear();
+            this.typedValues.reset();
+            if (values != null) {
+                this.values.addAll(values);
+            }
+        }
+
+        /**
+         * 按指定类型获取主体值（同一请求内只解析一次）
+         */
+        public TypedValues getTypedValues(ValueType type) {
+            typedValues.ensure(type, values);
+            return typedValues;
+        }
+    }
+
+    /**
+     * 目标参数（需验证的参数）
+     */
+    @Getter
+    @ToString
+    public static class TargetParameter {
+        @Setter
+        private String name; // 参数名
+        private final ValueList values = new ValueList(); // 参数值（支持多值，复用存储）
+        @Setter
+        private String validatorId; // 验证器ID
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final TypedValues typedValues = new TypedValues(); // 参数值的原始类型视图
+
+        /**
+         * 设置参数值（复制到复用的值列表）
+         */
+        public void setValues(List<String> values) {
+            this.values.clear();
+            this.typedValues.reset();
+            if (values != null) {
+                this.values.addAll(values);
+            }
+        }
+
+        /**
+         * 按指定类型获取参数值（同一请求内只解析一次）
+         */
+        public TypedValues getTypedValues(ValueType type) {
+            typedValues.ensure(type, values);
+            return typedValues;
+        }
+
+        /**
+         * 值去重（保留首次出现的顺序），之后按LONG类型读取时数值同样去重并升序排列
+         *
+         * @return 去重后的值个数
+         */
+        public int distinct() {
+            values.removeDuplicates();
+            typedValues.reset();
+            typedValues.requireDistinct();
+            return values.size();
+        }
+    }
+
+}
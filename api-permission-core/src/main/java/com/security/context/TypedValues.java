@@ -0,0 +1,259 @@
+package com.security.context;
+
+import com.security.enums.ValueType;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * 参数值的原始类型视图：按声明的ValueType将字符串值解析一次，存入可复用的long数组
+ * <p>
+ * LONG类型每个值占一个槽位；UUID类型每个值占两个槽位（高64位、低64位）。任一值格式错误时标记为malformed。
+ * 参数要求去重时，LONG值解析后按数值去重并升序排列（与字符串值的下标不再一一对应），包含判断使用二分查找。
+ * 数组随上下文在请求间复用，不要在请求之外保存其引用。
+ */
+public final class TypedValues {
+
+    private ValueType type = ValueType.STRING;
+    private long[] slots = new long[4];
+    private int size;
+    private boolean malformed;
+    private boolean parsed;
+    // 按数值去重并排序（由参数的去重配置决定）
+    private boolean distinct;
+    private boolean sorted;
+
+    /**
+     * 值类型
+     */
+    public ValueType getType() {
+        return type;
+    }
+
+    /**
+     * 值个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否存在无法按声明类型解析的值
+     */
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    /**
+     * 获取LONG值
+     */
+    public long getLong(int index) {
+        checkIndex(ValueType.LONG, index);
+        return slots[index];
+    }
+
+    /**
+     * LONG值的底层数组（前size()个有效）
+     */
+    public long[] longArray() {
+        checkType(ValueType.LONG);
+        return slots;
+    }
+
+    /**
+     * LONG值是否已去重并升序排列
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * 是否包含指定LONG值
+     */
+    public boolean containsLong(long value) {
+        checkType(ValueType.LONG);
+        if (sorted) {
+            return Arrays.binarySearch(slots, 0, size, value) >= 0;
+        }
+        for (int i = 0; i < size; i++) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * UUID的高64位
+     */
+    public long getMostSignificantBits(int index) {
+        checkIndex(ValueType.UUID, index);
+        return slots[index << 1];
+    }
+
+    /**
+     * UUID的低64位
+     */
+    public long getLeastSignificantBits(int index) {
+        checkIndex(ValueType.UUID, index);
+        return slots[(index << 1) + 1];
+    }
+
+    /**
+     * 获取UUID对象（会分配对象，热点路径优先使用高/低位访问）
+     */
+    public UUID getUuid(int index) {
+        return new UUID(getMostSignificantBits(index), getLeastSignificantBits(index));
+    }
+
+    /**
+     * 按指定类型解析字符串值（同一类型只解析一次，值变更后需先reset）
+     */
+    void ensure(ValueType targetType, ValueList source) {
+        if (parsed && type == targetType) {
+            return;
+        }
+        type = targetType;
+        size = 0;
+        malformed = false;
+        parsed = true;
+        sorted = false;
+
+        int slotCount = targetType == ValueType.UUID ? source.size() << 1 : targetType == ValueType.LONG ? source.size() : 0;
+        if (slots.length < slotCount) {
+            slots = new long[Math.max(slotCount, slots.length << 1)];
+        }
+        if (targetType == ValueType.STRING) {
+            size = source.size();
+            return;
+        }
+        for (int i = 0; i < source.size(); i++) {
+            String value = source.get(i);
+            boolean ok = value != null && (targetType == ValueType.LONG ? parseLong(value, size) : parseUuid(value, size));
+            if (!ok) {
+                malformed = true;
+                size = 0;
+                return;
+            }
+            size++;
+        }
+        if (distinct && targetType == ValueType.LONG) {
+            sortDistinct();
+        }
+    }
+
+    private void sortDistinct() {
+        Arrays.sort(slots, 0, size);
+        int kept = size > 0 ? 1 : 0;
+        for (int i = 1; i < size; i++) {
+            if (slots[i] != slots[kept - 1]) {
+                slots[kept++] = slots[i];
+            }
+        }
+        size = kept;
+        sorted = true;
+    }
+
+    /**
+     * 重置（值列表变更时调用）
+     */
+    void reset() {
+        type = ValueType.STRING;
+        size = 0;
+        malformed = false;
+        parsed = false;
+        distinct = false;
+        sorted = false;
+    }
+
+    /**
+     * 之后的LONG解析按数值去重并排序（reset后失效）
+     */
+    void requireDistinct() {
+        distinct = true;
+        parsed = false;
+    }
+
+    private void checkType(ValueType expected) {
+        if (type != expected) {
+            throw new IllegalStateException("参数值类型为" + type + "，不能按" + expected + "读取");
+        }
+    }
+
+    private void checkIndex(ValueType expected, int index) {
+        checkType(expected);
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    // 十进制解析（与Long.parseLong语义一致，失败时返回false而不是抛出异常）
+    private boolean parseLong(String value, int index) {
+        int length = value.length();
+        if (length == 0) {
+            return false;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (length == 1) {
+                return false;
+            }
+            i = 1;
+        }
+        // 按负数累加，避免Long.MIN_VALUE溢出
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        slots[index] = negative ? result : -result;
+        return true;
+    }
+
+    // 标准格式UUID解析：8-4-4-4-12位十六进制
+    private boolean parseUuid(String value, int index) {
+        if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return false;
+        }
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return false;
+            }
+            if (i < 18) {
+                most = (most << 4) | digit;
+            } else {
+                least = (least << 4) | digit;
+            }
+        }
+        slots[index << 1] = most;
+        slots[(index << 1) + 1] = least;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (type == ValueType.STRING || malformed) {
+            return type + (malformed ? "(malformed)" : "");
+        }
+        return type + (type == ValueType.LONG ? Arrays.toString(Arrays.copyOf(slots, size)) : "[" + size + "]");
+    }
+}
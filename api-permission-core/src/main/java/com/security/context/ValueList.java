@@ -0,0 +1,164 @@
+package com.security.context;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * 可复用的参数值列表：基于可增长数组，clear后保留容量，供上下文在请求间重复使用
+ * <p>
+ * 仅支持追加、清空和原地去重，不支持按位置插入/删除；需要在请求结束后继续使用的值请通过{@link #toImmutableList()}复制。
+ */
+public final class ValueList extends AbstractList<String> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 4;
+    // 不超过此个数时逐个比较去重，不使用下标表
+    private static final int LINEAR_DEDUPE_LIMIT = 8;
+
+    private String[] elements;
+    private int size;
+    // 去重用的开放寻址下标表（存放下标+1，0表示空槽）及对应的哈希值，随列表复用
+    private int[] dedupeTable;
+    private int[] dedupeHashes;
+
+    public ValueList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ValueList(int initialCapacity) {
+        this.elements = new String[Math.max(initialCapacity, 1)];
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(String value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = value;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> values) {
+        if (values.isEmpty()) {
+            return false;
+        }
+        // 随机访问列表按下标遍历，避免创建迭代器
+        if (values instanceof List && values instanceof RandomAccess) {
+            List<? extends String> list = (List<? extends String>) values;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                add(list.get(i));
+            }
+        } else {
+            for (String value : values) {
+                add(value);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清空列表（释放元素引用，保留数组容量）
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * 原地去重（保留首次出现的顺序）
+     *
+     * @return 去重后的个数
+     */
+    public int removeDuplicates() {
+        if (size < 2) {
+            return size;
+        }
+        int kept = size <= LINEAR_DEDUPE_LIMIT ? dedupeLinear() : dedupeHashed();
+        if (kept < size) {
+            Arrays.fill(elements, kept, size, null);
+            size = kept;
+            modCount++;
+        }
+        return size;
+    }
+
+    private int dedupeLinear() {
+        int kept = 0;
+        outer:
+        for (int i = 0; i < size; i++) {
+            String value = elements[i];
+            for (int j = 0; j < kept; j++) {
+                if (Objects.equals(elements[j], value)) {
+                    continue outer;
+                }
+            }
+            elements[kept++] = value;
+        }
+        return kept;
+    }
+
+    private int dedupeHashed() {
+        // 装载因子不超过0.5
+        int bits = 33 - Integer.numberOfLeadingZeros(size - 1);
+        int capacity = 1 << bits;
+        if (dedupeTable == null || dedupeTable.length < capacity) {
+            dedupeTable = new int[capacity];
+            dedupeHashes = new int[capacity];
+        } else {
+            Arrays.fill(dedupeTable, 0, capacity, 0);
+        }
+        int[] table = dedupeTable;
+        int[] hashes = dedupeHashes;
+        int mask = capacity - 1;
+        int kept = 0;
+        outer:
+        for (int i = 0; i < size; i++) {
+            String value = elements[i];
+            int hash = value == null ? 0 : value.hashCode();
+            // 乘法散列打散连续的哈希值（数字ID的字符串哈希值往往相邻）
+            int slot = (hash * 0x9E3779B9) >>> (32 - bits);
+            while (table[slot] != 0) {
+                if (hashes[slot] == hash && Objects.equals(elements[table[slot] - 1], value)) {
+                    continue outer;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // 保留的值前移到kept位置（kept <= i，已保留的位置不会被覆盖）
+            elements[kept] = value;
+            hashes[slot] = hash;
+            table[slot] = ++kept;
+        }
+        return kept;
+    }
+
+    /**
+     * 复制为不可变列表（用于需要脱离请求生命周期的场景）
+     */
+    public List<String> toImmutableList() {
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(elements, size)));
+    }
+}
@@ -0,0 +1,183 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.ExtractionKey;
+import com.security.context.PermissionContext;
+import com.security.enums.ParamSource;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.RequestExtractor;
+import com.security.policy.CompiledPolicy;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 解释执行的规则校验器：构建时预解析提取器与验证器，请求时按编译后的策略短路求值
+ * <p>
+ * 预解析失败（提取器不存在、来源不匹配、验证器不存在）的参数在请求时重新查找，保持原有的报错行为。
+ *
+ * @param <R> 请求类型
+ */
+@Slf4j
+public class InterpretedRuleChecker<R> implements RuleChecker<R> {
+
+    private final ApiPermissionConfig.Rule rule;
+    private final CompiledPolicy policy;
+    private final ExtractorFactory<R> extractorFactory;
+    private final ValidatorFactory validatorFactory;
+
+    // 预解析结果（下标对应paramRules），解析失败为null
+    private final RequestExtractor<R> principalExtractor;
+    private final RequestExtractor<R>[] targetExtractors;
+    private final PermissionValidator[] validators;
+    // 需要经请求级记忆的提取键（下标0为主体，i+1对应paramRules[i]），不需要记忆为null
+    private final ExtractionKey[] sharedKeys;
+
+    // 求值状态：所有校验器共用，每个线程一个（求值期间再次进入校验时另行创建）
+    private static final ThreadLocal<Evaluation<?>> EVALUATIONS = ThreadLocal.withInitial(Evaluation::new);
+
+    @SuppressWarnings("unchecked")
+    public InterpretedRuleChecker(ApiPermissionConfig.Rule rule, ExtractorFactory<R> extractorFactory, ValidatorFactory validatorFactory) {
+        if (rule.getCompiledPolicy() == null) {
+            throw new IllegalStateException("规则[" + rule.getUriPattern() + "]未完成策略编译");
+        }
+        this.rule = rule;
+        this.policy = rule.getCompiledPolicy();
+        this.extractorFactory = extractorFactory;
+        this.validatorFactory = validatorFactory;
+
+        ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+        this.principalExtractor = resolveExtractor(principalParam.getParseMethod(), principalParam.getSource());
+
+        List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+        this.targetExtractors = (RequestExtractor<R>[]) new RequestExtractor<?>[paramRules.size()];
+        this.validators = new PermissionValidator[paramRules.size()];
+        for (int i = 0; i < paramRules.size(); i++) {
+            ApiPermissionConfig.ParamRule paramRule = paramRules.get(i);
+            targetExtractors[i] = resolveExtractor(paramRule.getParseMethod(), paramRule.getSource());
+            validators[i] = resolveValidator(paramRule.getValidatorId());
+        }
+        this.sharedKeys = RuleCheckerSupport.sharedKeys(rule);
+    }
+
+    @Override
+    public boolean check(R request, PermissionContext.ContextData contextData) {
+        boolean useCachedRequest = contextData.isUseCachedRequest();
+
+        // 1. 提取主体参数（写入上下文复用的主体对象）
+        ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+        RequestExtractor<R> extractor = principalExtractor != null ? principalExtractor
+                : requireExtractor(principalParam.getParseMethod(), principalParam.getSource(), "主体参数：" + principalParam.getName());
+        PermissionContext.PrincipalData principal = RuleCheckerSupport.beginPrincipal(principalParam.getName(), contextData);
+        ExtractionKey principalKey = sharedKeys[0];
+        if (principalKey == null || !RuleCheckerSupport.recall(principalKey, contextData, principal.getValues())) {
+            extractor.extractInto(request, principalParam.getName(), principalParam.getParseConfig(), principalParam.getSource(), useCachedRequest, principal.getValues());
+            if (principalKey != null) {
+                RuleCheckerSupport.remember(principalKey, contextData, principal.getValues());
+            }
+        }
+        RuleCheckerSupport.requirePrincipal(principal, principalParam.getValueType());
+
+        // 2. 按策略短路求值，目标参数按需提取（求值状态与记忆数组均在线程内复用）
+        Evaluation<R> evaluation = evaluation();
+        evaluation.bind(this, request, contextData, principal, useCachedRequest);
+        try {
+            return policy.evaluate(evaluation, contextData.policyMemo(policy.size()));
+        } finally {
+            evaluation.unbind();
+        }
+    }
+
+    // 取当前线程的求值状态；验证器在求值期间再次触发校验（重入）时使用新对象，不覆盖外层的绑定
+    @SuppressWarnings("unchecked")
+    private static <R> Evaluation<R> evaluation() {
+        Evaluation<R> evaluation = (Evaluation<R>) EVALUATIONS.get();
+        return evaluation.checker == null ? evaluation : new Evaluation<>();
+    }
+
+    /**
+     * 单次求值的参数校验回调，线程内复用，求值结束后释放请求与校验器引用
+     * <p>
+     * 线程变量为静态字段，内存只随线程数增长，与规则数无关；求值结束后不再引用校验器，已卸载的规则（热更新、租户卸载）可以回收。
+     */
+    private static final class Evaluation<R> implements CompiledPolicy.ParamCheck {
+        private InterpretedRuleChecker<R> checker;
+        private R request;
+        private PermissionContext.ContextData contextData;
+        private PermissionContext.PrincipalData principal;
+        private boolean useCachedRequest;
+
+        void bind(InterpretedRuleChecker<R> checker, R request, PermissionContext.ContextData contextData,
+                  PermissionContext.PrincipalData principal, boolean useCachedRequest) {
+            this.checker = checker;
+            this.request = request;
+            this.contextData = contextData;
+            this.principal = principal;
+            this.useCachedRequest = useCachedRequest;
+        }
+
+        void unbind() {
+            this.checker = null;
+            this.request = null;
+            this.contextData = null;
+            this.principal = null;
+        }
+
+        @Override
+        public boolean check(int index) {
+            return checker.checkParam(index, request, contextData, principal, useCachedRequest);
+        }
+    }
+
+    // 提取并验证paramRules[index]（策略求值时按需调用）
+    private boolean checkParam(int index, R request, PermissionContext.ContextData contextData,
+                               PermissionContext.PrincipalData principal, boolean useCachedRequest) {
+        ApiPermissionConfig.ParamRule paramRule = rule.getParamRules().get(index);
+        RequestExtractor<R> targetExtractor = targetExtractors[index] != null ? targetExtractors[index]
+                : requireExtractor(paramRule.getParseMethod(), paramRule.getSource(), "参数：" + paramRule.getParamName());
+        PermissionContext.TargetParameter target = RuleCheckerSupport.nextTarget(paramRule.getParamName(), paramRule.getValidatorId(), contextData);
+        ExtractionKey key = sharedKeys[index + 1];
+        if (key == null || !RuleCheckerSupport.recall(key, contextData, target.getValues())) {
+            targetExtractor.extractInto(request, paramRule.getParamName(), paramRule.getParseConfig(), paramRule.getSource(), useCachedRequest, target.getValues());
+            if (key != null) {
+                RuleCheckerSupport.remember(key, contextData, target.getValues());
+            }
+        }
+        if (!RuleCheckerSupport.completeTarget(target, paramRule.getValueType(),
+                paramRule.isDistinctValues(), paramRule.getMaxValues())) {
+            return false;
+        }
+
+        PermissionValidator validator = validators[index] != null ? validators[index] : validatorFactory.getValidator(paramRule.getValidatorId());
+        return validator.validate(principal, target);
+    }
+
+    private RequestExtractor<R> resolveExtractor(String parseMethod, ParamSource source) {
+        try {
+            RequestExtractor<R> extractor = extractorFactory.getExtractor(parseMethod);
+            return extractor.supportSources().contains(source) ? extractor : null;
+        } catch (IllegalArgumentException e) {
+            log.error("规则[{}]预解析提取器失败：{}", rule.getUriPattern(), e.getMessage());
+            return null;
+        }
+    }
+
+    private PermissionValidator resolveValidator(String validatorId) {
+        try {
+            return validatorFactory.getValidator(validatorId);
+        } catch (IllegalArgumentException e) {
+            log.error("规则[{}]预解析验证器失败：{}", rule.getUriPattern(), e.getMessage());
+            return null;
+        }
+    }
+
+    private RequestExtractor<R> requireExtractor(String parseMethod, ParamSource source, String paramDesc) {
+        RequestExtractor<R> extractor = extractorFactory.getExtractor(parseMethod);
+        if (!extractor.supportSources().contains(source)) {
+            throw new IllegalArgumentException(parseMethod + "提取器不支持" + source + "来源（" + paramDesc + "）");
+        }
+        return extractor;
+    }
+}
@@ -0,0 +1,144 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleSnapshot;
+import com.security.config.TenantRuleTables;
+import com.security.context.PermissionContext;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.RequestExtractor;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+
+import java.util.List;
+
+/**
+ * 权限引擎门面：不依赖Spring容器组装提取器、验证器、规则校验器与URI匹配
+ * <p>
+ * 供网关、RPC、批处理等非Web框架场景直接使用；Spring Boot下由自动配置分别创建各组件，不经过此类。
+ * 配置对象需已完成{@link ApiPermissionConfig#initialize()}。传入{@link TenantRuleTables}时按租户选择规则。
+ *
+ * @param <R> 请求类型
+ */
+public class PermissionEngine<R> {
+
+    private final ApiPermissionConfig globalConfig;
+
+    private final RuleMatcher ruleMatcher;
+
+    private final RuleCheckerRegistry<R> ruleCheckerRegistry;
+
+    // 候选规则的影子评估（可选）
+    private ShadowEvaluator<R> shadowEvaluator;
+
+    public PermissionEngine(ApiPermissionConfig globalConfig, List<? extends RequestExtractor<R>> extractors,
+                            List<? extends PermissionValidator> validators) {
+        this(globalConfig, null, extractors, validators);
+    }
+
+    /**
+     * @param tenantRuleTables 多租户规则表（为null时只使用全局规则）
+     */
+    public PermissionEngine(ApiPermissionConfig globalConfig, TenantRuleTables tenantRuleTables,
+                            List<? extends RequestExtractor<R>> extractors, List<? extends PermissionValidator> validators) {
+        this.globalConfig = globalConfig;
+        this.ruleMatcher = new RuleMatcher(globalConfig, tenantRuleTables);
+        this.ruleCheckerRegistry = new RuleCheckerRegistry<>(globalConfig, new ExtractorFactory<>(extractors), new ValidatorFactory(validators));
+        if (tenantRuleTables != null) {
+            tenantRuleTables.addListener(ruleCheckerRegistry);
+        }
+    }
+
+    /**
+     * 设置影子评估：每次校验后按抽样比例以候选规则评估同一请求，只记录决策差异（传null关闭）
+     */
+    public void setShadowEvaluator(ShadowEvaluator<R> shadowEvaluator) {
+        this.shadowEvaluator = shadowEvaluator;
+    }
+
+    /**
+     * 校验请求是否有权访问URI（全局开关关闭、无匹配规则或规则关闭时放行）
+     * <p>
+     * 当前线程已有权限上下文时在该上下文中校验，否则建立临时上下文并在返回前清理。
+     * 配置了多租户规则时只能从URI解析租户标识（PATH来源），其他来源使用{@link #isPermitted(String, String, Object)}。
+     */
+    public boolean isPermitted(String uri, R request) {
+        return isPermitted(ruleMatcher.resolveTenant(uri, null, null), uri, request);
+    }
+
+    /**
+     * 按租户生效的规则校验请求是否有权访问URI（tenant为null时使用全局规则）
+     *
+     * @throws IllegalArgumentException 租户标识格式不正确
+     * @throws IllegalStateException    租户规则加载失败
+     */
+    public boolean isPermitted(String tenant, String uri, R request) {
+        if (!globalConfig.isEnabled()) {
+            shadow(null, uri, request, ShadowEvaluator.Outcome.ALLOW);
+            return true;
+        }
+        RuleSnapshot snapshot = ruleMatcher.snapshotFor(tenant);
+        RuleMatch match = ruleMatcher.matchFor(snapshot, uri);
+        if (match == null || !match.getRule().isEnabled()) {
+            shadow(snapshot.getTenant(), uri, request, ShadowEvaluator.Outcome.ALLOW);
+            return true;
+        }
+
+        ApiPermissionConfig.Rule rule = match.getRule();
+        R prepared = prepare(request, match);
+        PermissionContext.ContextData contextData = PermissionContext.getContextData();
+        if (contextData != null) {
+            return check(uri, rule, prepared, contextData);
+        }
+
+        boolean[] permitted = new boolean[1];
+        PermissionContext.runBound(() -> {
+            PermissionContext.init();
+            try {
+                PermissionContext.ContextData data = PermissionContext.getContextData();
+                data.setUri(uri);
+                data.setUseCachedRequest(true);
+                permitted[0] = check(uri, rule, prepared, data);
+            } finally {
+                PermissionContext.clear();
+            }
+        });
+        return permitted[0];
+    }
+
+    /**
+     * 匹配URI对应的规则（未匹配返回null）
+     */
+    public ApiPermissionConfig.Rule match(String uri) {
+        return ruleMatcher.match(uri);
+    }
+
+    /**
+     * 校验前对请求的预处理（默认原样返回，适配层可按匹配结果补充路径变量等信息）
+     */
+    protected R prepare(R request, RuleMatch match) {
+        return request;
+    }
+
+    private boolean check(String uri, ApiPermissionConfig.Rule rule, R request, PermissionContext.ContextData contextData) {
+        contextData.setMultiParamMode(rule.getMultiParamMode());
+        boolean permitted;
+        try {
+            permitted = ruleCheckerRegistry.getChecker(rule).check(request, contextData);
+        } catch (RuntimeException e) {
+            shadow(rule.getTenant(), uri, request, ShadowEvaluator.Outcome.of(e));
+            throw e;
+        }
+        shadow(rule.getTenant(), uri, request, permitted ? ShadowEvaluator.Outcome.ALLOW : ShadowEvaluator.Outcome.DENY);
+        return permitted;
+    }
+
+    // 候选规则对应全局规则，按租户规则（tenant不为null）校验的请求不参与影子评估
+    private void shadow(String tenant, String uri, R request, ShadowEvaluator.Outcome active) {
+        ShadowEvaluator<R> evaluator = shadowEvaluator;
+        if (evaluator != null && tenant == null) {
+            // 与校验时一致：已有上下文时沿用其设置，否则与临时上下文相同
+            PermissionContext.ContextData contextData = PermissionContext.getContextData();
+            evaluator.evaluate(uri, request, contextData == null || contextData.isUseCachedRequest(), active);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.security.engine;
+
+import com.security.context.PermissionContext;
+
+/**
+ * 规则校验器：针对单条规则执行主体提取、目标参数提取与验证
+ * <p>
+ * 由RuleCheckerRegistry在配置加载时为每条启用的规则构建，实现为解释执行（InterpretedRuleChecker）
+ * 或字节码生成（RuleCheckerGenerator）。
+ *
+ * @param <R> 请求类型（Servlet适配为HttpServletRequest，核心内置为PermissionRequest）
+ */
+public interface RuleChecker<R> {
+    /**
+     * 执行规则校验，提取的主体和目标参数写入上下文
+     *
+     * @param request     请求对象
+     * @param contextData 当前请求的权限上下文
+     * @return 验证结果（true：通过；false：不通过）
+     */
+    boolean check(R request, PermissionContext.ContextData contextData);
+}
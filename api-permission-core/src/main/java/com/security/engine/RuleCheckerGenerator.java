@@ -0,0 +1,355 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.ExtractionKey;
+import com.security.context.PermissionContext;
+import com.security.context.ValueList;
+import com.security.enums.ParamSource;
+import com.security.enums.PolicyOperator;
+import com.security.enums.ValueType;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.RequestExtractor;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 规则校验类生成器：为每条规则生成一个专用的RuleChecker实现类
+ * <p>
+ * 生成类的字段类型为具体的提取器/验证器类，调用点为invokevirtual，每个调用点只有一个接收者类型（单态），
+ * JIT可以直接内联；多参数模式按参数展开为顺序的短路分支，不再经过通用循环与策略求值。
+ * <p>
+ * 仅支持扁平策略（multiParamMode或仅包含PARAM子节点的AND/OR），其他情况返回null，由调用方回退为解释执行。
+ * 同一个生成器实例使用同一个类加载器，配置重建时丢弃生成器即可卸载生成的类。
+ * <p>
+ * 规则内重复的提取（同一来源、解析方式、解析配置与参数名）生成为先查请求级记忆、未命中再调用提取器，其余提取直接调用。
+ * <p>
+ * 请求参数按擦除后的Object传递：提取器覆盖了具体请求类型的extractInto时调用其桥接方法，否则调用接口的默认实现。
+ *
+ * @param <R> 请求类型
+ */
+public class RuleCheckerGenerator<R> {
+
+    private static final String GENERATED_PACKAGE = "com/security/engine/generated/";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String PRINCIPAL_FIELD = "principalExtractor";
+    private static final String EXTRACTOR_FIELD = "extractor";
+    private static final String VALIDATOR_FIELD = "validator";
+    private static final String PRINCIPAL_KEY_FIELD = "principalKey";
+    private static final String KEY_FIELD = "key";
+
+    // 局部变量槽位：0=this，1=request，2=contextData
+    private static final int USE_CACHED_SLOT = 3;
+    private static final int PRINCIPAL_SLOT = 4;
+    private static final int TARGET_SLOT = 5;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final String CHECK_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+            Type.getType(Object.class), Type.getType(PermissionContext.ContextData.class));
+    private static final String EXTRACT_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(Object.class), Type.getType(String.class), Type.getType(String.class),
+            Type.getType(ParamSource.class), Type.BOOLEAN_TYPE, Type.getType(ValueList.class));
+    private static final String VALIDATE_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+            Type.getType(PermissionContext.PrincipalData.class), Type.getType(PermissionContext.TargetParameter.class));
+    private static final String BEGIN_PRINCIPAL_DESC = Type.getMethodDescriptor(Type.getType(PermissionContext.PrincipalData.class),
+            Type.getType(String.class), Type.getType(PermissionContext.ContextData.class));
+    private static final String REQUIRE_PRINCIPAL_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(PermissionContext.PrincipalData.class), Type.getType(ValueType.class));
+    private static final String COMPLETE_TARGET_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+            Type.getType(PermissionContext.TargetParameter.class), Type.getType(ValueType.class), Type.BOOLEAN_TYPE, Type.INT_TYPE);
+    private static final String NEXT_TARGET_DESC = Type.getMethodDescriptor(Type.getType(PermissionContext.TargetParameter.class),
+            Type.getType(String.class), Type.getType(String.class), Type.getType(PermissionContext.ContextData.class));
+    private static final String MEMO_DESC = Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+            Type.getType(ExtractionKey.class), Type.getType(PermissionContext.ContextData.class), Type.getType(ValueList.class));
+    private static final String REMEMBER_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(ExtractionKey.class), Type.getType(PermissionContext.ContextData.class), Type.getType(ValueList.class));
+    private static final String GET_VALUES_DESC = Type.getMethodDescriptor(Type.getType(ValueList.class));
+
+    private final GeneratedClassLoader classLoader;
+    private final ExtractorFactory<R> extractorFactory;
+    private final ValidatorFactory validatorFactory;
+
+    public RuleCheckerGenerator(ExtractorFactory<R> extractorFactory, ValidatorFactory validatorFactory) {
+        ClassLoader parent = Thread.currentThread().getContextClassLoader();
+        this.classLoader = new GeneratedClassLoader(parent != null ? parent : RuleChecker.class.getClassLoader());
+        this.extractorFactory = extractorFactory;
+        this.validatorFactory = validatorFactory;
+    }
+
+    /**
+     * 为规则生成校验类
+     *
+     * @return 生成的校验器；规则策略不是扁平结构时返回null
+     * @throws IllegalStateException 提取器/验证器无法解析或不可访问时
+     */
+    @SuppressWarnings("unchecked")
+    public RuleChecker<R> generate(ApiPermissionConfig.Rule rule) {
+        int[] paramOrder = rule.getCompiledPolicy().flatParamIndexes();
+        if (paramOrder == null) {
+            return null;
+        }
+        boolean allMatch = rule.getCompiledPolicy().rootOperator() != PolicyOperator.OR;
+
+        // 1. 解析具体的提取器和验证器
+        ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+        RequestExtractor<?> principalExtractor = resolveExtractor(principalParam.getParseMethod(), principalParam.getSource());
+        List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+        RequestExtractor<?>[] extractors = new RequestExtractor<?>[paramOrder.length];
+        PermissionValidator[] validators = new PermissionValidator[paramOrder.length];
+        for (int i = 0; i < paramOrder.length; i++) {
+            ApiPermissionConfig.ParamRule paramRule = paramRules.get(paramOrder[i]);
+            extractors[i] = resolveExtractor(paramRule.getParseMethod(), paramRule.getSource());
+            validators[i] = validatorFactory.getValidator(paramRule.getValidatorId());
+            checkAccessible(extractors[i].getClass());
+            checkAccessible(validators[i].getClass());
+        }
+        checkAccessible(principalExtractor.getClass());
+        checkAccessible(RuleChecker.class);
+        checkAccessible(RuleCheckerSupport.class);
+
+        // 需要记忆的提取键（按生成顺序重排，下标0为主体）
+        ExtractionKey[] ruleKeys = RuleCheckerSupport.sharedKeys(rule);
+        ExtractionKey[] keys = new ExtractionKey[paramOrder.length + 1];
+        keys[0] = ruleKeys[0];
+        for (int i = 0; i < paramOrder.length; i++) {
+            keys[i + 1] = ruleKeys[paramOrder[i] + 1];
+        }
+
+        // 2. 生成并加载校验类
+        String internalName = GENERATED_PACKAGE + "GeneratedRuleChecker" + SEQUENCE.incrementAndGet();
+        byte[] bytecode = generateClass(internalName, rule, paramOrder, allMatch, principalExtractor, extractors, validators, keys);
+        Class<?> checkerClass = classLoader.define(internalName.replace('/', '.'), bytecode);
+
+        // 3. 实例化并注入具体实现
+        try {
+            Object checker = checkerClass.getConstructor().newInstance();
+            checkerClass.getField(PRINCIPAL_FIELD).set(checker, principalExtractor);
+            if (keys[0] != null) {
+                checkerClass.getField(PRINCIPAL_KEY_FIELD).set(checker, keys[0]);
+            }
+            for (int i = 0; i < paramOrder.length; i++) {
+                checkerClass.getField(EXTRACTOR_FIELD + i).set(checker, extractors[i]);
+                checkerClass.getField(VALIDATOR_FIELD + i).set(checker, validators[i]);
+                if (keys[i + 1] != null) {
+                    checkerClass.getField(KEY_FIELD + i).set(checker, keys[i + 1]);
+                }
+            }
+            return (RuleChecker<R>) checker;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("生成的校验类实例化失败：" + checkerClass.getName(), e);
+        }
+    }
+
+    private byte[] generateClass(String internalName, ApiPermissionConfig.Rule rule, int[] paramOrder, boolean allMatch,
+                                 RequestExtractor<?> principalExtractor, RequestExtractor<?>[] extractors, PermissionValidator[] validators,
+                                 ExtractionKey[] keys) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // 生成代码中不存在不同引用类型的分支合并，无需加载类计算公共父类
+                return OBJECT;
+            }
+        };
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null, OBJECT,
+                new String[]{Type.getInternalName(RuleChecker.class)});
+
+        // 字段：具体类型的提取器与验证器
+        cw.visitField(Opcodes.ACC_PUBLIC, PRINCIPAL_FIELD, Type.getDescriptor(principalExtractor.getClass()), null, null).visitEnd();
+        for (int i = 0; i < paramOrder.length; i++) {
+            cw.visitField(Opcodes.ACC_PUBLIC, EXTRACTOR_FIELD + i, Type.getDescriptor(extractors[i].getClass()), null, null).visitEnd();
+            cw.visitField(Opcodes.ACC_PUBLIC, VALIDATOR_FIELD + i, Type.getDescriptor(validators[i].getClass()), null, null).visitEnd();
+        }
+        // 字段：需要记忆的提取键
+        if (keys[0] != null) {
+            cw.visitField(Opcodes.ACC_PUBLIC, PRINCIPAL_KEY_FIELD, Type.getDescriptor(ExtractionKey.class), null, null).visitEnd();
+        }
+        for (int i = 0; i < paramOrder.length; i++) {
+            if (keys[i + 1] != null) {
+                cw.visitField(Opcodes.ACC_PUBLIC, KEY_FIELD + i, Type.getDescriptor(ExtractionKey.class), null, null).visitEnd();
+            }
+        }
+
+        // 无参构造器
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "check", CHECK_DESC, null, null);
+        mv.visitCode();
+
+        // boolean useCachedRequest = contextData.isUseCachedRequest();
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(PermissionContext.ContextData.class), "isUseCachedRequest", "()Z", false);
+        mv.visitVarInsn(Opcodes.ISTORE, USE_CACHED_SLOT);
+
+        // PrincipalData principal = RuleCheckerSupport.beginPrincipal(name, contextData);
+        // principalExtractor.extractInto(request, name, parseConfig, ParamSource.X, useCachedRequest, principal.getValues());
+        // RuleCheckerSupport.requirePrincipal(principal, ValueType.X);
+        String support = Type.getInternalName(RuleCheckerSupport.class);
+        ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+        mv.visitLdcInsn(principalParam.getName());
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "beginPrincipal", BEGIN_PRINCIPAL_DESC, false);
+        mv.visitVarInsn(Opcodes.ASTORE, PRINCIPAL_SLOT);
+        visitExtract(mv, internalName, PRINCIPAL_FIELD, principalExtractor.getClass(), principalParam.getName(), principalParam.getParseConfig(),
+                principalParam.getSource(), PRINCIPAL_SLOT, Type.getInternalName(PermissionContext.PrincipalData.class),
+                keys[0] != null ? PRINCIPAL_KEY_FIELD : null);
+        mv.visitVarInsn(Opcodes.ALOAD, PRINCIPAL_SLOT);
+        visitValueType(mv, principalParam.getValueType());
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "requirePrincipal", REQUIRE_PRINCIPAL_DESC, false);
+
+        // 逐个参数展开：取复用的目标参数 -> 提取 -> 类型解析 -> 验证 -> 短路返回
+        for (int i = 0; i < paramOrder.length; i++) {
+            ApiPermissionConfig.ParamRule paramRule = rule.getParamRules().get(paramOrder[i]);
+            mv.visitLdcInsn(paramRule.getParamName());
+            visitString(mv, paramRule.getValidatorId());
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "nextTarget", NEXT_TARGET_DESC, false);
+            mv.visitVarInsn(Opcodes.ASTORE, TARGET_SLOT);
+            visitExtract(mv, internalName, EXTRACTOR_FIELD + i, extractors[i].getClass(), paramRule.getParamName(), paramRule.getParseConfig(),
+                    paramRule.getSource(), TARGET_SLOT, Type.getInternalName(PermissionContext.TargetParameter.class),
+                    keys[i + 1] != null ? KEY_FIELD + i : null);
+
+            // 类型解析失败视为该参数校验不通过
+            Label fail = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, TARGET_SLOT);
+            visitValueType(mv, paramRule.getValueType());
+            mv.visitInsn(paramRule.isDistinctValues() ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+            mv.visitLdcInsn(paramRule.getMaxValues());
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "completeTarget", COMPLETE_TARGET_DESC, false);
+            mv.visitJumpInsn(Opcodes.IFEQ, fail);
+
+            String validatorOwner = Type.getInternalName(validators[i].getClass());
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, internalName, VALIDATOR_FIELD + i, Type.getDescriptor(validators[i].getClass()));
+            mv.visitVarInsn(Opcodes.ALOAD, PRINCIPAL_SLOT);
+            mv.visitVarInsn(Opcodes.ALOAD, TARGET_SLOT);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, validatorOwner, "validate", VALIDATE_DESC, false);
+
+            // ALL_MATCH：不通过立即返回false；ANY_MATCH：通过立即返回true，不通过继续下一个参数
+            if (allMatch) {
+                Label next = new Label();
+                mv.visitJumpInsn(Opcodes.IFNE, next);
+                mv.visitLabel(fail);
+                mv.visitInsn(Opcodes.ICONST_0);
+                mv.visitInsn(Opcodes.IRETURN);
+                mv.visitLabel(next);
+            } else {
+                mv.visitJumpInsn(Opcodes.IFEQ, fail);
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IRETURN);
+                mv.visitLabel(fail);
+            }
+        }
+        mv.visitInsn(allMatch ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 生成 this.field.extractInto(request, name, parseConfig, ParamSource.X, useCachedRequest, holder.getValues())；
+     * keyField不为null时包裹为 if (!RuleCheckerSupport.recall(key, contextData, values)) { 提取; remember(...) }
+     */
+    private void visitExtract(MethodVisitor mv, String owner, String field, Class<?> extractorClass,
+                              String paramName, String parseConfig, ParamSource source, int holderSlot, String holderType, String keyField) {
+        String support = Type.getInternalName(RuleCheckerSupport.class);
+        Label recalled = new Label();
+        if (keyField != null) {
+            visitMemoArgs(mv, owner, keyField, holderSlot, holderType);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "recall", MEMO_DESC, false);
+            mv.visitJumpInsn(Opcodes.IFNE, recalled);
+        }
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, owner, field, Type.getDescriptor(extractorClass));
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        visitString(mv, paramName);
+        visitString(mv, parseConfig);
+        mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ParamSource.class), source.name(), Type.getDescriptor(ParamSource.class));
+        mv.visitVarInsn(Opcodes.ILOAD, USE_CACHED_SLOT);
+        mv.visitVarInsn(Opcodes.ALOAD, holderSlot);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, holderType, "getValues", GET_VALUES_DESC, false);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(extractorClass), "extractInto", EXTRACT_DESC, false);
+        if (keyField != null) {
+            visitMemoArgs(mv, owner, keyField, holderSlot, holderType);
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, support, "remember", REMEMBER_DESC, false);
+            mv.visitLabel(recalled);
+        }
+    }
+
+    /**
+     * 压栈 this.keyField, contextData, holder.getValues()
+     */
+    private void visitMemoArgs(MethodVisitor mv, String owner, String keyField, int holderSlot, String holderType) {
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, owner, keyField, Type.getDescriptor(ExtractionKey.class));
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, holderSlot);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, holderType, "getValues", GET_VALUES_DESC, false);
+    }
+
+    private void visitValueType(MethodVisitor mv, ValueType valueType) {
+        mv.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(ValueType.class), valueType.name(), Type.getDescriptor(ValueType.class));
+    }
+
+    private void visitString(MethodVisitor mv, String value) {
+        if (value == null) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private RequestExtractor<R> resolveExtractor(String parseMethod, ParamSource source) {
+        RequestExtractor<R> extractor = extractorFactory.getExtractor(parseMethod);
+        if (!extractor.supportSources().contains(source)) {
+            throw new IllegalStateException(parseMethod + "提取器不支持" + source + "来源");
+        }
+        return extractor;
+    }
+
+    /**
+     * 生成类只能直接引用public且对生成类加载器可见的类
+     */
+    private void checkAccessible(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            throw new IllegalStateException("类[" + type.getName() + "]不是public，无法被生成类直接调用");
+        }
+        try {
+            if (Class.forName(type.getName(), false, classLoader) != type) {
+                throw new IllegalStateException("类[" + type.getName() + "]对生成类加载器不可见");
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("类[" + type.getName() + "]对生成类加载器不可见", e);
+        }
+    }
+
+    /**
+     * 生成类的类加载器
+     */
+    private static class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
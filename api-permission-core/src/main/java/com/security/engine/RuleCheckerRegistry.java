@@ -0,0 +1,185 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleSnapshot;
+import com.security.config.RuleSnapshotListener;
+import com.security.config.TenantSnapshotListener;
+import com.security.enums.EngineMode;
+import com.security.extractor.ExtractorFactory;
+import com.security.validator.ValidatorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 规则校验器注册表：每次发布规则快照前为其中启用的规则构建RuleChecker
+ * <p>
+ * engineMode为GENERATED时优先使用生成的校验类，生成失败或规则不支持时回退为解释执行。
+ * 校验器表随快照整体替换：新快照生效前先并入新规则的校验器，生效后只保留新规则；内容未变的规则沿用已有校验器。
+ * 上一个快照的校验器保留到下一次发布，跨越热更新仍在处理的请求沿用原有校验器；
+ * 更早快照的规则查不到校验器时按旧规则临时构建解释执行的校验器。
+ * 注册到{@link com.security.config.TenantRuleTables}后，租户规则的校验器按租户单独保存，随租户加载、卸载。
+ *
+ * @param <R> 请求类型
+ */
+@Slf4j
+public class RuleCheckerRegistry<R> implements RuleSnapshotListener, TenantSnapshotListener {
+
+    private final ApiPermissionConfig globalConfig;
+
+    private final ExtractorFactory<R> extractorFactory;
+
+    private final ValidatorFactory validatorFactory;
+
+    private volatile Map<ApiPermissionConfig.Rule, RuleChecker<R>> checkers = Collections.emptyMap();
+
+    // 上一个快照的校验器（发布后仍在处理的请求使用）
+    private volatile Map<ApiPermissionConfig.Rule, RuleChecker<R>> retired = Collections.emptyMap();
+
+    // prepare构建、published生效的新快照校验器（仅在发布锁内访问）
+    private Map<ApiPermissionConfig.Rule, RuleChecker<R>> prepared;
+
+    // 租户 -> 该租户当前快照的校验器
+    private final Map<String, TenantCheckers<R>> tenantCheckers = new ConcurrentHashMap<>();
+
+    /**
+     * 构建当前快照中所有规则的校验器，并监听之后的快照发布（配置需已完成initialize）
+     */
+    public RuleCheckerRegistry(ApiPermissionConfig globalConfig, ExtractorFactory<R> extractorFactory, ValidatorFactory validatorFactory) {
+        this.globalConfig = globalConfig;
+        this.extractorFactory = extractorFactory;
+        this.validatorFactory = validatorFactory;
+        globalConfig.addSnapshotListener(this);
+    }
+
+    /**
+     * 获取规则对应的校验器
+     */
+    public RuleChecker<R> getChecker(ApiPermissionConfig.Rule rule) {
+        RuleChecker<R> checker = checkers.get(rule);
+        if (checker == null) {
+            checker = retired.get(rule);
+        }
+        if (checker == null && rule.getTenant() != null) {
+            TenantCheckers<R> tenant = tenantCheckers.get(rule.getTenant());
+            checker = tenant != null ? tenant.checkers.get(rule) : null;
+        }
+        if (checker == null) {
+            if (rule.getCompiledPolicy() == null) {
+                throw new IllegalStateException("规则[" + rule.getUriPattern() + "]未完成编译");
+            }
+            // 规则来自更早的快照：按旧规则解释执行，不放入校验器表
+            log.debug("规则[{}]来自已替换的规则快照，临时构建解释执行的校验器", rule.getUriPattern());
+            checker = new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory);
+        }
+        return checker;
+    }
+
+    @Override
+    public void prepare(RuleSnapshot next) {
+        Map<ApiPermissionConfig.Rule, RuleChecker<R>> built = build(next, checkers);
+        // 发布期间新旧规则的请求都能查到校验器
+        Map<ApiPermissionConfig.Rule, RuleChecker<R>> merged = new IdentityHashMap<>(checkers);
+        merged.putAll(built);
+        checkers = merged;
+        prepared = built;
+    }
+
+    @Override
+    public void published(RuleSnapshot current) {
+        if (prepared != null) {
+            // merged中除新规则外即为上一个快照的校验器
+            Map<ApiPermissionConfig.Rule, RuleChecker<R>> previous = new IdentityHashMap<>(checkers);
+            previous.keySet().removeAll(prepared.keySet());
+            retired = previous;
+            checkers = prepared;
+            prepared = null;
+        }
+    }
+
+    @Override
+    public void loaded(RuleSnapshot snapshot) {
+        // 租户规则与该租户之前的规则、全局规则内容相同时沿用已有校验器
+        Map<ApiPermissionConfig.Rule, RuleChecker<R>> reusable = new IdentityHashMap<>(checkers);
+        TenantCheckers<R> previous = tenantCheckers.get(snapshot.getTenant());
+        if (previous != null) {
+            reusable.putAll(previous.checkers);
+        }
+        tenantCheckers.put(snapshot.getTenant(), new TenantCheckers<>(snapshot, build(snapshot, reusable)));
+    }
+
+    @Override
+    public void unloaded(RuleSnapshot snapshot) {
+        // 只移除该快照的校验器（租户可能已重新加载）
+        tenantCheckers.computeIfPresent(snapshot.getTenant(), (tenant, current) -> current.snapshot == snapshot ? null : current);
+    }
+
+    private Map<ApiPermissionConfig.Rule, RuleChecker<R>> build(RuleSnapshot snapshot, Map<ApiPermissionConfig.Rule, RuleChecker<R>> reusable) {
+        Map<ApiPermissionConfig.Rule, RuleChecker<R>> built = new IdentityHashMap<>();
+        // 按内容（不含编译结果）查找已有校验器，热更新时只为变化的规则重新构建
+        Map<ApiPermissionConfig.Rule, RuleChecker<R>> existing = new HashMap<>(reusable);
+        EngineMode engineMode = globalConfig.getEngineMode();
+        RuleCheckerGenerator<R> generator = engineMode == EngineMode.GENERATED ? new RuleCheckerGenerator<>(extractorFactory, validatorFactory) : null;
+        int generatedCount = 0;
+        int reusedCount = 0;
+
+        for (ApiPermissionConfig.Rule rule : snapshot.getRules()) {
+            if (!rule.isEnabled() || rule.getCompiledPolicy() == null) {
+                continue;
+            }
+
+            RuleChecker<R> checker = existing.get(rule);
+            if (checker != null) {
+                reusedCount++;
+                built.put(rule, checker);
+                continue;
+            }
+            if (generator != null) {
+                checker = generate(generator, rule);
+            }
+            if (checker == null) {
+                checker = new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory);
+            } else {
+                generatedCount++;
+            }
+            built.put(rule, checker);
+        }
+
+        log.info("规则校验器构建完成，{}快照版本: {}，引擎模式: {}，共{}条规则，其中沿用{}条、新生成类{}条",
+                snapshot.getTenant() != null ? "租户: " + snapshot.getTenant() + "，" : "",
+                snapshot.getVersion(), engineMode, built.size(), reusedCount, generatedCount);
+        return built;
+    }
+
+    private RuleChecker<R> generate(RuleCheckerGenerator<R> generator, ApiPermissionConfig.Rule rule) {
+        try {
+            RuleChecker<R> checker = generator.generate(rule);
+            if (checker == null) {
+                log.info("规则[{}]的策略不是扁平结构，回退为解释执行", rule.getUriPattern());
+            } else {
+                log.debug("规则[{}]使用生成的校验类: {}", rule.getUriPattern(), checker.getClass().getName());
+            }
+            return checker;
+        } catch (RuntimeException | LinkageError e) {
+            log.warn("规则[{}]生成校验类失败，回退为解释执行：{}", rule.getUriPattern(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 一个租户快照的校验器表
+     */
+    private static final class TenantCheckers<R> {
+        private final RuleSnapshot snapshot;
+        private final Map<ApiPermissionConfig.Rule, RuleChecker<R>> checkers;
+
+        private TenantCheckers(RuleSnapshot snapshot, Map<ApiPermissionConfig.Rule, RuleChecker<R>> checkers) {
+            this.snapshot = snapshot;
+            this.checkers = checkers;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.ExtractionKey;
+import com.security.context.PermissionContext;
+import com.security.context.ValueList;
+import com.security.enums.ValueType;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.exception.TooManyValuesException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 规则校验的公共步骤，解释执行与生成的校验类共用（生成类通过invokestatic直接调用，需保持public）
+ * <p>
+ * 主体与目标参数均取自上下文复用的对象，提取器通过extractInto直接写入其值列表。
+ * 同一规则中重复的提取（如主体参数同时作为目标参数）经请求级的提取记忆只执行一次。
+ */
+public final class RuleCheckerSupport {
+
+    private RuleCheckerSupport() {
+    }
+
+    /**
+     * 开始填充主体数据（复用上下文中的主体对象）
+     */
+    public static PermissionContext.PrincipalData beginPrincipal(String name, PermissionContext.ContextData contextData) {
+        return contextData.beginPrincipal(name);
+    }
+
+    /**
+     * 主体值为空时拒绝访问；声明了原始类型时解析一次，格式错误同样拒绝访问
+     */
+    public static void requirePrincipal(PermissionContext.PrincipalData principal, ValueType valueType) {
+        if (principal.getValues().isEmpty()) {
+            throw CustomAccessDeniedException.stackless("主体参数不存在：" + principal.getName());
+        }
+        if (valueType != ValueType.STRING && principal.getTypedValues(valueType).isMalformed()) {
+            throw CustomAccessDeniedException.stackless("主体参数格式错误：" + principal.getName());
+        }
+    }
+
+    /**
+     * 取出复用的目标参数对象并追加到上下文
+     */
+    public static PermissionContext.TargetParameter nextTarget(String name, String validatorId, PermissionContext.ContextData contextData) {
+        return contextData.nextTarget(name, validatorId);
+    }
+
+    /**
+     * 完成目标参数提取：按配置去重并检查值个数上限，声明了原始类型时解析一次
+     *
+     * @param distinct  是否去重
+     * @param maxValues 值个数上限（去重后计数，0表示不限制）
+     * @return false：存在无法按声明类型解析的值（该参数校验不通过，不再调用验证器）
+     * @throws TooManyValuesException 值个数超过上限（请求直接拒绝，不再调用该参数及之后的验证器；不填充堆栈）
+     */
+    public static boolean completeTarget(PermissionContext.TargetParameter target, ValueType valueType, boolean distinct, int maxValues) {
+        int count = distinct ? target.distinct() : target.getValues().size();
+        if (maxValues > 0 && count > maxValues) {
+            throw new TooManyValuesException("参数[" + target.getName() + "]的值个数" + count + "超过上限" + maxValues);
+        }
+        return valueType == ValueType.STRING || !target.getTypedValues(valueType).isMalformed();
+    }
+
+    /**
+     * 从请求级提取记忆中读取结果（追加到values）
+     *
+     * @return false：当前请求尚未提取过该键，需调用提取器后{@link #remember}
+     */
+    public static boolean recall(ExtractionKey key, PermissionContext.ContextData contextData, ValueList values) {
+        return contextData.getExtractionMemo().recall(key, values);
+    }
+
+    /**
+     * 记忆提取结果
+     */
+    public static void remember(ExtractionKey key, PermissionContext.ContextData contextData, ValueList values) {
+        contextData.getExtractionMemo().remember(key, values);
+    }
+
+    /**
+     * 计算规则中需要记忆的提取键：只有在规则内出现两次及以上的提取才记忆，其余保持直接提取，不产生复制
+     *
+     * @return 下标0为主体参数，下标i+1为第i个目标参数；不需要记忆的位置为null
+     */
+    static ExtractionKey[] sharedKeys(ApiPermissionConfig.Rule rule) {
+        List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+        ExtractionKey[] keys = new ExtractionKey[paramRules.size() + 1];
+        ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+        keys[0] = new ExtractionKey(principalParam.getSource(), principalParam.getParseMethod(), principalParam.getParseConfig(), principalParam.getName());
+        for (int i = 0; i < paramRules.size(); i++) {
+            ApiPermissionConfig.ParamRule paramRule = paramRules.get(i);
+            keys[i + 1] = new ExtractionKey(paramRule.getSource(), paramRule.getParseMethod(), paramRule.getParseConfig(), paramRule.getParamName());
+        }
+        Map<ExtractionKey, Integer> counts = new HashMap<>();
+        for (ExtractionKey key : keys) {
+            counts.merge(key, 1, Integer::sum);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (counts.get(keys[i]) < 2) {
+                keys[i] = null;
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,81 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.policy.CompiledUriPattern;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 规则匹配结果：匹配到的规则，以及匹配时记录的路径变量位置
+ * <p>
+ * 路径变量只保存所在分段的起止下标，读取时才从URI截取，不构建Map。
+ */
+public final class RuleMatch {
+
+    private final ApiPermissionConfig.Rule rule;
+    private final CompiledUriPattern pattern;
+    private final String uri;
+    private final int[] offsets;
+    // 回退到AntPathMatcher的模式解析出的变量（编译模式为null）
+    private final Map<String, String> fallbackVariables;
+
+    RuleMatch(ApiPermissionConfig.Rule rule, CompiledUriPattern pattern, String uri, int[] offsets) {
+        this.rule = rule;
+        this.pattern = pattern;
+        this.uri = uri;
+        this.offsets = offsets;
+        this.fallbackVariables = pattern.isFallback() || uri.contains("//") ? pattern.extractFallbackVariables(uri) : null;
+    }
+
+    public ApiPermissionConfig.Rule getRule() {
+        return rule;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * 获取路径变量的值，不存在时返回null
+     */
+    public String getPathVariable(String name) {
+        if (fallbackVariables != null) {
+            return fallbackVariables.get(name);
+        }
+        for (int slot = 0; slot < pattern.variableCount(); slot++) {
+            if (pattern.variableName(slot).equals(name)) {
+                return segment(slot);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 以Map形式返回全部路径变量（供需要Map的框架属性使用）
+     */
+    public Map<String, String> toMap() {
+        if (fallbackVariables != null) {
+            return fallbackVariables;
+        }
+        if (pattern.variableCount() == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> variables = new LinkedHashMap<>(pattern.variableCount() * 2);
+        for (int slot = 0; slot < pattern.variableCount(); slot++) {
+            variables.put(pattern.variableName(slot), segment(slot));
+        }
+        return variables;
+    }
+
+    /**
+     * 截取变量所在分段（含百分号编码时解码，与Spring MVC解析的路径变量一致）
+     */
+    private String segment(int slot) {
+        String value = uri.substring(offsets[slot * 2], offsets[slot * 2 + 1]);
+        return value.indexOf('%') < 0 ? value : StringUtils.uriDecode(value, StandardCharsets.UTF_8);
+    }
+}
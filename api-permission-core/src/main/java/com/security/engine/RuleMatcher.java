@@ -0,0 +1,154 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleSnapshot;
+import com.security.config.TenantRuleTables;
+import com.security.policy.CompiledUriPattern;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * URI到规则的匹配（各框架适配层共用）
+ * <p>
+ * 使用配置加载时编译的URI模式，匹配的同时记录路径变量位置，PATH参数无需再经过框架路由或AntPathMatcher解析。
+ * 每次匹配只读取一次当前规则快照，热更新期间不会混用新旧规则；快照按URI首段索引，只尝试可能匹配的规则。
+ * 配置了多租户规则时，先按租户标识取得该租户生效的快照，再在其中匹配；租户快照中没有匹配的规则时继续在全局规则中匹配。
+ */
+public class RuleMatcher {
+    private final ApiPermissionConfig globalConfig;
+
+    // 多租户规则表（未配置时为null，只使用全局规则）
+    private final TenantRuleTables tenantRuleTables;
+
+    public RuleMatcher(ApiPermissionConfig globalConfig) {
+        this(globalConfig, null);
+    }
+
+    public RuleMatcher(ApiPermissionConfig globalConfig, TenantRuleTables tenantRuleTables) {
+        this.globalConfig = globalConfig;
+        this.tenantRuleTables = tenantRuleTables;
+    }
+
+    /**
+     * 从请求中解析租户标识（未配置多租户规则或请求未携带时返回null）
+     *
+     * @throws IllegalArgumentException 租户标识格式不正确
+     */
+    public String resolveTenant(String requestUri, Function<String, String> headers, String host) {
+        return tenantRuleTables != null ? tenantRuleTables.resolveTenant(requestUri, headers, host) : null;
+    }
+
+    /**
+     * 租户生效的规则快照：有专属规则的租户为该租户的快照，其他情况为全局快照
+     *
+     * @param tenant 租户标识，为null时返回全局快照
+     * @throws IllegalStateException 配置尚未initialize，或租户规则加载失败
+     */
+    public RuleSnapshot snapshotFor(String tenant) {
+        RuleSnapshot snapshot = tenant != null && tenantRuleTables != null
+                ? tenantRuleTables.getSnapshot(tenant) : globalConfig.getSnapshot();
+        if (snapshot == null) {
+            throw new IllegalStateException("权限配置尚未初始化（需先调用initialize）");
+        }
+        return snapshot;
+    }
+
+    /**
+     * 解析请求的租户标识并返回其生效的规则快照（见{@link #resolveTenant}、{@link #snapshotFor}）
+     */
+    public RuleSnapshot snapshotFor(String requestUri, Function<String, String> headers, String host) {
+        return snapshotFor(resolveTenant(requestUri, headers, host));
+    }
+
+    /**
+     * 在请求生效的快照中匹配URI对应的规则并记录路径变量（未匹配返回null）
+     * <p>
+     * 租户快照中没有匹配的规则（含租户规则的开关关闭）时继续在全局规则中匹配：租户规则可以覆盖全局规则中的同一URI，
+     * 但不能使全局规则保护的URI脱离校验（HEADER来源的租户标识由客户端提供，可以任意选择租户）。
+     */
+    public RuleMatch matchFor(RuleSnapshot snapshot, String requestUri) {
+        RuleMatch match = matchWithVariables(snapshot, requestUri);
+        if (match != null || snapshot.getTenant() == null) {
+            return match;
+        }
+        RuleSnapshot global = globalConfig.getSnapshot();
+        return global != null ? matchWithVariables(global, requestUri) : null;
+    }
+
+    /**
+     * 匹配URI对应的规则（按配置顺序返回第一个匹配的规则，未匹配返回null）
+     */
+    public ApiPermissionConfig.Rule match(String requestUri) {
+        RuleSnapshot snapshot = globalConfig.getSnapshot();
+        if (snapshot != null) {
+            for (ApiPermissionConfig.Rule rule : snapshot.candidates(requestUri)) {
+                if (patternOf(rule).matches(requestUri)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+        List<ApiPermissionConfig.Rule> rules = globalConfig.getRules();
+        if (rules == null) {
+            return null;
+        }
+        for (ApiPermissionConfig.Rule rule : rules) {
+            if (patternOf(rule).matches(requestUri)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 匹配URI对应的规则并记录路径变量（未匹配返回null）
+     */
+    public RuleMatch matchWithVariables(String requestUri) {
+        RuleSnapshot snapshot = globalConfig.getSnapshot();
+        if (snapshot != null) {
+            return matchWithVariables(snapshot, requestUri);
+        }
+        List<ApiPermissionConfig.Rule> rules = globalConfig.getRules();
+        if (rules == null) {
+            return null;
+        }
+        for (ApiPermissionConfig.Rule rule : rules) {
+            RuleMatch match = tryMatch(rule, requestUri);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在指定快照中匹配URI对应的规则并记录路径变量（租户快照或尚未生效的候选规则，未匹配返回null）
+     * <p>
+     * 租户规则的开关关闭时不匹配任何规则；全局开关由调用方判断。只在该快照中匹配，请求的校验使用{@link #matchFor}。
+     */
+    public static RuleMatch matchWithVariables(RuleSnapshot snapshot, String requestUri) {
+        if (snapshot.getTenant() != null && !snapshot.isEnabled()) {
+            return null;
+        }
+        for (ApiPermissionConfig.Rule rule : snapshot.candidates(requestUri)) {
+            RuleMatch match = tryMatch(rule, requestUri);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    private static RuleMatch tryMatch(ApiPermissionConfig.Rule rule, String requestUri) {
+        CompiledUriPattern pattern = patternOf(rule);
+        int[] offsets = pattern.variableCount() == 0 ? null : new int[pattern.variableCount() * 2];
+        return pattern.match(requestUri, offsets) ? new RuleMatch(rule, pattern, requestUri, offsets) : null;
+    }
+
+    private static CompiledUriPattern patternOf(ApiPermissionConfig.Rule rule) {
+        CompiledUriPattern pattern = rule.getCompiledPattern();
+        // 配置未经initialize时按需编译（不缓存）
+        return pattern != null ? pattern : CompiledUriPattern.compile(rule.getUriPattern());
+    }
+}
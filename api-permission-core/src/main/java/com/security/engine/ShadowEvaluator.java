@@ -0,0 +1,469 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleConfigSource;
+import com.security.config.RuleDefinitions;
+import com.security.config.RuleDocumentHandler;
+import com.security.config.RuleSnapshot;
+import com.security.context.PermissionContext;
+import com.security.context.ValueList;
+import com.security.enums.ParamSource;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.RequestExtractor;
+import com.security.policy.CompiledPolicy;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 候选规则的影子评估：与生效规则并行加载一组候选规则，按比例抽样请求执行候选规则，只记录决策，不影响响应
+ * <p>
+ * 抽中的请求在请求线程上匹配候选规则并提取参数（请求对象离开请求线程后不可再读取），验证器求值交给有界的后台线程池，
+ * 队列已满时丢弃本次抽样，不阻塞请求。与生效规则的决策不一致时计入对照统计并保留在有界的差异记录中，
+ * 候选规则逐条记录提取与求值耗时。统计通过{@link #report()}读取，可按需接入监控系统。
+ * <p>
+ * 候选规则经过与热更新相同的验证与编译；提取器、验证器在加载时解析，缺失时整批拒绝。
+ * 确认无误后调用{@link #promote()}，由{@link ApiPermissionConfig#promote}一次替换当前快照。
+ *
+ * @param <R> 请求类型
+ */
+@Slf4j
+public class ShadowEvaluator<R> implements RuleDocumentHandler, Closeable {
+
+    /**
+     * 一次请求的决策：放行、拒绝（403/400），或校验过程出错（500）
+     */
+    public enum Outcome {
+        ALLOW, DENY, ERROR;
+
+        /**
+         * 按异常类型归类（与GlobalExceptionHandler的响应码一致）
+         */
+        public static Outcome of(Throwable error) {
+            return error instanceof CustomAccessDeniedException || error instanceof IllegalArgumentException ? DENY : ERROR;
+        }
+    }
+
+    private final ApiPermissionConfig globalConfig;
+    private final ExtractorFactory<R> extractorFactory;
+    private final ValidatorFactory validatorFactory;
+    private final double sampleRate;
+    private final int maxDivergenceRecords;
+    private final ThreadPoolExecutor executor;
+
+    private final List<RuleConfigSource> sources = new CopyOnWriteArrayList<>();
+
+    // 当前候选规则（连同其统计整体替换）
+    private volatile Candidate candidate;
+
+    public ShadowEvaluator(ApiPermissionConfig globalConfig, ExtractorFactory<R> extractorFactory, ValidatorFactory validatorFactory) {
+        this.globalConfig = globalConfig;
+        this.extractorFactory = extractorFactory;
+        this.validatorFactory = validatorFactory;
+        ApiPermissionConfig.Shadow config = globalConfig.getShadow();
+        this.sampleRate = config.getSampleRate();
+        this.maxDivergenceRecords = config.getMaxDivergenceRecords();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(config.getPoolSize(), config.getPoolSize(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "permission-shadow-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 注册并启动候选规则来源（内容变化时重新加载候选规则）
+     */
+    public void register(RuleConfigSource source) {
+        sources.add(source);
+        source.start(this);
+        log.info("候选规则来源已启动：{}", source.getName());
+    }
+
+    @Override
+    public List<String> handle(String source, String content) {
+        return load(source, content);
+    }
+
+    /**
+     * 解析JSON规则文档并加载为候选规则（格式同热更新，见{@link RuleDefinitions}）
+     *
+     * @return 解析或验证错误，为空表示候选规则已开始影子评估
+     */
+    public List<String> load(String source, String content) {
+        RuleDefinitions definitions;
+        try {
+            definitions = RuleDefinitions.parse(content);
+        } catch (IllegalArgumentException e) {
+            List<String> errors = Collections.singletonList(e.getMessage());
+            logRejected(source, errors);
+            return errors;
+        }
+        return load(source, definitions.getEnabled(), definitions.getRules());
+    }
+
+    /**
+     * 以已解析的规则加载候选规则（替换之前的候选规则并重置统计，规则对象之后不得再修改）
+     *
+     * @return 验证错误，为空表示候选规则已开始影子评估
+     */
+    public synchronized List<String> load(String source, Boolean enabled, List<ApiPermissionConfig.Rule> rules) {
+        List<String> errors = new ArrayList<>();
+        RuleSnapshot snapshot = globalConfig.prepareCandidate(enabled, rules, source, errors);
+        Candidate next = null;
+        if (snapshot != null) {
+            next = new Candidate(snapshot);
+            for (ApiPermissionConfig.Rule rule : snapshot.getRules()) {
+                if (rule.isEnabled()) {
+                    next.rules.put(rule, new CandidateRule(rule, errors));
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            logRejected(source, errors);
+            return errors;
+        }
+        logSummary("候选规则已替换", candidate);
+        candidate = next;
+        log.info("候选规则已加载（来源: {}），全局开关: {}，共{}条规则，抽样比例: {}",
+                source, snapshot.isEnabled(), snapshot.getRules().size(), sampleRate);
+        return errors;
+    }
+
+    /**
+     * 停止影子评估（保留生效规则，丢弃候选规则及其统计）
+     */
+    public synchronized void clear() {
+        logSummary("候选规则已清除", candidate);
+        candidate = null;
+    }
+
+    /**
+     * 将候选规则提升为生效规则（一次替换当前快照），成功后停止影子评估
+     *
+     * @return 错误信息，为空表示候选规则已生效
+     */
+    public synchronized List<String> promote() {
+        Candidate current = candidate;
+        if (current == null) {
+            return Collections.singletonList("没有可提升的候选规则");
+        }
+        List<String> errors = globalConfig.promote(current.snapshot);
+        if (errors.isEmpty()) {
+            logSummary("候选规则已提升为生效规则", current);
+            candidate = null;
+        }
+        return errors;
+    }
+
+    /**
+     * 是否有候选规则在评估中
+     */
+    public boolean isActive() {
+        return candidate != null;
+    }
+
+    /**
+     * 对请求执行影子评估（在生效规则校验之后调用，抽样未中或没有候选规则时立即返回）
+     * <p>
+     * 不会抛出异常；候选规则的提取在调用线程上完成，求值在后台线程中进行。
+     *
+     * @param uri              请求URI
+     * @param request          请求对象（本方法返回后不再访问）
+     * @param useCachedRequest 是否使用缓存的请求对象（与生效规则校验时一致）
+     * @param active           生效规则的决策
+     */
+    public void evaluate(String uri, R request, boolean useCachedRequest, Outcome active) {
+        Candidate current = candidate;
+        if (current == null || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        current.sampled.increment();
+        try {
+            RuleSnapshot snapshot = current.snapshot;
+            RuleMatch match = snapshot.isEnabled() ? RuleMatcher.matchWithVariables(snapshot, uri) : null;
+            CandidateRule rule = match != null ? current.rules.get(match.getRule()) : null;
+            if (rule == null) {
+                // 全局开关关闭、无匹配规则或规则关闭：候选规则放行
+                current.record(uri, null, active, Outcome.ALLOW, null);
+                return;
+            }
+            long start = System.nanoTime();
+            Captured captured = rule.capture(request, match, useCachedRequest);
+            rule.captureLatency.record(System.nanoTime() - start);
+            executor.execute(() -> current.evaluate(rule, captured, uri, active));
+        } catch (RejectedExecutionException e) {
+            current.dropped.increment();
+        } catch (RuntimeException e) {
+            log.warn("请求 [{}] 影子评估失败：{}", uri, e.toString());
+        }
+    }
+
+    /**
+     * 当前候选规则的统计快照
+     */
+    public ShadowReport report() {
+        Candidate current = candidate;
+        if (current == null) {
+            return new ShadowReport(null, 0, 0, 0, 0, new long[9], Collections.emptyList(), Collections.emptyList());
+        }
+        return current.report();
+    }
+
+    /**
+     * 停止候选规则来源与后台线程
+     */
+    @Override
+    public void close() {
+        for (RuleConfigSource source : sources) {
+            try {
+                source.stop();
+            } catch (RuntimeException e) {
+                log.warn("停止候选规则来源失败：{}，{}", source.getName(), e.getMessage());
+            }
+        }
+        sources.clear();
+        executor.shutdownNow();
+    }
+
+    private static void logRejected(String source, List<String> errors) {
+        log.error("候选规则加载被拒绝（来源: {}），共发现{}个错误，保留之前的候选规则：", source, errors.size());
+        errors.forEach(error -> log.error("- {}", error));
+    }
+
+    private void logSummary(String action, Candidate candidate) {
+        if (candidate == null) {
+            return;
+        }
+        ShadowReport report = candidate.report();
+        log.info("{}（来源: {}），抽样{}次，完成求值{}次，丢弃{}次，决策不一致{}次",
+                action, report.getCandidateSource(), report.getSampled(), report.getEvaluated(), report.getDropped(), report.getDivergences());
+    }
+
+    /**
+     * 一组候选规则及其统计
+     */
+    private final class Candidate {
+        private final RuleSnapshot snapshot;
+        // 启用的候选规则（按对象标识查找，保持配置顺序）
+        private final Map<ApiPermissionConfig.Rule, CandidateRule> rules = new IdentityHashMap<>();
+        private final LongAdder sampled = new LongAdder();
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder[] outcomes = new LongAdder[9];
+        // 最近的决策差异（由自身同步）
+        private final ArrayDeque<ShadowReport.Divergence> divergences = new ArrayDeque<>();
+
+        private Candidate(RuleSnapshot snapshot) {
+            this.snapshot = snapshot;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        private void evaluate(CandidateRule rule, Captured captured, String uri, Outcome active) {
+            PermissionContext.ContextData data = PermissionContext.detached();
+            data.setUri(uri);
+            data.setMultiParamMode(rule.rule.getMultiParamMode());
+            Outcome outcome;
+            String detail = null;
+            long start = System.nanoTime();
+            try (PermissionContext.Scope ignored = PermissionContext.bind(data)) {
+                outcome = rule.check(captured, data) ? Outcome.ALLOW : Outcome.DENY;
+            } catch (RuntimeException e) {
+                outcome = Outcome.of(e);
+                detail = e.getMessage();
+            }
+            rule.evaluationLatency.record(System.nanoTime() - start);
+            record(uri, rule.rule.getUriPattern(), active, outcome, detail);
+        }
+
+        // 完成计数最后递增：报告中计入完成求值的请求，其决策对照与差异记录均已可见
+        private void record(String uri, String candidateRule, Outcome active, Outcome outcome, String detail) {
+            outcomes[active.ordinal() * 3 + outcome.ordinal()].increment();
+            if (active != outcome) {
+                log.debug("影子评估决策不一致：请求 [{}]，生效规则: {}，候选规则[{}]: {}，{}", uri, active, candidateRule, outcome, detail);
+                ShadowReport.Divergence divergence = new ShadowReport.Divergence(System.currentTimeMillis(), uri, candidateRule, active, outcome, detail);
+                synchronized (divergences) {
+                    if (divergences.size() >= maxDivergenceRecords) {
+                        divergences.pollFirst();
+                    }
+                    divergences.addLast(divergence);
+                }
+            }
+            evaluated.increment();
+        }
+
+        private ShadowReport report() {
+            // 先读完成计数，之后读取的对照与差异记录至少包含这些请求
+            long evaluatedCount = evaluated.sum();
+            long[] counts = new long[outcomes.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = outcomes[i].sum();
+            }
+            List<ShadowReport.RuleLatency> latencies = new ArrayList<>(rules.size());
+            for (ApiPermissionConfig.Rule rule : snapshot.getRules()) {
+                CandidateRule candidateRule = rules.get(rule);
+                if (candidateRule != null) {
+                    latencies.add(new ShadowReport.RuleLatency(rule.getUriPattern(), candidateRule.captureLatency, candidateRule.evaluationLatency));
+                }
+            }
+            List<ShadowReport.Divergence> recent;
+            synchronized (divergences) {
+                recent = new ArrayList<>(divergences);
+            }
+            return new ShadowReport(snapshot.getSource(), snapshot.getRules().size(), sampled.sum(), evaluatedCount, dropped.sum(),
+                    counts, Collections.unmodifiableList(latencies), Collections.unmodifiableList(recent));
+        }
+    }
+
+    /**
+     * 单条候选规则：加载时解析的提取器与验证器，以及耗时统计
+     */
+    private final class CandidateRule {
+        private final ApiPermissionConfig.Rule rule;
+        private final CompiledPolicy policy;
+        private final RequestExtractor<R> principalExtractor;
+        private final RequestExtractor<R>[] targetExtractors;
+        private final PermissionValidator[] validators;
+        private final LatencyHistogram captureLatency = new LatencyHistogram();
+        private final LatencyHistogram evaluationLatency = new LatencyHistogram();
+
+        @SuppressWarnings("unchecked")
+        private CandidateRule(ApiPermissionConfig.Rule rule, List<String> errors) {
+            this.rule = rule;
+            this.policy = rule.getCompiledPolicy();
+            ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+            this.principalExtractor = resolveExtractor(principalParam.getParseMethod(), principalParam.getSource(), errors);
+            List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+            this.targetExtractors = (RequestExtractor<R>[]) new RequestExtractor<?>[paramRules.size()];
+            this.validators = new PermissionValidator[paramRules.size()];
+            for (int i = 0; i < paramRules.size(); i++) {
+                ApiPermissionConfig.ParamRule paramRule = paramRules.get(i);
+                targetExtractors[i] = resolveExtractor(paramRule.getParseMethod(), paramRule.getSource(), errors);
+                try {
+                    validators[i] = validatorFactory.getValidator(paramRule.getValidatorId());
+                } catch (IllegalArgumentException e) {
+                    errors.add("规则[" + rule.getUriPattern() + "]：" + e.getMessage());
+                }
+            }
+        }
+
+        private RequestExtractor<R> resolveExtractor(String parseMethod, ParamSource source, List<String> errors) {
+            if (source == ParamSource.PATH) {
+                return null; // 路径变量取自候选规则的匹配结果
+            }
+            try {
+                RequestExtractor<R> extractor = extractorFactory.getExtractor(parseMethod);
+                if (!extractor.supportSources().contains(source)) {
+                    errors.add("规则[" + rule.getUriPattern() + "]：" + parseMethod + "提取器不支持" + source + "来源");
+                }
+                return extractor;
+            } catch (IllegalArgumentException e) {
+                errors.add("规则[" + rule.getUriPattern() + "]：" + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * 在请求线程上提取主体与全部目标参数（求值在后台进行，无法按策略短路提取）
+         */
+        private Captured capture(R request, RuleMatch match, boolean useCachedRequest) {
+            List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+            Captured captured = new Captured(paramRules.size());
+            ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+            try {
+                captured.principal = extract(principalExtractor, request, match, principalParam.getName(),
+                        principalParam.getParseConfig(), principalParam.getSource(), useCachedRequest);
+            } catch (RuntimeException e) {
+                captured.principalError = e;
+            }
+            for (int i = 0; i < paramRules.size(); i++) {
+                ApiPermissionConfig.ParamRule paramRule = paramRules.get(i);
+                try {
+                    captured.targets[i] = extract(targetExtractors[i], request, match, paramRule.getParamName(),
+                            paramRule.getParseConfig(), paramRule.getSource(), useCachedRequest);
+                } catch (RuntimeException e) {
+                    captured.targetErrors[i] = e;
+                }
+            }
+            return captured;
+        }
+
+        private ValueList extract(RequestExtractor<R> extractor, R request, RuleMatch match, String name,
+                                  String parseConfig, ParamSource source, boolean useCachedRequest) {
+            ValueList values = new ValueList(2);
+            if (source == ParamSource.PATH) {
+                String value = match.getPathVariable(name);
+                if (value != null) {
+                    values.add(value);
+                }
+            } else {
+                extractor.extractInto(request, name, parseConfig, source, useCachedRequest, values);
+            }
+            return values;
+        }
+
+        /**
+         * 以提取结果按策略求值（步骤与生效规则的校验器相同）
+         */
+        private boolean check(Captured captured, PermissionContext.ContextData data) {
+            ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+            PermissionContext.PrincipalData principal = RuleCheckerSupport.beginPrincipal(principalParam.getName(), data);
+            if (captured.principalError != null) {
+                throw captured.principalError;
+            }
+            principal.getValues().addAll(captured.principal);
+            RuleCheckerSupport.requirePrincipal(principal, principalParam.getValueType());
+
+            List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+            return policy.evaluate(index -> {
+                ApiPermissionConfig.ParamRule paramRule = paramRules.get(index);
+                PermissionContext.TargetParameter target = RuleCheckerSupport.nextTarget(paramRule.getParamName(), paramRule.getValidatorId(), data);
+                if (captured.targetErrors[index] != null) {
+                    throw captured.targetErrors[index];
+                }
+                target.getValues().addAll(captured.targets[index]);
+                if (!RuleCheckerSupport.completeTarget(target, paramRule.getValueType(),
+                        paramRule.isDistinctValues(), paramRule.getMaxValues())) {
+                    return false;
+                }
+                return validators[index].validate(principal, target);
+            }, data.policyMemo(policy.size()));
+        }
+    }
+
+    /**
+     * 请求线程上提取的参数值（提取失败的参数保存异常，求值到该参数时抛出，与生效规则的行为一致）
+     */
+    private static final class Captured {
+        private ValueList principal;
+        private RuntimeException principalError;
+        private final ValueList[] targets;
+        private final RuntimeException[] targetErrors;
+
+        private Captured(int size) {
+            this.targets = new ValueList[size];
+            this.targetErrors = new RuntimeException[size];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.security.engine;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 影子评估的统计快照：抽样与求值计数、生效规则与候选规则的决策对照、候选规则逐条的耗时，以及最近的决策差异
+ * <p>
+ * 统计随候选规则一起重置（加载新的候选规则或提升后从零开始）。耗时单位为微秒，分位数为直方图估计值。
+ */
+@Getter
+@ToString
+public final class ShadowReport {
+    private final String candidateSource;  // 候选规则来源，没有候选规则时为null
+    private final int candidateRules;      // 候选规则条数
+    private final long sampled;            // 抽中的请求数
+    private final long evaluated;          // 完成求值的请求数
+    private final long dropped;            // 队列已满而丢弃的抽样数
+    private final long divergences;        // 决策不一致的请求数
+    @Getter(AccessLevel.NONE)
+    private final long[] outcomes;         // 决策对照计数（下标：生效决策 * 3 + 候选决策）
+    private final List<RuleLatency> rules;
+    private final List<Divergence> recentDivergences; // 按时间先后，最多保留max-divergence-records条
+
+    ShadowReport(String candidateSource, int candidateRules, long sampled, long evaluated, long dropped, long[] outcomes,
+                 List<RuleLatency> rules, List<Divergence> recentDivergences) {
+        this.candidateSource = candidateSource;
+        this.candidateRules = candidateRules;
+        this.sampled = sampled;
+        this.evaluated = evaluated;
+        this.dropped = dropped;
+        this.outcomes = outcomes;
+        long diverged = 0;
+        for (ShadowEvaluator.Outcome active : ShadowEvaluator.Outcome.values()) {
+            for (ShadowEvaluator.Outcome candidate : ShadowEvaluator.Outcome.values()) {
+                if (active != candidate) {
+                    diverged += outcomes[active.ordinal() * 3 + candidate.ordinal()];
+                }
+            }
+        }
+        this.divergences = diverged;
+        this.rules = rules;
+        this.recentDivergences = recentDivergences;
+    }
+
+    /**
+     * 生效规则决策为active、候选规则决策为candidate的请求数
+     */
+    public long count(ShadowEvaluator.Outcome active, ShadowEvaluator.Outcome candidate) {
+        return outcomes[active.ordinal() * 3 + candidate.ordinal()];
+    }
+
+    /**
+     * 候选规则单条的耗时：capture为请求线程上提取参数的耗时，evaluation为后台线程上验证器求值的耗时
+     */
+    @Getter
+    @ToString
+    public static final class RuleLatency {
+        private final String uriPattern;
+        private final long evaluations;
+        private final double captureMeanMicros;
+        private final double captureP99Micros;
+        private final double evaluationMeanMicros;
+        private final double evaluationP50Micros;
+        private final double evaluationP99Micros;
+        private final double evaluationMaxMicros;
+
+        RuleLatency(String uriPattern, LatencyHistogram capture, LatencyHistogram evaluation) {
+            this.uriPattern = uriPattern;
+            this.evaluations = evaluation.count();
+            this.captureMeanMicros = micros(capture.meanNanos());
+            this.captureP99Micros = micros(capture.percentileNanos(0.99));
+            this.evaluationMeanMicros = micros(evaluation.meanNanos());
+            this.evaluationP50Micros = micros(evaluation.percentileNanos(0.5));
+            this.evaluationP99Micros = micros(evaluation.percentileNanos(0.99));
+            this.evaluationMaxMicros = micros(evaluation.maxNanos());
+        }
+
+        private static double micros(long nanos) {
+            return nanos / 1000.0;
+        }
+    }
+
+    /**
+     * 一次决策差异
+     */
+    @Getter
+    @ToString
+    public static final class Divergence {
+        private final long timestamp;          // 请求时间（毫秒）
+        private final String uri;
+        private final String candidateRule;    // 候选规则的URI模式，未匹配任何候选规则时为null
+        private final ShadowEvaluator.Outcome active;
+        private final ShadowEvaluator.Outcome candidate;
+        private final String detail;           // 候选规则拒绝或出错的原因
+
+        Divergence(long timestamp, String uri, String candidateRule, ShadowEvaluator.Outcome active,
+                   ShadowEvaluator.Outcome candidate, String detail) {
+            this.timestamp = timestamp;
+            this.uri = uri;
+            this.candidateRule = candidateRule;
+            this.active = active;
+            this.candidate = candidate;
+            this.detail = detail;
+        }
+    }
+}
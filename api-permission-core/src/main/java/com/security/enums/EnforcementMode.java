@@ -0,0 +1,10 @@
+package com.security.enums;
+
+/**
+ * 权限校验的执行位置
+ */
+public enum EnforcementMode {
+    INTERCEPTOR,  // 拦截器同步校验：在PermissionInterceptor中占用容器线程执行
+    FILTER,       // 过滤器同步校验：PermissionFilter在进入DispatcherServlet之前校验，拒绝时直接写出预编码的403响应
+    ASYNC_FILTER  // 过滤器异步校验：PermissionFilter开启AsyncContext，在专用线程池中执行，通过后再分发到处理器
+}
@@ -0,0 +1,9 @@
+package com.security.enums;
+
+/**
+ * 规则执行引擎模式
+ */
+public enum EngineMode {
+    INTERPRETED, // 解释执行：通用循环按规则计划调用提取器和验证器
+    GENERATED    // 字节码生成：加载配置时为每条规则生成专用校验类，直接调用具体的提取器和验证器，无法生成时回退为解释执行
+}
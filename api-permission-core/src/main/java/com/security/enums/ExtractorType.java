@@ -8,6 +8,9 @@ public enum ExtractorType {
     DEFAULT,       // 默认
     JSON_PATH,     // JSON路径
     PATH_MATCH,    // 路径匹配
+    FORM_FIELD,    // 表单/文件上传请求体中的文本字段
+    SESSION_ATTRIBUTE, // 服务端会话属性
+    JWT_CLAIM,     // 请求头/Cookie中JWS令牌的声明
     CUSTOM,        // 自定义解析（统一标识）
     NONE;          // 无解析
 
@@ -21,14 +21,14 @@ public enum ParamSource {
 
     /**
      * 请求体参数：HTTP请求消息体中的参数，适用于POST、PUT、PATCH等请求方法
-     * 支持JSON、Form表单（x-www-form-urlencoded）、multipart/form-data等格式
-     * 需配合对应的解析方式（如JSON_PATH）提取
+     * 支持JSON等格式，需配合对应的解析方式（如JSON_PATH）提取；x-www-form-urlencoded表单字段使用FORM来源
      */
     BODY,
 
     /**
      * 查询参数：URL中<code>?</code>后面的键值对参数，例如<code>/search?keyword=java&page=1</code>
      * 常用于GET请求传递过滤条件、分页信息等非敏感数据，支持多个同名参数
+     * 只解析请求行中的查询字符串，不会触发表单请求体的读取与解析
      */
     QUERY,
 
@@ -44,10 +44,16 @@ public enum ParamSource {
      */
     COOKIE,
 
+    /**
+     * 表单参数：application/x-www-form-urlencoded请求体中的字段，例如<code>orderId=1&amp;status=PAID</code>
+     * 只在规则引用FORM参数时才流式读取请求体（有字节上限），支持多个同名参数
+     */
+    FORM,
+
     /**
      * 会话参数：存储在服务器端的会话（Session）数据，需通过请求关联的会话ID（通常来自Cookie）获取
      * 例如登录用户信息、临时会话状态等，数据存储在服务器（内存、Redis等），不直接通过请求传递
-     * 提取时需依赖当前请求的会话上下文（如<code>request.getSession().getAttribute(key)</code>）
+     * 提取时需依赖当前请求的会话上下文（如<code>request.getSession(false).getAttribute(key)</code>），不存在会话时不创建
      */
     SESSION;
 
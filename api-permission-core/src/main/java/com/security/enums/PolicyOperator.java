@@ -0,0 +1,11 @@
+package com.security.enums;
+
+/**
+ * 策略树节点类型：用于组合多个目标参数校验，表达如 "(userId AND classId) OR adminHeader" 的规则
+ */
+public enum PolicyOperator {
+    AND,    // 所有子节点均通过
+    OR,     // 任一子节点通过
+    NOT,    // 对唯一子节点取反
+    PARAM   // 叶子节点：引用paramRules中的一个目标参数校验
+}
@@ -0,0 +1,10 @@
+package com.security.enums;
+
+/**
+ * 租户标识的来源（多租户规则按租户标识选择规则表）
+ */
+public enum TenantKeySource {
+    HEADER, // 请求头（tenants.header指定名称）
+    PATH,   // URI分段（tenants.path-segment指定第几段，从0开始）
+    HOST    // 主机名的第一段（tenant-a.example.com中的tenant-a，不区分大小写）
+}
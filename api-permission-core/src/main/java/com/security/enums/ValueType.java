@@ -0,0 +1,10 @@
+package com.security.enums;
+
+/**
+ * 参数值类型：声明后提取的值会在上下文中解析一次为原始类型，验证器可直接使用，无需重复解析字符串
+ */
+public enum ValueType {
+    STRING, // 字符串（默认，不解析）
+    LONG,   // 64位整数，解析为long数组
+    UUID    // UUID（标准36位格式），解析为高/低64位long对
+}
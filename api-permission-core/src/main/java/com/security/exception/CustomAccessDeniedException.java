@@ -2,6 +2,13 @@ package com.security.exception;
 
 public class CustomAccessDeniedException extends RuntimeException {
 
+    /**
+     * 创建不填充堆栈的拒绝异常（校验未通过属于预期结果，堆栈不会被记录，避免被枚举攻击时反复遍历调用栈）
+     */
+    public static CustomAccessDeniedException stackless(String message) {
+        return new CustomAccessDeniedException(message, null, false, false);
+    }
+
     public CustomAccessDeniedException() {
     }
 
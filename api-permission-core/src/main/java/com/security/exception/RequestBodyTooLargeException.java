@@ -0,0 +1,11 @@
+package com.security.exception;
+
+/**
+ * 校验需要读取的请求体超过配置的上限（响应413；未单独处理时按参数错误返回400）
+ */
+public class RequestBodyTooLargeException extends IllegalArgumentException {
+
+    public RequestBodyTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.security.exception;
+
+/**
+ * 目标参数的值个数超过max-values（按参数错误返回400）
+ * <p>
+ * 超限属于对请求的预期拒绝，可能被用来反复触发，因此不填充堆栈。
+ */
+public class TooManyValuesException extends IllegalArgumentException {
+
+    public TooManyValuesException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,360 @@
+package com.security.extractor;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 按Content-Encoding流式解压请求体（gzip、deflate，不依赖Servlet）
+ * <p>
+ * 解压结果以输入流的形式直接交给JSON/XML解析器，不生成解压后的完整字节数组；解析器提前停止读取时剩余部分不再解压。
+ * 解压输出超过上限、或超过阈值后解压比超过上限时抛出{@link LimitExceededException}（防御压缩炸弹）。
+ * Inflater实例池化复用，流关闭时归还，调用方必须关闭返回的流。
+ * <p>
+ * gzip按RFC 1952解析头信息并校验CRC32与长度，支持多成员；deflate按首部自动识别zlib格式（RFC 1950）与裸deflate。
+ */
+public final class ContentDecoding {
+
+    public static final long DEFAULT_MAX_INFLATED_BYTES = 8L * 1024 * 1024;
+    public static final int DEFAULT_MAX_RATIO = 100;
+    // 解压输出不足此字节数时不检查解压比（小请求体的压缩比可能很高）
+    private static final long RATIO_CHECK_THRESHOLD = 64 * 1024;
+    private static final int POOL_SIZE = 32;
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final BlockingQueue<Inflater> RAW_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<Inflater> ZLIB_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final long maxInflatedBytes;
+    private final int maxRatio;
+
+    public ContentDecoding() {
+        this(DEFAULT_MAX_INFLATED_BYTES, DEFAULT_MAX_RATIO);
+    }
+
+    /**
+     * @param maxInflatedBytes 解压输出的最大字节数
+     * @param maxRatio         解压输出与压缩输入的最大比值
+     */
+    public ContentDecoding(long maxInflatedBytes, int maxRatio) {
+        this.maxInflatedBytes = maxInflatedBytes;
+        this.maxRatio = maxRatio;
+    }
+
+    /**
+     * 是否需要解压（为空或identity时不需要）
+     */
+    public static boolean isEncoded(String contentEncoding) {
+        return contentEncoding != null && !contentEncoding.trim().isEmpty()
+                && !"identity".equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    /**
+     * 打开请求体的解压流（未编码时直接返回字节流）
+     *
+     * @throws IOException 不支持的编码或压缩数据头错误
+     */
+    public InputStream open(byte[] body, String contentEncoding) throws IOException {
+        InputStream in = new ByteArrayInputStream(body);
+        return isEncoded(contentEncoding) ? decode(in, contentEncoding) : in;
+    }
+
+    /**
+     * 按Content-Encoding包装输入流（多个编码按逆序解压，如"gzip, deflate"先解deflate）
+     *
+     * @throws IOException 不支持的编码或压缩数据头错误
+     */
+    public InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (!isEncoded(contentEncoding)) {
+            return in;
+        }
+        String[] codings = contentEncoding.split(",");
+        InputStream decoded = in;
+        try {
+            for (int i = codings.length - 1; i >= 0; i--) {
+                String coding = codings[i].trim().toLowerCase(Locale.ROOT);
+                switch (coding) {
+                    case "gzip":
+                    case "x-gzip":
+                        decoded = new InflatingInputStream(decoded, Format.GZIP);
+                        break;
+                    case "deflate":
+                        decoded = new InflatingInputStream(decoded, Format.DEFLATE);
+                        break;
+                    case "identity":
+                    case "":
+                        break;
+                    default:
+                        throw new IOException("不支持的Content-Encoding：" + coding);
+                }
+            }
+            return decoded;
+        } catch (IOException | RuntimeException e) {
+            decoded.close();
+            throw e;
+        }
+    }
+
+    private static Inflater acquire(boolean nowrap) {
+        Inflater inflater = (nowrap ? RAW_POOL : ZLIB_POOL).poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    private static void release(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? RAW_POOL : ZLIB_POOL).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private enum Format {
+        GZIP, DEFLATE
+    }
+
+    /**
+     * 解压输出超过上限或解压比异常
+     */
+    public static final class LimitExceededException extends IOException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 使用池化Inflater的解压流（自行管理输入缓冲，以便读取gzip头尾）
+     */
+    private final class InflatingInputStream extends InputStream {
+        private final InputStream in;
+        private final Format format;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] single = new byte[1];
+        private int position;
+        private int limit;
+        private boolean nowrap;
+        private Inflater inflater;
+        private final CRC32 crc = new CRC32();
+        private long memberBytes;
+        private long compressedBytes;
+        private long inflatedBytes;
+        private boolean eof;
+
+        InflatingInputStream(InputStream in, Format format) throws IOException {
+            this.in = in;
+            this.format = format;
+            if (format == Format.GZIP) {
+                readGzipHeader(true);
+                nowrap = true;
+            } else {
+                // zlib首部：CM=8且(CMF*256+FLG)可被31整除
+                ensure(2);
+                nowrap = !(limit - position >= 2 && (buffer[position] & 0x0F) == 8
+                        && (((buffer[position] & 0xFF) << 8) | (buffer[position + 1] & 0xFF)) % 31 == 0);
+            }
+            inflater = acquire(nowrap);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (inflater == null) {
+                throw new IOException("解压流已关闭");
+            }
+            if (eof) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (inflater.finished()) {
+                    // 未消耗的输入留在缓冲区（gzip尾部或下一个成员）
+                    position = limit - inflater.getRemaining();
+                    if (!nextMember()) {
+                        eof = true;
+                        return -1;
+                    }
+                }
+                if (inflater.needsInput()) {
+                    if (position >= limit && !fill()) {
+                        throw new EOFException("压缩请求体不完整");
+                    }
+                    inflater.setInput(buffer, position, limit - position);
+                    position = limit;
+                }
+                int n;
+                try {
+                    n = inflater.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new IOException("压缩请求体格式错误：" + e.getMessage(), e);
+                }
+                if (n > 0) {
+                    if (format == Format.GZIP) {
+                        crc.update(b, off, n);
+                        memberBytes += n;
+                    }
+                    inflatedBytes += n;
+                    checkLimits();
+                    return n;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new IOException("不支持使用预设字典的deflate数据");
+                }
+            }
+        }
+
+        private void checkLimits() throws LimitExceededException {
+            if (inflatedBytes > maxInflatedBytes) {
+                throw new LimitExceededException("解压后的请求体超过" + maxInflatedBytes + "字节");
+            }
+            if (inflatedBytes > RATIO_CHECK_THRESHOLD && inflatedBytes > compressedBytes * maxRatio) {
+                throw new LimitExceededException("请求体解压比超过" + maxRatio + "，疑似压缩炸弹");
+            }
+        }
+
+        /**
+         * 当前成员结束：gzip校验尾部后继续读取下一个成员，返回false表示数据结束
+         */
+        private boolean nextMember() throws IOException {
+            if (format != Format.GZIP) {
+                return false;
+            }
+            long expectedCrc = readIntLe();
+            long expectedSize = readIntLe();
+            if (expectedCrc != crc.getValue() || expectedSize != (memberBytes & 0xFFFFFFFFL)) {
+                throw new IOException("gzip请求体校验失败");
+            }
+            if (!readGzipHeader(false)) {
+                return false;
+            }
+            inflater.reset();
+            crc.reset();
+            memberBytes = 0;
+            return true;
+        }
+
+        /**
+         * 读取gzip成员头
+         *
+         * @param required 是否必须存在（非首个成员时输入结束或不是gzip数据表示没有更多成员）
+         */
+        private boolean readGzipHeader(boolean required) throws IOException {
+            int id1 = readByte();
+            if (id1 < 0 && !required) {
+                return false;
+            }
+            int id2 = readByte();
+            if (id1 != 0x1F || id2 != 0x8B) {
+                if (required) {
+                    throw new IOException("不是gzip格式的请求体");
+                }
+                // 成员之后的其他数据忽略（与GZIPInputStream一致）
+                return false;
+            }
+            if (readByte() != 8) {
+                throw new IOException("不支持的gzip压缩方法");
+            }
+            int flags = readByte();
+            // MTIME(4) XFL(1) OS(1)
+            skip(6);
+            if ((flags & 4) != 0) {
+                skip(readByte() | (readByte() << 8));
+            }
+            if ((flags & 8) != 0) {
+                skipZeroTerminated();
+            }
+            if ((flags & 16) != 0) {
+                skipZeroTerminated();
+            }
+            if ((flags & 2) != 0) {
+                skip(2);
+            }
+            return true;
+        }
+
+        private long readIntLe() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 4; i++) {
+                value |= (long) requireByte() << (8 * i);
+            }
+            return value;
+        }
+
+        private void skip(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                requireByte();
+            }
+        }
+
+        private void skipZeroTerminated() throws IOException {
+            while (requireByte() != 0) {
+                // 跳过文件名/注释
+            }
+        }
+
+        private int requireByte() throws IOException {
+            int b = readByte();
+            if (b < 0) {
+                throw new EOFException("gzip请求体不完整");
+            }
+            return b;
+        }
+
+        private int readByte() throws IOException {
+            if (position >= limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        /**
+         * 保证缓冲区中至少有count字节（输入结束时可能不足）
+         */
+        private void ensure(int count) throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            while (limit < count) {
+                int n = in.read(buffer, limit, buffer.length - limit);
+                if (n < 0) {
+                    return;
+                }
+                limit += n;
+                compressedBytes += n;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            int n = in.read(buffer, 0, buffer.length);
+            if (n <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = n;
+            compressedBytes += n;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflater != null) {
+                release(inflater, nowrap);
+                inflater = null;
+            }
+            in.close();
+        }
+    }
+}
@@ -3,50 +3,44 @@ package com.security.extractor;
 import com.security.enums.ExtractorType;
 import com.security.enums.ParamSource;
 import lombok.Data;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.annotation.Order;
-import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * 参数提取器工厂类：自动注册所有ParameterExtractor实现类，支持自定义扩展
+ * 参数提取器工厂类：注册所有提取器实现类，支持自定义扩展
+ * <p>
+ * Spring Boot下由自动配置注入容器中的全部提取器构造，其他环境直接传入提取器列表。
+ *
+ * @param <R> 请求类型
  */
-@Order()
-@Component
 @Slf4j
-public class ExtractorFactory implements InitializingBean {
+public class ExtractorFactory<R> {
 
     // 常量定义
     private static final String CUSTOM_PREFIX = ExtractorType.CUSTOM.name() + "#";
 
     // 存储解析方式与提取器的映射关系
-    private final Map<String, ParameterExtractor> extractorMap = new HashMap<>();
+    private final Map<String, RequestExtractor<R>> extractorMap = new HashMap<>();
 
     // 预加载有效的参数来源集合，提高校验效率
     private final Set<ParamSource> validParamSources = EnumSet.allOf(ParamSource.class);
 
-    // 自动注入所有ParameterExtractor实现类（包括自定义的）
-    @Setter
-    @Autowired(required = false)
-    private List<ParameterExtractor> extractors;
-
+    public ExtractorFactory(List<? extends RequestExtractor<R>> extractors) {
+        register(extractors);
+    }
 
     /**
-     * 初始化时注册所有提取器
+     * 注册所有提取器（包括自定义的）
      */
-    @Override
-    public void afterPropertiesSet() {
+    private void register(List<? extends RequestExtractor<R>> extractors) {
         if (extractors == null || extractors.isEmpty()) {
-            log.warn("未发现任何ParameterExtractor实现类");
+            log.warn("未发现任何参数提取器实现类");
             return;
         }
 
-        for (ParameterExtractor extractor : extractors) {
+        for (RequestExtractor<R> extractor : extractors) {
             Class<?> extractorClass = extractor.getClass();
             String extractorClassName = extractorClass.getName();
 
@@ -72,7 +66,7 @@ public class ExtractorFactory implements InitializingBean {
     /**
      * 验证解析方式有效性并返回标准化信息
      */
-    private ParseMethodInfo validateAndGetParsingMethod(ParameterExtractor extractor, String extractorClassName) {
+    private ParseMethodInfo validateAndGetParsingMethod(RequestExtractor<R> extractor, String extractorClassName) {
         String originParseMethod = extractor.supportParseMethod();
 
         // 验证parseMethod非空
@@ -89,6 +83,9 @@ public class ExtractorFactory implements InitializingBean {
         if (ExtractorType.DEFAULT.equals(extractorType)
                 || ExtractorType.JSON_PATH.equals(extractorType)
                 || ExtractorType.PATH_MATCH.equals(extractorType)
+                || ExtractorType.FORM_FIELD.equals(extractorType)
+                || ExtractorType.SESSION_ATTRIBUTE.equals(extractorType)
+                || ExtractorType.JWT_CLAIM.equals(extractorType)
                 || (ExtractorType.CUSTOM.equals(extractorType) && targetParseMethod.startsWith(CUSTOM_PREFIX))) {
 
             ParseMethodInfo parseMethodInfo = new ParseMethodInfo(targetParseMethod, extractorType);
@@ -104,7 +101,7 @@ public class ExtractorFactory implements InitializingBean {
     /**
      * 验证支持的参数来源有效性
      */
-    private List<ParamSource> validateSupportSources(ParameterExtractor extractor, String extractorClassName) {
+    private List<ParamSource> validateSupportSources(RequestExtractor<R> extractor, String extractorClassName) {
         List<ParamSource> supportSources = extractor.supportSources();
 
         // 验证非空
@@ -131,7 +128,7 @@ public class ExtractorFactory implements InitializingBean {
     /**
      * 处理重复注册并完成提取器注册
      */
-    private void registerExtractor(ParameterExtractor extractor, String parseMethod, List<ParamSource> supportSources, Class<?> extractorClass) {
+    private void registerExtractor(RequestExtractor<R> extractor, String parseMethod, List<ParamSource> supportSources, Class<?> extractorClass) {
         // 处理重复实现
         if (extractorMap.containsKey(parseMethod)) {
             Class<?> existingClass = extractorMap.get(parseMethod).getClass();
@@ -147,16 +144,16 @@ public class ExtractorFactory implements InitializingBean {
      * 根据解析方式获取提取器
      *
      * @param parseMethod 解析方式（如"JSON_PATH"、"HEADER"等）
-     * @return 对应的ParameterExtractor
+     * @return 对应的提取器
      * @throws IllegalArgumentException 当解析方式不被支持时
      */
-    public ParameterExtractor getExtractor(String parseMethod) {
+    public RequestExtractor<R> getExtractor(String parseMethod) {
         if (parseMethod == null || parseMethod.trim().isEmpty()) {
             throw new IllegalArgumentException("解析方式不能为空");
         }
 
         String extractorType = ExtractorType.getExtractorType(parseMethod.trim());
-        ParameterExtractor extractor = extractorMap.get(extractorType);
+        RequestExtractor<R> extractor = extractorMap.get(extractorType);
 
         if (extractor == null) {
             throw new IllegalArgumentException("不支持的参数解析方式: " + parseMethod + "，已注册的方式: " + extractorMap.keySet());
@@ -0,0 +1,240 @@
+package com.security.extractor;
+
+import com.security.exception.RequestBodyTooLargeException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * application/x-www-form-urlencoded格式的解析（查询字符串与表单请求体共用，不依赖Servlet）
+ * <p>
+ * 只有含%或+的名称/值才解码，其余直接截取；表单请求体按块流式读取，超过上限立即失败，不会把超大请求体读入内存。
+ * 查询字符串按UTF-8解码；表单请求体（流式或已缓存）按请求声明的字符集解码。
+ */
+public final class FormUrlEncodedParser {
+
+    private static final int READ_CHUNK = 512;
+
+    private FormUrlEncodedParser() {
+    }
+
+    /**
+     * 解析查询字符串（UTF-8），query为null时返回空Map
+     */
+    public static Map<String, List<String>> parseQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, List<String>> parameters = new HashMap<>();
+        int length = query.length();
+        int start = 0;
+        while (start <= length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int eq = query.indexOf('=', start);
+                if (eq < 0 || eq > end) {
+                    eq = end;
+                }
+                String name = decode(query, start, eq);
+                String value = eq < end ? decode(query, eq + 1, end) : "";
+                add(parameters, name, value);
+            }
+            start = end + 1;
+        }
+        return parameters;
+    }
+
+    /**
+     * 流式解析表单请求体
+     *
+     * @param maxBytes 允许读取的最大字节数
+     * @throws RequestBodyTooLargeException 请求体超过上限
+     */
+    public static Map<String, List<String>> parseForm(InputStream in, Charset charset, int maxBytes) throws IOException {
+        Map<String, List<String>> parameters = new HashMap<>();
+        byte[] chunk = new byte[READ_CHUNK];
+        PairBuffer pair = new PairBuffer();
+        long total = 0;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new RequestBodyTooLargeException("表单请求体超过" + maxBytes + "字节，无法进行权限校验");
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = chunk[i];
+                if (b == '&') {
+                    pair.flush(parameters, charset);
+                } else {
+                    pair.append(b);
+                }
+            }
+        }
+        pair.flush(parameters, charset);
+        return parameters;
+    }
+
+    /**
+     * 解析已缓存的表单请求体（百分号编码按charset解码，与流式解析一致；charset为null时使用UTF-8）
+     */
+    public static Map<String, List<String>> parseForm(byte[] body, Charset charset) {
+        if (body == null || body.length == 0) {
+            return Collections.emptyMap();
+        }
+        Charset bodyCharset = charset == null ? StandardCharsets.UTF_8 : charset;
+        Map<String, List<String>> parameters = new HashMap<>();
+        int start = 0;
+        while (start < body.length) {
+            int end = start;
+            int eq = -1;
+            while (end < body.length && body[end] != '&') {
+                if (eq < 0 && body[end] == '=') {
+                    eq = end;
+                }
+                end++;
+            }
+            if (end > start) {
+                if (eq < 0) {
+                    eq = end;
+                }
+                String name = decodeBytes(body, start, eq, bodyCharset);
+                String value = eq < end ? decodeBytes(body, eq + 1, end, bodyCharset) : "";
+                add(parameters, name, value);
+            }
+            start = end + 1;
+        }
+        return parameters;
+    }
+
+    private static void add(Map<String, List<String>> parameters, String name, String value) {
+        if (name.isEmpty()) {
+            return;
+        }
+        parameters.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+    }
+
+    /**
+     * 解码[from, to)区间，不含%和+时直接截取
+     */
+    private static String decode(String source, int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = source.charAt(i);
+            if (c == '%' || c == '+') {
+                break;
+            }
+            i++;
+        }
+        if (i == to) {
+            return source.substring(from, to);
+        }
+
+        byte[] bytes = new byte[(to - from) * 3];
+        int size = 0;
+        for (i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (c == '+') {
+                bytes[size++] = ' ';
+            } else if (c == '%' && hexValue(source, i + 1, to) >= 0) {
+                bytes[size++] = (byte) hexValue(source, i + 1, to);
+                i += 2;
+            } else if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else {
+                // 未编码的非ASCII字符按UTF-8写入
+                byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(encoded, 0, bytes, size, encoded.length);
+                size += encoded.length;
+            }
+        }
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按charset解码字节区间[from, to)中的名称或值，不含%和+时直接构造字符串
+     */
+    private static String decodeBytes(byte[] source, int from, int to, Charset charset) {
+        byte[] decoded = null;
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            byte b = source[i];
+            if (b == '+' || b == '%') {
+                if (decoded == null) {
+                    decoded = new byte[to - from];
+                    System.arraycopy(source, from, decoded, 0, i - from);
+                    size = i - from;
+                }
+                if (b == '+') {
+                    decoded[size++] = ' ';
+                    continue;
+                }
+                int high = i + 2 < to ? Character.digit((char) source[i + 1], 16) : -1;
+                int low = i + 2 < to ? Character.digit((char) source[i + 2], 16) : -1;
+                if (high >= 0 && low >= 0) {
+                    decoded[size++] = (byte) ((high << 4) + low);
+                    i += 2;
+                    continue;
+                }
+                decoded[size++] = b;
+            } else if (decoded != null) {
+                decoded[size++] = b;
+            }
+        }
+        return decoded == null ? new String(source, from, to - from, charset) : new String(decoded, 0, size, charset);
+    }
+
+    /**
+     * 读取%后的两位十六进制，不合法时返回-1（原样保留%）
+     */
+    private static int hexValue(String source, int index, int to) {
+        if (index + 1 >= to) {
+            return -1;
+        }
+        int high = Character.digit(source.charAt(index), 16);
+        int low = Character.digit(source.charAt(index + 1), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) + low;
+    }
+
+    /**
+     * 当前名称/值对的字节缓冲（流式解析时复用）
+     */
+    private static final class PairBuffer {
+        private byte[] bytes = new byte[64];
+        private int size;
+        private int separator = -1;
+
+        void append(byte b) {
+            if (b == '=' && separator < 0) {
+                separator = size;
+            }
+            if (size == bytes.length) {
+                byte[] grown = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, grown, 0, size);
+                bytes = grown;
+            }
+            bytes[size++] = b;
+        }
+
+        void flush(Map<String, List<String>> parameters, Charset charset) {
+            if (size == 0) {
+                return;
+            }
+            int eq = separator < 0 ? size : separator;
+            String name = decodeBytes(bytes, 0, eq, charset);
+            String value = eq < size ? decodeBytes(bytes, eq + 1, size, charset) : "";
+            add(parameters, name, value);
+            size = 0;
+            separator = -1;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.security.extractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSONPath子集的增量匹配（不依赖Servlet，请求体分块到达时使用）
+ * <p>
+ * 每块数据交给Jackson的非阻塞解析器，按token匹配表达式，不缓存文档。某个表达式不可能再有新匹配时即为已确定
+ * （无通配的表达式匹配到值、或包含其前缀的容器已结束），全部确定后调用方可以提前校验，不必等待请求体读完。
+ * <p>
+ * 支持以$开始、由.name、['name']、[n]、[*]、.*组成的表达式，匹配值为字符串、整数或布尔值时转换结果与
+ * {@link JsonPathSupport}一致；其他表达式不创建匹配器，匹配到对象、数组、小数或JSON格式错误时放弃匹配（调用方回退为完整解析）。
+ * <p>
+ * 提前确定的前提是对象中没有重复键：确定之后同一表达式再次匹配（如重复键）时{@link #isRematched()}返回true，
+ * 调用方需在请求体读完后按完整解析重新校验。实例不是线程安全的。
+ */
+@Slf4j
+public final class IncrementalJsonMatcher {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // 编译后的表达式（不支持的表达式缓存为UNSUPPORTED）
+    private static final Map<String, Step[]> PATH_CACHE = new ConcurrentHashMap<>(64);
+    private static final Step[] UNSUPPORTED = new Step[0];
+    private static final int MAX_DEPTH = 512;
+
+    private final String[] expressions;
+    private final Step[][] paths;
+    // 第一个通配步骤的下标（没有通配时为步骤数）
+    private final int[] definiteLengths;
+    private final List<List<String>> values;
+    private final boolean[] resolved;
+    private int unresolved;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    // stack[i]为经过i个步骤到达的容器
+    private Frame[] stack = new Frame[8];
+    private int depth;
+    private boolean rootSeen;
+    private boolean complete;
+    private boolean abandoned;
+    private boolean rematched;
+
+    private IncrementalJsonMatcher(String[] expressions, Step[][] paths) throws IOException {
+        this.expressions = expressions;
+        this.paths = paths;
+        this.definiteLengths = new int[paths.length];
+        this.values = new ArrayList<>(paths.length);
+        for (int p = 0; p < paths.length; p++) {
+            int length = 0;
+            while (length < paths[p].length && !paths[p][length].wildcard) {
+                length++;
+            }
+            definiteLengths[p] = length;
+            values.add(new ArrayList<>(1));
+        }
+        this.resolved = new boolean[paths.length];
+        this.unresolved = paths.length;
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 为一组JSONPath表达式创建匹配器
+     *
+     * @return 存在不支持的表达式或表达式为空时返回null
+     */
+    public static IncrementalJsonMatcher create(Collection<String> expressions) {
+        if (expressions == null || expressions.isEmpty()) {
+            return null;
+        }
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(expressions);
+        Step[][] paths = new Step[distinct.size()][];
+        int p = 0;
+        for (String expression : distinct) {
+            Step[] steps = PATH_CACHE.computeIfAbsent(expression, IncrementalJsonMatcher::compile);
+            if (steps == UNSUPPORTED) {
+                log.debug("JSONPath表达式[{}]不支持增量匹配", expression);
+                return null;
+            }
+            paths[p++] = steps;
+        }
+        try {
+            return new IncrementalJsonMatcher(distinct.toArray(new String[0]), paths);
+        } catch (IOException e) {
+            log.warn("创建非阻塞JSON解析器失败", e);
+            return null;
+        }
+    }
+
+    /**
+     * 输入一块请求体（方法返回后data可以复用）
+     */
+    public void feed(byte[] data, int offset, int length) {
+        if (abandoned || length <= 0) {
+            return;
+        }
+        try {
+            feeder.feedInput(data, offset, offset + length);
+        } catch (IOException e) {
+            abandon(e);
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * 请求体已读完（文档不完整时放弃匹配）
+     */
+    public void endOfInput() {
+        if (!abandoned) {
+            feeder.endOfInput();
+            drain();
+            if (!complete) {
+                abandon(null);
+            }
+        }
+        close();
+    }
+
+    private void close() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+            // 非阻塞解析器不持有外部资源
+        }
+    }
+
+    /**
+     * 全部表达式已确定且未放弃匹配
+     */
+    public boolean isResolved() {
+        return !abandoned && unresolved == 0;
+    }
+
+    /**
+     * 是否已放弃匹配（结果不可用，需完整解析）
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * 已确定的表达式是否再次匹配（提前得到的值可能与完整解析不一致）
+     */
+    public boolean isRematched() {
+        return rematched;
+    }
+
+    /**
+     * 各表达式的匹配值（表达式 -> 值列表），应在{@link #isResolved()}为true时调用
+     */
+    public Map<String, List<String>> values() {
+        Map<String, List<String>> result = new LinkedHashMap<>(expressions.length * 2);
+        for (int p = 0; p < expressions.length; p++) {
+            result.put(expressions[p], Collections.unmodifiableList(new ArrayList<>(values.get(p))));
+        }
+        return result;
+    }
+
+    private void drain() {
+        try {
+            JsonToken token;
+            while (!abandoned && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                onToken(token);
+            }
+        } catch (IOException e) {
+            abandon(e);
+        }
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        switch (token) {
+            case FIELD_NAME:
+                stack[depth - 1].field = parser.getCurrentName();
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                onContainerEnd();
+                break;
+            default:
+                onValue(token);
+        }
+    }
+
+    private void onValue(JsonToken token) throws IOException {
+        boolean container = token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY;
+        if (depth == 0) {
+            if (rootSeen) {
+                // 多个根值，与完整解析的行为不一致
+                abandon(null);
+                return;
+            }
+            rootSeen = true;
+            if (container) {
+                Arrays.fill(push(token).onPath, true);
+            } else {
+                // 根值是标量：所有表达式都不会匹配
+                for (int p = 0; p < paths.length; p++) {
+                    resolve(p);
+                }
+                complete = true;
+            }
+            return;
+        }
+        if (container && depth >= MAX_DEPTH) {
+            abandon(null);
+            return;
+        }
+        Frame parent = stack[depth - 1];
+        // 到达父容器已经过的步骤数
+        int level = depth - 1;
+        Frame child = container ? push(token) : null;
+        for (int p = 0; p < paths.length && !abandoned; p++) {
+            if (!parent.onPath[p] || !paths[p][level].matches(parent)) {
+                continue;
+            }
+            if (level + 1 == paths[p].length) {
+                onMatch(p, token);
+            } else if (container) {
+                child.onPath[p] = true;
+            } else if (level + 1 <= definiteLengths[p]) {
+                // 确定前缀上是标量，之后不会再匹配
+                resolve(p);
+            }
+        }
+        if (!container) {
+            afterValue();
+        }
+    }
+
+    private void onMatch(int p, JsonToken token) throws IOException {
+        if (resolved[p]) {
+            rematched = true;
+            return;
+        }
+        switch (token) {
+            case VALUE_STRING:
+                values.get(p).add(parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+                String number = parser.getText();
+                if (number.startsWith("-0")) {
+                    // 完整解析得到0，文本形式不一致
+                    abandon(null);
+                    return;
+                }
+                values.get(p).add(number);
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                values.get(p).add(token == JsonToken.VALUE_TRUE ? "true" : "false");
+                break;
+            case VALUE_NULL:
+                // null值不参与校验（与完整解析一致）
+                break;
+            default:
+                // 对象、数组与小数的字符串形式依赖完整解析
+                abandon(null);
+                return;
+        }
+        if (definiteLengths[p] == paths[p].length) {
+            resolve(p);
+        }
+    }
+
+    private void onContainerEnd() {
+        Frame frame = stack[--depth];
+        for (int p = 0; p < paths.length; p++) {
+            if (frame.onPath[p] && depth <= definiteLengths[p]) {
+                resolve(p);
+            }
+        }
+        if (depth == 0) {
+            complete = true;
+        } else {
+            afterValue();
+        }
+    }
+
+    private Frame push(JsonToken token) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth << 1);
+        }
+        Frame frame = stack[depth];
+        if (frame == null) {
+            frame = new Frame(paths.length);
+            stack[depth] = frame;
+        }
+        frame.array = token == JsonToken.START_ARRAY;
+        frame.index = 0;
+        frame.field = null;
+        Arrays.fill(frame.onPath, false);
+        depth++;
+        return frame;
+    }
+
+    private void afterValue() {
+        Frame parent = stack[depth - 1];
+        if (parent.array) {
+            parent.index++;
+        }
+    }
+
+    private void resolve(int p) {
+        if (!resolved[p]) {
+            resolved[p] = true;
+            unresolved--;
+        }
+    }
+
+    private void abandon(Exception cause) {
+        if (!abandoned) {
+            abandoned = true;
+            log.debug("放弃增量JSON匹配，回退为完整解析：{}", cause != null ? cause.getMessage() : "不支持的值或结构");
+        }
+    }
+
+    /**
+     * 编译表达式，不支持时返回UNSUPPORTED
+     */
+    private static Step[] compile(String expression) {
+        String expr = expression.trim();
+        if (!expr.startsWith("$")) {
+            return UNSUPPORTED;
+        }
+        List<Step> steps = new ArrayList<>(4);
+        int i = 1;
+        int length = expr.length();
+        while (i < length) {
+            char c = expr.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < length && expr.charAt(end) != '.' && expr.charAt(end) != '[') {
+                    end++;
+                }
+                String name = expr.substring(i + 1, end);
+                // 递归下降（..）、函数调用不支持
+                if (name.isEmpty() || name.indexOf('(') >= 0) {
+                    return UNSUPPORTED;
+                }
+                steps.add("*".equals(name) ? Step.WILDCARD : Step.name(name));
+                i = end;
+            } else if (c == '[') {
+                int end = parseBracket(expr, i, steps);
+                if (end < 0) {
+                    return UNSUPPORTED;
+                }
+                i = end;
+            } else {
+                return UNSUPPORTED;
+            }
+        }
+        return steps.isEmpty() ? UNSUPPORTED : steps.toArray(new Step[0]);
+    }
+
+    /**
+     * 解析['name']、[n]、[*]，返回']'之后的位置，不支持时返回-1
+     */
+    private static int parseBracket(String expr, int open, List<Step> steps) {
+        int start = open + 1;
+        if (start >= expr.length()) {
+            return -1;
+        }
+        char quote = expr.charAt(start);
+        if (quote == '\'' || quote == '"') {
+            int closeQuote = expr.indexOf(quote, start + 1);
+            if (closeQuote < 0 || closeQuote + 1 >= expr.length() || expr.charAt(closeQuote + 1) != ']') {
+                return -1;
+            }
+            String name = expr.substring(start + 1, closeQuote);
+            if (name.indexOf('\\') >= 0) {
+                return -1;
+            }
+            steps.add(Step.name(name));
+            return closeQuote + 2;
+        }
+        int close = expr.indexOf(']', start);
+        if (close < 0) {
+            return -1;
+        }
+        String content = expr.substring(start, close).trim();
+        if ("*".equals(content)) {
+            steps.add(Step.WILDCARD);
+            return close + 1;
+        }
+        // 过滤器、切片、多下标与负下标不支持
+        if (content.isEmpty() || content.length() > 9) {
+            return -1;
+        }
+        for (int k = 0; k < content.length(); k++) {
+            if (!Character.isDigit(content.charAt(k))) {
+                return -1;
+            }
+        }
+        steps.add(Step.index(Integer.parseInt(content)));
+        return close + 1;
+    }
+
+    /**
+     * 表达式的一个步骤：属性名、数组下标或通配
+     */
+    private static final class Step {
+        static final Step WILDCARD = new Step(null, -1, true);
+
+        final String name;
+        final int index;
+        final boolean wildcard;
+
+        private Step(String name, int index, boolean wildcard) {
+            this.name = name;
+            this.index = index;
+            this.wildcard = wildcard;
+        }
+
+        static Step name(String name) {
+            return new Step(name, -1, false);
+        }
+
+        static Step index(int index) {
+            return new Step(null, index, false);
+        }
+
+        boolean matches(Frame container) {
+            if (wildcard) {
+                return true;
+            }
+            if (name != null) {
+                return !container.array && name.equals(container.field);
+            }
+            return container.array && container.index == index;
+        }
+    }
+
+    /**
+     * 已打开的容器：当前字段名或元素下标，以及位于哪些表达式的前缀上
+     */
+    private static final class Frame {
+        final boolean[] onPath;
+        boolean array;
+        int index;
+        String field;
+
+        Frame(int pathCount) {
+            this.onPath = new boolean[pathCount];
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.security.extractor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.JsonPathException;
+import com.jayway.jsonpath.Option;
+import com.security.context.ParsedBodyKey;
+import com.security.context.PermissionContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSONPath解析的公共实现（不依赖Servlet，Servlet与WebFlux的提取器共用）
+ * <p>
+ * 请求体经{@link #document(byte[])}解析为文档后在当前请求内共享，同一请求的多个JSON参数只解析一次。
+ */
+@Slf4j
+public final class JsonPathSupport {
+
+    // 缓存预编译的JsonPath表达式，提升重复使用效率
+    private static final Map<String, JsonPath> JSON_PATH_CACHE = new ConcurrentHashMap<>(64);
+    // 流式处理配置，全局共享
+    private static final Configuration STREAMING_CONFIG = Configuration.defaultConfiguration()
+            .addOptions(Option.SUPPRESS_EXCEPTIONS)    // 抑制非关键异常
+            .addOptions(Option.ALWAYS_RETURN_LIST) ;    // 确保返回结果始终为列表
+    // 用于复杂对象序列化的Jackson映射器
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 请求级共享的JSON文档
+     */
+    public static final ParsedBodyKey<DocumentContext> DOCUMENT = ParsedBodyKey.of("json", DocumentContext.class);
+
+    private JsonPathSupport() {
+    }
+
+    /**
+     * 获取当前请求的JSON文档（同一请求内只解析一次，未初始化权限上下文时每次解析）
+     *
+     * @throws JsonPathException JSON解析失败
+     */
+    public static DocumentContext document(byte[] contentBytes) {
+        return PermissionContext.parsedBody(DOCUMENT, () -> parse(contentBytes));
+    }
+
+    /**
+     * 获取当前请求的JSON文档，请求体声明了Content-Encoding时边解压边解析（不生成解压后的字节数组）
+     *
+     * @throws JsonPathException JSON解析失败、不支持的编码或超过解压上限
+     */
+    public static DocumentContext document(byte[] contentBytes, String contentEncoding, ContentDecoding decoding) {
+        if (!ContentDecoding.isEncoded(contentEncoding)) {
+            return document(contentBytes);
+        }
+        return PermissionContext.parsedBody(DOCUMENT, () -> {
+            try {
+                return parse(decoding.open(contentBytes, contentEncoding));
+            } catch (IOException e) {
+                log.error("请求体解压失败，Content-Encoding:{}", contentEncoding, e);
+                throw new JsonPathException("解压请求体失败：" + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 解析JSON字节为文档
+     *
+     * @throws JsonPathException JSON解析失败
+     */
+    public static DocumentContext parse(byte[] contentBytes) {
+        return parse(new ByteArrayInputStream(contentBytes));
+    }
+
+    /**
+     * 从输入流解析JSON文档（解析后关闭输入流）
+     *
+     * @throws JsonPathException JSON解析失败
+     */
+    public static DocumentContext parse(InputStream content) {
+        // 使用缓冲流提升大文件读取效率
+        try (InputStream inputStream = new BufferedInputStream(content)) {
+            return JsonPath.using(STREAMING_CONFIG).parse(inputStream);
+        } catch (Exception e) {
+            log.error("JSON请求体解析失败", e);
+            throw new JsonPathException("流式解析JSON失败", e);
+        }
+    }
+
+    /**
+     * 从JSON字节中按表达式提取值，转换为字符串列表（每次调用都重新解析，请求内提取请使用{@link #document(byte[])}）
+     *
+     * @throws JsonPathException 表达式编译或解析失败
+     */
+    public static List<String> read(byte[] contentBytes, String jsonPathExpr, String paramName) {
+        return read(parse(contentBytes), jsonPathExpr, paramName);
+    }
+
+    /**
+     * 从已解析的文档中按表达式提取值，转换为字符串列表
+     *
+     * @throws JsonPathException 表达式编译或读取失败
+     */
+    public static List<String> read(DocumentContext document, String jsonPathExpr, String paramName) {
+        // 从缓存获取或编译JsonPath表达式
+        JsonPath jsonPath = JSON_PATH_CACHE.computeIfAbsent(jsonPathExpr, expr -> {
+            try {
+                return JsonPath.compile(expr);
+            } catch (JsonPathException e) {
+                log.error("参数[{}]JSONPath表达式[{}]编译失败", paramName, expr, e);
+                throw e;
+            }
+        });
+
+        try {
+            List<Object> result = document.read(jsonPath);
+            return processExtractedValues(result, paramName);
+        } catch (Exception e) {
+            log.error("参数[{}]JSONPath读取失败，表达式:{}", paramName, jsonPathExpr, e);
+            throw new JsonPathException("读取JSON失败", e);
+        }
+    }
+
+    /**
+     * 处理提取结果，转换为字符串列表
+     */
+    private static List<String> processExtractedValues(List<Object> rawValues, String paramName) {
+        if (rawValues == null || rawValues.isEmpty()) {
+            log.trace("参数[{}]未提取到任何值", paramName);
+            return Collections.emptyList();
+        }
+
+        // 过滤null并序列化值为字符串（一次遍历，不再复制）
+        List<String> valueList = new ArrayList<>(rawValues.size());
+        for (Object value : rawValues) {
+            if (value != null) {
+                valueList.add(serializeValue(value, paramName));
+            }
+        }
+
+        log.debug("参数[{}]提取到{}个有效值", paramName, valueList.size());
+        return Collections.unmodifiableList(valueList);
+    }
+
+    /**
+     * 序列化值为字符串，支持复杂对象
+     */
+    private static String serializeValue(Object value, String paramName) {
+        try {
+            // 基本类型直接转换，复杂对象JSON序列化
+            if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("参数[{}]值[{}]序列化失败，使用默认toString()", paramName, value.getClass().getSimpleName(), e);
+            return value.toString();
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.security.extractor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.config.ApiPermissionConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWS令牌（紧凑序列化）的验签与声明读取（不依赖Servlet，JWT_CLAIM解析方式共用）
+ * <p>
+ * 使用本地配置的密钥验签：HS256/HS384/HS512（共享密钥）、RS256/RS384/RS512（RSA公钥，按kid选择）；
+ * 校验exp/nbf（允许时钟偏差）以及配置的iss/aud，不接受alg=none与带crit头的令牌；默认拒绝不带exp的令牌。
+ * <p>
+ * 验签通过的声明按令牌的SHA-256摘要缓存（不保存令牌原文），同一令牌的后续请求不再验签、不再解析JSON；
+ * 每个条目最多缓存到exp与cacheTtl中较早的时刻。读取不加锁，写入时在锁内按到期顺序清理已到期的条目，
+ * 仍然已满时淘汰最早到期的条目（堆操作，O(log n)）。
+ */
+@Slf4j
+public final class JwtVerifier {
+
+    /**
+     * HEADER来源未指定名称时读取的请求头
+     */
+    public static final String DEFAULT_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final char NAME_SEPARATOR = ':';
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(JwtVerifier::newSha256);
+
+    private final byte[] hmacSecret;
+    private final Map<String, PublicKey> rsaPublicKeys;
+    private final String issuer;
+    private final String audience;
+    private final long clockSkewMillis;
+    private final boolean requireExp;
+    private final int cacheMaxSize;
+    private final long cacheTtlMillis;
+    private final Map<TokenDigest, CacheEntry> cache = new ConcurrentHashMap<>(256);
+    // 缓存条目按到期时间排序（只在锁内访问），与cache中的条目一一对应
+    private final PriorityQueue<CacheEntry> expiryQueue = new PriorityQueue<>(256,
+            (a, b) -> Long.compare(a.cachedUntil, b.cachedUntil));
+
+    /**
+     * @param config JWT配置（无法解析的公钥记录错误后忽略，配置校验阶段已报告）
+     */
+    public JwtVerifier(ApiPermissionConfig.Jwt config) {
+        this.hmacSecret = config.getHmacSecret() != null && !config.getHmacSecret().isEmpty()
+                ? config.getHmacSecret().getBytes(StandardCharsets.UTF_8) : null;
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        if (config.getRsaPublicKeys() != null) {
+            config.getRsaPublicKeys().forEach((kid, pem) -> {
+                try {
+                    keys.put(kid, parseRsaPublicKey(pem));
+                } catch (IllegalArgumentException e) {
+                    log.error("JWT公钥[{}]解析失败，已忽略：{}", kid, e.getMessage());
+                }
+            });
+        }
+        this.rsaPublicKeys = Collections.unmodifiableMap(keys);
+        this.issuer = config.getIssuer();
+        this.audience = config.getAudience();
+        this.clockSkewMillis = config.getClockSkewSeconds() * 1000;
+        this.requireExp = config.isRequireExp();
+        this.cacheMaxSize = config.getCacheMaxSize();
+        this.cacheTtlMillis = config.getCacheTtlSeconds() * 1000;
+    }
+
+    /**
+     * 解析RSA公钥（PEM格式或Base64编码的X.509 SubjectPublicKeyInfo）
+     *
+     * @throws IllegalArgumentException 公钥格式错误
+     */
+    public static PublicKey parseRsaPublicKey(String pem) {
+        if (pem == null) {
+            throw new IllegalArgumentException("公钥为空");
+        }
+        String base64 = pem.replace("-----BEGIN PUBLIC KEY-----", "").replace("-----END PUBLIC KEY-----", "")
+                .replaceAll("\\s", "");
+        try {
+            return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new IllegalArgumentException("不是有效的RSA公钥（需PEM或Base64编码的X.509格式）", e);
+        }
+    }
+
+    /**
+     * 从parseConfig（<code>[请求头/Cookie名:]声明路径</code>）中读取令牌所在的名称，未指定时返回defaultName
+     */
+    public static String tokenName(String parseConfig, String defaultName) {
+        int separator = parseConfig.indexOf(NAME_SEPARATOR);
+        return separator >= 0 ? parseConfig.substring(0, separator).trim() : defaultName;
+    }
+
+    /**
+     * 从parseConfig（<code>[请求头/Cookie名:]声明路径</code>）中读取声明路径
+     */
+    public static String claimPath(String parseConfig) {
+        int separator = parseConfig.indexOf(NAME_SEPARATOR);
+        return (separator >= 0 ? parseConfig.substring(separator + 1) : parseConfig).trim();
+    }
+
+    /**
+     * 去掉请求头值的Bearer前缀（不区分大小写），没有前缀时原样返回
+     */
+    public static String stripBearer(String value) {
+        if (value != null && value.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return value.substring(BEARER_PREFIX.length()).trim();
+        }
+        return value;
+    }
+
+    /**
+     * 按点分路径读取声明值（如<code>sub</code>、<code>user.staffId</code>），数组按元素展开，转为字符串追加到values
+     */
+    public static void readClaim(Map<String, Object> claims, String path, Collection<String> values) {
+        Object value = claims;
+        int start = 0;
+        while (value instanceof Map && start <= path.length()) {
+            int end = path.indexOf('.', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            value = ((Map<?, ?>) value).get(path.substring(start, end));
+            start = end + 1;
+        }
+        if (start <= path.length() || value == null) {
+            // 路径未走完（中间值不是对象）或声明不存在
+            return;
+        }
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                addScalar(element, values);
+            }
+        } else {
+            addScalar(value, values);
+        }
+    }
+
+    private static void addScalar(Object value, Collection<String> values) {
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            values.add(value.toString());
+        }
+    }
+
+    /**
+     * 验签并返回令牌的声明
+     *
+     * @return 声明（不可修改）；令牌格式错误、验签失败、已过期、未携带exp（requireExp）或不满足iss/aud时返回null
+     */
+    public Map<String, Object> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        TokenDigest digest = cacheMaxSize > 0 ? TokenDigest.of(token) : null;
+        if (digest != null) {
+            CacheEntry cached = cache.get(digest);
+            // 超过缓存有效期的条目重新验签（由下次写入清理）
+            if (cached != null && now < cached.cachedUntil) {
+                // 尚未生效（nbf）的令牌保留在缓存中，生效后继续使用
+                return cached.verified.isValidAt(now) ? cached.verified.claims : null;
+            }
+        }
+
+        VerifiedClaims verified;
+        try {
+            verified = verifySignatureAndParse(token);
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            log.debug("JWT令牌解析失败：{}", e.getMessage());
+            return null;
+        }
+        if (verified == null || !verifyRegisteredClaims(verified.claims)) {
+            return null;
+        }
+        if (requireExp && !verified.hasExpiry()) {
+            log.debug("JWT令牌未携带exp，已拒绝");
+            return null;
+        }
+        if (digest != null && !verified.isExpiredAt(now)) {
+            cacheClaims(digest, verified, now);
+        }
+        return verified.isValidAt(now) ? verified.claims : null;
+    }
+
+    private VerifiedClaims verifySignatureAndParse(String token) throws IOException, GeneralSecurityException {
+        int first = token.indexOf('.');
+        int second = first > 0 ? token.indexOf('.', first + 1) : -1;
+        if (second < 0 || second == token.length() - 1 || token.indexOf('.', second + 1) >= 0) {
+            log.debug("JWT令牌格式错误：不是三段式紧凑序列化");
+            return null;
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        Map<?, ?> header = OBJECT_MAPPER.readValue(decoder.decode(token.substring(0, first)), Map.class);
+        Object alg = header.get("alg");
+        if (!(alg instanceof String) || header.containsKey("crit")) {
+            log.debug("JWT令牌头不受支持：{}", header);
+            return null;
+        }
+        byte[] signingInput = token.substring(0, second).getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = decoder.decode(token.substring(second + 1));
+        if (!verifySignature((String) alg, header.get("kid"), signingInput, signature)) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> claims = OBJECT_MAPPER.readValue(decoder.decode(token.substring(first + 1, second)), Map.class);
+        return new VerifiedClaims(Collections.unmodifiableMap(claims),
+                numericDate(claims.get("exp")), numericDate(claims.get("nbf")), clockSkewMillis);
+    }
+
+    private boolean verifySignature(String alg, Object kid, byte[] signingInput, byte[] signature) throws GeneralSecurityException {
+        switch (alg) {
+            case "HS256":
+            case "HS384":
+            case "HS512":
+                if (hmacSecret == null) {
+                    log.debug("未配置HMAC密钥，拒绝{}令牌", alg);
+                    return false;
+                }
+                Mac mac = Mac.getInstance("HmacSHA" + alg.substring(2));
+                mac.init(new SecretKeySpec(hmacSecret, mac.getAlgorithm()));
+                // 常量时间比较
+                return MessageDigest.isEqual(mac.doFinal(signingInput), signature);
+            case "RS256":
+            case "RS384":
+            case "RS512":
+                PublicKey key = selectRsaKey(kid);
+                if (key == null) {
+                    log.debug("没有可用于kid[{}]的RSA公钥，拒绝{}令牌", kid, alg);
+                    return false;
+                }
+                Signature verifier = Signature.getInstance("SHA" + alg.substring(2) + "withRSA");
+                verifier.initVerify(key);
+                verifier.update(signingInput);
+                return verifier.verify(signature);
+            default:
+                log.debug("不支持的JWT签名算法：{}", alg);
+                return false;
+        }
+    }
+
+    private PublicKey selectRsaKey(Object kid) {
+        if (kid instanceof String) {
+            return rsaPublicKeys.get(kid);
+        }
+        // 令牌未携带kid时只有唯一的公钥才可使用
+        return rsaPublicKeys.size() == 1 ? rsaPublicKeys.values().iterator().next() : null;
+    }
+
+    private boolean verifyRegisteredClaims(Map<String, Object> claims) {
+        if (issuer != null && !issuer.isEmpty() && !issuer.equals(claims.get("iss"))) {
+            log.debug("JWT令牌签发者不匹配：{}", claims.get("iss"));
+            return false;
+        }
+        if (audience != null && !audience.isEmpty()) {
+            Object aud = claims.get("aud");
+            boolean matched = aud instanceof Collection ? ((Collection<?>) aud).contains(audience) : audience.equals(aud);
+            if (!matched) {
+                log.debug("JWT令牌受众不匹配：{}", aud);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void cacheClaims(TokenDigest digest, VerifiedClaims verified, long now) {
+        CacheEntry entry = new CacheEntry(digest, verified, Math.min(verified.expiresAt, now + cacheTtlMillis));
+        synchronized (expiryQueue) {
+            CacheEntry head;
+            while ((head = expiryQueue.peek()) != null && (head.cachedUntil <= now || cache.size() >= cacheMaxSize)) {
+                expiryQueue.poll();
+                cache.remove(head.digest, head);
+            }
+            // 同一令牌并发验签时保留先写入的条目
+            if (cache.putIfAbsent(digest, entry) == null) {
+                expiryQueue.add(entry);
+            }
+        }
+    }
+
+    /**
+     * 当前缓存的令牌数
+     */
+    int cachedTokens() {
+        return cache.size();
+    }
+
+    /**
+     * 令牌的验签结果是否在缓存中
+     */
+    boolean isCached(String token) {
+        return cache.containsKey(TokenDigest.of(token));
+    }
+
+    /**
+     * NumericDate（秒）转为毫秒，不存在时返回-1
+     */
+    private static long numericDate(Object value) {
+        if (value instanceof Number) {
+            return (long) (((Number) value).doubleValue() * 1000);
+        }
+        if (value != null) {
+            throw new IllegalArgumentException("JWT时间声明不是数值：" + value);
+        }
+        return -1;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 令牌的SHA-256摘要（缓存键）
+     */
+    private static final class TokenDigest {
+        private final long a;
+        private final long b;
+        private final long c;
+        private final long d;
+
+        private TokenDigest(long a, long b, long c, long d) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+        }
+
+        static TokenDigest of(String token) {
+            MessageDigest sha256 = SHA256.get();
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return new TokenDigest(toLong(hash, 0), toLong(hash, 8), toLong(hash, 16), toLong(hash, 24));
+        }
+
+        private static long toLong(byte[] bytes, int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (bytes[i] & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TokenDigest)) {
+                return false;
+            }
+            TokenDigest that = (TokenDigest) o;
+            return a == that.a && b == that.b && c == that.c && d == that.d;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (a ^ (a >>> 32));
+        }
+    }
+
+    /**
+     * 缓存条目：验签结果及其在缓存中的到期时间
+     */
+    private static final class CacheEntry {
+        private final TokenDigest digest;
+        private final VerifiedClaims verified;
+        private final long cachedUntil;
+
+        private CacheEntry(TokenDigest digest, VerifiedClaims verified, long cachedUntil) {
+            this.digest = digest;
+            this.verified = verified;
+            this.cachedUntil = cachedUntil;
+        }
+    }
+
+    /**
+     * 验签通过的声明及其有效期（已计入时钟偏差）
+     */
+    private static final class VerifiedClaims {
+        private final Map<String, Object> claims;
+        private final long expiresAt;
+        private final long notBefore;
+
+        private VerifiedClaims(Map<String, Object> claims, long exp, long nbf, long clockSkewMillis) {
+            this.claims = claims;
+            this.expiresAt = exp >= 0 ? exp + clockSkewMillis : Long.MAX_VALUE;
+            this.notBefore = nbf >= 0 ? nbf - clockSkewMillis : Long.MIN_VALUE;
+        }
+
+        boolean isExpiredAt(long now) {
+            return now >= expiresAt;
+        }
+
+        boolean hasExpiry() {
+            return expiresAt != Long.MAX_VALUE;
+        }
+
+        boolean isValidAt(long now) {
+            return now < expiresAt && now >= notBefore;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.security.extractor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * multipart/form-data请求体的流式解析（不依赖Servlet）
+ * <p>
+ * 按部分顺序读取：{@link #nextPart()}读取下一部分的头信息，{@link #readContent(OutputStream, long)}把当前部分的内容
+ * 边读边写出（按KMP匹配分隔符，连续的内容按块写出，不在内存中保留内容）；未读取的内容在调用nextPart时跳过。
+ * 解析器只向前读取，内部缓冲区每次最多读取{@link #BUFFER_SIZE}字节（输入流可返回更少的字节），文件部分的内容是否落盘由调用方决定。
+ */
+public final class MultipartStreamParser {
+
+    public static final int BUFFER_SIZE = 8192;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    // 分隔符"\r\n--boundary"，缓冲区预置一个CRLF使首个分隔符与后续格式一致
+    private final byte[] delimiter;
+    private final int[] failure;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private boolean started;
+    private boolean finished;
+    private boolean contentPending;
+
+    public MultipartStreamParser(InputStream in, String boundary) {
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IllegalArgumentException("multipart请求缺少boundary");
+        }
+        this.in = in;
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.failure = buildFailure(delimiter);
+    }
+
+    /**
+     * 从Content-Type中读取boundary，不存在时返回null
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String value = parameterOf(contentType, "boundary");
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 读取下一部分的头信息（跳过上一部分未读取的内容），没有更多部分时返回null
+     */
+    public PartHeaders nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!started || contentPending) {
+            // 跳过前导内容或上一部分剩余的内容
+            if (!skipToDelimiter()) {
+                finished = true;
+                return null;
+            }
+            started = true;
+        }
+        int first = read();
+        int second = read();
+        if (first == '-' && second == '-') {
+            finished = true;
+            return null;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IllegalArgumentException("multipart请求体格式错误：分隔符后缺少换行");
+        }
+        PartHeaders headers = readHeaders();
+        contentPending = true;
+        return headers;
+    }
+
+    /**
+     * 把当前部分的内容写入out，读到分隔符为止
+     *
+     * @param maxBytes 内容允许的最大字节数（小于0表示不限制）
+     * @return 内容字节数
+     * @throws SizeLimitExceededException 内容超过maxBytes
+     */
+    public long readContent(OutputStream out, long maxBytes) throws IOException {
+        if (!contentPending) {
+            return 0;
+        }
+        long written = scan(out, maxBytes);
+        if (written < 0) {
+            throw new IllegalArgumentException("multipart请求体格式错误：缺少结束分隔符");
+        }
+        contentPending = false;
+        return written;
+    }
+
+    private boolean skipToDelimiter() throws IOException {
+        boolean found = scan(null, -1) >= 0;
+        contentPending = false;
+        return found;
+    }
+
+    /**
+     * 按KMP匹配分隔符，匹配前的字节写入out（out为null时丢弃）
+     * <p>
+     * 缓冲区中连续的内容字节记为[runStart, position)，在开始匹配分隔符或缓冲区读完时整块写出；
+     * 已匹配的分隔符前缀在匹配失败时从分隔符数组写出。
+     *
+     * @return 写出的字节数；输入结束仍未匹配到分隔符时返回-1
+     */
+    private long scan(OutputStream out, long maxBytes) throws IOException {
+        long written = 0;
+        int matched = 0;
+        while (position < limit || fill()) {
+            int runStart = position;
+            while (position < limit) {
+                int b = buffer[position] & 0xFF;
+                if (matched > 0 && b != (delimiter[matched] & 0xFF)) {
+                    do {
+                        // 已匹配的前缀中不再可能构成分隔符的部分属于内容
+                        int fallback = failure[matched - 1];
+                        written = emit(out, delimiter, 0, matched - fallback, written, maxBytes);
+                        matched = fallback;
+                    } while (matched > 0 && b != (delimiter[matched] & 0xFF));
+                    runStart = position;
+                }
+                if (b == (delimiter[matched] & 0xFF)) {
+                    if (matched == 0) {
+                        written = emit(out, buffer, runStart, position - runStart, written, maxBytes);
+                    }
+                    position++;
+                    if (++matched == delimiter.length) {
+                        return written;
+                    }
+                } else {
+                    position++;
+                }
+            }
+            if (matched == 0) {
+                written = emit(out, buffer, runStart, position - runStart, written, maxBytes);
+            }
+        }
+        return -1;
+    }
+
+    private static long emit(OutputStream out, byte[] bytes, int offset, int length, long written, long maxBytes) throws IOException {
+        if (length == 0) {
+            return written;
+        }
+        long total = written + length;
+        checkLimit(total, maxBytes);
+        if (out != null) {
+            out.write(bytes, offset, length);
+        }
+        return total;
+    }
+
+    private int read() throws IOException {
+        return position < limit || fill() ? buffer[position++] & 0xFF : -1;
+    }
+
+    /**
+     * 缓冲区读完后从输入流读取下一块，输入结束时返回false
+     */
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static void checkLimit(long total, long maxBytes) {
+        if (maxBytes >= 0 && total > maxBytes) {
+            throw new SizeLimitExceededException("multipart字段内容超过" + maxBytes + "字节");
+        }
+    }
+
+    private PartHeaders readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int total = 0;
+        int previous = -1;
+        int b;
+        while ((b = read()) != -1) {
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("multipart部分头信息超过" + MAX_HEADER_BYTES + "字节");
+            }
+            if (previous == '\r' && b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length - 1;
+                if (length == 0) {
+                    return new PartHeaders(headers);
+                }
+                String header = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                int colon = header.indexOf(':');
+                if (colon > 0) {
+                    headers.putIfAbsent(header.substring(0, colon).trim().toLowerCase(Locale.ROOT), header.substring(colon + 1).trim());
+                }
+                line.reset();
+                previous = -1;
+                continue;
+            }
+            line.write(b);
+            previous = b;
+        }
+        throw new IllegalArgumentException("multipart请求体格式错误：部分头信息不完整");
+    }
+
+    private static int[] buildFailure(byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    /**
+     * 读取头信息值中的参数（如Content-Disposition的name、Content-Type的boundary），支持带引号的值
+     */
+    static String parameterOf(String headerValue, String parameter) {
+        String[] segments = headerValue.split(";");
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i].trim();
+            int eq = segment.indexOf('=');
+            if (eq > 0 && segment.substring(0, eq).trim().equalsIgnoreCase(parameter)) {
+                String value = segment.substring(eq + 1).trim();
+                if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 部分内容超过调用方指定的上限
+     */
+    public static final class SizeLimitExceededException extends IllegalArgumentException {
+        public SizeLimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 部分的头信息（名称小写）
+     */
+    public static final class PartHeaders {
+        private final Map<String, String> headers;
+        private final String name;
+        private final String filename;
+
+        private PartHeaders(Map<String, String> headers) {
+            this.headers = headers;
+            String disposition = headers.get("content-disposition");
+            this.name = disposition != null ? parameterOf(disposition, "name") : null;
+            this.filename = disposition != null ? parameterOf(disposition, "filename") : null;
+        }
+
+        /**
+         * 字段名（Content-Disposition的name），不存在时返回null
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 上传文件名，文本字段返回null
+         */
+        public String getFilename() {
+            return filename;
+        }
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        public String getContentType() {
+            return headers.get("content-type");
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        public List<String> getHeaderNames() {
+            return Collections.unmodifiableList(new ArrayList<>(headers.keySet()));
+        }
+    }
+}
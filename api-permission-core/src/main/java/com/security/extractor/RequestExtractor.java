@@ -0,0 +1,54 @@
+package com.security.extractor;
+
+import com.security.context.ValueList;
+import com.security.enums.ParamSource;
+
+import java.util.List;
+
+/**
+ * 参数提取器接口：定义参数提取的标准行为，与具体的请求类型无关
+ * <p>
+ * Servlet适配的ParameterExtractor即RequestExtractor&lt;HttpServletRequest&gt;；
+ * 核心模块为不依赖Web框架的场景提供了基于{@link com.security.request.PermissionRequest}的内置实现。
+ *
+ * @param <R> 请求类型
+ */
+public interface RequestExtractor<R> {
+    /**
+     * 提取参数值
+     *
+     * @param request     请求对象
+     * @param paramName   参数名
+     * @param parseConfig 解析配置（如JSONPath表达式）
+     * @param source      参数来源
+     * @param useCachedRequest 是否使用缓存的请求对象
+     * @return 参数值列表（支持多值）
+     */
+    List<String> extract(R request, String paramName, String parseConfig, ParamSource source, boolean useCachedRequest);
+
+    /**
+     * 提取参数值并追加到调用方提供的值列表（权限上下文复用的存储）
+     * <p>
+     * 默认委托{@link #extract}；提取器可覆盖此方法直接写入values，避免为每个请求分配中间列表。
+     *
+     * @param values 接收参数值的列表（调用前已清空）
+     */
+    default void extractInto(R request, String paramName, String parseConfig, ParamSource source,
+                             boolean useCachedRequest, ValueList values) {
+        values.addAll(extract(request, paramName, parseConfig, source, useCachedRequest));
+    }
+
+    /**
+     * 支持的解析方式
+     *
+     * @return 解析方式名称（如"JSON_PATH"）
+     */
+    String supportParseMethod();
+
+    /**
+     * 支持的参数来源
+     *
+     * @return 参数来源枚举列表
+     */
+    List<ParamSource> supportSources();
+}
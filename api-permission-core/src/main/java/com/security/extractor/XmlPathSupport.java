@@ -0,0 +1,528 @@
+package com.security.extractor;
+
+import com.security.context.ParsedBodyKey;
+import com.security.context.PermissionContext;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * XML请求体按XPath提取参数的公共实现（不依赖Servlet）
+ * <p>
+ * 简单路径（<code>/a/b[2]/c</code>、<code>/a/b/@id</code>、<code>/a/b/text()</code>，步骤为元素名或*）编译为流式匹配计划，
+ * 用StAX直接读取请求体字节，不在路径上的子树直接跳过，所有步骤都带位置谓词时匹配到第一个值即停止读取；
+ * 其他表达式使用DOM + XPath，同一请求体的多个表达式共用一次解析出的文档。
+ * 声明了Content-Encoding的请求体在每次读取时经{@link ContentDecoding}边解压边解析。
+ * 解析器禁用DTD与外部实体；DOM解析器与XPath实例池化复用，使用期间只属于当前线程。
+ * 元素名按限定名（前缀:本地名）匹配；XPath表达式中的前缀按文档根元素上的声明解析，
+ * 表达式编译时绑定命名空间，同一表达式应始终用于前缀声明一致的报文。
+ */
+@Slf4j
+public final class XmlPathSupport {
+
+    private static final Pattern SIMPLE_STEP = Pattern.compile("([A-Za-z_][\\w.\\-]*(?::[A-Za-z_][\\w.\\-]*)?|\\*)(?:\\[(\\d+)])?");
+    private static final Pattern ATTRIBUTE_STEP = Pattern.compile("@([A-Za-z_][\\w.\\-]*(?::[A-Za-z_][\\w.\\-]*)?)");
+    private static final String TEXT_STEP = "text()";
+    private static final int MAX_CACHED_PLANS = 1024;
+    private static final int POOL_SIZE = 32;
+
+    // 表达式的编译结果（流式匹配计划或需要DOM的标记），不可变，全局共享
+    private static final Map<String, Plan> PLAN_CACHE = new ConcurrentHashMap<>(64);
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final DocumentBuilderFactory DOCUMENT_FACTORY = createDocumentFactory();
+    private static final BlockingQueue<DomEvaluator> DOM_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * 请求级共享的XML请求体解析状态
+     */
+    public static final ParsedBodyKey<XmlBody> BODY = ParsedBodyKey.of("xml", XmlBody.class);
+
+    private XmlPathSupport() {
+    }
+
+    /**
+     * 包装请求体，同一请求的多个XML参数共用（需要DOM时只解析一次）
+     */
+    public static XmlBody of(byte[] content) {
+        return new XmlBody(content, null, null);
+    }
+
+    /**
+     * 包装声明了Content-Encoding的请求体：每次读取时边解压边解析，不生成解压后的字节数组
+     */
+    public static XmlBody of(byte[] content, String contentEncoding, ContentDecoding decoding) {
+        return new XmlBody(content, ContentDecoding.isEncoded(contentEncoding) ? contentEncoding : null, decoding);
+    }
+
+    /**
+     * 获取当前请求的XML请求体解析状态（同一请求内各提取器共用，未初始化权限上下文时每次新建）
+     */
+    public static XmlBody body(byte[] content) {
+        return PermissionContext.parsedBody(BODY, () -> of(content));
+    }
+
+    /**
+     * 获取当前请求的XML请求体解析状态（按Content-Encoding解压，同一请求内各提取器共用）
+     */
+    public static XmlBody body(byte[] content, String contentEncoding, ContentDecoding decoding) {
+        return PermissionContext.parsedBody(BODY, () -> of(content, contentEncoding, decoding));
+    }
+
+    /**
+     * 同一请求体的解析状态（不可跨线程共享）
+     */
+    public static final class XmlBody {
+        private final byte[] content;
+        private final String contentEncoding;
+        private final ContentDecoding decoding;
+        private Document document;
+
+        private XmlBody(byte[] content, String contentEncoding, ContentDecoding decoding) {
+            this.content = content;
+            this.contentEncoding = contentEncoding;
+            this.decoding = decoding;
+        }
+
+        private InputStream open() {
+            if (contentEncoding == null) {
+                return new ByteArrayInputStream(content);
+            }
+            try {
+                return decoding.open(content, contentEncoding);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("XML请求体解压失败：" + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * 按表达式提取值（节点集合返回每个节点的字符串值，其他结果返回单个字符串）
+         *
+         * @throws IllegalArgumentException 表达式非法或XML格式错误
+         */
+        public List<String> read(String expression, String paramName) {
+            if (content == null || content.length == 0) {
+                return Collections.emptyList();
+            }
+            Plan plan = planOf(expression);
+            List<String> values = plan.isStreamable() ? readStreaming(open(), plan) : readDocument(expression);
+            log.debug("参数[{}]XML表达式[{}]提取到{}个值（{}）", paramName, expression, values.size(), plan.isStreamable() ? "StAX" : "DOM");
+            return values;
+        }
+
+        private List<String> readDocument(String expression) {
+            DomEvaluator evaluator = borrow();
+            try {
+                if (document == null) {
+                    document = evaluator.parse(open());
+                }
+                return evaluator.evaluate(document, expression);
+            } finally {
+                release(evaluator);
+            }
+        }
+    }
+
+    // ---------------- 表达式编译 ----------------
+
+    private static Plan planOf(String expression) {
+        Plan plan = PLAN_CACHE.get(expression);
+        if (plan != null) {
+            return plan;
+        }
+        plan = compile(expression.trim());
+        if (PLAN_CACHE.size() < MAX_CACHED_PLANS) {
+            PLAN_CACHE.putIfAbsent(expression, plan);
+        }
+        return plan;
+    }
+
+    private static Plan compile(String expression) {
+        if (!expression.startsWith("/") || expression.startsWith("//") || expression.endsWith("/")) {
+            return Plan.DOM;
+        }
+        String[] segments = expression.substring(1).split("/");
+        List<String> names = new ArrayList<>(segments.length);
+        List<Integer> positions = new ArrayList<>(segments.length);
+        String attribute = null;
+        boolean text = false;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean last = i == segments.length - 1;
+            if (last && i > 0 && TEXT_STEP.equals(segment)) {
+                text = true;
+                continue;
+            }
+            Matcher attributeMatcher = ATTRIBUTE_STEP.matcher(segment);
+            if (last && i > 0 && attributeMatcher.matches()) {
+                attribute = attributeMatcher.group(1);
+                continue;
+            }
+            Matcher stepMatcher = SIMPLE_STEP.matcher(segment);
+            if (!stepMatcher.matches()) {
+                return Plan.DOM;
+            }
+            int position = stepMatcher.group(2) != null ? Integer.parseInt(stepMatcher.group(2)) : 0;
+            if (stepMatcher.group(2) != null && position == 0) {
+                // [0]不匹配任何节点，交给XPath处理
+                return Plan.DOM;
+            }
+            names.add(stepMatcher.group(1));
+            positions.add(position);
+        }
+        int[] positionArray = new int[positions.size()];
+        for (int i = 0; i < positionArray.length; i++) {
+            positionArray[i] = positions.get(i);
+        }
+        return new Plan(names.toArray(new String[0]), positionArray, attribute, text);
+    }
+
+    /**
+     * 流式匹配计划：元素步骤（名称与位置谓词，0表示无谓词）及可选的属性/文本结尾
+     */
+    private static final class Plan {
+        static final Plan DOM = new Plan(null, null, null, false);
+
+        final String[] names;
+        final int[] positions;
+        final String attribute;
+        final boolean text;
+        // 所有步骤都带位置谓词时最多匹配一个节点
+        final boolean single;
+
+        Plan(String[] names, int[] positions, String attribute, boolean text) {
+            this.names = names;
+            this.positions = positions;
+            this.attribute = attribute;
+            this.text = text;
+            boolean allPositioned = positions != null;
+            if (positions != null) {
+                // 根元素唯一，从第二步开始判断
+                for (int i = 1; i < positions.length; i++) {
+                    allPositioned &= positions[i] > 0;
+                }
+            }
+            this.single = allPositioned;
+        }
+
+        boolean isStreamable() {
+            return names != null;
+        }
+
+        boolean matches(int step, String qualifiedName) {
+            return "*".equals(names[step]) || names[step].equals(qualifiedName);
+        }
+    }
+
+    // ---------------- StAX流式匹配 ----------------
+
+    private static List<String> readStreaming(InputStream content, Plan plan) {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(content);
+            return match(reader, plan);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("XML解析失败：" + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // 关闭失败不影响结果
+                }
+            }
+            closeQuietly(content);
+        }
+    }
+
+    private static void closeQuietly(InputStream content) {
+        try {
+            content.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响结果（解压流在关闭时归还Inflater）
+        }
+    }
+
+    private static List<String> match(XMLStreamReader reader, Plan plan) throws XMLStreamException {
+        int steps = plan.names.length;
+        List<String> values = new ArrayList<>(1);
+        // counters[d]：当前深度d的父元素下已出现的、与第d步名称匹配的子元素个数
+        int[] counters = new int[steps];
+        // 已匹配的步骤数（depth == matched时当前元素在路径上）
+        int matched = 0;
+        int depth = 0;
+        // 结果元素的文本收集（元素字符串值或直接文本）
+        StringBuilder text = null;
+        int textDepth = -1;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (text != null) {
+                    if (plan.text && depth == textDepth && text.length() > 0) {
+                        // text()的每段直接文本是独立的文本节点
+                        values.add(text.toString());
+                        text.setLength(0);
+                    }
+                    depth++;
+                    continue;
+                }
+                if (depth != matched || matched == steps) {
+                    // 不在路径上的子树：跳过
+                    skipElement(reader);
+                    continue;
+                }
+                String name = qualifiedName(reader);
+                if (!plan.matches(depth, name)) {
+                    skipElement(reader);
+                    continue;
+                }
+                counters[depth]++;
+                int position = plan.positions[depth];
+                if (position > 0 && counters[depth] != position) {
+                    skipElement(reader);
+                    continue;
+                }
+                depth++;
+                matched++;
+                if (depth < steps) {
+                    // 进入下一级，重置子元素计数
+                    counters[depth] = 0;
+                    continue;
+                }
+                // 到达最后一步
+                if (plan.attribute != null) {
+                    String value = attributeValue(reader, plan.attribute);
+                    if (value != null) {
+                        values.add(value);
+                        if (plan.single) {
+                            return values;
+                        }
+                    }
+                    continue;
+                }
+                text = new StringBuilder();
+                textDepth = depth;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (text != null && depth == textDepth) {
+                    if (!plan.text || text.length() > 0) {
+                        values.add(text.toString());
+                    }
+                    text = null;
+                    textDepth = -1;
+                    if (plan.single) {
+                        return values;
+                    }
+                }
+                depth--;
+                if (matched > depth) {
+                    matched = depth;
+                }
+                if (depth == 0) {
+                    // 根元素结束，之后不会再有匹配
+                    return values;
+                }
+            } else if (text != null && isText(event)) {
+                // text()只取直接文本，元素字符串值包含所有后代文本
+                if (!plan.text || depth == textDepth) {
+                    text.append(reader.getText());
+                }
+            }
+        }
+        return values;
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                || event == XMLStreamConstants.SPACE;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int level = 1;
+        while (level > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private static String qualifiedName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static String attributeValue(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String prefix = reader.getAttributePrefix(i);
+            String local = reader.getAttributeLocalName(i);
+            String qualified = prefix == null || prefix.isEmpty() ? local : prefix + ":" + local;
+            if (name.equals(qualified)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    // ---------------- DOM + XPath ----------------
+
+    private static DomEvaluator borrow() {
+        DomEvaluator evaluator = DOM_POOL.poll();
+        return evaluator != null ? evaluator : new DomEvaluator();
+    }
+
+    private static void release(DomEvaluator evaluator) {
+        DOM_POOL.offer(evaluator);
+    }
+
+    private static DocumentBuilderFactory createDocumentFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML解析器不支持禁用外部实体", e);
+        }
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    /**
+     * 池化的DOM解析器与XPath（非线程安全，借出期间只属于当前线程）；编译后的表达式随实例缓存
+     */
+    private static final class DomEvaluator {
+        private final DocumentBuilder builder;
+        private final XPath xpath;
+        private final Map<String, XPathExpression> expressions = new HashMap<>();
+        private final DocumentNamespaces namespaces = new DocumentNamespaces();
+
+        DomEvaluator() {
+            try {
+                this.builder = DOCUMENT_FACTORY.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("创建XML解析器失败", e);
+            }
+            this.xpath = XPathFactory.newInstance().newXPath();
+            this.xpath.setNamespaceContext(namespaces);
+        }
+
+        Document parse(InputStream content) {
+            builder.reset();
+            try {
+                return builder.parse(content);
+            } catch (SAXException | IOException e) {
+                throw new IllegalArgumentException("XML解析失败：" + e.getMessage(), e);
+            } finally {
+                closeQuietly(content);
+            }
+        }
+
+        List<String> evaluate(Document document, String expression) {
+            namespaces.document = document;
+            XPathExpression compiled = compiled(expression);
+            try {
+                NodeList nodes = (NodeList) compiled.evaluate(document, XPathConstants.NODESET);
+                List<String> values = new ArrayList<>(nodes.getLength());
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    Node node = nodes.item(i);
+                    values.add(node.getTextContent());
+                }
+                return values;
+            } catch (XPathExpressionException e) {
+                // 结果不是节点集合（如count()、string()），按字符串取值
+                try {
+                    return Collections.singletonList(compiled.evaluate(document));
+                } catch (XPathExpressionException ex) {
+                    throw new IllegalArgumentException("XPath表达式执行失败：" + expression, ex);
+                }
+            }
+        }
+
+        private XPathExpression compiled(String expression) {
+            XPathExpression compiled = expressions.get(expression);
+            if (compiled != null) {
+                return compiled;
+            }
+            try {
+                compiled = xpath.compile(expression);
+            } catch (XPathExpressionException e) {
+                throw new IllegalArgumentException("XPath表达式编译失败：" + expression, e);
+            }
+            if (expressions.size() < MAX_CACHED_PLANS) {
+                expressions.put(expression, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * 按当前文档根元素上的声明解析XPath中的前缀
+     */
+    private static final class DocumentNamespaces implements NamespaceContext {
+        private Document document;
+
+        @Override
+        public String getNamespaceURI(String prefix) {
+            if (document == null || document.getDocumentElement() == null) {
+                return XMLConstants.NULL_NS_URI;
+            }
+            String uri = document.getDocumentElement().lookupNamespaceURI(prefix == null || prefix.isEmpty() ? null : prefix);
+            return uri != null ? uri : XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.security.policy;
+
+import com.security.enums.PolicyOperator;
+
+/**
+ * 编译后的策略：扁平化的决策DAG
+ * <p>
+ * 节点按拓扑顺序存放在数组中（子节点下标总是小于父节点），相同子表达式在编译期合并为同一节点，
+ * 求值时按节点记忆结果并短路，因此每个目标参数在一次请求中最多被提取、验证一次，
+ * 且只会执行决策真正需要的校验。
+ */
+public final class CompiledPolicy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+
+    private final PolicyOperator[] operators; // 节点类型
+    private final int[][] children;           // 子节点下标（PARAM节点为空数组）
+    private final int[] paramIndexes;         // PARAM节点对应paramRules的下标，其他节点为-1
+    private final int root;                   // 根节点下标
+
+    CompiledPolicy(PolicyOperator[] operators, int[][] children, int[] paramIndexes, int root) {
+        this.operators = operators;
+        this.children = children;
+        this.paramIndexes = paramIndexes;
+        this.root = root;
+    }
+
+    /**
+     * 由已序列化的结构还原策略（规则包加载时使用），结构不合法时抛出IllegalArgumentException
+     *
+     * @param operators    节点类型
+     * @param children     子节点下标（需小于所在节点，PARAM节点为空数组）
+     * @param paramIndexes PARAM节点对应paramRules的下标（需小于paramCount），其他节点为-1
+     * @param root         根节点下标
+     * @param paramCount   规则中目标参数的个数
+     */
+    public static CompiledPolicy restore(PolicyOperator[] operators, int[][] children, int[] paramIndexes, int root, int paramCount) {
+        int size = operators.length;
+        if (size == 0 || children.length != size || paramIndexes.length != size || root < 0 || root >= size) {
+            throw new IllegalArgumentException("策略结构不完整");
+        }
+        for (int node = 0; node < size; node++) {
+            boolean param = operators[node] == PolicyOperator.PARAM;
+            if (param != (paramIndexes[node] >= 0) || paramIndexes[node] >= paramCount
+                    || param != (children[node].length == 0) || (operators[node] == PolicyOperator.NOT && children[node].length != 1)) {
+                throw new IllegalArgumentException("策略节点" + node + "结构不合法");
+            }
+            for (int child : children[node]) {
+                if (child < 0 || child >= node) {
+                    throw new IllegalArgumentException("策略节点" + node + "的子节点下标不合法：" + child);
+                }
+            }
+        }
+        return new CompiledPolicy(operators, children, paramIndexes, root);
+    }
+
+    /**
+     * 单个目标参数的校验回调（下标对应规则paramRules中的位置）
+     */
+    @FunctionalInterface
+    public interface ParamCheck {
+        boolean check(int paramIndex);
+    }
+
+    /**
+     * 短路求值策略
+     *
+     * @param paramCheck 目标参数校验回调（同一参数最多回调一次）
+     * @return true：策略通过；false：策略不通过
+     */
+    public boolean evaluate(ParamCheck paramCheck) {
+        return evaluate(root, paramCheck, new byte[operators.length]);
+    }
+
+    /**
+     * 使用调用方提供的记忆数组短路求值（数组长度不小于{@link #size()}且已清零，可在请求间复用）
+     */
+    public boolean evaluate(ParamCheck paramCheck, byte[] memo) {
+        return evaluate(root, paramCheck, memo);
+    }
+
+    private boolean evaluate(int node, ParamCheck paramCheck, byte[] memo) {
+        if (memo[node] != UNKNOWN) {
+            return memo[node] == TRUE;
+        }
+
+        boolean result;
+        switch (operators[node]) {
+            case PARAM:
+                result = paramCheck.check(paramIndexes[node]);
+                break;
+            case NOT:
+                result = !evaluate(children[node][0], paramCheck, memo);
+                break;
+            case AND:
+                result = true;
+                for (int child : children[node]) {
+                    if (!evaluate(child, paramCheck, memo)) {
+                        result = false;
+                        break;
+                    }
+                }
+                break;
+            case OR:
+                result = false;
+                for (int child : children[node]) {
+                    if (evaluate(child, paramCheck, memo)) {
+                        result = true;
+                        break;
+                    }
+                }
+                break;
+            default:
+                result = false;
+        }
+
+        memo[node] = result ? TRUE : FALSE;
+        return result;
+    }
+
+    /**
+     * 根节点下标（以下结构访问方法供需要自行求值的适配层使用，如非阻塞求值）
+     */
+    public int root() {
+        return root;
+    }
+
+    /**
+     * 节点类型
+     */
+    public PolicyOperator operator(int node) {
+        return operators[node];
+    }
+
+    /**
+     * 子节点数量（PARAM节点为0）
+     */
+    public int childCount(int node) {
+        return children[node].length;
+    }
+
+    /**
+     * 第i个子节点下标
+     */
+    public int child(int node, int i) {
+        return children[node][i];
+    }
+
+    /**
+     * PARAM节点对应paramRules的下标，其他节点为-1
+     */
+    public int paramIndex(int node) {
+        return paramIndexes[node];
+    }
+
+    /**
+     * 根节点类型
+     */
+    public PolicyOperator rootOperator() {
+        return operators[root];
+    }
+
+    /**
+     * 扁平策略（根节点为PARAM，或为仅包含PARAM子节点的AND/OR）按求值顺序返回参数下标，否则返回null
+     */
+    public int[] flatParamIndexes() {
+        if (operators[root] == PolicyOperator.PARAM) {
+            return new int[]{paramIndexes[root]};
+        }
+        if (operators[root] != PolicyOperator.AND && operators[root] != PolicyOperator.OR) {
+            return null;
+        }
+        int[] result = new int[children[root].length];
+        for (int i = 0; i < result.length; i++) {
+            int child = children[root][i];
+            if (operators[child] != PolicyOperator.PARAM) {
+                return null;
+            }
+            result[i] = paramIndexes[child];
+        }
+        return result;
+    }
+
+    /**
+     * 节点总数（合并公共子表达式之后）
+     */
+    public int size() {
+        return operators.length;
+    }
+
+    @Override
+    public String toString() {
+        return describe(root);
+    }
+
+    private String describe(int node) {
+        switch (operators[node]) {
+            case PARAM:
+                return "#" + paramIndexes[node];
+            case NOT:
+                return "NOT(" + describe(children[node][0]) + ")";
+            default:
+                StringBuilder sb = new StringBuilder(operators[node].name()).append('(');
+                for (int i = 0; i < children[node].length; i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(describe(children[node][i]));
+                }
+                return sb.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.security.policy;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的URI模式：匹配时按下标扫描URI，路径变量只记录所在分段的起止下标
+ * <p>
+ * 支持字面量分段、整段的{name}、*、**；含?、分段内通配符、{name:regex}等其他Ant语法的模式，
+ * 以及含连续斜杠的URI，回退为AntPathMatcher，语义保持一致。
+ */
+public final class CompiledUriPattern {
+
+    private static final AntPathMatcher FALLBACK_MATCHER = new AntPathMatcher();
+
+    private static final byte LITERAL = 0;
+    private static final byte VARIABLE = 1;
+    private static final byte STAR = 2;
+    private static final byte DOUBLE_STAR = 3;
+
+    private final String pattern;
+    private final byte[] types;          // 分段类型
+    private final String[] literals;     // 字面量分段的内容，其他类型为null
+    private final int[] variableSlots;   // VARIABLE分段对应的变量下标，其他类型为-1
+    private final String[] variableNames;
+    private final boolean hasDoubleStar;
+    private final boolean trailingStar;  // 不含**且最后一个分段为*
+    private final boolean leadingSlash;
+    private final boolean trailingSlash;
+    private final boolean fallback;      // 不支持的语法，使用AntPathMatcher
+
+    private CompiledUriPattern(String pattern, byte[] types, String[] literals, int[] variableSlots,
+                               String[] variableNames, boolean hasDoubleStar, boolean fallback) {
+        this.pattern = pattern;
+        this.types = types;
+        this.literals = literals;
+        this.variableSlots = variableSlots;
+        this.variableNames = variableNames;
+        this.hasDoubleStar = hasDoubleStar;
+        this.trailingStar = !hasDoubleStar && types.length > 0 && types[types.length - 1] == STAR;
+        this.leadingSlash = pattern.startsWith("/");
+        this.trailingSlash = pattern.endsWith("/");
+        this.fallback = fallback;
+    }
+
+    /**
+     * 编译Ant风格的URI模式
+     */
+    public static CompiledUriPattern compile(String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("URI模式不能为空");
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+
+        int size = segments.size();
+        byte[] types = new byte[size];
+        String[] literals = new String[size];
+        int[] variableSlots = new int[size];
+        List<String> variableNames = new ArrayList<>();
+        boolean hasDoubleStar = false;
+        for (int i = 0; i < size; i++) {
+            String segment = segments.get(i);
+            variableSlots[i] = -1;
+            if ("**".equals(segment)) {
+                types[i] = DOUBLE_STAR;
+                hasDoubleStar = true;
+            } else if ("*".equals(segment)) {
+                types[i] = STAR;
+            } else if (isWholeVariable(segment)) {
+                types[i] = VARIABLE;
+                variableSlots[i] = variableNames.size();
+                variableNames.add(segment.substring(1, segment.length() - 1));
+            } else if (isLiteral(segment)) {
+                types[i] = LITERAL;
+                literals[i] = segment;
+            } else {
+                return new CompiledUriPattern(pattern, new byte[0], new String[0], new int[0],
+                        new String[0], false, true);
+            }
+        }
+        return new CompiledUriPattern(pattern, types, literals, variableSlots,
+                variableNames.toArray(new String[0]), hasDoubleStar, false);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 变量个数（回退模式下为0，变量由AntPathMatcher解析）
+     */
+    public int variableCount() {
+        return variableNames.length;
+    }
+
+    public String variableName(int slot) {
+        return variableNames[slot];
+    }
+
+    /**
+     * 是否为回退到AntPathMatcher的模式
+     */
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    /**
+     * 首个分段为字面量时返回该分段，否则（变量、通配符、回退模式、无分段）返回null
+     */
+    public String firstLiteralSegment() {
+        return !fallback && types.length > 0 && types[0] == LITERAL ? literals[0] : null;
+    }
+
+    /**
+     * 判断URI是否匹配（不记录变量）
+     */
+    public boolean matches(String uri) {
+        return match(uri, null);
+    }
+
+    /**
+     * 匹配URI并把变量所在分段的起止下标写入offsets（长度为variableCount()*2，传null时不记录）
+     */
+    public boolean match(String uri, int[] offsets) {
+        if (fallback || uri.contains("//")) {
+            return FALLBACK_MATCHER.match(pattern, uri);
+        }
+        if (uri.startsWith("/") != leadingSlash) {
+            return false;
+        }
+        if (matchFrom(0, types.length, uri, 0, offsets)) {
+            // 与AntPathMatcher一致：不含**的模式要求结尾斜杠一致
+            return hasDoubleStar || uri.endsWith("/") == trailingSlash;
+        }
+        // 与AntPathMatcher一致：不含**且以*结尾的模式，匹配其余分段相同且以斜杠结尾的URI（/api/*匹配/api/，/*匹配/）
+        return trailingStar && uri.endsWith("/") && matchFrom(0, types.length - 1, uri, 0, offsets);
+    }
+
+    /**
+     * 回退模式下解析路径变量（编译模式通过offsets取值）
+     */
+    public Map<String, String> extractFallbackVariables(String uri) {
+        if (!fallback && !uri.contains("//")) {
+            return Collections.emptyMap();
+        }
+        return new LinkedHashMap<>(FALLBACK_MATCHER.extractUriTemplateVariables(pattern, uri));
+    }
+
+    // 以模式的前segmentCount个分段匹配URI从position开始的剩余部分
+    private boolean matchFrom(int segmentIndex, int segmentCount, String uri, int position, int[] offsets) {
+        int length = uri.length();
+        if (position < length && uri.charAt(position) == '/') {
+            position++;
+        }
+        if (segmentIndex == segmentCount) {
+            return position >= length;
+        }
+
+        byte type = types[segmentIndex];
+        if (type == DOUBLE_STAR) {
+            if (segmentIndex == segmentCount - 1) {
+                return true;
+            }
+            // **匹配0个或多个分段：依次尝试从每个分段起点继续匹配
+            int start = position;
+            while (true) {
+                if (matchFrom(segmentIndex + 1, segmentCount, uri, start, offsets)) {
+                    return true;
+                }
+                if (start >= length) {
+                    return false;
+                }
+                int next = uri.indexOf('/', start);
+                if (next < 0) {
+                    return false;
+                }
+                start = next + 1;
+            }
+        }
+
+        if (position >= length) {
+            return false;
+        }
+        int end = uri.indexOf('/', position);
+        if (end < 0) {
+            end = length;
+        }
+        if (type == LITERAL) {
+            String literal = literals[segmentIndex];
+            if (end - position != literal.length() || !uri.startsWith(literal, position)) {
+                return false;
+            }
+        } else if (type == VARIABLE && offsets != null) {
+            int slot = variableSlots[segmentIndex];
+            offsets[slot * 2] = position;
+            offsets[slot * 2 + 1] = end;
+        }
+        return matchFrom(segmentIndex + 1, segmentCount, uri, end, offsets);
+    }
+
+    private static boolean isWholeVariable(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '{' || segment.charAt(segment.length() - 1) != '}') {
+            return false;
+        }
+        for (int i = 1; i < segment.length() - 1; i++) {
+            char c = segment.charAt(i);
+            if (c == '{' || c == '}' || c == ':') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c == '}') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,140 @@
+package com.security.policy;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.enums.MultiParamMode;
+import com.security.enums.PolicyOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 策略编译器：在配置加载时将规则的策略树（或multiParamMode）编译为扁平化的决策DAG
+ * <p>
+ * 编译过程：
+ * 1. 未配置策略树的规则按multiParamMode生成等价的AND/OR节点，统一求值路径；
+ * 2. 展开同类嵌套（AND(AND(a,b),c) -> AND(a,b,c)）、消除双重否定、去除重复子节点；
+ * 3. 结构相同的子表达式合并为同一节点（公共子表达式只求值一次）。
+ */
+public final class PolicyCompiler {
+
+    private PolicyCompiler() {
+    }
+
+    /**
+     * 编译规则策略（调用前规则需已通过验证）
+     */
+    public static CompiledPolicy compile(ApiPermissionConfig.Rule rule) {
+        Map<String, Integer> paramIndexes = new HashMap<>();
+        List<ApiPermissionConfig.ParamRule> paramRules = rule.getParamRules();
+        for (int i = 0; i < paramRules.size(); i++) {
+            paramIndexes.putIfAbsent(paramRules.get(i).getParamName(), i);
+        }
+
+        Builder builder = new Builder();
+        int root;
+        if (rule.getPolicy() != null) {
+            root = builder.build(rule.getPolicy(), paramIndexes);
+        } else {
+            PolicyOperator operator = rule.getMultiParamMode() == MultiParamMode.ALL_MATCH ? PolicyOperator.AND : PolicyOperator.OR;
+            List<Integer> leaves = new ArrayList<>(paramRules.size());
+            for (int i = 0; i < paramRules.size(); i++) {
+                leaves.add(builder.param(i));
+            }
+            root = builder.combine(operator, leaves);
+        }
+        return builder.toPolicy(root);
+    }
+
+    /**
+     * DAG构建器：按结构键合并相同节点，节点按创建顺序（即拓扑顺序）编号
+     */
+    private static class Builder {
+        private final List<PolicyOperator> operators = new ArrayList<>();
+        private final List<int[]> children = new ArrayList<>();
+        private final List<Integer> params = new ArrayList<>();
+        private final Map<String, Integer> interned = new HashMap<>();
+
+        int build(ApiPermissionConfig.PolicyNode node, Map<String, Integer> paramIndexes) {
+            PolicyOperator operator = node.getOperator();
+            if (operator == PolicyOperator.PARAM) {
+                Integer index = paramIndexes.get(node.getParam());
+                if (index == null) {
+                    throw new IllegalArgumentException("策略树引用了未配置的参数：" + node.getParam());
+                }
+                return param(index);
+            }
+
+            List<Integer> childIds = new ArrayList<>(node.getChildren().size());
+            for (ApiPermissionConfig.PolicyNode child : node.getChildren()) {
+                childIds.add(build(child, paramIndexes));
+            }
+
+            if (operator == PolicyOperator.NOT) {
+                int child = childIds.get(0);
+                // 双重否定消除：NOT(NOT(x)) -> x
+                if (operators.get(child) == PolicyOperator.NOT) {
+                    return children.get(child)[0];
+                }
+                return intern(PolicyOperator.NOT, new int[]{child}, -1);
+            }
+            return combine(operator, childIds);
+        }
+
+        int param(int paramIndex) {
+            return intern(PolicyOperator.PARAM, new int[0], paramIndex);
+        }
+
+        int combine(PolicyOperator operator, List<Integer> childIds) {
+            // 展开同类嵌套并去重（保留首次出现的顺序，配置顺序即求值顺序）
+            Set<Integer> flattened = new LinkedHashSet<>();
+            for (int child : childIds) {
+                if (operators.get(child) == operator) {
+                    for (int grandChild : children.get(child)) {
+                        flattened.add(grandChild);
+                    }
+                } else {
+                    flattened.add(child);
+                }
+            }
+            if (flattened.size() == 1) {
+                return flattened.iterator().next();
+            }
+            int[] ids = new int[flattened.size()];
+            int i = 0;
+            for (int id : flattened) {
+                ids[i++] = id;
+            }
+            return intern(operator, ids, -1);
+        }
+
+        private int intern(PolicyOperator operator, int[] childIds, int paramIndex) {
+            StringBuilder key = new StringBuilder(operator.name()).append(':').append(paramIndex);
+            for (int child : childIds) {
+                key.append(',').append(child);
+            }
+            Integer existing = interned.get(key.toString());
+            if (existing != null) {
+                return existing;
+            }
+            int id = operators.size();
+            operators.add(operator);
+            children.add(childIds);
+            params.add(paramIndex);
+            interned.put(key.toString(), id);
+            return id;
+        }
+
+        CompiledPolicy toPolicy(int root) {
+            int size = operators.size();
+            int[] paramIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                paramIndexes[i] = params.get(i);
+            }
+            return new CompiledPolicy(operators.toArray(new PolicyOperator[0]), children.toArray(new int[0][]), paramIndexes, root);
+        }
+    }
+}
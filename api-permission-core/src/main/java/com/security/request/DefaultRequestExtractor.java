@@ -0,0 +1,80 @@
+package com.security.request;
+
+import com.security.context.ValueList;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.extractor.FormUrlEncodedParser;
+import com.security.extractor.RequestExtractor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PermissionRequest的默认提取器：查询参数、请求头、Cookie、表单字段（请求体按UTF-8的x-www-form-urlencoded解析）
+ */
+@Slf4j
+public class DefaultRequestExtractor implements RequestExtractor<PermissionRequest> {
+
+    @Override
+    public List<String> extract(PermissionRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        ValueList values = new ValueList(1);
+        extractInto(request, paramName, parseConfig, source, useCachedRequest, values);
+        return values;
+    }
+
+    @Override
+    public void extractInto(PermissionRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        if (paramName == null || paramName.isEmpty()) {
+            log.error("参数名称为空，无法提取");
+            return;
+        }
+
+        switch (source) {
+            case QUERY:
+                String[] paramValues = request.getParameterValues(paramName);
+                if (paramValues != null) {
+                    for (String paramValue : paramValues) {
+                        values.add(paramValue);
+                    }
+                }
+                break;
+            case HEADER:
+                addIfPresent(values, request.getHeader(paramName));
+                break;
+            case COOKIE:
+                addIfPresent(values, request.getCookie(paramName));
+                break;
+            case FORM:
+                String contentType = request.getHeader("Content-Type");
+                if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                    List<String> formValues = FormUrlEncodedParser.parseForm(request.getBody(), StandardCharsets.UTF_8).get(paramName);
+                    if (formValues != null) {
+                        formValues.forEach(values::add);
+                    }
+                }
+                break;
+            default:
+                log.warn("不支持的参数来源[{}]，参数名[{}]", source, paramName);
+        }
+    }
+
+    private static void addIfPresent(ValueList values, String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.DEFAULT.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Arrays.asList(ParamSource.QUERY, ParamSource.HEADER, ParamSource.COOKIE, ParamSource.FORM);
+    }
+}
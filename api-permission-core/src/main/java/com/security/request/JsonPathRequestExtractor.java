@@ -0,0 +1,61 @@
+package com.security.request;
+
+import com.jayway.jsonpath.JsonPathException;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.extractor.ContentDecoding;
+import com.security.extractor.JsonPathSupport;
+import com.security.extractor.RequestExtractor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PermissionRequest的JSONPath提取器（读取请求体，声明了Content-Encoding时边解压边解析）
+ */
+@Slf4j
+public class JsonPathRequestExtractor implements RequestExtractor<PermissionRequest> {
+
+    private final ContentDecoding decoding;
+
+    public JsonPathRequestExtractor() {
+        this(new ContentDecoding());
+    }
+
+    public JsonPathRequestExtractor(ContentDecoding decoding) {
+        this.decoding = decoding;
+    }
+
+    @Override
+    public List<String> extract(PermissionRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        if (ParamSource.BODY != source) {
+            return Collections.emptyList();
+        }
+        if (parseConfig == null || parseConfig.trim().isEmpty()) {
+            log.warn("参数[{}]提取失败：JSONPath表达式为空", paramName);
+            return Collections.emptyList();
+        }
+        byte[] body = request.getBody();
+        if (body == null || body.length == 0) {
+            return Collections.emptyList();
+        }
+        try {
+            return JsonPathSupport.read(JsonPathSupport.document(body, request.getHeader("Content-Encoding"), decoding), parseConfig, paramName);
+        } catch (JsonPathException e) {
+            log.error("参数[{}]JSONPath解析异常，表达式:{}", paramName, parseConfig, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.JSON_PATH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.BODY);
+    }
+}
@@ -0,0 +1,66 @@
+package com.security.request;
+
+import com.security.context.ValueList;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.extractor.JwtVerifier;
+import com.security.extractor.RequestExtractor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PermissionRequest的JWT声明提取器：从请求头（默认Authorization，去掉Bearer前缀）或Cookie读取令牌，验签后按声明路径取值
+ */
+@Slf4j
+public class JwtClaimRequestExtractor implements RequestExtractor<PermissionRequest> {
+
+    private final JwtVerifier verifier;
+
+    public JwtClaimRequestExtractor(JwtVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    public List<String> extract(PermissionRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        ValueList values = new ValueList(1);
+        extractInto(request, paramName, parseConfig, source, useCachedRequest, values);
+        return values;
+    }
+
+    @Override
+    public void extractInto(PermissionRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        if (parseConfig == null || parseConfig.trim().isEmpty()) {
+            log.warn("参数[{}]提取失败：JWT声明路径为空", paramName);
+            return;
+        }
+        String token;
+        if (ParamSource.HEADER == source) {
+            token = JwtVerifier.stripBearer(request.getHeader(JwtVerifier.tokenName(parseConfig, JwtVerifier.DEFAULT_HEADER)));
+        } else if (ParamSource.COOKIE == source) {
+            token = request.getCookie(JwtVerifier.tokenName(parseConfig, paramName));
+        } else {
+            return;
+        }
+        Map<String, Object> claims = verifier.verify(token);
+        if (claims == null) {
+            log.debug("参数[{}]提取结果为空：令牌不存在或校验未通过", paramName);
+            return;
+        }
+        JwtVerifier.readClaim(claims, JwtVerifier.claimPath(parseConfig), values);
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.JWT_CLAIM.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Arrays.asList(ParamSource.HEADER, ParamSource.COOKIE);
+    }
+}
@@ -0,0 +1,47 @@
+package com.security.request;
+
+import com.security.context.ValueList;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.extractor.RequestExtractor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PermissionRequest的路径变量提取器
+ */
+public class PathMatchRequestExtractor implements RequestExtractor<PermissionRequest> {
+
+    @Override
+    public List<String> extract(PermissionRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        if (ParamSource.PATH != source) {
+            return Collections.emptyList();
+        }
+        String value = request.getPathVariable(paramName);
+        return value != null ? Collections.singletonList(value) : Collections.emptyList();
+    }
+
+    @Override
+    public void extractInto(PermissionRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        if (ParamSource.PATH != source) {
+            return;
+        }
+        String value = request.getPathVariable(paramName);
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.PATH_MATCH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.PATH);
+    }
+}
@@ -0,0 +1,53 @@
+package com.security.request;
+
+import com.security.engine.RuleMatch;
+
+/**
+ * 补充路径变量的请求装饰：调用方未提供的路径变量取自规则匹配结果
+ */
+class PathVariableRequest implements PermissionRequest {
+
+    private final PermissionRequest delegate;
+    private final RuleMatch match;
+
+    PathVariableRequest(PermissionRequest delegate, RuleMatch match) {
+        this.delegate = delegate;
+        this.match = match;
+    }
+
+    @Override
+    public String getUri() {
+        return delegate.getUri();
+    }
+
+    @Override
+    public String getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return delegate.getHeader(name);
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return delegate.getParameterValues(name);
+    }
+
+    @Override
+    public String getCookie(String name) {
+        return delegate.getCookie(name);
+    }
+
+    @Override
+    public String getPathVariable(String name) {
+        String value = delegate.getPathVariable(name);
+        return value != null ? value : match.getPathVariable(name);
+    }
+
+    @Override
+    public byte[] getBody() {
+        return delegate.getBody();
+    }
+}
@@ -0,0 +1,45 @@
+package com.security.request;
+
+/**
+ * 与Web框架无关的请求抽象：核心模块内置提取器读取的请求视图
+ * <p>
+ * 在Servlet、WebFlux之外（如RPC网关、消息消费者、批处理任务）使用权限引擎时，
+ * 由调用方把自身的请求对象适配为此接口，或直接使用{@link SimplePermissionRequest}。
+ */
+public interface PermissionRequest {
+
+    /**
+     * 请求URI（用于匹配规则）
+     */
+    String getUri();
+
+    /**
+     * 请求方法（无此概念的场景可返回null）
+     */
+    String getMethod();
+
+    /**
+     * 请求头的值，不存在时返回null
+     */
+    String getHeader(String name);
+
+    /**
+     * 查询参数的全部值，不存在时返回null
+     */
+    String[] getParameterValues(String name);
+
+    /**
+     * Cookie的值，不存在时返回null
+     */
+    String getCookie(String name);
+
+    /**
+     * 路径变量的值，不存在时返回null
+     */
+    String getPathVariable(String name);
+
+    /**
+     * 请求体字节（无请求体时返回空数组）
+     */
+    byte[] getBody();
+}
@@ -0,0 +1,55 @@
+package com.security.request;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.engine.PermissionEngine;
+import com.security.engine.RuleMatch;
+import com.security.extractor.ContentDecoding;
+import com.security.extractor.JwtVerifier;
+import com.security.extractor.RequestExtractor;
+import com.security.validator.PermissionValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于PermissionRequest的权限引擎：内置DEFAULT、PATH_MATCH、JSON_PATH、FORM_FIELD、JWT_CLAIM提取器，
+ * 请求未携带的路径变量取自规则匹配时记录的位置
+ */
+public class RequestPermissionEngine extends PermissionEngine<PermissionRequest> {
+
+    public RequestPermissionEngine(ApiPermissionConfig globalConfig, List<? extends PermissionValidator> validators) {
+        this(globalConfig, validators, Collections.emptyList());
+    }
+
+    /**
+     * @param customExtractors 自定义提取器（解析方式为CUSTOM#xxx）
+     */
+    public RequestPermissionEngine(ApiPermissionConfig globalConfig, List<? extends PermissionValidator> validators,
+                                   List<? extends RequestExtractor<PermissionRequest>> customExtractors) {
+        super(globalConfig, withBuiltInExtractors(globalConfig, customExtractors), validators);
+    }
+
+    /**
+     * 按请求自身的URI校验
+     */
+    public boolean isPermitted(PermissionRequest request) {
+        return isPermitted(request.getUri(), request);
+    }
+
+    @Override
+    protected PermissionRequest prepare(PermissionRequest request, RuleMatch match) {
+        return new PathVariableRequest(request, match);
+    }
+
+    private static List<RequestExtractor<PermissionRequest>> withBuiltInExtractors(
+            ApiPermissionConfig globalConfig, List<? extends RequestExtractor<PermissionRequest>> customExtractors) {
+        ContentDecoding decoding = globalConfig.getDecompression().toContentDecoding();
+        List<RequestExtractor<PermissionRequest>> extractors = new ArrayList<>(Arrays.asList(
+                new DefaultRequestExtractor(), new PathMatchRequestExtractor(), new JsonPathRequestExtractor(decoding),
+                new FormFieldRequestExtractor(decoding), new JwtClaimRequestExtractor(new JwtVerifier(globalConfig.getJwt()))));
+        extractors.addAll(customExtractors);
+        return extractors;
+    }
+}
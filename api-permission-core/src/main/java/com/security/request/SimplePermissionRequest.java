@@ -0,0 +1,136 @@
+package com.security.request;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于Map的PermissionRequest实现，通过{@link #builder(String)}构造
+ */
+public class SimplePermissionRequest implements PermissionRequest {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final String uri;
+    private final String method;
+    private final Map<String, String> headers;
+    private final Map<String, String[]> parameters;
+    private final Map<String, String> cookies;
+    private final Map<String, String> pathVariables;
+    private final byte[] body;
+
+    private SimplePermissionRequest(Builder builder) {
+        this.uri = builder.uri;
+        this.method = builder.method;
+        this.headers = builder.headers;
+        this.parameters = builder.parameters;
+        this.cookies = builder.cookies;
+        this.pathVariables = builder.pathVariables;
+        this.body = builder.body == null ? EMPTY_BODY : builder.body;
+    }
+
+    public static Builder builder(String uri) {
+        return new Builder(uri);
+    }
+
+    @Override
+    public String getUri() {
+        return uri;
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        // 请求头名称不区分大小写
+        return headers.get(name.toLowerCase());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public String getCookie(String name) {
+        return cookies.get(name);
+    }
+
+    @Override
+    public String getPathVariable(String name) {
+        return pathVariables.get(name);
+    }
+
+    @Override
+    public byte[] getBody() {
+        return body;
+    }
+
+    public static class Builder {
+        private final String uri;
+        private String method;
+        private Map<String, String> headers = Collections.emptyMap();
+        private Map<String, String[]> parameters = Collections.emptyMap();
+        private Map<String, String> cookies = Collections.emptyMap();
+        private Map<String, String> pathVariables = Collections.emptyMap();
+        private byte[] body;
+
+        private Builder(String uri) {
+            if (uri == null) {
+                throw new IllegalArgumentException("请求URI不能为空");
+            }
+            this.uri = uri;
+        }
+
+        public Builder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+        public Builder header(String name, String value) {
+            headers = mutable(headers);
+            headers.put(name.toLowerCase(), value);
+            return this;
+        }
+
+        public Builder parameter(String name, String... values) {
+            parameters = mutable(parameters);
+            parameters.put(name, values);
+            return this;
+        }
+
+        public Builder cookie(String name, String value) {
+            cookies = mutable(cookies);
+            cookies.put(name, value);
+            return this;
+        }
+
+        public Builder pathVariable(String name, String value) {
+            pathVariables = mutable(pathVariables);
+            pathVariables.put(name, value);
+            return this;
+        }
+
+        public Builder pathVariables(Map<String, String> variables) {
+            pathVariables = mutable(pathVariables);
+            pathVariables.putAll(variables);
+            return this;
+        }
+
+        public Builder body(byte[] body) {
+            this.body = body;
+            return this;
+        }
+
+        public SimplePermissionRequest build() {
+            return new SimplePermissionRequest(this);
+        }
+
+        private static <V> Map<String, V> mutable(Map<String, V> map) {
+            return map.isEmpty() ? new HashMap<>() : map;
+        }
+    }
+}
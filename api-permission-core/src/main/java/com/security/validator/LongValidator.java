@@ -0,0 +1,37 @@
+package com.security.validator;
+
+import com.security.context.PermissionContext;
+import com.security.context.TypedValues;
+import com.security.enums.ValueType;
+
+/**
+ * 数值ID验证器：直接基于long值验证归属关系，避免重复解析和比较字符串
+ * <p>
+ * 参数声明为value-type: LONG时，提取后已解析为long数组；未声明时首次调用会按LONG解析一次（字符串验证器不受影响）。
+ * 主体或目标参数存在非数值时验证不通过。
+ */
+public interface LongValidator extends PermissionValidator {
+
+    /**
+     * 验证目标ID是否归属当前主体
+     *
+     * @param principalId 主体值（多值主体取第一个）
+     * @param targetIds   目标参数值（前count个有效，数组由上下文复用，不要保存引用）
+     * @param count       目标参数值个数
+     * @return 验证结果（true：通过；false：不通过）
+     */
+    boolean validate(long principalId, long[] targetIds, int count);
+
+    /**
+     * 字符串接口适配：从上下文取出long值后委托给{@link #validate(long, long[], int)}
+     */
+    @Override
+    default boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+        TypedValues principalIds = principal.getTypedValues(ValueType.LONG);
+        TypedValues targetIds = target.getTypedValues(ValueType.LONG);
+        if (principalIds.isMalformed() || principalIds.size() == 0 || targetIds.isMalformed()) {
+            return false;
+        }
+        return validate(principalIds.getLong(0), targetIds.longArray(), targetIds.size());
+    }
+}
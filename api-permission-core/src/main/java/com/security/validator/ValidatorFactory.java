@@ -1,11 +1,6 @@
 package com.security.validator;
 
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.InitializingBean;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.annotation.Order;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -13,16 +8,18 @@ import java.util.List;
 import java.util.Map;
 
 
-@Order()
+/**
+ * 验证器工厂：按validatorId注册所有PermissionValidator实现
+ * <p>
+ * Spring Boot下由自动配置注入容器中的全部验证器构造，其他环境直接传入验证器列表。
+ */
 @Slf4j
-@Component
-public class ValidatorFactory implements InitializingBean {
+public class ValidatorFactory {
     private final Map<String, PermissionValidator> validatorMap = new HashMap<>();
 
-    // 注入所有PermissionValidator实现类（Spring自动扫描）
-    @Setter
-    @Autowired(required = false)
-    private List<PermissionValidator> validators;
+    public ValidatorFactory(List<? extends PermissionValidator> validators) {
+        register(validators);
+    }
 
     /**
      * 根据validatorId获取验证器
@@ -43,10 +40,9 @@ public class ValidatorFactory implements InitializingBean {
     }
 
     /**
-     * InitializingBean回调方法：初始化时注册所有验证器
+     * 注册所有验证器
      */
-    @Override
-    public void afterPropertiesSet() throws Exception {
+    private void register(List<? extends PermissionValidator> validators) {
         // 处理空列表情况（无任何验证器实现时）
         if (validators == null || validators.isEmpty()) {
             log.warn("未发现任何PermissionValidator实现类");
@@ -0,0 +1,59 @@
+package com.security.context;
+
+/**
+ * 上下文数据的存储方式（Java 21版本）
+ * <p>
+ * 平台线程与Java 8版本相同，复用ThreadLocal中的ContextData；
+ * 虚拟线程每个任务一个、不会被复用，请求结束时直接移除ThreadLocal条目，避免仍存活的虚拟线程（如异步续作）各自持有一份已扩容的容器。
+ */
+final class ContextStorage {
+    // 线程复用的上下文容器（不设初始值，以便区分线程上是否已有容器）
+    private static final ThreadLocal<PermissionContext.ContextData> THREAD_LOCAL = new ThreadLocal<>();
+
+    private ContextStorage() {
+    }
+
+    static PermissionContext.ContextData current() {
+        PermissionContext.ContextData data = THREAD_LOCAL.get();
+        if (data == null) {
+            data = new PermissionContext.ContextData();
+            THREAD_LOCAL.set(data);
+        }
+        return data;
+    }
+
+    static void set(PermissionContext.ContextData data) {
+        if (data == null) {
+            THREAD_LOCAL.remove();
+        } else {
+            THREAD_LOCAL.set(data);
+        }
+    }
+
+    static void clear() {
+        if (Thread.currentThread().isVirtual()) {
+            THREAD_LOCAL.remove();
+        } else {
+            current().reset();
+        }
+    }
+
+    static void release() {
+        THREAD_LOCAL.remove();
+    }
+
+    static <X extends Exception> void runBound(PermissionContext.BoundAction<X> action) throws X {
+        action.run();
+    }
+
+    static <X extends Exception> void runBound(PermissionContext.ContextData data, PermissionContext.BoundAction<X> action) throws X {
+        // 不为还原而创建容器：已绑定的容器（如嵌套调用时外层请求的容器）返回前还原，没有已绑定的容器时直接移除
+        PermissionContext.ContextData previous = THREAD_LOCAL.get();
+        THREAD_LOCAL.set(data);
+        try {
+            action.run();
+        } finally {
+            set(previous);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.security.context;
+
+/**
+ * 上下文数据的存储方式（Java 25版本，ScopedValue自JDK 25起正式可用）
+ * <p>
+ * 虚拟线程上，{@link #runBound}通过ScopedValue为本次请求绑定一个新的ContextData（ASYNC分发等绑定已有的ContextData），
+ * 请求范围结束即释放，不再为每个虚拟线程创建ThreadLocalMap；平台线程仍复用ThreadLocal中的ContextData，与Java 8版本一致。
+ */
+final class ContextStorage {
+    // 平台线程复用的上下文容器
+    private static final ThreadLocal<PermissionContext.ContextData> THREAD_LOCAL = ThreadLocal.withInitial(PermissionContext.ContextData::new);
+    // 虚拟线程上的请求范围绑定（Slot可变，以支持setContextData）
+    private static final ScopedValue<Slot> SCOPED = ScopedValue.newInstance();
+
+    private ContextStorage() {
+    }
+
+    static PermissionContext.ContextData current() {
+        if (SCOPED.isBound()) {
+            return SCOPED.get().data;
+        }
+        return THREAD_LOCAL.get();
+    }
+
+    static void set(PermissionContext.ContextData data) {
+        if (SCOPED.isBound()) {
+            SCOPED.get().data = data != null ? data : new PermissionContext.ContextData();
+        } else if (data == null) {
+            THREAD_LOCAL.remove();
+        } else {
+            THREAD_LOCAL.set(data);
+        }
+    }
+
+    static void clear() {
+        current().reset();
+    }
+
+    static void release() {
+        THREAD_LOCAL.remove();
+    }
+
+    static <X extends Exception> void runBound(PermissionContext.BoundAction<X> action) throws X {
+        if (SCOPED.isBound() || !Thread.currentThread().isVirtual()) {
+            action.run();
+            return;
+        }
+        Slot slot = new Slot();
+        slot.data = new PermissionContext.ContextData();
+        ScopedValue.where(SCOPED, slot).call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static <X extends Exception> void runBound(PermissionContext.ContextData data, PermissionContext.BoundAction<X> action) throws X {
+        if (!Thread.currentThread().isVirtual()) {
+            PermissionContext.ContextData previous = THREAD_LOCAL.get();
+            THREAD_LOCAL.set(data);
+            try {
+                action.run();
+            } finally {
+                THREAD_LOCAL.set(previous);
+            }
+            return;
+        }
+        // 虚拟线程：在新的绑定范围内使用指定容器，范围结束后外层绑定（如有）自动恢复
+        Slot slot = new Slot();
+        slot.data = data;
+        ScopedValue.where(SCOPED, slot).call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static final class Slot {
+        private PermissionContext.ContextData data;
+    }
+}
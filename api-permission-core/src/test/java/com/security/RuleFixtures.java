@@ -0,0 +1,97 @@
+package com.security;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.validator.PermissionValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 测试用规则与验证器：主体取自请求头uid，目标参数取自同名请求头
+ */
+public final class RuleFixtures {
+
+    /**
+     * 目标值全部等于主体值时通过的验证器ID
+     */
+    public static final String SAME_AS_PRINCIPAL = "sameAsPrincipal";
+
+    private RuleFixtures() {
+    }
+
+    /**
+     * ANY_MATCH规则，每个目标参数使用{@link #SAME_AS_PRINCIPAL}验证
+     */
+    public static ApiPermissionConfig.Rule rule(String uriPattern, String... headerParams) {
+        ApiPermissionConfig.Rule rule = new ApiPermissionConfig.Rule();
+        rule.setUriPattern(uriPattern);
+        rule.setEnabled(true);
+        rule.setMultiParamMode(MultiParamMode.ANY_MATCH);
+        ApiPermissionConfig.PrincipalParam principal = new ApiPermissionConfig.PrincipalParam();
+        principal.setName("uid");
+        principal.setSource(ParamSource.HEADER);
+        rule.setPrincipalParam(principal);
+        List<ApiPermissionConfig.ParamRule> paramRules = new ArrayList<>();
+        for (String name : headerParams) {
+            paramRules.add(param(name, ParamSource.HEADER, null, null));
+        }
+        rule.setParamRules(paramRules);
+        return rule;
+    }
+
+    /**
+     * 使用{@link #SAME_AS_PRINCIPAL}验证的目标参数
+     */
+    public static ApiPermissionConfig.ParamRule param(String name, ParamSource source, String parseMethod, String parseConfig) {
+        ApiPermissionConfig.ParamRule paramRule = new ApiPermissionConfig.ParamRule();
+        paramRule.setParamName(name);
+        paramRule.setSource(source);
+        paramRule.setParseMethod(parseMethod);
+        paramRule.setParseConfig(parseConfig);
+        paramRule.setValidatorId(SAME_AS_PRINCIPAL);
+        return paramRule;
+    }
+
+    /**
+     * 开启全局开关并完成initialize的配置
+     */
+    public static ApiPermissionConfig config(ApiPermissionConfig.Rule... rules) {
+        ApiPermissionConfig config = new ApiPermissionConfig();
+        config.setEnabled(true);
+        config.setRules(new ArrayList<>(Arrays.asList(rules)));
+        config.initialize();
+        return config;
+    }
+
+    /**
+     * 目标值非空且全部等于主体值时通过
+     */
+    public static PermissionValidator sameAsPrincipal() {
+        return new SameAsPrincipalValidator();
+    }
+
+    public static class SameAsPrincipalValidator implements PermissionValidator {
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            if (target.getValues().isEmpty()) {
+                return false;
+            }
+            String expected = principal.getValues().get(0);
+            for (String value : target.getValues()) {
+                if (!expected.equals(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getValidatorId() {
+            return SAME_AS_PRINCIPAL;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.security.config;
+
+import com.security.RuleFixtures;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.enums.PolicyOperator;
+import com.security.enums.ValueType;
+import com.security.policy.CompiledPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleBundleTest {
+
+    // 头部：魔数(4) 格式版本(2) 保留(2) 构建时间(8) 规则数(4) 内容长度(4) CRC32(4) 保留(4)
+    private static final int HEADER_BYTES = 32;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RULE_COUNT_OFFSET = 16;
+    private static final int CHECKSUM_OFFSET = 24;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rulesRoundTripWithTheirCompiledPolicies() throws IOException {
+        List<ApiPermissionConfig.Rule> rules = rules();
+        assertThat(ApiPermissionConfig.validateAndCompile(rules)).isEmpty();
+        Path file = directory.resolve("rules.bundle");
+        long before = System.currentTimeMillis();
+
+        long written = RuleBundle.write(rules, file);
+        RuleBundle bundle = RuleBundle.read(file);
+
+        assertThat(written).isEqualTo(Files.size(file));
+        assertThat(bundle.getFormatVersion()).isEqualTo(RuleBundle.FORMAT_VERSION);
+        assertThat(bundle.getCreatedAt()).isBetween(before, System.currentTimeMillis());
+        assertThat(bundle.getRules()).hasSize(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            ApiPermissionConfig.Rule expected = rules.get(i);
+            ApiPermissionConfig.Rule actual = bundle.getRules().get(i);
+            assertThat(actual).as(expected.getUriPattern()).isEqualTo(expected);
+            assertPolicy(actual.getCompiledPolicy(), expected.getCompiledPolicy());
+            assertThat(actual.getCompiledPattern().matches("/orders/7/items")).isEqualTo(expected.getCompiledPattern().matches("/orders/7/items"));
+        }
+        // 相同的字符串在规则之间共用同一实例
+        assertThat(bundle.getRules().get(1).getPrincipalParam().getName())
+                .isSameAs(bundle.getRules().get(0).getPrincipalParam().getName());
+        assertThat(Files.exists(directory.resolve("rules.bundle.tmp"))).isFalse();
+    }
+
+    @Test
+    void uncompiledRulesCannotBeWritten() {
+        List<ApiPermissionConfig.Rule> rules = rules();
+        assertThatThrownBy(() -> RuleBundle.write(rules, directory.resolve("rules.bundle")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("尚未编译");
+    }
+
+    @Test
+    void damagedOrIncompatibleBundlesAreRejected() throws IOException {
+        byte[] bundle = bundle();
+
+        byte[] flipped = bundle.clone();
+        flipped[HEADER_BYTES + 5] ^= 1;
+        assertRejected(flipped, "校验和");
+        byte[] version = bundle.clone();
+        version[VERSION_OFFSET + 1] = (byte) (RuleBundle.FORMAT_VERSION + 1);
+        assertRejected(version, "格式版本");
+        byte[] magic = bundle.clone();
+        magic[0] = 'X';
+        assertRejected(magic, "不是规则包");
+        assertRejected(Arrays.copyOf(bundle, bundle.length - 1), "长度");
+        assertRejected(Arrays.copyOf(bundle, bundle.length + 1), "长度");
+        assertRejected(Arrays.copyOf(bundle, 10), "长度不足");
+        // 头部的规则数不在校验和内：多出的规则读不到，缺少的规则留下多余内容
+        assertRejected(withRuleCount(bundle, 5), "不完整");
+        assertRejected(withRuleCount(bundle, 3), "多余内容");
+        assertRejected(withRuleCount(bundle, Integer.MAX_VALUE), "规则数");
+        assertRejected(withRuleCount(bundle, -1), "规则数");
+    }
+
+    @Test
+    void corruptedContentWithAValidChecksumFailsCleanly() throws IOException {
+        byte[] bundle = bundle();
+        Random random = new Random(3);
+        int rejected = 0;
+        for (int round = 0; round < 3000; round++) {
+            byte[] corrupted = bundle.clone();
+            int changes = 1 + random.nextInt(3);
+            for (int i = 0; i < changes; i++) {
+                int offset = HEADER_BYTES + random.nextInt(bundle.length - HEADER_BYTES);
+                corrupted[offset] = random.nextInt(4) == 0 ? (byte) 0xFF : (byte) random.nextInt(256);
+            }
+            withChecksum(corrupted);
+            Path file = directory.resolve("fuzz.bundle");
+            Files.write(file, corrupted);
+            // 内容损坏只会表现为IllegalArgumentException，不会按损坏的长度分配内存或抛出其他异常
+            try {
+                RuleBundle.read(file);
+            } catch (IllegalArgumentException e) {
+                rejected++;
+            }
+        }
+        assertThat(rejected).isGreaterThan(1000);
+    }
+
+    @Test
+    void compilerWritesOnlyValidDocumentsAndStartupFallsBackFromABrokenBundle() throws IOException {
+        Path file = directory.resolve("rules.bundle");
+        assertThat(RuleBundleCompiler.compile("{\"rules\":[{\"uriPattern\":\"/a/**\"}]}", file)).isNotEmpty();
+        assertThat(RuleBundleCompiler.compile("{\"rules\":", file)).isNotEmpty();
+        assertThat(Files.exists(file)).isFalse();
+
+        String document = "{\"rules\":[{\"uriPattern\":\"/bundled/**\",\"enabled\":true,"
+                + "\"principalParam\":{\"name\":\"uid\",\"source\":\"HEADER\"},"
+                + "\"paramRules\":[{\"paramName\":\"a\",\"source\":\"HEADER\",\"validatorId\":\"sameAsPrincipal\"}]}]}";
+        assertThat(RuleBundleCompiler.compile(document, file)).isEmpty();
+
+        ApiPermissionConfig config = configWithBundle(file);
+        assertThat(config.getSnapshot().getSource()).startsWith("规则包");
+        assertThat(config.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/bundled/**");
+
+        byte[] damaged = Files.readAllBytes(file);
+        damaged[damaged.length - 1] ^= 1;
+        Files.write(file, damaged);
+        ApiPermissionConfig fallback = configWithBundle(file);
+        assertThat(fallback.getSnapshot().getSource()).isEqualTo("启动配置");
+        assertThat(fallback.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/yaml/**");
+        assertThat(fallback.isEnabled()).isTrue();
+    }
+
+    private ApiPermissionConfig configWithBundle(Path file) {
+        ApiPermissionConfig config = new ApiPermissionConfig();
+        config.setEnabled(true);
+        config.getBundle().setFile(file.toString());
+        config.setRules(new ArrayList<>(Arrays.asList(RuleFixtures.rule("/yaml/**", "a"))));
+        config.initialize();
+        return config;
+    }
+
+    private void assertRejected(byte[] content, String message) throws IOException {
+        Path file = directory.resolve("broken.bundle");
+        Files.write(file, content);
+        assertThatThrownBy(() -> RuleBundle.read(file)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining(message);
+    }
+
+    private byte[] bundle() throws IOException {
+        List<ApiPermissionConfig.Rule> rules = rules();
+        assertThat(ApiPermissionConfig.validateAndCompile(rules)).isEmpty();
+        Path file = directory.resolve("rules.bundle");
+        RuleBundle.write(rules, file);
+        return Files.readAllBytes(file);
+    }
+
+    private static byte[] withRuleCount(byte[] bundle, int count) {
+        byte[] copy = bundle.clone();
+        ByteBuffer.wrap(copy).putInt(RULE_COUNT_OFFSET, count);
+        return copy;
+    }
+
+    private static void withChecksum(byte[] bundle) {
+        CRC32 crc = new CRC32();
+        crc.update(bundle, HEADER_BYTES, bundle.length - HEADER_BYTES);
+        ByteBuffer.wrap(bundle).putInt(CHECKSUM_OFFSET, (int) crc.getValue());
+    }
+
+    private static void assertPolicy(CompiledPolicy actual, CompiledPolicy expected) {
+        if (expected == null) {
+            assertThat(actual).isNull();
+            return;
+        }
+        assertThat(actual.size()).isEqualTo(expected.size());
+        assertThat(actual.root()).isEqualTo(expected.root());
+        for (int node = 0; node < expected.size(); node++) {
+            assertThat(actual.operator(node)).isEqualTo(expected.operator(node));
+            assertThat(actual.paramIndex(node)).isEqualTo(expected.paramIndex(node));
+            assertThat(actual.childCount(node)).isEqualTo(expected.childCount(node));
+            for (int i = 0; i < expected.childCount(node); i++) {
+                assertThat(actual.child(node, i)).isEqualTo(expected.child(node, i));
+            }
+        }
+    }
+
+    // 覆盖多参数模式、嵌套策略树、值类型、去重与值个数上限、JSONPath配置与关闭的规则
+    private static List<ApiPermissionConfig.Rule> rules() {
+        ApiPermissionConfig.Rule simple = RuleFixtures.rule("/orders/{id}/**", "a", "b");
+        simple.setMultiParamMode(MultiParamMode.ALL_MATCH);
+
+        ApiPermissionConfig.Rule typed = RuleFixtures.rule("/users/**");
+        typed.getPrincipalParam().setValueType(ValueType.LONG);
+        ApiPermissionConfig.ParamRule body = RuleFixtures.param("ids", ParamSource.BODY, "JSON_PATH", "$.items[*].id");
+        body.setValueType(ValueType.LONG);
+        body.setDistinctValues(false);
+        body.setMaxValues(300);
+        typed.getParamRules().add(body);
+        typed.getParamRules().add(RuleFixtures.param("id", ParamSource.PATH, null, null));
+        typed.setUriPattern("/users/{id}/**");
+
+        ApiPermissionConfig.Rule policy = RuleFixtures.rule("/policy/**", "a", "b", "c");
+        policy.setPolicy(node(PolicyOperator.OR, param("a"), node(PolicyOperator.AND, param("b"), node(PolicyOperator.NOT, param("c")))));
+
+        ApiPermissionConfig.Rule disabled = RuleFixtures.rule("/disabled/**", "a");
+        disabled.setEnabled(false);
+        return new ArrayList<>(Arrays.asList(simple, typed, policy, disabled));
+    }
+
+    private static ApiPermissionConfig.PolicyNode param(String name) {
+        ApiPermissionConfig.PolicyNode node = new ApiPermissionConfig.PolicyNode();
+        node.setOperator(PolicyOperator.PARAM);
+        node.setParam(name);
+        return node;
+    }
+
+    private static ApiPermissionConfig.PolicyNode node(PolicyOperator operator, ApiPermissionConfig.PolicyNode... children) {
+        ApiPermissionConfig.PolicyNode node = new ApiPermissionConfig.PolicyNode();
+        node.setOperator(operator);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+}
@@ -0,0 +1,147 @@
+package com.security.config;
+
+import com.security.RuleFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleReloadTest {
+
+    @Test
+    void reloadPublishesANewSnapshotWithoutTouchingTheCurrentOne() {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/orders/**", "a"));
+        RuleSnapshot before = config.getSnapshot();
+        ApiPermissionConfig.Rule published = before.getRules().get(0);
+
+        List<String> errors = config.reload(null, rules("/users/**", "/orders/{id}"), "test.json");
+
+        assertThat(errors).isEmpty();
+        RuleSnapshot after = config.getSnapshot();
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(after.getSource()).isEqualTo("test.json");
+        assertThat(after.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/users/**", "/orders/{id}");
+        assertThat(config.getRules()).isSameAs(after.getRules());
+        // 处理中的请求持有的旧快照与规则不变
+        assertThat(before.getRules()).containsExactly(published);
+        assertThat(published.isEnabled()).isTrue();
+        assertThat(published.getCompiledPattern().matches("/orders/1")).isTrue();
+
+        assertThat(config.reload(false, rules("/users/**"), "off.json")).isEmpty();
+        assertThat(config.isEnabled()).isFalse();
+        assertThat(after.isEnabled()).isTrue();
+    }
+
+    @Test
+    void invalidBatchIsRejectedAsAWhole() {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/orders/**", "a"));
+        RuleSnapshot before = config.getSnapshot();
+        List<ApiPermissionConfig.Rule> next = rules("/users/**", "/invalid/**");
+        next.get(1).getParamRules().get(0).setValidatorId(null);
+
+        List<String> errors = config.reload(null, next, "bad.json");
+
+        assertThat(errors).singleElement().asString().contains("/invalid/**").contains("validatorId");
+        assertThat(config.getSnapshot()).isSameAs(before);
+        assertThat(config.reload(true, Collections.emptyList(), "empty.json")).isNotEmpty();
+        assertThat(config.getSnapshot()).isSameAs(before);
+    }
+
+    @Test
+    void failingListenerCancelsThePublish() {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/orders/**", "a"));
+        List<RuleSnapshot> published = new CopyOnWriteArrayList<>();
+        config.addSnapshotListener(new RuleSnapshotListener() {
+            @Override
+            public void prepare(RuleSnapshot next) {
+                if (next.getRules().stream().anyMatch(rule -> rule.getUriPattern().startsWith("/boom"))) {
+                    throw new IllegalStateException("校验器构建失败");
+                }
+            }
+
+            @Override
+            public void published(RuleSnapshot current) {
+                published.add(current);
+            }
+        });
+        RuleSnapshot before = config.getSnapshot();
+        assertThat(published).containsExactly(before);
+
+        List<String> errors = config.reload(null, rules("/boom/**"), "boom.json");
+
+        assertThat(errors).singleElement().asString().contains("校验器构建失败");
+        assertThat(config.getSnapshot()).isSameAs(before);
+        assertThat(published).containsExactly(before);
+        // 失败后下一次加载照常发布，版本连续
+        assertThat(config.reload(null, rules("/users/**"), "next.json")).isEmpty();
+        assertThat(config.getSnapshot().getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(published).hasSize(2);
+    }
+
+    @Test
+    void readersAlwaysSeeACompleteSnapshot() throws InterruptedException {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/orders/**", "a"));
+        assertThat(config.reload(null, generation(0), "g0")).isEmpty();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> problems = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread reader = new Thread(() -> {
+                long lastVersion = 0;
+                while (running.get()) {
+                    RuleSnapshot snapshot = config.getSnapshot();
+                    String tag = snapshot.getSource();
+                    if (snapshot.getVersion() < lastVersion) {
+                        problems.add("版本回退：" + snapshot.getVersion() + " < " + lastVersion);
+                    }
+                    lastVersion = snapshot.getVersion();
+                    // 同一快照中的规则全部来自同一次加载，且均已编译
+                    if (snapshot.getRules().size() != 20) {
+                        problems.add("规则条数不完整：" + snapshot.getRules().size());
+                    }
+                    for (ApiPermissionConfig.Rule rule : snapshot.getRules()) {
+                        if (!rule.getUriPattern().startsWith("/" + tag + "/") || rule.getCompiledPattern() == null || !rule.isEnabled()) {
+                            problems.add(tag + " 中出现 " + rule.getUriPattern());
+                        }
+                    }
+                    if (snapshot.candidates("/" + tag + "/r3/x").length == 0) {
+                        problems.add(tag + " 的索引为空");
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int generation = 1; generation <= 300; generation++) {
+            assertThat(config.reload(null, generation(generation), "g" + generation)).isEmpty();
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(problems).isEmpty();
+        assertThat(config.getSnapshot().getSource()).isEqualTo("g300");
+    }
+
+    // 第n次加载的20条规则，URI以/g<n>/开头，来源为g<n>
+    private static List<ApiPermissionConfig.Rule> generation(int n) {
+        List<ApiPermissionConfig.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rules.add(RuleFixtures.rule("/g" + n + "/r" + i + "/**", "a"));
+        }
+        return rules;
+    }
+
+    private static List<ApiPermissionConfig.Rule> rules(String... patterns) {
+        List<ApiPermissionConfig.Rule> rules = new ArrayList<>();
+        Arrays.stream(patterns).forEach(pattern -> rules.add(RuleFixtures.rule(pattern, "a")));
+        return rules;
+    }
+}
@@ -0,0 +1,104 @@
+package com.security.config;
+
+import com.security.RuleFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleSnapshotTest {
+
+    private static final String[] PATTERN_SEGMENTS = {"api", "orders", "users", "*", "**", "{id}", "o*"};
+    private static final String[] URI_SEGMENTS = {"api", "orders", "users", "x", "ord", "7", ""};
+
+    @Test
+    void indexedCandidatesMatchLikeALinearScan() {
+        Random random = new Random(5);
+        int compared = 0;
+        for (int round = 0; round < 50; round++) {
+            Set<String> patterns = new LinkedHashSet<>();
+            while (patterns.size() < 12) {
+                patterns.add(path(random, PATTERN_SEGMENTS, random.nextInt(6) == 0 ? "" : "/"));
+            }
+            RuleSnapshot snapshot = RuleFixtures.config(patterns.stream()
+                    .map(pattern -> RuleFixtures.rule(pattern, "a"))
+                    .toArray(ApiPermissionConfig.Rule[]::new)).getSnapshot();
+            assertThat(snapshot.getRules()).hasSize(patterns.size());
+
+            for (int i = 0; i < 200; i++) {
+                String uri = uri(random);
+                assertThat(patternOf(firstMatch(snapshot.candidates(uri), uri)))
+                        .as("%s 对 %s", uri, patterns)
+                        .isEqualTo(patternOf(firstMatch(snapshot.getRules().toArray(new ApiPermissionConfig.Rule[0]), uri)));
+                // 候选规则保持配置顺序
+                List<ApiPermissionConfig.Rule> candidates = Arrays.asList(snapshot.candidates(uri));
+                assertThat(snapshot.getRules().stream().filter(candidates::contains).collect(Collectors.toList()))
+                        .isEqualTo(candidates);
+                compared++;
+            }
+        }
+        assertThat(compared).isEqualTo(10_000);
+    }
+
+    @Test
+    void wildcardRulesJoinEveryGroupInConfigurationOrder() {
+        RuleSnapshot snapshot = RuleFixtures.config(RuleFixtures.rule("/api/a", "a"), RuleFixtures.rule("/**/audit", "a"),
+                RuleFixtures.rule("/api/b", "a"), RuleFixtures.rule("/{tenant}/c", "a"), RuleFixtures.rule("/other", "a")).getSnapshot();
+
+        assertThat(patterns(snapshot.candidates("/api/b"))).containsExactly("/api/a", "/**/audit", "/api/b", "/{tenant}/c");
+        assertThat(patterns(snapshot.candidates("/other"))).containsExactly("/**/audit", "/{tenant}/c", "/other");
+        assertThat(patterns(snapshot.candidates("/unknown/c"))).containsExactly("/**/audit", "/{tenant}/c");
+        assertThat(patterns(snapshot.candidates("/"))).containsExactly("/**/audit", "/{tenant}/c");
+        // 含连续斜杠或不以/开头的URI按全部规则匹配
+        assertThat(snapshot.candidates("//api/b")).hasSize(5);
+        assertThat(snapshot.candidates("api/b")).hasSize(5);
+    }
+
+    private static ApiPermissionConfig.Rule firstMatch(ApiPermissionConfig.Rule[] rules, String uri) {
+        for (ApiPermissionConfig.Rule rule : rules) {
+            if (rule.getCompiledPattern().matches(uri)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String patternOf(ApiPermissionConfig.Rule rule) {
+        return rule != null ? rule.getUriPattern() : null;
+    }
+
+    private static List<String> patterns(ApiPermissionConfig.Rule[] rules) {
+        List<String> patterns = new ArrayList<>(rules.length);
+        for (ApiPermissionConfig.Rule rule : rules) {
+            patterns.add(rule.getUriPattern());
+        }
+        return patterns;
+    }
+
+    // 随机URI：偶尔不以/开头、含连续斜杠或以斜杠结尾
+    private static String uri(Random random) {
+        int kind = random.nextInt(10);
+        String prefix = kind == 0 ? "" : kind == 1 ? "//" : "/";
+        String uri = path(random, URI_SEGMENTS, prefix);
+        return random.nextInt(6) == 0 ? uri + "/" : uri;
+    }
+
+    private static String path(Random random, String[] segments, String prefix) {
+        StringBuilder path = new StringBuilder(prefix);
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                path.append('/');
+            }
+            path.append(segments[random.nextInt(segments.length)]);
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,385 @@
+package com.security.config;
+
+import com.security.RuleFixtures;
+import com.security.engine.RuleMatcher;
+import com.security.enums.TenantKeySource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantRuleTablesTest {
+
+    @TempDir
+    Path directory;
+
+    private final MemorySource source = new MemorySource();
+    private final RecordingListener listener = new RecordingListener();
+    private TenantRuleTables tables;
+
+    @AfterEach
+    void close() {
+        if (tables != null) {
+            tables.close();
+        }
+    }
+
+    @Test
+    void tenantRulesAreLoadedOnceAndOtherRequestsUseTheGlobalRules() {
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, source);
+        source.put("t1", document("/t1/**"));
+
+        RuleSnapshot first = tables.getSnapshot("t1");
+        RuleSnapshot second = tables.getSnapshot("t1");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getTenant()).isEqualTo("t1");
+        assertThat(first.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/t1/**");
+        assertThat(source.reads("t1")).isEqualTo(1);
+        assertThat(listener.live.values()).containsExactly(first);
+        // 没有专属规则的租户与未携带租户标识的请求使用全局快照
+        assertThat(tables.getSnapshot("t2")).isSameAs(config.getSnapshot());
+        assertThat(tables.getSnapshot(null)).isSameAs(config.getSnapshot());
+        assertThat(tables.loadedTenants()).containsExactly("t1");
+        assertThatThrownBy(() -> tables.getSnapshot("../t1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void leastRecentlyUsedTenantIsUnloadedAtTheLimit() throws InterruptedException {
+        tables = tables(config(3, 0), source);
+        for (String tenant : new String[]{"a", "b", "c", "d", "e"}) {
+            source.put(tenant, document("/" + tenant + "/**"));
+        }
+        tables.getSnapshot("a");
+        tables.getSnapshot("b");
+        tables.getSnapshot("c");
+        // 访问时间按秒粒度记录，等待后再次访问a使b成为最久未访问的租户
+        Thread.sleep(1100);
+        tables.getSnapshot("a");
+
+        tables.getSnapshot("d");
+
+        assertThat(tables.loadedTenants()).containsExactly("a", "c", "d");
+        assertThat(listener.tenants()).containsExactlyInAnyOrder("a", "c", "d");
+        assertThat(listener.unloaded).containsExactly("b");
+        tables.getSnapshot("b");
+        assertThat(source.reads("b")).isEqualTo(2);
+        assertThat(tables.loadedTenants()).containsExactly("a", "b", "d");
+    }
+
+    @Test
+    void tenantsWithoutRulesAreUnloadedFirst() {
+        tables = tables(config(3, 0), source);
+        source.put("a", document("/a/**"));
+        source.put("b", document("/b/**"));
+        source.put("c", document("/c/**"));
+
+        tables.getSnapshot("a");
+        tables.getSnapshot("none");
+        tables.getSnapshot("b");
+        tables.getSnapshot("c");
+
+        assertThat(tables.loadedTenants()).containsExactly("a", "b", "c");
+        assertThat(listener.unloaded).isEmpty();
+        tables.getSnapshot("none");
+        assertThat(source.reads("none")).isEqualTo(2);
+        assertThat(tables.loadedTenants()).containsExactly("b", "c");
+        assertThat(listener.unloaded).containsExactly("a");
+    }
+
+    @Test
+    void idleTenantsAreUnloadedOnALaterAccess() throws InterruptedException {
+        tables = tables(config(10, 1), source);
+        source.put("t1", document("/t1/**"));
+        tables.getSnapshot("t1");
+
+        Thread.sleep(1200);
+        tables.getSnapshot("t2");
+
+        assertThat(tables.loadedTenants()).isEmpty();
+        assertThat(listener.unloaded).containsExactly("t1");
+        assertThat(tables.getSnapshot("t1").getTenant()).isEqualTo("t1");
+        assertThat(source.reads("t1")).isEqualTo(2);
+    }
+
+    @Test
+    void reloadReplacesOnlyThatTenant() {
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, source);
+        source.put("t1", document("/t1/**"));
+        source.put("t2", document("/t2/**"));
+        RuleSnapshot t1 = tables.getSnapshot("t1");
+        RuleSnapshot t2 = tables.getSnapshot("t2");
+        RuleSnapshot global = config.getSnapshot();
+
+        source.put("t1", document("/t1/orders/**"));
+        assertThat(tables.reload("t1")).isEmpty();
+
+        RuleSnapshot reloaded = tables.getSnapshot("t1");
+        assertThat(reloaded.getVersion()).isGreaterThan(t1.getVersion());
+        assertThat(reloaded.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/t1/orders/**");
+        assertThat(tables.getSnapshot("t2")).isSameAs(t2);
+        assertThat(config.getSnapshot()).isSameAs(global);
+        assertThat(listener.live.values()).containsExactlyInAnyOrder(reloaded, t2);
+
+        // 验证失败时保留该租户当前的规则
+        assertThat(tables.reload("t1", "{\"rules\":[{\"uriPattern\":\"/t1/**\"}]}")).isNotEmpty();
+        assertThat(tables.reload("t1", "{\"rules\":")).isNotEmpty();
+        assertThat(tables.getSnapshot("t1")).isSameAs(reloaded);
+
+        // 规则文档为null时改用全局规则
+        assertThat(listener.unloaded).isEmpty();
+        assertThat(tables.reload("t1", null)).isEmpty();
+        assertThat(tables.getSnapshot("t1")).isSameAs(global);
+        assertThat(listener.live.values()).containsExactly(t2);
+        assertThat(tables.loadedTenants()).containsExactly("t2");
+    }
+
+    @Test
+    void brokenTenantRulesAreRejectedUntilFixed() {
+        tables = tables(config(10, 0), source);
+        source.put("t1", "{\"rules\":");
+
+        assertThatThrownBy(() -> tables.getSnapshot("t1")).isInstanceOf(IllegalStateException.class).hasMessageContaining("t1");
+        assertThatThrownBy(() -> tables.getSnapshot("t1")).isInstanceOf(IllegalStateException.class);
+        assertThat(source.reads("t1")).isEqualTo(1);
+
+        source.put("t1", document("/t1/**"));
+        assertThat(tables.reload("t1")).isEmpty();
+        assertThat(tables.getSnapshot("t1").getTenant()).isEqualTo("t1");
+    }
+
+    @Test
+    void concurrentAccessKeepsTheLimitAndPairsEveryUnload() throws InterruptedException {
+        tables = tables(config(10, 0), source);
+        for (int i = 0; i < 50; i++) {
+            source.put("t" + i, document("/t" + i + "/**"));
+        }
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Random random = new Random(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 2000; n++) {
+                        String tenant = "t" + random.nextInt(50);
+                        assertThat(tables.getSnapshot(tenant).getTenant()).isEqualTo(tenant);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(tables.loadedTenants()).hasSizeLessThanOrEqualTo(10);
+        // 加载与卸载的通知成对，监听器持有的租户与规则表一致
+        assertThat(listener.tenants()).containsExactlyInAnyOrderElementsOf(tables.loadedTenants());
+    }
+
+    @Test
+    void directorySourceAdmitsOnlyTenantsWithARuleFile() throws IOException, InterruptedException {
+        Files.write(directory.resolve("t1.json"), document("/t1/**").getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("notes.txt"), "x".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger reads = new AtomicInteger();
+        DirectoryTenantRuleSource directorySource = new DirectoryTenantRuleSource(directory, 50) {
+            @Override
+            public String read(String tenant) throws IOException {
+                reads.incrementAndGet();
+                return super.read(tenant);
+            }
+        };
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, directorySource);
+        tables.start();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(tables.getSnapshot("x" + Long.toHexString(random.nextLong()))).isSameAs(config.getSnapshot());
+        }
+        assertThat(reads).hasValue(0);
+        assertThat(tables.getSnapshot("t1").getTenant()).isEqualTo("t1");
+        assertThat(reads).hasValue(1);
+
+        // 新增与删除的规则文件随目录监听更新租户清单
+        Files.write(directory.resolve("t2.json"), document("/t2/**").getBytes(StandardCharsets.UTF_8));
+        await(() -> tables.getSnapshot("t2").getTenant(), "t2");
+        Files.delete(directory.resolve("t1.json"));
+        await(() -> tables.getSnapshot("t1").getTenant(), null);
+        assertThat(tables.loadedTenants()).containsExactly("t2");
+    }
+
+    @Test
+    void tenantIdsAreCaseInsensitiveForEveryKeySource() {
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, source);
+        source.put("t1", document("/t1/**"));
+
+        assertThat(tables.resolveTenant("/orders", Collections.singletonMap("X-Tenant-Id", " T1 ")::get, null)).isEqualTo("t1");
+        config.getTenants().setKeySource(TenantKeySource.PATH);
+        assertThat(new TenantRuleTables(config, source).resolveTenant("/T1/orders", null, null)).isEqualTo("t1");
+        config.getTenants().setKeySource(TenantKeySource.HOST);
+        assertThat(new TenantRuleTables(config, source).resolveTenant("/orders", null, "T1.example.com")).isEqualTo("t1");
+
+        RuleSnapshot snapshot = tables.getSnapshot("T1");
+        assertThat(snapshot.getTenant()).isEqualTo("t1");
+        assertThat(tables.getSnapshot("t1")).isSameAs(snapshot);
+        assertThat(source.reads("t1")).isEqualTo(1);
+        assertThat(source.reads("T1")).isZero();
+        assertThat(tables.reload("T1", document("/t1/orders/**"))).isEmpty();
+        assertThat(tables.getSnapshot("t1").getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/t1/orders/**");
+        assertThat(tables.loadedTenants()).containsExactly("t1");
+        assertThat(tables.unload("T1")).isTrue();
+        assertThat(listener.tenants()).isEmpty();
+    }
+
+    @Test
+    void directorySourceMatchesRuleFilesRegardlessOfCase() throws IOException, InterruptedException {
+        Files.write(directory.resolve("Acme.json"), document("/acme/**").getBytes(StandardCharsets.UTF_8));
+        DirectoryTenantRuleSource directorySource = new DirectoryTenantRuleSource(directory, 50);
+        // 启动前按文件名查找
+        assertThat(directorySource.read("acme")).isNotNull();
+
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, directorySource);
+        tables.start();
+        String tenant = tables.resolveTenant("/orders", Collections.singletonMap("X-Tenant-Id", "ACME")::get, null);
+        assertThat(tables.getSnapshot(tenant).getTenant()).isEqualTo("acme");
+
+        // 文件变化时通知小写的租户标识
+        Files.write(directory.resolve("Acme.json"), document("/acme/orders/**").getBytes(StandardCharsets.UTF_8));
+        await(() -> tables.getSnapshot("acme").getRules().get(0).getUriPattern(), "/acme/orders/**");
+        Files.write(directory.resolve("BETA.json"), document("/beta/**").getBytes(StandardCharsets.UTF_8));
+        await(() -> tables.getSnapshot("Beta").getTenant(), "beta");
+        Files.delete(directory.resolve("Acme.json"));
+        await(() -> tables.getSnapshot("acme").getTenant(), null);
+    }
+
+    @Test
+    void requestsWithoutATenantMatchFallBackToTheGlobalRules() {
+        ApiPermissionConfig config = config(10, 0);
+        tables = tables(config, source);
+        RuleMatcher matcher = new RuleMatcher(config, tables);
+        source.put("t1", document("/t1/**"));
+        // 租户规则的开关关闭：只关闭专属规则，全局规则仍然生效
+        source.put("off", "{\"enabled\":false,\"rules\":[]}");
+        // 以关闭的规则覆盖全局规则中的同一URI
+        source.put("open", document("/global/**").replace("\"enabled\":true", "\"enabled\":false"));
+
+        RuleSnapshot t1 = matcher.snapshotFor("t1");
+        assertThat(matcher.matchFor(t1, "/t1/orders").getRule().getTenant()).isEqualTo("t1");
+        assertThat(matcher.matchFor(t1, "/global/orders").getRule()).isSameAs(config.getSnapshot().getRules().get(0));
+        assertThat(matcher.matchFor(t1, "/other")).isNull();
+        assertThat(RuleMatcher.matchWithVariables(t1, "/global/orders")).isNull();
+
+        RuleSnapshot off = matcher.snapshotFor("off");
+        assertThat(off.getTenant()).isEqualTo("off");
+        assertThat(matcher.matchFor(off, "/global/orders").getRule().getTenant()).isNull();
+
+        ApiPermissionConfig.Rule override = matcher.matchFor(matcher.snapshotFor("open"), "/global/orders").getRule();
+        assertThat(override.getTenant()).isEqualTo("open");
+        assertThat(override.isEnabled()).isFalse();
+    }
+
+    private TenantRuleTables tables(ApiPermissionConfig config, TenantRuleSource ruleSource) {
+        TenantRuleTables created = new TenantRuleTables(config, ruleSource);
+        created.addListener(listener);
+        return created;
+    }
+
+    private static ApiPermissionConfig config(int maxLoadedTenants, long idleSeconds) {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/global/**", "a"));
+        config.getTenants().setMaxLoadedTenants(maxLoadedTenants);
+        config.getTenants().setIdleSeconds(idleSeconds);
+        return config;
+    }
+
+    private static String document(String uriPattern) {
+        return "{\"rules\":[{\"uriPattern\":\"" + uriPattern + "\",\"enabled\":true,"
+                + "\"principalParam\":{\"name\":\"uid\",\"source\":\"HEADER\"},"
+                + "\"paramRules\":[{\"paramName\":\"a\",\"source\":\"HEADER\",\"validatorId\":\"sameAsPrincipal\"}]}]}";
+    }
+
+    private static void await(Supplier<String> actual, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Objects.equals(actual.get(), expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(actual.get()).isEqualTo(expected);
+    }
+
+    /**
+     * 内存中的租户规则来源，记录每个租户的读取次数
+     */
+    private static final class MemorySource implements TenantRuleSource {
+        private final Map<String, String> documents = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+
+        void put(String tenant, String document) {
+            documents.put(tenant, document);
+        }
+
+        int reads(String tenant) {
+            AtomicInteger count = reads.get(tenant);
+            return count != null ? count.get() : 0;
+        }
+
+        @Override
+        public String getName() {
+            return "memory";
+        }
+
+        @Override
+        public String read(String tenant) {
+            reads.computeIfAbsent(tenant, key -> new AtomicInteger()).incrementAndGet();
+            return documents.get(tenant);
+        }
+    }
+
+    /**
+     * 与校验器注册表相同，按租户保存最新的快照，卸载时只移除同一个快照；同时记录卸载顺序
+     */
+    private static final class RecordingListener implements TenantSnapshotListener {
+        private final Map<String, RuleSnapshot> live = new ConcurrentHashMap<>();
+        private final List<String> unloaded = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void loaded(RuleSnapshot snapshot) {
+            live.put(snapshot.getTenant(), snapshot);
+        }
+
+        @Override
+        public void unloaded(RuleSnapshot snapshot) {
+            live.remove(snapshot.getTenant(), snapshot);
+            unloaded.add(snapshot.getTenant());
+        }
+
+        Set<String> tenants() {
+            return live.keySet();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.security.context;
+
+import com.security.RuleFixtures;
+import com.security.request.PermissionRequest;
+import com.security.request.RequestPermissionEngine;
+import com.security.request.SimplePermissionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求上下文在平台线程池与虚拟线程（每个请求一个线程，即spring.threads.virtual的Tomcat执行器）上的开销对比（JMH）
+ * <p>
+ * 每次操作提交一批请求，每个请求经{@link PermissionContext#runBound}建立上下文并校验一条规则；附带GC分析，
+ * 对比每批请求的耗时与分配字节数。上下文存储随JDK版本不同（Multi-Release），需以打包后的jar运行：
+ * mvn -pl api-permission-core install 后，以该jar加测试类路径运行本类的main方法（虚拟线程需JDK 21+）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextBindingBenchmark {
+
+    private static final int BATCH = 1000;
+
+    // Tomcat默认的最大工作线程数
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"PLATFORM_POOL", "VIRTUAL_PER_TASK"})
+    public String executorType;
+
+    private ExecutorService executor;
+
+    private RequestPermissionEngine engine;
+
+    private PermissionRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        engine = new RequestPermissionEngine(RuleFixtures.config(RuleFixtures.rule("/orders/**", "ownerId")),
+                Collections.singletonList(RuleFixtures.sameAsPrincipal()));
+        request = SimplePermissionRequest.builder("/orders/1").header("uid", "7").header("ownerId", "7").build();
+        if ("VIRTUAL_PER_TASK".equals(executorType)) {
+            // 测试代码按Java 8编译，通过反射创建虚拟线程执行器
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int batch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BATCH);
+        int[] permitted = new int[1];
+        for (int i = 0; i < BATCH; i++) {
+            executor.execute(() -> {
+                if (engine.isPermitted(request)) {
+                    synchronized (permitted) {
+                        permitted[0]++;
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        return permitted[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ContextBindingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
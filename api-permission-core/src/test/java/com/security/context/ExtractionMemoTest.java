@@ -0,0 +1,183 @@
+package com.security.context;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.security.RuleFixtures;
+import com.security.config.ApiPermissionConfig;
+import com.security.engine.InterpretedRuleChecker;
+import com.security.engine.RuleChecker;
+import com.security.engine.RuleCheckerGenerator;
+import com.security.enums.ParamSource;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.JsonPathSupport;
+import com.security.extractor.RequestExtractor;
+import com.security.request.PermissionRequest;
+import com.security.request.SimplePermissionRequest;
+import com.security.validator.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 请求级提取记忆：规则内重复的提取与多个提取器共用的请求体解析只执行一次，复用的ContextData在请求之间清空记忆
+ */
+class ExtractionMemoTest {
+
+    private static final ParsedBodyKey<Properties> PAIRS = ParsedBodyKey.of("pairs", Properties.class);
+
+    private final CountingExtractor extractor = new CountingExtractor();
+    private final ExtractorFactory<PermissionRequest> extractorFactory = new ExtractorFactory<>(Collections.singletonList(extractor));
+    private final ValidatorFactory validatorFactory = new ValidatorFactory(Collections.singletonList(RuleFixtures.sameAsPrincipal()));
+
+    @AfterEach
+    void tearDown() {
+        PermissionContext.release();
+    }
+
+    @Test
+    void repeatedExtractionWithinARuleRunsOnce() {
+        // 主体参数uid同时作为目标参数：两处提取键相同
+        ApiPermissionConfig.Rule rule = compile(RuleFixtures.param("orderId", ParamSource.HEADER, CountingExtractor.METHOD, null),
+                RuleFixtures.param("uid", ParamSource.HEADER, CountingExtractor.METHOD, null));
+        PermissionRequest request = SimplePermissionRequest.builder("/orders").header("uid", "7").header("orderId", "9").build();
+
+        for (RuleChecker<PermissionRequest> checker : checkers(rule)) {
+            extractor.extractions.clear();
+            assertThat(check(checker, request)).isTrue();
+            assertThat(extractor.extractions).containsEntry("uid", 1).containsEntry("orderId", 1);
+        }
+    }
+
+    @Test
+    void bodySharedAcrossExtractorsIsParsedOnce() {
+        ApiPermissionConfig.Rule rule = compile(RuleFixtures.param("a", ParamSource.BODY, CountingExtractor.METHOD, "a"),
+                RuleFixtures.param("b", ParamSource.BODY, CountingExtractor.METHOD, "b"));
+        PermissionRequest request = SimplePermissionRequest.builder("/orders").header("uid", "7")
+                .body("a=9;b=7".getBytes(StandardCharsets.UTF_8)).build();
+
+        for (RuleChecker<PermissionRequest> checker : checkers(rule)) {
+            extractor.parses = 0;
+            assertThat(check(checker, request)).isTrue();
+            assertThat(extractor.extractions).containsKeys("a", "b");
+            assertThat(extractor.parses).isEqualTo(1);
+        }
+
+        // 内置的JSON提取共用同一份文档
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        PermissionContext.init();
+        DocumentContext document = JsonPathSupport.document(json);
+        assertThat(JsonPathSupport.document(json)).isSameAs(document);
+        PermissionContext.clear();
+        // 未初始化上下文时每次解析
+        assertThat(JsonPathSupport.document(json)).isNotSameAs(JsonPathSupport.document(json));
+    }
+
+    @Test
+    void failedParseIsNotRemembered() {
+        PermissionContext.init();
+        assertThatThrownBy(() -> PermissionContext.parsedBody(PAIRS, () -> {
+            throw new IllegalArgumentException("请求体格式错误");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        Properties parsed = new Properties();
+        assertThat(PermissionContext.parsedBody(PAIRS, () -> parsed)).isSameAs(parsed);
+    }
+
+    @Test
+    void memoIsClearedBetweenRequestsOnTheReusedContextData() {
+        ApiPermissionConfig.Rule rule = compile(RuleFixtures.param("a", ParamSource.BODY, CountingExtractor.METHOD, "a"),
+                RuleFixtures.param("uid", ParamSource.HEADER, CountingExtractor.METHOD, null));
+        RuleChecker<PermissionRequest> checker = new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory);
+        PermissionRequest first = SimplePermissionRequest.builder("/orders").header("uid", "7")
+                .body("a=7".getBytes(StandardCharsets.UTF_8)).build();
+        PermissionRequest second = SimplePermissionRequest.builder("/orders").header("uid", "8")
+                .body("a=7".getBytes(StandardCharsets.UTF_8)).build();
+
+        PermissionContext.init();
+        PermissionContext.ContextData reused = PermissionContext.getContextData();
+        assertThat(checker.check(first, reused)).isTrue();
+        PermissionContext.clear();
+
+        // 同一线程的下一个请求复用ContextData，不能读到上一个请求的主体值与请求体
+        PermissionContext.init();
+        assertThat(PermissionContext.getContextData()).isSameAs(reused);
+        assertThat(checker.check(second, reused)).isTrue();
+        assertThat(reused.getPrincipalData().getValues()).containsExactly("8");
+        assertThat(extractor.extractions).containsEntry("uid", 2);
+        assertThat(extractor.parses).isEqualTo(2);
+        Properties parsed = new Properties();
+        PermissionContext.clear();
+        PermissionContext.init();
+        assertThat(PermissionContext.parsedBody(PAIRS, () -> parsed)).isSameAs(parsed);
+    }
+
+    private List<RuleChecker<PermissionRequest>> checkers(ApiPermissionConfig.Rule rule) {
+        return Arrays.asList(new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory),
+                new RuleCheckerGenerator<>(extractorFactory, validatorFactory).generate(rule));
+    }
+
+    private static boolean check(RuleChecker<PermissionRequest> checker, PermissionRequest request) {
+        PermissionContext.init();
+        try {
+            return checker.check(request, PermissionContext.getContextData());
+        } finally {
+            PermissionContext.clear();
+        }
+    }
+
+    // 主体取自请求头uid，按计数提取器提取；目标参数按ANY_MATCH校验
+    private static ApiPermissionConfig.Rule compile(ApiPermissionConfig.ParamRule... params) {
+        ApiPermissionConfig.Rule rule = RuleFixtures.rule("/orders");
+        rule.getPrincipalParam().setParseMethod(CountingExtractor.METHOD);
+        rule.getParamRules().addAll(Arrays.asList(params));
+        return RuleFixtures.config(rule).getRules().get(0);
+    }
+
+    /**
+     * 按参数名计数的提取器：请求头按名称取值，请求体为“键=值;键=值”，经{@link PermissionContext#parsedBody}共享
+     */
+    public static class CountingExtractor implements RequestExtractor<PermissionRequest> {
+        static final String METHOD = "COUNTED";
+
+        final Map<String, Integer> extractions = new HashMap<>();
+        int parses;
+
+        @Override
+        public List<String> extract(PermissionRequest request, String paramName, String parseConfig, ParamSource source, boolean useCachedRequest) {
+            extractions.merge(paramName, 1, Integer::sum);
+            String value = source == ParamSource.BODY
+                    ? PermissionContext.parsedBody(PAIRS, () -> parse(request.getBody())).getProperty(parseConfig)
+                    : request.getHeader(paramName);
+            return value != null ? Collections.singletonList(value) : Collections.emptyList();
+        }
+
+        private Properties parse(byte[] body) {
+            parses++;
+            Properties pairs = new Properties();
+            for (String pair : new String(body, StandardCharsets.UTF_8).split(";")) {
+                String[] parts = pair.split("=", 2);
+                pairs.setProperty(parts[0], parts[1]);
+            }
+            return pairs;
+        }
+
+        @Override
+        public String supportParseMethod() {
+            return METHOD;
+        }
+
+        @Override
+        public List<ParamSource> supportSources() {
+            return Arrays.asList(ParamSource.HEADER, ParamSource.BODY);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.security.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PermissionContextTest {
+
+    @AfterEach
+    void tearDown() {
+        PermissionContext.release();
+    }
+
+    @Test
+    void runBoundWithDataBindsItAndRestoresThePreviousContext() {
+        PermissionContext.init();
+        PermissionContext.ContextData request = PermissionContext.getContextData();
+        request.setUri("/outer");
+        PermissionContext.ContextData offloaded = PermissionContext.detached();
+        offloaded.setUri("/offloaded");
+
+        PermissionContext.ContextData[] seen = new PermissionContext.ContextData[1];
+        PermissionContext.runBound(offloaded, () -> seen[0] = PermissionContext.getContextData());
+
+        assertThat(seen[0]).isSameAs(offloaded);
+        assertThat(PermissionContext.getContextData()).isSameAs(request);
+        assertThat(PermissionContext.getContextData().getUri()).isEqualTo("/outer");
+    }
+
+    @Test
+    void runBoundWithDataRestoresWhenTheActionFails() {
+        PermissionContext.ContextData offloaded = PermissionContext.detached();
+
+        assertThatThrownBy(() -> PermissionContext.runBound(offloaded, () -> {
+            throw new IOException("broken pipe");
+        })).isInstanceOf(IOException.class);
+        assertThat(PermissionContext.getContextData()).isNull();
+    }
+
+    @Test
+    void clearKeepsTheContainerForTheNextRequest() {
+        PermissionContext.init();
+        PermissionContext.ContextData first = PermissionContext.getContextData();
+        first.beginPrincipal("uid").getValues().add("7");
+        first.nextTarget("orderId", "v").getValues().add("1");
+        PermissionContext.clear();
+
+        assertThat(PermissionContext.getContextData()).isNull();
+        PermissionContext.init();
+        PermissionContext.ContextData second = PermissionContext.getContextData();
+        assertThat(second).isSameAs(first);
+        assertThat(second.getPrincipalData()).isNull();
+        assertThat(second.getTargetParameters()).isEmpty();
+    }
+}
@@ -0,0 +1,193 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.enums.EngineMode;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.enums.ValueType;
+import com.security.extractor.ExtractorFactory;
+import com.security.request.DefaultRequestExtractor;
+import com.security.request.PermissionRequest;
+import com.security.request.SimplePermissionRequest;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解释执行与生成校验类的单条规则校验耗时对比（JMH）
+ * <p>
+ * 构造多种规则形态（参数个数、验证器类型、ALL/ANY模式）使调用点在解释执行下呈多态，贴近真实配置。
+ * 执行：mvn -pl api-permission-core test-compile 后以测试类路径运行本类的main方法。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleCheckerBenchmark {
+
+    private static final int SHAPES = 8;
+
+    @Param({"INTERPRETED", "GENERATED"})
+    public EngineMode engineMode;
+
+    private List<RuleChecker<PermissionRequest>> checkers;
+
+    private List<ApiPermissionConfig.Rule> rules;
+
+    private PermissionRequest request;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ApiPermissionConfig.Rule> configured = new ArrayList<>();
+        for (int i = 0; i < SHAPES; i++) {
+            configured.add(rule(i));
+        }
+        ApiPermissionConfig config = new ApiPermissionConfig();
+        config.setEnabled(true);
+        config.setRules(configured);
+        config.initialize();
+        rules = config.getRules();
+
+        List<PermissionValidator> validators = new ArrayList<>();
+        for (int i = 0; i < SHAPES; i++) {
+            // 四个验证器类交替使用，解释执行的验证调用点呈多态
+            switch (i % 4) {
+                case 0:
+                    validators.add(new FirstValidator("v" + i));
+                    break;
+                case 1:
+                    validators.add(new SecondValidator("v" + i));
+                    break;
+                case 2:
+                    validators.add(new ThirdValidator("v" + i));
+                    break;
+                default:
+                    validators.add(new FourthValidator("v" + i));
+            }
+        }
+        ExtractorFactory<PermissionRequest> extractorFactory = new ExtractorFactory<>(Arrays.asList(new DefaultRequestExtractor()));
+        ValidatorFactory validatorFactory = new ValidatorFactory(validators);
+        RuleCheckerGenerator<PermissionRequest> generator = new RuleCheckerGenerator<>(extractorFactory, validatorFactory);
+        checkers = new ArrayList<>();
+        for (ApiPermissionConfig.Rule rule : rules) {
+            checkers.add(engineMode == EngineMode.GENERATED ? generator.generate(rule)
+                    : new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory));
+        }
+
+        request = SimplePermissionRequest.builder("/bench")
+                .header("uid", "1001").header("h0", "42").header("h1", "43").header("h2", "44")
+                .parameter("q0", "7", "8").parameter("q1", "9")
+                .build();
+    }
+
+    @Benchmark
+    public boolean check() {
+        int index = next++ & (SHAPES - 1);
+        PermissionContext.init();
+        try {
+            PermissionContext.ContextData data = PermissionContext.getContextData();
+            data.setUseCachedRequest(true);
+            return checkers.get(index).check(request, data);
+        } finally {
+            PermissionContext.clear();
+        }
+    }
+
+    // 第i种规则形态：1~4个参数（请求头与查询参数交替），奇数为ALL_MATCH，每种形态使用各自的验证器
+    private static ApiPermissionConfig.Rule rule(int shape) {
+        ApiPermissionConfig.Rule rule = new ApiPermissionConfig.Rule();
+        rule.setUriPattern("/bench/" + shape);
+        rule.setEnabled(true);
+        rule.setMultiParamMode(shape % 2 == 1 ? MultiParamMode.ALL_MATCH : MultiParamMode.ANY_MATCH);
+        ApiPermissionConfig.PrincipalParam principal = new ApiPermissionConfig.PrincipalParam();
+        principal.setName("uid");
+        principal.setSource(ParamSource.HEADER);
+        principal.setValueType(ValueType.LONG);
+        rule.setPrincipalParam(principal);
+        List<ApiPermissionConfig.ParamRule> paramRules = new ArrayList<>();
+        for (int i = 0; i <= shape % 4; i++) {
+            ApiPermissionConfig.ParamRule paramRule = new ApiPermissionConfig.ParamRule();
+            boolean header = i % 2 == 0;
+            paramRule.setParamName(header ? "h" + (i / 2) : "q" + (i / 2));
+            paramRule.setSource(header ? ParamSource.HEADER : ParamSource.QUERY);
+            paramRule.setValidatorId("v" + shape);
+            paramRule.setValueType(ValueType.LONG);
+            paramRules.add(paramRule);
+        }
+        rule.setParamRules(paramRules);
+        return rule;
+    }
+
+    /**
+     * 有值即通过的验证器（ANY_MATCH在第一个参数短路，ALL_MATCH校验全部参数）
+     */
+    public abstract static class FixedValidator implements PermissionValidator {
+        private final String id;
+
+        protected FixedValidator(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            return !target.getValues().isEmpty();
+        }
+
+        @Override
+        public String getValidatorId() {
+            return id;
+        }
+    }
+
+    public static final class FirstValidator extends FixedValidator {
+        public FirstValidator(String id) {
+            super(id);
+        }
+    }
+
+    public static final class SecondValidator extends FixedValidator {
+        public SecondValidator(String id) {
+            super(id);
+        }
+    }
+
+    public static final class ThirdValidator extends FixedValidator {
+        public ThirdValidator(String id) {
+            super(id);
+        }
+    }
+
+    public static final class FourthValidator extends FixedValidator {
+        public FourthValidator(String id) {
+            super(id);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RuleCheckerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
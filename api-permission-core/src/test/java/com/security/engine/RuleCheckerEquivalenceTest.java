@@ -0,0 +1,410 @@
+package com.security.engine;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.context.TypedValues;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.enums.PolicyOperator;
+import com.security.enums.ValueType;
+import com.security.extractor.ExtractorFactory;
+import com.security.request.DefaultRequestExtractor;
+import com.security.request.JsonPathRequestExtractor;
+import com.security.request.PermissionRequest;
+import com.security.request.SimplePermissionRequest;
+import com.security.validator.LongValidator;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 生成的校验类与解释执行的校验器决策一致：覆盖多参数模式、扁平策略树、值类型（含UUID）、去重、值个数上限与规则内重复提取
+ */
+class RuleCheckerEquivalenceTest {
+
+    private static final String[] PRINCIPALS = {null, "1", "2", "x"};
+    private static final String[] HEADER_VALUES = {null, "10", "20", "abc"};
+    private static final String[][] QUERY_VALUES = {null, {"11"}, {"11", "11", "12"}, {"11", "20"}, {"10", "11", "12"}};
+    private static final String[] BODIES = {null, "{\"ids\":[10,11]}", "{\"ids\":[10,10,10]}", "{\"ids\":[\"2x\"]}", "{\"other\":1}"};
+
+    // UUID：高64位相同的目标属于同一主体
+    private static final String OWNER_1 = "00000000-0000-0001-0000-000000000000";
+    private static final String OWNER_2 = "00000000-0000-0002-0000-000000000000";
+    private static final String OWNED_1 = "00000000-0000-0001-0000-0000000000aa";
+    private static final String OWNED_1_UPPER_CASE = "00000000-0000-0001-0000-0000000000BB";
+    private static final String OWNED_2 = "00000000-0000-0002-8000-00000000ffff";
+    // 非十六进制字符、分隔符位置错误、UUID.fromString接受的简写与多余字符
+    private static final String[] MALFORMED_UUIDS = {"00000000-0000-0001-0000-00000000000g", "000000000-000-0001-0000-000000000000",
+            "1-1-1-1-1", "00000000-0000-0001-0000-0000000000aa0", ""};
+    private static final String[] UUID_PRINCIPALS = {null, OWNER_1, OWNER_2, MALFORMED_UUIDS[0]};
+    private static final String[] UUID_HEADER_VALUES = {null, OWNED_1, OWNED_1_UPPER_CASE, OWNED_2, MALFORMED_UUIDS[0], MALFORMED_UUIDS[2]};
+    private static final String[][] UUID_QUERY_VALUES = {null, {OWNED_1}, {OWNED_1, OWNED_1_UPPER_CASE}, {OWNED_1, OWNED_1}, {OWNED_1, MALFORMED_UUIDS[1]}};
+
+    // 参数组合（uid与主体参数相同，经请求级记忆只提取一次）
+    private static final String[][] PARAM_LISTS = {{"a"}, {"a", "b"}, {"b", "c"}, {"a", "b", "c"}, {"uid", "b"}, {"c", "a", "uid"}};
+
+    private static ExtractorFactory<PermissionRequest> extractorFactory;
+    private static ValidatorFactory validatorFactory;
+    private static List<PermissionRequest> requests;
+
+    @BeforeAll
+    static void setUp() {
+        extractorFactory = new ExtractorFactory<>(Arrays.asList(new DefaultRequestExtractor(), new JsonPathRequestExtractor()));
+        validatorFactory = new ValidatorFactory(Arrays.asList(new OwnedValidator(), new OwnedLongValidator(), new OwnedUuidValidator()));
+        requests = new ArrayList<>();
+        for (String principal : PRINCIPALS) {
+            for (String header : HEADER_VALUES) {
+                for (String[] query : QUERY_VALUES) {
+                    for (String body : BODIES) {
+                        SimplePermissionRequest.Builder builder = SimplePermissionRequest.builder("/r");
+                        if (principal != null) {
+                            builder.header("uid", principal);
+                        }
+                        if (header != null) {
+                            builder.header("a", header);
+                        }
+                        if (query != null) {
+                            builder.parameter("b", query);
+                        }
+                        if (body != null) {
+                            builder.body(body.getBytes(StandardCharsets.UTF_8));
+                        }
+                        requests.add(builder.build());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void generatedCheckersDecideLikeInterpretedCheckers() {
+        List<ApiPermissionConfig.Rule> rules = new ArrayList<>();
+        for (String[] params : PARAM_LISTS) {
+            for (Shape shape : Shape.values()) {
+                for (ValueType valueType : Arrays.asList(ValueType.STRING, ValueType.LONG)) {
+                    for (boolean distinct : new boolean[]{true, false}) {
+                        for (int maxValues : new int[]{0, 2}) {
+                            rules.add(rule("/r/" + rules.size(), params, shape, valueType, distinct, maxValues));
+                        }
+                    }
+                }
+            }
+        }
+        List<ApiPermissionConfig.Rule> compiled = compile(rules);
+
+        RuleCheckerGenerator<PermissionRequest> generator = new RuleCheckerGenerator<>(extractorFactory, validatorFactory);
+        int compared = 0;
+        Set<String> outcomes = new HashSet<>();
+        for (ApiPermissionConfig.Rule rule : compiled) {
+            RuleChecker<PermissionRequest> interpreted = new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory);
+            RuleChecker<PermissionRequest> generated = generator.generate(rule);
+            assertNotNull(generated, "扁平策略应生成校验类：" + rule);
+            for (PermissionRequest request : requests) {
+                String expected = evaluate(interpreted, request, rule);
+                assertEquals(expected, evaluate(generated, request, rule), () -> "规则 " + rule + "，请求 " + describe(request));
+                outcomes.add(expected);
+                compared++;
+            }
+        }
+        assertThat(compared).isEqualTo(compiled.size() * requests.size());
+        // 组合需要覆盖通过、不通过与各类拒绝
+        assertThat(outcomes).contains("ALLOW", "DENY", "CustomAccessDeniedException", "TooManyValuesException");
+    }
+
+    @Test
+    void valueLimitIsRejectedWithoutAStackTrace() {
+        ApiPermissionConfig.Rule rule = compile(Collections.singletonList(
+                rule("/limit", new String[]{"b"}, Shape.MODE_ALL, ValueType.STRING, true, 2))).get(0);
+        PermissionRequest request = SimplePermissionRequest.builder("/limit")
+                .header("uid", "1").parameter("b", "10", "11", "12").build();
+
+        for (RuleChecker<PermissionRequest> checker : Arrays.asList(new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory),
+                new RuleCheckerGenerator<>(extractorFactory, validatorFactory).generate(rule))) {
+            PermissionContext.init();
+            try {
+                PermissionContext.ContextData data = PermissionContext.getContextData();
+                data.setUseCachedRequest(true);
+                data.setMultiParamMode(rule.getMultiParamMode());
+                assertThatThrownBy(() -> checker.check(request, data))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("超过上限2")
+                        .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+            } finally {
+                PermissionContext.clear();
+            }
+        }
+    }
+
+    @Test
+    void uuidValuesDecideLikeInterpretedCheckersAndMalformedUuidsAreDenied() {
+        List<ApiPermissionConfig.Rule> rules = new ArrayList<>();
+        for (Shape shape : Shape.values()) {
+            for (boolean distinct : new boolean[]{true, false}) {
+                rules.add(rule("/u/" + rules.size(), new String[]{"a", "b"}, shape, ValueType.UUID, distinct, 0));
+            }
+        }
+        List<ApiPermissionConfig.Rule> compiled = compile(rules);
+        List<PermissionRequest> uuidRequests = new ArrayList<>();
+        for (String principal : UUID_PRINCIPALS) {
+            for (String header : UUID_HEADER_VALUES) {
+                for (String[] query : UUID_QUERY_VALUES) {
+                    SimplePermissionRequest.Builder builder = SimplePermissionRequest.builder("/u");
+                    if (principal != null) {
+                        builder.header("uid", principal);
+                    }
+                    if (header != null) {
+                        builder.header("a", header);
+                    }
+                    if (query != null) {
+                        builder.parameter("b", query);
+                    }
+                    uuidRequests.add(builder.build());
+                }
+            }
+        }
+
+        RuleCheckerGenerator<PermissionRequest> generator = new RuleCheckerGenerator<>(extractorFactory, validatorFactory);
+        Set<String> outcomes = new HashSet<>();
+        for (ApiPermissionConfig.Rule rule : compiled) {
+            RuleChecker<PermissionRequest> interpreted = new InterpretedRuleChecker<>(rule, extractorFactory, validatorFactory);
+            RuleChecker<PermissionRequest> generated = generator.generate(rule);
+            assertNotNull(generated, "扁平策略应生成校验类：" + rule);
+            for (PermissionRequest request : uuidRequests) {
+                String expected = evaluate(interpreted, request, rule);
+                assertEquals(expected, evaluate(generated, request, rule), () -> "规则 " + rule + "，请求 " + describe(request));
+                outcomes.add(expected);
+            }
+        }
+        assertThat(outcomes).contains("ALLOW", "DENY", "CustomAccessDeniedException");
+
+        ApiPermissionConfig.Rule rule = compile(Collections.singletonList(
+                rule("/uuid", new String[]{"a"}, Shape.MODE_ALL, ValueType.UUID, true, 0))).get(0);
+        RuleChecker<PermissionRequest> checker = generator.generate(rule);
+        assertThat(evaluate(checker, uuidRequest(OWNER_1, OWNED_1_UPPER_CASE), rule)).isEqualTo("ALLOW");
+        assertThat(evaluate(checker, uuidRequest(OWNER_1, OWNED_2), rule)).isEqualTo("DENY");
+        // 格式错误的目标值视为校验不通过（不调用验证器），格式错误的主体直接拒绝
+        for (String malformed : MALFORMED_UUIDS) {
+            assertThat(evaluate(checker, uuidRequest(OWNER_1, malformed), rule)).as(malformed).isEqualTo("DENY");
+            assertThat(evaluate(checker, uuidRequest(malformed, OWNED_1), rule)).as(malformed).isEqualTo("CustomAccessDeniedException");
+        }
+    }
+
+    @Test
+    void nestedPoliciesFallBackToInterpretation() {
+        ApiPermissionConfig.Rule rule = rule("/nested", new String[]{"a", "b"}, Shape.MODE_ALL, ValueType.STRING, true, 0);
+        rule.setPolicy(node(PolicyOperator.OR, param("a"), node(PolicyOperator.NOT, param("b"))));
+        ApiPermissionConfig.Rule compiled = compile(Collections.singletonList(rule)).get(0);
+
+        assertNull(new RuleCheckerGenerator<>(extractorFactory, validatorFactory).generate(compiled));
+    }
+
+    // 在独立的权限上下文中执行校验，结果为ALLOW/DENY或异常类名
+    private static String evaluate(RuleChecker<PermissionRequest> checker, PermissionRequest request, ApiPermissionConfig.Rule rule) {
+        PermissionContext.init();
+        try {
+            PermissionContext.ContextData data = PermissionContext.getContextData();
+            data.setUseCachedRequest(true);
+            data.setMultiParamMode(rule.getMultiParamMode());
+            return checker.check(request, data) ? "ALLOW" : "DENY";
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        } finally {
+            PermissionContext.clear();
+        }
+    }
+
+    private static List<ApiPermissionConfig.Rule> compile(List<ApiPermissionConfig.Rule> rules) {
+        ApiPermissionConfig config = new ApiPermissionConfig();
+        config.setEnabled(true);
+        config.setRules(rules);
+        config.initialize();
+        assertThat(config.isEnabled()).as("规则应全部通过验证").isTrue();
+        return config.getRules();
+    }
+
+    private static ApiPermissionConfig.Rule rule(String uri, String[] params, Shape shape, ValueType valueType, boolean distinct, int maxValues) {
+        ApiPermissionConfig.Rule rule = new ApiPermissionConfig.Rule();
+        rule.setUriPattern(uri);
+        rule.setEnabled(true);
+        ApiPermissionConfig.PrincipalParam principal = new ApiPermissionConfig.PrincipalParam();
+        principal.setName("uid");
+        principal.setSource(ParamSource.HEADER);
+        principal.setValueType(valueType);
+        rule.setPrincipalParam(principal);
+
+        List<ApiPermissionConfig.ParamRule> paramRules = new ArrayList<>();
+        for (String name : params) {
+            ApiPermissionConfig.ParamRule paramRule = new ApiPermissionConfig.ParamRule();
+            paramRule.setParamName(name);
+            if ("b".equals(name)) {
+                paramRule.setSource(ParamSource.QUERY);
+            } else if ("c".equals(name)) {
+                paramRule.setSource(ParamSource.BODY);
+                paramRule.setParseMethod("JSON_PATH");
+                paramRule.setParseConfig("$.ids[*]");
+            } else {
+                paramRule.setSource(ParamSource.HEADER);
+            }
+            paramRule.setValidatorId(valueType == ValueType.LONG ? "ownedLong" : valueType == ValueType.UUID ? "ownedUuid" : "owned");
+            paramRule.setValueType(valueType);
+            paramRule.setDistinctValues(distinct);
+            paramRule.setMaxValues(maxValues);
+            paramRules.add(paramRule);
+        }
+        rule.setParamRules(paramRules);
+
+        switch (shape) {
+            case MODE_ALL:
+                rule.setMultiParamMode(MultiParamMode.ALL_MATCH);
+                break;
+            case MODE_ANY:
+                rule.setMultiParamMode(MultiParamMode.ANY_MATCH);
+                break;
+            default:
+                // 扁平策略树，参数按配置的逆序求值
+                List<ApiPermissionConfig.PolicyNode> children = new ArrayList<>();
+                for (int i = params.length - 1; i >= 0; i--) {
+                    children.add(param(params[i]));
+                }
+                ApiPermissionConfig.PolicyNode root = new ApiPermissionConfig.PolicyNode();
+                root.setOperator(shape == Shape.POLICY_AND ? PolicyOperator.AND : PolicyOperator.OR);
+                root.setChildren(children);
+                rule.setPolicy(root);
+        }
+        return rule;
+    }
+
+    private static ApiPermissionConfig.PolicyNode param(String name) {
+        ApiPermissionConfig.PolicyNode node = new ApiPermissionConfig.PolicyNode();
+        node.setOperator(PolicyOperator.PARAM);
+        node.setParam(name);
+        return node;
+    }
+
+    private static ApiPermissionConfig.PolicyNode node(PolicyOperator operator, ApiPermissionConfig.PolicyNode... children) {
+        ApiPermissionConfig.PolicyNode node = new ApiPermissionConfig.PolicyNode();
+        node.setOperator(operator);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+
+    private static PermissionRequest uuidRequest(String principal, String target) {
+        return SimplePermissionRequest.builder("/u").header("uid", principal).header("a", target).build();
+    }
+
+    private static String describe(PermissionRequest request) {
+        byte[] body = request.getBody();
+        return "uid=" + request.getHeader("uid") + ", a=" + request.getHeader("a")
+                + ", b=" + Arrays.toString(request.getParameterValues("b"))
+                + ", body=" + (body != null ? new String(body, StandardCharsets.UTF_8) : null);
+    }
+
+    private enum Shape {
+        MODE_ALL, MODE_ANY, POLICY_AND, POLICY_OR
+    }
+
+    /**
+     * 字符串归属验证：目标值全部属于主体（主体1拥有10~19，主体2拥有20~29）
+     */
+    public static class OwnedValidator implements PermissionValidator {
+        private static final Map<String, Set<String>> OWNED = new HashMap<>();
+
+        static {
+            Set<String> first = new HashSet<>();
+            Set<String> second = new HashSet<>();
+            for (int i = 0; i < 10; i++) {
+                first.add(String.valueOf(10 + i));
+                second.add(String.valueOf(20 + i));
+            }
+            OWNED.put("1", first);
+            OWNED.put("2", second);
+        }
+
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            Set<String> owned = OWNED.getOrDefault(principal.getValues().get(0), Collections.emptySet());
+            if (target.getValues().isEmpty()) {
+                return false;
+            }
+            for (String value : target.getValues()) {
+                if (!owned.contains(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getValidatorId() {
+            return "owned";
+        }
+    }
+
+    /**
+     * 数值归属验证：目标ID除以10等于主体ID
+     */
+    public static class OwnedLongValidator implements LongValidator {
+        @Override
+        public boolean validate(long principalId, long[] targetIds, int count) {
+            if (count == 0) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (targetIds[i] / 10 != principalId) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getValidatorId() {
+            return "ownedLong";
+        }
+    }
+
+    /**
+     * UUID归属验证：目标值的高64位全部等于主体的高64位（同时确认解析结果与UUID.fromString一致）
+     */
+    public static class OwnedUuidValidator implements PermissionValidator {
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            TypedValues owner = principal.getTypedValues(ValueType.UUID);
+            TypedValues targets = target.getTypedValues(ValueType.UUID);
+            assertThat(owner.getUuid(0)).isEqualTo(UUID.fromString(principal.getValues().get(0)));
+            if (targets.size() == 0) {
+                return false;
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                assertThat(targets.getUuid(i)).isEqualTo(UUID.fromString(target.getValues().get(i)));
+                if (targets.getMostSignificantBits(i) != owner.getMostSignificantBits(0)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String getValidatorId() {
+            return "ownedUuid";
+        }
+    }
+}
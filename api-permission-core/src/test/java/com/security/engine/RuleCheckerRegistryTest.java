@@ -0,0 +1,108 @@
+package com.security.engine;
+
+import com.security.RuleFixtures;
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.enums.MultiParamMode;
+import com.security.extractor.ExtractorFactory;
+import com.security.request.DefaultRequestExtractor;
+import com.security.request.PermissionRequest;
+import com.security.request.SimplePermissionRequest;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleCheckerRegistryTest {
+
+    private final ExtractorFactory<PermissionRequest> extractorFactory =
+            new ExtractorFactory<>(Collections.singletonList(new DefaultRequestExtractor()));
+
+    @Test
+    void requestsStillHoldingThePreviousSnapshotReuseItsCheckers() {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/orders/**", "x"));
+        RuleCheckerRegistry<PermissionRequest> registry = new RuleCheckerRegistry<>(config, extractorFactory,
+                new ValidatorFactory(Collections.singletonList(RuleFixtures.sameAsPrincipal())));
+        ApiPermissionConfig.Rule first = config.getSnapshot().getRules().get(0);
+        RuleChecker<PermissionRequest> firstChecker = registry.getChecker(first);
+
+        assertThat(config.reload(null, Collections.singletonList(RuleFixtures.rule("/orders/**", "y")), "test")).isEmpty();
+        // 上一个快照的规则沿用原有校验器，不再为每个请求临时构建
+        assertThat(registry.getChecker(first)).isSameAs(firstChecker);
+
+        ApiPermissionConfig.Rule second = config.getSnapshot().getRules().get(0);
+        RuleChecker<PermissionRequest> secondChecker = registry.getChecker(second);
+        assertThat(config.reload(null, Collections.singletonList(RuleFixtures.rule("/orders/**", "z")), "test")).isEmpty();
+        assertThat(registry.getChecker(second)).isSameAs(secondChecker);
+
+        // 更早快照的规则仍可校验（临时构建，结果与原规则一致）
+        RuleChecker<PermissionRequest> rebuilt = registry.getChecker(first);
+        assertThat(rebuilt).isNotSameAs(firstChecker);
+        assertThat(check(rebuilt, SimplePermissionRequest.builder("/orders/1").header("uid", "7").header("x", "7").build())).isTrue();
+        assertThat(check(rebuilt, SimplePermissionRequest.builder("/orders/1").header("uid", "7").header("x", "8").build())).isFalse();
+    }
+
+    @Test
+    void validatorsMayRunAnotherCheckDuringEvaluation() {
+        ApiPermissionConfig.Rule inner = RuleFixtures.rule("/inner", "x");
+        ApiPermissionConfig.Rule outer = RuleFixtures.rule("/outer", "a", "b");
+        outer.getParamRules().get(0).setValidatorId("nested");
+        outer.setMultiParamMode(MultiParamMode.ALL_MATCH);
+        ApiPermissionConfig config = RuleFixtures.config(inner, outer);
+
+        NestedValidator nested = new NestedValidator();
+        ValidatorFactory validatorFactory = new ValidatorFactory(Arrays.asList(RuleFixtures.sameAsPrincipal(), nested));
+        RuleCheckerRegistry<PermissionRequest> registry = new RuleCheckerRegistry<>(config, extractorFactory, validatorFactory);
+        nested.innerChecker = registry.getChecker(config.getRules().get(0));
+        RuleChecker<PermissionRequest> outerChecker = registry.getChecker(config.getRules().get(1));
+
+        // 外层求值到参数a时验证器执行内层校验，之后外层继续求值参数b
+        PermissionRequest permitted = SimplePermissionRequest.builder("/outer")
+                .header("uid", "7").header("a", "7").header("b", "7").header("x", "7").build();
+        PermissionRequest deniedByB = SimplePermissionRequest.builder("/outer")
+                .header("uid", "7").header("a", "7").header("b", "8").header("x", "7").build();
+        PermissionRequest deniedByInner = SimplePermissionRequest.builder("/outer")
+                .header("uid", "7").header("a", "7").header("b", "7").header("x", "8").build();
+        nested.request = permitted;
+        assertThat(check(outerChecker, permitted)).isTrue();
+        nested.request = deniedByB;
+        assertThat(check(outerChecker, deniedByB)).isFalse();
+        nested.request = deniedByInner;
+        assertThat(check(outerChecker, deniedByInner)).isFalse();
+        assertThat(nested.calls).isEqualTo(3);
+    }
+
+    private static boolean check(RuleChecker<PermissionRequest> checker, PermissionRequest request) {
+        PermissionContext.init();
+        try {
+            return checker.check(request, PermissionContext.getContextData());
+        } finally {
+            PermissionContext.clear();
+        }
+    }
+
+    /**
+     * 在验证过程中以独立上下文执行另一条规则的校验
+     */
+    private static class NestedValidator implements PermissionValidator {
+        private RuleChecker<PermissionRequest> innerChecker;
+        private PermissionRequest request;
+        private int calls;
+
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            calls++;
+            return innerChecker.check(request, PermissionContext.detached())
+                    && principal.getValues().get(0).equals(target.getValues().get(0));
+        }
+
+        @Override
+        public String getValidatorId() {
+            return "nested";
+        }
+    }
+}
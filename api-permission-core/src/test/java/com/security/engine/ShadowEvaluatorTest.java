@@ -0,0 +1,241 @@
+package com.security.engine;
+
+import com.security.RuleFixtures;
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.enums.ParamSource;
+import com.security.extractor.ExtractorFactory;
+import com.security.request.DefaultRequestExtractor;
+import com.security.request.JsonPathRequestExtractor;
+import com.security.request.PermissionRequest;
+import com.security.request.SimplePermissionRequest;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShadowEvaluatorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ShadowEvaluator<PermissionRequest> shadow;
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        if (shadow != null) {
+            shadow.close();
+        }
+    }
+
+    @Test
+    void decisionsAreComparedWithTheActiveOutcome() throws InterruptedException {
+        ApiPermissionConfig config = config(1);
+        shadow = shadow(config);
+        assertThat(shadow.load("candidate.json", true, rules(RuleFixtures.rule("/orders/**", "a")))).isEmpty();
+
+        shadow.evaluate("/orders/1", request("1", "1"), true, ShadowEvaluator.Outcome.ALLOW);
+        shadow.evaluate("/orders/1", request("1", "2"), true, ShadowEvaluator.Outcome.DENY);
+        shadow.evaluate("/orders/1", request("1", "2"), true, ShadowEvaluator.Outcome.ALLOW);
+        shadow.evaluate("/orders/1", request(null, "1"), true, ShadowEvaluator.Outcome.ERROR);
+        // 候选规则没有匹配的URI按放行计
+        shadow.evaluate("/users/1", request("1", "2"), true, ShadowEvaluator.Outcome.DENY);
+        awaitEvaluated(5);
+
+        ShadowReport report = shadow.report();
+        assertThat(report.getCandidateSource()).isEqualTo("candidate.json");
+        assertThat(report.getSampled()).isEqualTo(5);
+        assertThat(report.count(ShadowEvaluator.Outcome.ALLOW, ShadowEvaluator.Outcome.ALLOW)).isEqualTo(1);
+        assertThat(report.count(ShadowEvaluator.Outcome.DENY, ShadowEvaluator.Outcome.DENY)).isEqualTo(1);
+        assertThat(report.count(ShadowEvaluator.Outcome.ALLOW, ShadowEvaluator.Outcome.DENY)).isEqualTo(1);
+        // 主体缺失按拒绝计（与生效规则的403一致）
+        assertThat(report.count(ShadowEvaluator.Outcome.ERROR, ShadowEvaluator.Outcome.DENY)).isEqualTo(1);
+        assertThat(report.count(ShadowEvaluator.Outcome.DENY, ShadowEvaluator.Outcome.ALLOW)).isEqualTo(1);
+        assertThat(report.getDivergences()).isEqualTo(3);
+        assertThat(report.getRecentDivergences()).extracting(ShadowReport.Divergence::getCandidateRule)
+                .containsExactlyInAnyOrder("/orders/**", "/orders/**", null);
+        assertThat(report.getRules()).singleElement().satisfies(latency -> {
+            assertThat(latency.getUriPattern()).isEqualTo("/orders/**");
+            assertThat(latency.getEvaluations()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    void candidateErrorsAndValueLimitsAreClassifiedLikeTheActiveRules() throws InterruptedException {
+        ApiPermissionConfig config = config(1);
+        shadow = shadow(config);
+        ApiPermissionConfig.Rule failing = RuleFixtures.rule("/failing/**", "a");
+        failing.getParamRules().get(0).setValidatorId("failing");
+        ApiPermissionConfig.Rule limited = RuleFixtures.rule("/limited/**");
+        limited.getParamRules().add(RuleFixtures.param("b", ParamSource.QUERY, null, null));
+        limited.getParamRules().get(0).setMaxValues(1);
+        assertThat(shadow.load("candidate.json", true, rules(failing, limited))).isEmpty();
+
+        shadow.evaluate("/failing/1", request("1", "1"), true, ShadowEvaluator.Outcome.ALLOW);
+        shadow.evaluate("/limited/1", SimplePermissionRequest.builder("/limited/1").header("uid", "1")
+                .parameter("b", "1", "2").build(), true, ShadowEvaluator.Outcome.DENY);
+        awaitEvaluated(2);
+
+        ShadowReport report = shadow.report();
+        assertThat(report.count(ShadowEvaluator.Outcome.ALLOW, ShadowEvaluator.Outcome.ERROR)).isEqualTo(1);
+        assertThat(report.count(ShadowEvaluator.Outcome.DENY, ShadowEvaluator.Outcome.DENY)).isEqualTo(1);
+        assertThat(report.getRecentDivergences()).singleElement().satisfies(divergence ->
+                assertThat(divergence.getDetail()).contains("验证器故障"));
+    }
+
+    @Test
+    void onlySampledRequestsAreEvaluated() throws InterruptedException {
+        ApiPermissionConfig config = config(0.25);
+        shadow = shadow(config);
+        assertThat(shadow.load("candidate.json", true, rules(RuleFixtures.rule("/orders/**", "a")))).isEmpty();
+
+        for (int i = 0; i < 4000; i++) {
+            shadow.evaluate("/orders/1", request("1", "1"), true, ShadowEvaluator.Outcome.ALLOW);
+        }
+        long sampled = shadow.report().getSampled();
+        assertThat(sampled).isBetween(800L, 1200L);
+        awaitEvaluated(sampled);
+
+        ApiPermissionConfig none = config(0);
+        ShadowEvaluator<PermissionRequest> disabled = shadow(none);
+        try {
+            assertThat(disabled.load("candidate.json", true, rules(RuleFixtures.rule("/orders/**", "a")))).isEmpty();
+            for (int i = 0; i < 1000; i++) {
+                disabled.evaluate("/orders/1", request("1", "1"), true, ShadowEvaluator.Outcome.ALLOW);
+            }
+            assertThat(disabled.report().getSampled()).isZero();
+        } finally {
+            disabled.close();
+        }
+    }
+
+    @Test
+    void divergenceLogIsBoundedAndKeepsTheLatest() throws InterruptedException {
+        ApiPermissionConfig config = config(1);
+        config.getShadow().setPoolSize(1);
+        config.getShadow().setMaxDivergenceRecords(3);
+        shadow = shadow(config);
+        assertThat(shadow.load("candidate.json", true, rules(RuleFixtures.rule("/orders/**", "a")))).isEmpty();
+
+        for (int i = 0; i < 10; i++) {
+            shadow.evaluate("/orders/" + i, request("1", "1"), true, ShadowEvaluator.Outcome.DENY);
+        }
+        awaitEvaluated(10);
+
+        ShadowReport report = shadow.report();
+        assertThat(report.getDivergences()).isEqualTo(10);
+        assertThat(report.getRecentDivergences()).extracting(ShadowReport.Divergence::getUri)
+                .containsExactly("/orders/7", "/orders/8", "/orders/9");
+    }
+
+    @Test
+    void fullQueueDropsSamplesWithoutBlocking() throws InterruptedException {
+        ApiPermissionConfig config = config(1);
+        config.getShadow().setPoolSize(1);
+        config.getShadow().setQueueCapacity(1);
+        shadow = shadow(config);
+        ApiPermissionConfig.Rule blocking = RuleFixtures.rule("/orders/**", "a");
+        blocking.getParamRules().get(0).setValidatorId("blocking");
+        assertThat(shadow.load("candidate.json", true, rules(blocking))).isEmpty();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            shadow.evaluate("/orders/1", request("1", "1"), true, ShadowEvaluator.Outcome.ALLOW);
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        // 一个在求值、一个在队列中，其余丢弃
+        assertThat(shadow.report().getDropped()).isEqualTo(8);
+        release.countDown();
+        awaitEvaluated(2);
+        assertThat(shadow.report().getSampled()).isEqualTo(10);
+    }
+
+    @Test
+    void invalidCandidateIsRejectedAndPromotionPublishesTheCandidate() {
+        ApiPermissionConfig config = config(1);
+        shadow = shadow(config);
+        assertThat(shadow.promote()).isNotEmpty();
+        assertThat(shadow.load("candidate.json", true, rules(RuleFixtures.rule("/orders/**", "a")))).isEmpty();
+
+        ApiPermissionConfig.Rule unknownValidator = RuleFixtures.rule("/users/**", "a");
+        unknownValidator.getParamRules().get(0).setValidatorId("missing");
+        assertThat(shadow.load("bad.json", true, rules(unknownValidator))).isNotEmpty();
+        assertThat(shadow.load("bad.json", "{\"rules\":")).isNotEmpty();
+        // 之前的候选规则保留
+        assertThat(shadow.report().getCandidateSource()).isEqualTo("candidate.json");
+
+        long version = config.getSnapshot().getVersion();
+        assertThat(shadow.promote()).isEmpty();
+        assertThat(config.getSnapshot().getVersion()).isEqualTo(version + 1);
+        assertThat(config.getRules()).extracting(ApiPermissionConfig.Rule::getUriPattern).containsExactly("/orders/**");
+        assertThat(shadow.isActive()).isFalse();
+        assertThat(shadow.report().getCandidateSource()).isNull();
+    }
+
+    private ShadowEvaluator<PermissionRequest> shadow(ApiPermissionConfig config) {
+        PermissionValidator failingValidator = new PermissionValidator() {
+            @Override
+            public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+                throw new IllegalStateException("验证器故障");
+            }
+
+            @Override
+            public String getValidatorId() {
+                return "failing";
+            }
+        };
+        PermissionValidator blockingValidator = new PermissionValidator() {
+            @Override
+            public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+
+            @Override
+            public String getValidatorId() {
+                return "blocking";
+            }
+        };
+        ExtractorFactory<PermissionRequest> extractors = new ExtractorFactory<>(
+                Arrays.asList(new DefaultRequestExtractor(), new JsonPathRequestExtractor()));
+        ValidatorFactory validators = new ValidatorFactory(Arrays.asList(RuleFixtures.sameAsPrincipal(), failingValidator, blockingValidator));
+        return new ShadowEvaluator<>(config, extractors, validators);
+    }
+
+    private static ApiPermissionConfig config(double sampleRate) {
+        ApiPermissionConfig config = RuleFixtures.config(RuleFixtures.rule("/active/**", "a"));
+        config.getShadow().setSampleRate(sampleRate);
+        return config;
+    }
+
+    private static List<ApiPermissionConfig.Rule> rules(ApiPermissionConfig.Rule... rules) {
+        return new ArrayList<>(Arrays.asList(rules));
+    }
+
+    private static PermissionRequest request(String uid, String a) {
+        SimplePermissionRequest.Builder builder = SimplePermissionRequest.builder("/");
+        if (uid != null) {
+            builder.header("uid", uid);
+        }
+        return builder.header("a", a).build();
+    }
+
+    private void awaitEvaluated(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shadow.report().getEvaluated() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(shadow.report().getEvaluated()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,141 @@
+package com.security.extractor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentDecodingTest {
+
+    private final ContentDecoding decoding = new ContentDecoding();
+
+    @Test
+    void gzipAndDeflateBodiesRoundTrip() throws IOException {
+        byte[] body = random(100_000);
+
+        assertThat(decode(decoding, gzip(body), "gzip")).isEqualTo(body);
+        assertThat(decode(decoding, gzip(body), " X-GZIP ")).isEqualTo(body);
+        assertThat(decode(decoding, deflate(body, false), "deflate")).isEqualTo(body);
+        // 裸deflate（不带zlib首部）按首部自动识别
+        assertThat(decode(decoding, deflate(body, true), "deflate")).isEqualTo(body);
+        // 多个编码按逆序解压
+        assertThat(decode(decoding, deflate(gzip(body), false), "gzip, deflate")).isEqualTo(body);
+        assertThat(decode(decoding, body, "identity")).isEqualTo(body);
+        assertThat(ContentDecoding.isEncoded(" identity ")).isFalse();
+        assertThat(ContentDecoding.isEncoded(null)).isFalse();
+    }
+
+    @Test
+    void gzipMembersAndHeaderFieldsAreHandled() throws IOException {
+        byte[] first = "{\"a\":".getBytes();
+        byte[] second = "1}".getBytes();
+        byte[] members = concat(gzip(first), gzip(second));
+        assertThat(decode(decoding, members, "gzip")).isEqualTo("{\"a\":1}".getBytes());
+
+        // 带FEXTRA、FNAME、FCOMMENT与FHCRC的头信息，成员之后的其他数据忽略
+        byte[] plain = gzip(first);
+        byte[] header = {0x1F, (byte) 0x8B, 8, 4 | 8 | 16 | 2, 0, 0, 0, 0, 0, (byte) 0xFF,
+                2, 0, 'x', 'y', 'n', 'a', 'm', 'e', 0, 'c', 0, 0x12, 0x34};
+        byte[] flagged = concat(header, Arrays.copyOfRange(plain, 10, plain.length), "garbage".getBytes());
+        assertThat(decode(decoding, flagged, "gzip")).isEqualTo(first);
+    }
+
+    @Test
+    void inflatedSizeOverTheLimitIsRejected() throws IOException {
+        byte[] body = random(10_000);
+        ContentDecoding limited = new ContentDecoding(9_999, ContentDecoding.DEFAULT_MAX_RATIO);
+
+        assertThatThrownBy(() -> decode(limited, gzip(body), "gzip")).isInstanceOf(ContentDecoding.LimitExceededException.class);
+        assertThatThrownBy(() -> decode(limited, deflate(body, false), "deflate"))
+                .isInstanceOf(ContentDecoding.LimitExceededException.class);
+        assertThat(decode(new ContentDecoding(10_000, ContentDecoding.DEFAULT_MAX_RATIO), gzip(body), "gzip")).isEqualTo(body);
+    }
+
+    @Test
+    void compressionBombIsRejectedByRatioOnceOverTheThreshold() throws IOException {
+        // 4MB的零压缩后只有几KB，未超过总量上限，但解压比远超100
+        byte[] bomb = gzip(new byte[4 * 1024 * 1024]);
+        assertThat(bomb.length).isLessThan(8 * 1024);
+        assertThatThrownBy(() -> decode(decoding, bomb, "gzip"))
+                .isInstanceOf(ContentDecoding.LimitExceededException.class)
+                .hasMessageContaining("解压比");
+
+        // 不超过64KB时不检查解压比
+        byte[] small = new byte[60 * 1024];
+        assertThat(decode(decoding, gzip(small), "gzip")).isEqualTo(small);
+    }
+
+    @Test
+    void parserStoppingEarlyDoesNotInflateTheRest() throws IOException {
+        byte[] bomb = gzip(new byte[64 * 1024 * 1024]);
+        try (InputStream in = decoding.open(bomb, "gzip")) {
+            byte[] head = new byte[1024];
+            assertThat(in.read(head)).isPositive();
+        }
+    }
+
+    @Test
+    void corruptedOrTruncatedBodiesAreRejected() throws IOException {
+        byte[] compressed = gzip(random(1000));
+
+        byte[] badCrc = compressed.clone();
+        badCrc[badCrc.length - 8] ^= 1;
+        assertThatThrownBy(() -> decode(decoding, badCrc, "gzip")).isInstanceOf(IOException.class).hasMessageContaining("校验");
+        assertThatThrownBy(() -> decode(decoding, Arrays.copyOf(compressed, compressed.length / 2), "gzip"))
+                .isInstanceOf(EOFException.class);
+        assertThatThrownBy(() -> decode(decoding, "plain".getBytes(), "gzip")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decode(decoding, "plain text body".getBytes(), "deflate")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> decoding.open(compressed, "br")).isInstanceOf(IOException.class).hasMessageContaining("br");
+    }
+
+    private static byte[] decode(ContentDecoding decoding, byte[] body, String contentEncoding) throws IOException {
+        try (InputStream in = decoding.open(body, contentEncoding)) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] body, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflate.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    // 可压缩但不至于触发解压比检查的内容
+    private static byte[] random(int size) {
+        byte[] body = new byte[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            body[i] = (byte) ('a' + random.nextInt(26));
+        }
+        return body;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.security.extractor;
+
+import com.security.exception.RequestBodyTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FormUrlEncodedParserTest {
+
+    private static final Charset GBK = Charset.forName("GBK");
+
+    @Test
+    void cachedAndStreamedFormsDecodeWithTheRequestCharset() throws IOException {
+        // “张三”的GBK百分号编码，以及未编码的GBK字节
+        byte[] body = concat("owner=%D5%C5%C8%FD&name=".getBytes(StandardCharsets.US_ASCII), "李四".getBytes(GBK),
+                "&tag=a+b&tag=%41".getBytes(StandardCharsets.US_ASCII));
+
+        Map<String, List<String>> cached = FormUrlEncodedParser.parseForm(body, GBK);
+        Map<String, List<String>> streamed = FormUrlEncodedParser.parseForm(new ByteArrayInputStream(body), GBK, body.length);
+
+        assertThat(cached.get("owner")).containsExactly("张三");
+        assertThat(cached.get("name")).containsExactly("李四");
+        assertThat(cached.get("tag")).containsExactly("a b", "A");
+        assertThat(streamed).isEqualTo(cached);
+    }
+
+    @Test
+    void latin1FormDecodesEachByteAsOneCharacter() throws IOException {
+        byte[] body = "city=M%FCnchen".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(FormUrlEncodedParser.parseForm(body, StandardCharsets.ISO_8859_1).get("city")).containsExactly("München");
+        assertThat(FormUrlEncodedParser.parseForm(new ByteArrayInputStream(body), StandardCharsets.ISO_8859_1, 64).get("city"))
+                .containsExactly("München");
+    }
+
+    @Test
+    void malformedEscapesAndEmptyPairsAreKeptOrSkipped() {
+        byte[] body = "a=%zz&&=x&b&c=%4".getBytes(StandardCharsets.US_ASCII);
+        Map<String, List<String>> parameters = FormUrlEncodedParser.parseForm(body, StandardCharsets.UTF_8);
+
+        assertThat(parameters.get("a")).containsExactly("%zz");
+        assertThat(parameters.get("b")).containsExactly("");
+        assertThat(parameters.get("c")).containsExactly("%4");
+        assertThat(parameters).doesNotContainKey("");
+        assertThat(FormUrlEncodedParser.parseQuery("a=%zz&&=x&b&c=%4")).isEqualTo(parameters);
+    }
+
+    @Test
+    void streamedFormOverTheLimitIsRejected() {
+        byte[] body = "a=1234567890".getBytes(StandardCharsets.US_ASCII);
+
+        assertThatThrownBy(() -> FormUrlEncodedParser.parseForm(new ByteArrayInputStream(body), StandardCharsets.UTF_8, 8))
+                .isInstanceOf(RequestBodyTooLargeException.class);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] joined = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, joined, offset, part.length);
+            offset += part.length;
+        }
+        return joined;
+    }
+}
@@ -0,0 +1,181 @@
+package com.security.extractor;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalJsonMatcherTest {
+
+    private static final String[] STEPS = {".a", ".b", ".c", "['a']", "[0]", "[1]", "[*]", ".*"};
+
+    @Test
+    void resultsMatchTheFullParseUnderAnyChunking() {
+        Random random = new Random(11);
+        int compared = 0;
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder json = new StringBuilder();
+            object(random, json, 0);
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            String expression = expression(random);
+            IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Collections.singletonList(expression));
+            assertThat(matcher).isNotNull();
+
+            Map<String, List<String>> early = null;
+            int offset = 0;
+            while (offset < body.length) {
+                int length = Math.min(body.length - offset, 1 + random.nextInt(8));
+                matcher.feed(body, offset, length);
+                offset += length;
+                if (early == null && matcher.isResolved()) {
+                    early = matcher.values();
+                }
+            }
+            matcher.endOfInput();
+            if (matcher.isAbandoned()) {
+                continue;
+            }
+            List<String> expected = JsonPathSupport.read(body, expression, "p");
+            assertThat(matcher.isResolved()).isTrue();
+            assertThat(matcher.values().get(expression)).as("%s 对 %s", expression, json).isEqualTo(expected);
+            // 没有重复键时提前确定的值与完整解析一致
+            assertThat(early).isNotNull();
+            assertThat(early.get(expression)).as("%s 对 %s（提前确定）", expression, json).isEqualTo(expected);
+            assertThat(matcher.isRematched()).isFalse();
+            compared++;
+        }
+        assertThat(compared).isGreaterThan(1000);
+    }
+
+    @Test
+    void definitePathsResolveBeforeTheBodyEnds() {
+        IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Arrays.asList("$.ownerId", "$.order.items[1].sku"));
+        feed(matcher, "{\"ownerId\":7,\"order\":{\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\"}");
+
+        assertThat(matcher.isResolved()).isTrue();
+        assertThat(matcher.values()).containsEntry("$.ownerId", Collections.singletonList("7"))
+                .containsEntry("$.order.items[1].sku", Collections.singletonList("b"));
+    }
+
+    @Test
+    void wildcardPathsResolveWhenTheirContainerEnds() {
+        IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Collections.singletonList("$.items[*].id"));
+        feed(matcher, "{\"items\":[{\"id\":1},{\"id\":true}");
+        assertThat(matcher.isResolved()).isFalse();
+
+        feed(matcher, "],\"rest\":\"not needed\"");
+        assertThat(matcher.isResolved()).isTrue();
+        assertThat(matcher.values().get("$.items[*].id")).containsExactly("1", "true");
+    }
+
+    @Test
+    void missingPathsResolveEmptyOnceTheEnclosingContainerEnds() {
+        IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Collections.singletonList("$.user.id"));
+        feed(matcher, "{\"user\":{\"name\":\"x\"}");
+
+        assertThat(matcher.isResolved()).isTrue();
+        assertThat(matcher.values().get("$.user.id")).isEmpty();
+    }
+
+    @Test
+    void duplicateKeysAfterResolutionAreReported() {
+        IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Collections.singletonList("$.ownerId"));
+        feed(matcher, "{\"ownerId\":7,");
+        assertThat(matcher.isResolved()).isTrue();
+
+        feed(matcher, "\"x\":1,\"ownerId\":8}");
+        matcher.endOfInput();
+        assertThat(matcher.isRematched()).isTrue();
+        assertThat(matcher.values().get("$.ownerId")).containsExactly("7");
+    }
+
+    @Test
+    void valuesNeedingTheFullParseAbandonMatching() {
+        for (String body : new String[]{"{\"a\":{\"b\":1}}", "{\"a\":[1]}", "{\"a\":1.5}", "{\"a\":", "[1] [2]", "{\"a\":1"}) {
+            IncrementalJsonMatcher matcher = IncrementalJsonMatcher.create(Collections.singletonList("$.a"));
+            feed(matcher, body);
+            matcher.endOfInput();
+            assertThat(matcher.isAbandoned() || !matcher.isResolved()).as(body).isTrue();
+        }
+    }
+
+    @Test
+    void unsupportedExpressionsDoNotCreateAMatcher() {
+        assertThat(IncrementalJsonMatcher.create(Collections.singletonList("$..id"))).isNull();
+        assertThat(IncrementalJsonMatcher.create(Collections.singletonList("$.items[?(@.id > 1)]"))).isNull();
+        assertThat(IncrementalJsonMatcher.create(Collections.singletonList("$.items[-1]"))).isNull();
+        assertThat(IncrementalJsonMatcher.create(Arrays.asList("$.a", "$.length()"))).isNull();
+        assertThat(IncrementalJsonMatcher.create(Collections.emptyList())).isNull();
+    }
+
+    private static void feed(IncrementalJsonMatcher matcher, String chunk) {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        matcher.feed(bytes, 0, bytes.length);
+    }
+
+    // 以$开始的1~3个步骤
+    private static String expression(Random random) {
+        StringBuilder expression = new StringBuilder("$");
+        int steps = 1 + random.nextInt(3);
+        for (int i = 0; i < steps; i++) {
+            expression.append(STEPS[random.nextInt(STEPS.length)]);
+        }
+        return expression.toString();
+    }
+
+    // 随机对象：键a、b、c各至多出现一次（没有重复键）
+    private static void object(Random random, StringBuilder json, int depth) {
+        json.append('{');
+        boolean first = true;
+        for (String key : new String[]{"a", "b", "c"}) {
+            if (random.nextInt(4) == 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(key).append("\":");
+            value(random, json, depth + 1);
+        }
+        json.append('}');
+    }
+
+    private static void value(Random random, StringBuilder json, int depth) {
+        int kind = random.nextInt(depth < 3 ? 7 : 4);
+        switch (kind) {
+            case 0:
+                json.append(random.nextInt(2000) - 1000);
+                break;
+            case 1:
+                json.append("\"s").append(random.nextInt(10)).append("\\\"\"");
+                break;
+            case 2:
+                json.append(random.nextBoolean());
+                break;
+            case 3:
+                json.append("null");
+                break;
+            case 4:
+            case 5:
+                object(random, json, depth);
+                break;
+            default:
+                json.append('[');
+                int length = random.nextInt(4);
+                for (int i = 0; i < length; i++) {
+                    if (i > 0) {
+                        json.append(',');
+                    }
+                    value(random, json, depth + 1);
+                }
+                json.append(']');
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.security.extractor;
+
+import com.security.config.ApiPermissionConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Test
+    void hmacSignatureIsVerified() throws GeneralSecurityException {
+        JwtVerifier verifier = new JwtVerifier(config());
+        String token = hs256("{\"sub\":\"7\",\"exp\":" + inSeconds(600) + "}", SECRET);
+
+        assertThat(verifier.verify(token)).containsEntry("sub", "7");
+        assertThat(verifier.verify("Bearer " + token)).isNull();
+        // 篡改载荷或签名、使用其他密钥、alg=none均被拒绝
+        String[] parts = token.split("\\.");
+        assertThat(verifier.verify(parts[0] + "." + encode("{\"sub\":\"8\",\"exp\":" + inSeconds(600) + "}") + "." + parts[2])).isNull();
+        assertThat(verifier.verify(parts[0] + "." + parts[1] + "." + parts[2].substring(1))).isNull();
+        assertThat(verifier.verify(hs256("{\"sub\":\"7\",\"exp\":" + inSeconds(600) + "}", SECRET.replace('0', 'x')))).isNull();
+        assertThat(verifier.verify(encode("{\"alg\":\"none\"}") + "." + parts[1] + ".")).isNull();
+        assertThat(verifier.verify(encode("{\"alg\":\"none\"}") + "." + parts[1] + ".x")).isNull();
+    }
+
+    @Test
+    void rsaSignatureIsVerifiedWithTheKeyNamedByKid() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair first = generator.generateKeyPair();
+        KeyPair second = generator.generateKeyPair();
+        ApiPermissionConfig.Jwt config = config();
+        config.getRsaPublicKeys().put("k1", Base64.getEncoder().encodeToString(first.getPublic().getEncoded()));
+        config.getRsaPublicKeys().put("k2", Base64.getEncoder().encodeToString(second.getPublic().getEncoded()));
+        JwtVerifier verifier = new JwtVerifier(config);
+        String claims = "{\"sub\":\"7\",\"exp\":" + inSeconds(600) + "}";
+
+        assertThat(verifier.verify(rs256(claims, "k2", second.getPrivate()))).containsEntry("sub", "7");
+        assertThat(verifier.verify(rs256(claims, "k1", second.getPrivate()))).isNull();
+        // 配置了多个公钥时不带kid的令牌无法选择公钥
+        assertThat(verifier.verify(rs256(claims, null, first.getPrivate()))).isNull();
+    }
+
+    @Test
+    void expAndNbfAreCheckedWithClockSkew() throws GeneralSecurityException {
+        ApiPermissionConfig.Jwt config = config();
+        config.setClockSkewSeconds(60);
+        JwtVerifier verifier = new JwtVerifier(config);
+
+        assertThat(verifier.verify(hs256("{\"exp\":" + inSeconds(-30) + "}", SECRET))).isNotNull();
+        assertThat(verifier.verify(hs256("{\"exp\":" + inSeconds(-90) + "}", SECRET))).isNull();
+        assertThat(verifier.verify(hs256("{\"exp\":" + inSeconds(600) + ",\"nbf\":" + inSeconds(30) + "}", SECRET))).isNotNull();
+        String notYetValid = hs256("{\"exp\":" + inSeconds(600) + ",\"nbf\":" + inSeconds(90) + "}", SECRET);
+        assertThat(verifier.verify(notYetValid)).isNull();
+        // 缓存中尚未生效的令牌同样被拒绝
+        assertThat(verifier.isCached(notYetValid)).isTrue();
+        assertThat(verifier.verify(notYetValid)).isNull();
+        assertThat(verifier.verify(hs256("{\"exp\":\"tomorrow\"}", SECRET))).isNull();
+    }
+
+    @Test
+    void tokensWithoutExpAreRejectedUnlessAllowed() throws GeneralSecurityException {
+        String token = hs256("{\"sub\":\"7\"}", SECRET);
+        assertThat(new JwtVerifier(config()).verify(token)).isNull();
+
+        ApiPermissionConfig.Jwt config = config();
+        config.setRequireExp(false);
+        assertThat(new JwtVerifier(config).verify(token)).containsEntry("sub", "7");
+    }
+
+    @Test
+    void fullCacheEvictsTheEarliestExpiringToken() throws GeneralSecurityException {
+        ApiPermissionConfig.Jwt config = config();
+        config.setCacheMaxSize(3);
+        JwtVerifier verifier = new JwtVerifier(config);
+        String[] tokens = new String[6];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = hs256("{\"sub\":\"" + i + "\",\"exp\":" + inSeconds(200 - i * 10) + "}", SECRET);
+            assertThat(verifier.verify(tokens[i])).containsEntry("sub", String.valueOf(i));
+            // 已满时仍缓存新令牌
+            assertThat(verifier.isCached(tokens[i])).isTrue();
+            assertThat(verifier.cachedTokens()).isLessThanOrEqualTo(3);
+        }
+        // 后验签的令牌到期更早，已满时淘汰缓存中到期最早的条目
+        assertThat(verifier.isCached(tokens[0])).isTrue();
+        assertThat(verifier.isCached(tokens[1])).isTrue();
+        assertThat(verifier.isCached(tokens[4])).isFalse();
+        assertThat(verifier.isCached(tokens[5])).isTrue();
+    }
+
+    @Test
+    void cachedEntriesLiveAtMostTheCacheTtl() throws Exception {
+        ApiPermissionConfig.Jwt config = config();
+        config.setRequireExp(false);
+        config.setCacheTtlSeconds(1);
+        JwtVerifier verifier = new JwtVerifier(config);
+        String withoutExp = hs256("{\"sub\":\"7\"}", SECRET);
+        verifier.verify(withoutExp);
+        assertThat(verifier.isCached(withoutExp)).isTrue();
+
+        Thread.sleep(1100);
+        // 到期的条目在下次写入时清理
+        verifier.verify(hs256("{\"sub\":\"8\"}", SECRET));
+        assertThat(verifier.isCached(withoutExp)).isFalse();
+        assertThat(verifier.cachedTokens()).isEqualTo(1);
+        assertThat(verifier.verify(withoutExp)).containsEntry("sub", "7");
+    }
+
+    @Test
+    void issuerAndAudienceMustMatchWhenConfigured() throws GeneralSecurityException {
+        ApiPermissionConfig.Jwt config = config();
+        config.setIssuer("idp");
+        config.setAudience("orders");
+        JwtVerifier verifier = new JwtVerifier(config);
+        long exp = inSeconds(600);
+
+        assertThat(verifier.verify(hs256("{\"iss\":\"idp\",\"aud\":[\"a\",\"orders\"],\"exp\":" + exp + "}", SECRET))).isNotNull();
+        assertThat(verifier.verify(hs256("{\"iss\":\"other\",\"aud\":\"orders\",\"exp\":" + exp + "}", SECRET))).isNull();
+        assertThat(verifier.verify(hs256("{\"iss\":\"idp\",\"aud\":\"billing\",\"exp\":" + exp + "}", SECRET))).isNull();
+    }
+
+    private static ApiPermissionConfig.Jwt config() {
+        ApiPermissionConfig.Jwt config = new ApiPermissionConfig.Jwt();
+        config.setHmacSecret(SECRET);
+        config.setClockSkewSeconds(0);
+        return config;
+    }
+
+    private static long inSeconds(long seconds) {
+        return System.currentTimeMillis() / 1000 + seconds;
+    }
+
+    private static String hs256(String claims, String secret) throws GeneralSecurityException {
+        String signingInput = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}") + "." + encode(claims);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+                mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String rs256(String claims, String kid, PrivateKey key) throws GeneralSecurityException {
+        String header = kid != null ? "{\"alg\":\"RS256\",\"kid\":\"" + kid + "\"}" : "{\"alg\":\"RS256\"}";
+        String signingInput = encode(header) + "." + encode(claims);
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(key);
+        signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signer.sign());
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,184 @@
+package com.security.extractor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultipartStreamParserTest {
+
+    private static final String BOUNDARY = "XyZ";
+
+    @Test
+    void boundaryIsReadFromTheContentType() {
+        assertThat(MultipartStreamParser.boundaryOf("multipart/form-data; boundary=XyZ")).isEqualTo("XyZ");
+        assertThat(MultipartStreamParser.boundaryOf("multipart/form-data; charset=UTF-8; boundary=\"a b\"")).isEqualTo("a b");
+        assertThat(MultipartStreamParser.boundaryOf("multipart/form-data")).isNull();
+        assertThatThrownBy(() -> new MultipartStreamParser(new ByteArrayInputStream(new byte[0]), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void partsAreReadInOrderAndThePreambleIsSkipped() throws IOException {
+        String body = "preamble\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"ownerId\"\r\n\r\n7\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\nContent-Type: text/plain\r\n\r\n"
+                + "hello\r\n--XyZ--\r\n";
+        MultipartStreamParser parser = parser(body.getBytes(StandardCharsets.ISO_8859_1), 64);
+
+        MultipartStreamParser.PartHeaders field = parser.nextPart();
+        assertThat(field.getName()).isEqualTo("ownerId");
+        assertThat(field.isFile()).isFalse();
+        assertThat(content(parser, -1)).isEqualTo("7");
+        MultipartStreamParser.PartHeaders file = parser.nextPart();
+        assertThat(file.getFilename()).isEqualTo("a.txt");
+        assertThat(file.getContentType()).isEqualTo("text/plain");
+        assertThat(file.getHeaderNames()).containsExactly("content-disposition", "content-type");
+        // 未读取的内容在nextPart时跳过
+        assertThat(parser.nextPart()).isNull();
+        assertThat(parser.nextPart()).isNull();
+    }
+
+    @Test
+    void contentResemblingTheDelimiterSurvivesAnyChunking() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<byte[]> contents = new ArrayList<>();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int parts = 1 + random.nextInt(3);
+            for (int i = 0; i < parts; i++) {
+                byte[] content = randomContent(random, random.nextInt(20_000));
+                contents.add(content);
+                body.write(("--XyZ\r\nContent-Disposition: form-data; name=\"p" + i + "\"\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                body.write(content);
+                body.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            }
+            body.write("--XyZ--\r\n".getBytes(StandardCharsets.ISO_8859_1));
+
+            MultipartStreamParser parser = parser(body.toByteArray(), 1 + random.nextInt(9000));
+            for (int i = 0; i < parts; i++) {
+                assertThat(parser.nextPart().getName()).isEqualTo("p" + i);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertThat(parser.readContent(out, -1)).isEqualTo(contents.get(i).length);
+                assertThat(out.toByteArray()).as("第%d轮第%d部分", round, i).isEqualTo(contents.get(i));
+            }
+            assertThat(parser.nextPart()).isNull();
+        }
+    }
+
+    @Test
+    void contentOverTheLimitIsRejected() throws IOException {
+        MultipartStreamParser parser = parser(("--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n"
+                + "0123456789\r\n--XyZ--").getBytes(StandardCharsets.ISO_8859_1), 4);
+        parser.nextPart();
+
+        assertThatThrownBy(() -> parser.readContent(new ByteArrayOutputStream(), 9))
+                .isInstanceOf(MultipartStreamParser.SizeLimitExceededException.class);
+    }
+
+    @Test
+    void contentExactlyAtTheLimitIsAccepted() throws IOException {
+        MultipartStreamParser parser = parser(("--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n"
+                + "0123456789\r\n--XyZ--").getBytes(StandardCharsets.ISO_8859_1), 3);
+        parser.nextPart();
+
+        assertThat(content(parser, 10)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void malformedBodiesAreRejected() throws IOException {
+        // 缺少结束分隔符
+        MultipartStreamParser unterminated = parser("--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nvalue"
+                .getBytes(StandardCharsets.ISO_8859_1), 64);
+        unterminated.nextPart();
+        assertThatThrownBy(() -> unterminated.readContent(new ByteArrayOutputStream(), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 分隔符后缺少换行
+        assertThatThrownBy(() -> parser("--XyZxx".getBytes(StandardCharsets.ISO_8859_1), 64).nextPart())
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 头信息不完整
+        assertThatThrownBy(() -> parser("--XyZ\r\nContent-Disposition: form-data".getBytes(StandardCharsets.ISO_8859_1), 64).nextPart())
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 头信息超过上限
+        StringBuilder header = new StringBuilder("--XyZ\r\nX-Padding: ");
+        for (int i = 0; i < 9000; i++) {
+            header.append('x');
+        }
+        assertThatThrownBy(() -> parser(header.toString().getBytes(StandardCharsets.ISO_8859_1), 64).nextPart())
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 没有任何分隔符
+        assertThat(parser("no parts here".getBytes(StandardCharsets.ISO_8859_1), 64).nextPart()).isNull();
+    }
+
+    private static MultipartStreamParser parser(byte[] body, int chunk) {
+        return new MultipartStreamParser(new ChunkedInputStream(body, chunk), BOUNDARY);
+    }
+
+    private static String content(MultipartStreamParser parser, long maxBytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        parser.readContent(out, maxBytes);
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    // 随机字节中混入分隔符的各种前缀（不含完整的分隔符）
+    private static byte[] randomContent(Random random, int length) {
+        byte[] content;
+        do {
+            content = randomBytes(random, length);
+        } while (new String(content, StandardCharsets.ISO_8859_1).contains("\r\n--XyZ"));
+        return content;
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[][] fragments = {"\r".getBytes(StandardCharsets.ISO_8859_1), "\r\n".getBytes(StandardCharsets.ISO_8859_1),
+                "\r\n-".getBytes(StandardCharsets.ISO_8859_1), "\r\n--".getBytes(StandardCharsets.ISO_8859_1),
+                "\r\n--X".getBytes(StandardCharsets.ISO_8859_1), "\r\n--Xy".getBytes(StandardCharsets.ISO_8859_1),
+                "\r\r\n--\r\n--Xy\r\n".getBytes(StandardCharsets.ISO_8859_1)};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (out.size() < length) {
+            if (random.nextInt(8) == 0) {
+                byte[] fragment = fragments[random.nextInt(fragments.length)];
+                out.write(fragment, 0, fragment.length);
+            } else {
+                out.write(random.nextInt(256));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 每次最多返回chunk个字节的输入流
+     */
+    private static final class ChunkedInputStream extends InputStream {
+        private final ByteArrayInputStream delegate;
+        private final int chunk;
+
+        private ChunkedInputStream(byte[] content, int chunk) {
+            this.delegate = new ByteArrayInputStream(content);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.security.extractor;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class XmlPathSupportTest {
+
+    private static final String[] NAMES = {"a", "b", "c"};
+
+    @Test
+    void streamingMatchesXPathOnRandomDocuments() throws Exception {
+        Random random = new Random(7);
+        int compared = 0;
+        for (int round = 0; round < 300; round++) {
+            StringBuilder xml = new StringBuilder();
+            element(random, xml, "a", 0);
+            byte[] content = xml.toString().getBytes(StandardCharsets.UTF_8);
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(content));
+            for (int i = 0; i < 20; i++) {
+                String expression = expression(random);
+                assertThat(XmlPathSupport.of(content).read(expression, "p"))
+                        .as("%s 对 %s", expression, xml)
+                        .isEqualTo(reference(document, expression));
+                compared++;
+            }
+        }
+        assertThat(compared).isEqualTo(6000);
+    }
+
+    @Test
+    void otherExpressionsFallBackToXPath() {
+        XmlPathSupport.XmlBody body = XmlPathSupport.of("<order><item id=\"1\">x</item><item id=\"2\">y</item></order>"
+                .getBytes(StandardCharsets.UTF_8));
+
+        assertThat(body.read("//item/@id", "p")).containsExactly("1", "2");
+        assertThat(body.read("/order/item[@id='2']", "p")).containsExactly("y");
+        // 非节点集合结果按字符串取值
+        assertThat(body.read("count(/order/item)", "p")).containsExactly("2");
+        assertThatThrownBy(() -> body.read("/order/item[", "p")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void prefixedNamesMatchByQualifiedName() {
+        byte[] content = ("<s:Envelope xmlns:s=\"urn:s\" xmlns:o=\"urn:o\"><s:Body><o:order o:owner=\"7\">1</o:order>"
+                + "</s:Body></s:Envelope>").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(XmlPathSupport.of(content).read("/s:Envelope/s:Body/o:order/@o:owner", "p")).containsExactly("7");
+        // 含谓词的表达式走XPath，前缀按根元素上的声明解析
+        assertThat(XmlPathSupport.of(content).read("/s:Envelope/s:Body/o:order[@o:owner='7']", "p")).containsExactly("1");
+    }
+
+    @Test
+    void positionalPathStopsAtTheFirstMatch() {
+        // 第一个匹配之后的内容不完整，读取在匹配处结束
+        byte[] truncated = "<a><b>1</b><b>2</b><b>".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(XmlPathSupport.of(truncated).read("/a/b[1]", "p")).containsExactly("1");
+        assertThat(XmlPathSupport.of(truncated).read("/a/b[2]/text()", "p")).containsExactly("2");
+        assertThatThrownBy(() -> XmlPathSupport.of(truncated).read("/a/b", "p")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void doctypeAndExternalEntitiesAreRejected() {
+        byte[] xxe = ("<?xml version=\"1.0\"?><!DOCTYPE a [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<a><b>&x;</b></a>").getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> XmlPathSupport.of(xxe).read("/a/b", "p")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> XmlPathSupport.of(xxe).read("//b", "p")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void encodedBodiesAreDecodedWhileParsing() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("<a><b id=\"7\">x</b></a>".getBytes(StandardCharsets.UTF_8));
+        }
+        XmlPathSupport.XmlBody body = XmlPathSupport.of(compressed.toByteArray(), "gzip", new ContentDecoding());
+
+        assertThat(body.read("/a/b/@id", "p")).containsExactly("7");
+        assertThat(body.read("//b", "p")).containsExactly("x");
+        assertThat(XmlPathSupport.of(new byte[0]).read("/a", "p")).isEmpty();
+    }
+
+    private static List<String> reference(Document document, String expression) throws Exception {
+        NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(expression, document, XPathConstants.NODESET);
+        List<String> values = new ArrayList<>(nodes.getLength());
+        for (int i = 0; i < nodes.getLength(); i++) {
+            values.add(nodes.item(i).getTextContent());
+        }
+        return values;
+    }
+
+    // 1~4级元素步骤（名称或*，可带[1]~[3]），结尾可为@id或text()
+    private static String expression(Random random) {
+        StringBuilder expression = new StringBuilder();
+        int steps = 1 + random.nextInt(4);
+        for (int i = 0; i < steps; i++) {
+            expression.append('/').append(random.nextInt(4) == 0 ? "*" : NAMES[random.nextInt(NAMES.length)]);
+            if (random.nextInt(3) == 0) {
+                expression.append('[').append(1 + random.nextInt(3)).append(']');
+            }
+        }
+        int ending = random.nextInt(4);
+        if (ending == 0) {
+            expression.append("/@id");
+        } else if (ending == 1) {
+            expression.append("/text()");
+        }
+        return expression.toString();
+    }
+
+    // 随机元素：可带id属性，子元素与文本（含空白与实体）交错
+    private static void element(Random random, StringBuilder xml, String name, int depth) {
+        xml.append('<').append(name);
+        if (random.nextBoolean()) {
+            xml.append(" id=\"").append(random.nextInt(10)).append('"');
+        }
+        xml.append('>');
+        int children = depth < 4 ? random.nextInt(4) : 0;
+        for (int i = 0; i <= children; i++) {
+            int kind = random.nextInt(5);
+            if (kind == 0) {
+                xml.append("t").append(random.nextInt(100));
+            } else if (kind == 1) {
+                xml.append(' ');
+            } else if (kind == 2) {
+                xml.append("&amp;");
+            }
+            if (i < children) {
+                element(random, xml, NAMES[random.nextInt(NAMES.length)], depth + 1);
+            }
+        }
+        xml.append("</").append(name).append('>');
+    }
+}
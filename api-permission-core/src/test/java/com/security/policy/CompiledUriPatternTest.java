@@ -0,0 +1,95 @@
+package com.security.policy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 编译匹配与AntPathMatcher的等价性：穷举由字面量、*、**、{v}组成的模式与由字面量组成的URI
+ */
+class CompiledUriPatternTest {
+
+    private static final AntPathMatcher ANT = new AntPathMatcher();
+
+    private static final String[] PATTERN_SEGMENTS = {"a", "b", "*", "**", "{v}"};
+
+    private static final String[] URI_SEGMENTS = {"a", "b", "c"};
+
+    @Test
+    void trailingStarMatchesAnEmptyLastSegmentLikeAntPathMatcher() {
+        assertThat(CompiledUriPattern.compile("/api/*").matches("/api/")).isTrue();
+        assertThat(CompiledUriPattern.compile("/*").matches("/")).isTrue();
+        assertThat(CompiledUriPattern.compile("/api/*").matches("/api")).isFalse();
+        assertThat(CompiledUriPattern.compile("/api/{id}").matches("/api/")).isFalse();
+    }
+
+    @Test
+    void matchesAndVariablesAgreeWithAntPathMatcher() {
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : paths(PATTERN_SEGMENTS, 4)) {
+            patterns.add(numberVariables(pattern));
+        }
+        List<String> uris = paths(URI_SEGMENTS, 4);
+        uris.add("");
+        uris.add("a/b");
+        uris.add("/a//b");
+        int compared = 0;
+        for (String pattern : patterns) {
+            CompiledUriPattern compiled = CompiledUriPattern.compile(pattern);
+            int[] offsets = new int[compiled.variableCount() * 2];
+            for (String uri : uris) {
+                boolean expected = ANT.match(pattern, uri);
+                assertThat(compiled.match(uri, offsets)).as("模式%s匹配%s", pattern, uri).isEqualTo(expected);
+                if (expected && !compiled.isFallback() && !uri.contains("//") && !pattern.contains("**")) {
+                    Map<String, String> variables = ANT.extractUriTemplateVariables(pattern, uri);
+                    for (int slot = 0; slot < compiled.variableCount(); slot++) {
+                        assertThat(uri.substring(offsets[slot * 2], offsets[slot * 2 + 1]))
+                                .as("模式%s匹配%s的变量", pattern, uri)
+                                .isEqualTo(variables.get(compiled.variableName(slot)));
+                    }
+                }
+                compared++;
+            }
+        }
+        assertThat(compared).isGreaterThan(300_000);
+    }
+
+    // 同一模式中的变量依次命名为v0、v1…
+    private static String numberVariables(String pattern) {
+        StringBuilder numbered = new StringBuilder();
+        int variables = 0;
+        int from = 0;
+        int index;
+        while ((index = pattern.indexOf("{v}", from)) >= 0) {
+            numbered.append(pattern, from, index).append("{v").append(variables++).append('}');
+            from = index + 3;
+        }
+        return numbered.append(pattern.substring(from)).toString();
+    }
+
+    // 0~maxSegments个分段的全部组合，每个组合分别生成有、无结尾斜杠两种形式
+    private static List<String> paths(String[] alphabet, int maxSegments) {
+        List<String> paths = new ArrayList<>();
+        paths.add("/");
+        List<String> previous = new ArrayList<>();
+        previous.add("");
+        for (int size = 1; size <= maxSegments; size++) {
+            List<String> current = new ArrayList<>();
+            for (String prefix : previous) {
+                for (String segment : alphabet) {
+                    String path = prefix + "/" + segment;
+                    current.add(path);
+                    paths.add(path);
+                    paths.add(path + "/");
+                }
+            }
+            previous = current;
+        }
+        return paths;
+    }
+}
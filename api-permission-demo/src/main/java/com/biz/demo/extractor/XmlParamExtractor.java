@@ -1,29 +1,37 @@
 package com.biz.demo.extractor;
 
 import com.security.enums.ParamSource;
+import com.security.extractor.ContentDecoding;
 import com.security.extractor.ParameterExtractor;
+import com.security.extractor.XmlPathSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.w3c.dom.Document;
-import org.xml.sax.InputSource;
 
 import javax.servlet.http.HttpServletRequest;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * 从XML请求体提取参数的自定义提取器（解析方式：CUSTOM）
+ * <p>
+ * 简单路径（如<code>/order/item/@id</code>）由StAX直接读取请求体字节，其他XPath表达式共用同一请求解析出的文档，
+ * 解析器禁用外部实体，详见{@link XmlPathSupport}；gzip/deflate压缩的请求体边解压边解析（上限由{@link ContentDecoding}控制）。
  */
+@Slf4j
 @Component  // 必须标注@Component，确保被ExtractorFactory扫描并注册
 public class XmlParamExtractor implements ParameterExtractor {
 
     public static final String PARSE_METHOD = "XML_PATH";
 
+    private final ContentDecoding contentDecoding;
+
+    public XmlParamExtractor(ContentDecoding contentDecoding) {
+        this.contentDecoding = contentDecoding;
+    }
+
     /**
      * 核心提取逻辑
      *
@@ -51,24 +59,15 @@ public class XmlParamExtractor implements ParameterExtractor {
             return Collections.emptyList();
         }
 
-        try {
-            // 4. 从缓存请求中读取XML内容
-            ContentCachingRequestWrapper wrapper = (ContentCachingRequestWrapper) request;
-            byte[] contentBytes = wrapper.getContentAsByteArray();
-            if (contentBytes.length == 0) {
-                return Collections.emptyList();
-            }
-            String xmlBody = new String(contentBytes, StandardCharsets.UTF_8);
-
-            // 5. 使用XPath解析XML
-            Document doc = javax.xml.parsers.DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(xmlBody)));
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            String result = xpath.evaluate(parseConfig, doc);  // 执行XPath表达式
+        // 4. 获取当前请求的XML请求体（同一请求内与其他XML参数共用，首次访问时从缓存请求读取）
+        XmlPathSupport.XmlBody xmlBody = XmlPathSupport.body(((ContentCachingRequestWrapper) request).getContentAsByteArray(),
+                request.getHeader(HttpHeaders.CONTENT_ENCODING), contentDecoding);
 
-            // 6. 处理结果（单值转列表）
-            return result != null ? Collections.singletonList(result) : Collections.emptyList();
-        } catch (Exception e) {
-            // 提取失败返回空列表（可根据业务需求抛出异常）
+        // 5. 按XPath表达式提取（提取失败返回空列表，可根据业务需求抛出异常）
+        try {
+            return xmlBody.read(parseConfig, paramName);
+        } catch (IllegalArgumentException e) {
+            log.error("参数[{}]XML解析异常，表达式:{}", paramName, parseConfig, e);
             return Collections.emptyList();
         }
     }
@@ -88,4 +87,4 @@ public class XmlParamExtractor implements ParameterExtractor {
     public List<ParamSource> supportSources() {
         return Collections.singletonList(ParamSource.BODY);
     }
-}
\ No newline at end of file
+}
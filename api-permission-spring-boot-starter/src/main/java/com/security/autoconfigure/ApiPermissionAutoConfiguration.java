@@ -0,0 +1,276 @@
+package com.security.autoconfigure;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.async.PermissionContextAsyncInterceptor;
+import com.security.async.PermissionContextTaskDecorator;
+import com.security.config.ApiPermissionConfig;
+import com.security.config.DirectoryTenantRuleSource;
+import com.security.config.FileRuleConfigSource;
+import com.security.config.RuleConfigSource;
+import com.security.config.RuleReloader;
+import com.security.config.TenantRuleTables;
+import com.security.engine.RuleCheckerRegistry;
+import com.security.engine.RuleMatcher;
+import com.security.engine.ShadowEvaluator;
+import com.security.exception.GlobalExceptionHandler;
+import com.security.extractor.ContentDecoding;
+import com.security.extractor.DefaultExtractor;
+import com.security.extractor.FormFieldExtractor;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.JsonPathExtractor;
+import com.security.extractor.JwtClaimExtractor;
+import com.security.extractor.JwtVerifier;
+import com.security.extractor.ParameterExtractor;
+import com.security.extractor.PathMatchExtractor;
+import com.security.extractor.SessionAttributeExtractor;
+import com.security.extractor.SessionValueCache;
+import com.security.filter.AsyncPermissionEnforcer;
+import com.security.filter.PermissionFilter;
+import com.security.filter.PermissionResponseWriter;
+import com.security.interceptor.PermissionInterceptor;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 权限校验的Spring MVC自动配置
+ * <p>
+ * 核心引擎与Servlet适配层均不依赖组件扫描，全部组件在此创建；
+ * 业务方的PermissionValidator与ParameterExtractor实现仍以@Component声明，由此处收集注册。
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ApiPermissionAutoConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    @Lazy
+    private PermissionInterceptor permissionInterceptor;
+    @Autowired
+    @Lazy
+    private PermissionContextAsyncInterceptor permissionContextAsyncInterceptor;
+
+    @Bean(initMethod = "initialize")
+    @ConfigurationProperties(prefix = "api.permission")
+    @ConditionalOnMissingBean
+    public ApiPermissionConfig apiPermissionConfig() {
+        return new ApiPermissionConfig();
+    }
+
+    // ---------------- 核心引擎 ----------------
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ValidatorFactory validatorFactory(ObjectProvider<PermissionValidator> validators) {
+        return new ValidatorFactory(validators.orderedStream().collect(Collectors.toList()));
+    }
+
+    @Bean
+    public ExtractorFactory<HttpServletRequest> extractorFactory(ObjectProvider<ParameterExtractor> extractors) {
+        return new ExtractorFactory<>(extractors.orderedStream().collect(Collectors.toList()));
+    }
+
+    @Bean
+    public RuleCheckerRegistry<HttpServletRequest> ruleCheckerRegistry(ApiPermissionConfig globalConfig,
+                                                                       ExtractorFactory<HttpServletRequest> extractorFactory,
+                                                                       ValidatorFactory validatorFactory,
+                                                                       ObjectProvider<TenantRuleTables> tenantRuleTables) {
+        RuleCheckerRegistry<HttpServletRequest> registry = new RuleCheckerRegistry<>(globalConfig, extractorFactory, validatorFactory);
+        tenantRuleTables.ifAvailable(tables -> tables.addListener(registry));
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RuleMatcher ruleMatcher(ApiPermissionConfig globalConfig, ObjectProvider<TenantRuleTables> tenantRuleTables) {
+        return new RuleMatcher(globalConfig, tenantRuleTables.getIfAvailable());
+    }
+
+    // ---------------- 多租户规则 ----------------
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "api.permission.tenants", name = "directory")
+    public TenantRuleTables tenantRuleTables(ApiPermissionConfig globalConfig) {
+        return new TenantRuleTables(globalConfig, new DirectoryTenantRuleSource(Paths.get(globalConfig.getTenants().getDirectory()),
+                globalConfig.getReload().getDebounceMillis()));
+    }
+
+    // ---------------- 规则热更新 ----------------
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public RuleReloader ruleReloader(ApiPermissionConfig globalConfig, ObjectProvider<RuleConfigSource> sources) {
+        RuleReloader reloader = new RuleReloader(globalConfig);
+        sources.orderedStream().forEach(reloader::register);
+        return reloader;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "api.permission.reload", name = "file")
+    public FileRuleConfigSource fileRuleConfigSource(ApiPermissionConfig globalConfig) {
+        ApiPermissionConfig.Reload reload = globalConfig.getReload();
+        return new FileRuleConfigSource(Paths.get(reload.getFile()), reload.getDebounceMillis());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "api.permission.shadow", name = "file")
+    public ShadowEvaluator<HttpServletRequest> shadowEvaluator(ApiPermissionConfig globalConfig,
+                                                              ExtractorFactory<HttpServletRequest> extractorFactory,
+                                                              ValidatorFactory validatorFactory) {
+        ShadowEvaluator<HttpServletRequest> evaluator = new ShadowEvaluator<>(globalConfig, extractorFactory, validatorFactory);
+        // 候选规则文件只交给影子评估，不声明为RuleConfigSource Bean，避免被RuleReloader加载为生效规则
+        evaluator.register(new FileRuleConfigSource(Paths.get(globalConfig.getShadow().getFile()),
+                globalConfig.getReload().getDebounceMillis()));
+        return evaluator;
+    }
+
+    // ---------------- 内置提取器 ----------------
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DefaultExtractor defaultExtractor(ApiPermissionConfig globalConfig) {
+        return new DefaultExtractor(globalConfig.getFormMaxBytes());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PathMatchExtractor pathMatchExtractor() {
+        return new PathMatchExtractor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ContentDecoding contentDecoding(ApiPermissionConfig globalConfig) {
+        return globalConfig.getDecompression().toContentDecoding();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JsonPathExtractor jsonPathExtractor(ContentDecoding contentDecoding) {
+        return new JsonPathExtractor(contentDecoding);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FormFieldExtractor formFieldExtractor(ApiPermissionConfig globalConfig) {
+        return new FormFieldExtractor(globalConfig.getFormMaxBytes());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SessionValueCache sessionValueCache(ApiPermissionConfig globalConfig) {
+        ApiPermissionConfig.Session session = globalConfig.getSession();
+        return new SessionValueCache(TimeUnit.SECONDS.toMillis(session.getCacheTtlSeconds()), session.getMaxCachedSessions());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SessionAttributeExtractor sessionAttributeExtractor(SessionValueCache sessionValueCache) {
+        return new SessionAttributeExtractor(sessionValueCache);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtVerifier jwtVerifier(ApiPermissionConfig globalConfig) {
+        return new JwtVerifier(globalConfig.getJwt());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtClaimExtractor jwtClaimExtractor(JwtVerifier jwtVerifier) {
+        return new JwtClaimExtractor(jwtVerifier);
+    }
+
+    // ---------------- Servlet适配 ----------------
+
+    @Bean
+    public PermissionFilter permissionFilter() {
+        return new PermissionFilter();
+    }
+
+    @Bean
+    public PermissionInterceptor permissionInterceptor() {
+        return new PermissionInterceptor();
+    }
+
+    @Bean
+    public PermissionResponseWriter permissionResponseWriter(ObjectMapper objectMapper) {
+        return new PermissionResponseWriter(objectMapper);
+    }
+
+    @Bean
+    public AsyncPermissionEnforcer asyncPermissionEnforcer() {
+        return new AsyncPermissionEnforcer();
+    }
+
+    @Bean
+    public PermissionContextAsyncInterceptor permissionContextAsyncInterceptor() {
+        return new PermissionContextAsyncInterceptor();
+    }
+
+    // 应用已有自己的TaskDecorator时不再注册（两个TaskDecorator Bean会使Spring Boot的applicationTaskExecutor一个都不使用），
+    // 此时需在应用的TaskDecorator中调用PermissionContextExecutors.wrap(...)组合
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public PermissionContextTaskDecorator permissionContextTaskDecorator() {
+        return new PermissionContextTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GlobalExceptionHandler globalExceptionHandler() {
+        return new GlobalExceptionHandler();
+    }
+
+    @Bean(name = "permissionFilterRegistrationBean")
+    public FilterRegistrationBean<PermissionFilter> permissionFilterRegistration(PermissionFilter permissionFilter) {
+        FilterRegistrationBean<PermissionFilter> bean = new FilterRegistrationBean<>();
+        bean.setFilter(permissionFilter);
+        bean.addUrlPatterns("/*"); // 仅对API路径生效
+        bean.setOrder(Ordered.HIGHEST_PRECEDENCE); // 优先执行
+        bean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC); // ASYNC分发时恢复上下文快照
+        return bean;
+    }
+
+    @Bean
+    public ServletListenerRegistrationBean<SessionValueCache> sessionValueCacheListener(SessionValueCache sessionValueCache) {
+        // 会话属性变更、会话销毁时使缓存失效
+        return new ServletListenerRegistrationBean<>(sessionValueCache);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(permissionInterceptor).addPathPatterns("/**") // 与Filter范围一致
+                .order(Ordered.LOWEST_PRECEDENCE); // 晚于框架解析路径变量
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // MVC异步请求（Callable/WebAsyncTask/DeferredResult）传递权限上下文
+        configurer.registerCallableInterceptors(permissionContextAsyncInterceptor);
+        configurer.registerDeferredResultInterceptors(permissionContextAsyncInterceptor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.security.config;//package com.security.config;
+//
+//import com.ctrip.framework.apollo.Config;
+//import com.ctrip.framework.apollo.ConfigChangeListener;
+//import com.ctrip.framework.apollo.ConfigService;
+//import com.ctrip.framework.apollo.model.ConfigChange;
+//import lombok.extern.slf4j.Slf4j;
+//import org.springframework.beans.factory.annotation.Value;
+//import org.springframework.stereotype.Component;
+//
+//import java.util.Collections;
+//
+///**
+// * Apollo规则来源（需引入apollo-client依赖后启用）
+// * <p>
+// * 读取命名空间中的一个键，值为规则文档JSON（格式同规则文件：{"enabled": true, "rules": [...]}或规则数组）；
+// * 启动时加载一次，键变化时在Apollo的通知线程中热更新。验证失败时保留当前规则，不会关闭全局开关。
+// * 声明为Bean后由自动配置的RuleReloader注册启动（热更新生效规则）。
+// */
+//@Slf4j
+//@Component
+//public class ApolloRuleConfigSource implements RuleConfigSource {
+//
+//    private final String namespace;
+//
+//    private final String key;
+//
+//    private Config config;
+//
+//    private ConfigChangeListener listener;
+//
+//    public ApolloRuleConfigSource(@Value("${api.permission.reload.apollo-namespace:API_PERMISSION_NAMESPACE}") String namespace,
+//                                  @Value("${api.permission.reload.apollo-key:api.permission.rules}") String key) {
+//        this.namespace = namespace;
+//        this.key = key;
+//    }
+//
+//    @Override
+//    public String getName() {
+//        return "apollo:" + namespace + "/" + key;
+//    }
+//
+//    @Override
+//    public synchronized void start(RuleDocumentHandler handler) {
+//        config = ConfigService.getConfig(namespace);
+//        String content = config.getProperty(key, null);
+//        if (content != null) {
+//            handler.handle(getName(), content);
+//        } else {
+//            log.info("Apollo未配置规则键，沿用启动配置：{}", getName());
+//        }
+//        // 只关注规则键的变化；值被删除时保留当前规则
+//        listener = event -> {
+//            ConfigChange change = event.getChange(key);
+//            if (change == null || change.getNewValue() == null) {
+//                log.warn("Apollo规则键已删除，继续使用当前规则：{}", getName());
+//                return;
+//            }
+//            handler.handle(getName(), change.getNewValue());
+//        };
+//        config.addChangeListener(listener, Collections.singleton(key));
+//    }
+//
+//    @Override
+//    public synchronized void stop() {
+//        if (config != null && listener != null) {
+//            config.removeChangeListener(listener);
+//        }
+//    }
+//}
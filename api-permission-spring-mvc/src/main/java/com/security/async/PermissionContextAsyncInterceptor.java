@@ -0,0 +1,53 @@
+package com.security.async;
+
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * MVC异步请求的权限上下文传递
+ * <p>
+ * 开始异步处理时（仍在请求线程）把快照存入请求属性：Callable在异步执行线程上恢复，
+ * 结果回到容器的ASYNC分发由{@link com.security.filter.PermissionFilter}按该属性恢复。
+ * DeferredResult由业务线程完成，业务线程的上下文通过{@link PermissionContextExecutors}传递。
+ */
+public class PermissionContextAsyncInterceptor implements CallableProcessingInterceptor, DeferredResultProcessingInterceptor {
+
+    // 存放快照的请求属性名
+    public static final String SNAPSHOT_ATTRIBUTE = PermissionContextAsyncInterceptor.class.getName() + ".SNAPSHOT";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        captureSnapshot(request);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        ContextSnapshot snapshot = (ContextSnapshot) request.getAttribute(SNAPSHOT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        PermissionContext.restore(snapshot);
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        // 异步执行线程来自线程池，执行完成即清除恢复的快照
+        PermissionContext.restore(null);
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        captureSnapshot(request);
+    }
+
+    private void captureSnapshot(NativeWebRequest request) {
+        ContextSnapshot snapshot = PermissionContext.capture();
+        if (snapshot != null) {
+            request.setAttribute(SNAPSHOT_ATTRIBUTE, snapshot, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
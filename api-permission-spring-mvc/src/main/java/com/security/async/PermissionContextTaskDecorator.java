@@ -0,0 +1,18 @@
+package com.security.async;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 为Spring任务执行器传递权限上下文
+ * <p>
+ * 作为唯一的TaskDecorator Bean时，Spring Boot自动配置的applicationTaskExecutor会使用它，
+ * 因此@Async方法和MVC异步请求（Callable/WebAsyncTask）默认获得上下文；自定义的ThreadPoolTaskExecutor需手动setTaskDecorator。
+ * 应用已有自己的TaskDecorator时自动配置不再注册本类，需在应用的decorate中组合：{@code PermissionContextExecutors.wrap(other.decorate(runnable))}。
+ */
+public class PermissionContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return PermissionContextExecutors.wrap(runnable);
+    }
+}
@@ -0,0 +1,110 @@
+package com.security.extractor;
+
+import com.security.context.ValueList;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+public class DefaultExtractor implements ParameterExtractor {
+
+    private static final int DEFAULT_FORM_MAX_BYTES = 64 * 1024;
+
+    // FORM参数允许读取的最大表单请求体字节数
+    private final int formMaxBytes;
+
+    public DefaultExtractor() {
+        this(DEFAULT_FORM_MAX_BYTES);
+    }
+
+    public DefaultExtractor(int formMaxBytes) {
+        this.formMaxBytes = formMaxBytes;
+    }
+
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        ValueList values = new ValueList(1);
+        extractInto(request, paramName, parseConfig, source, useCachedRequest, values);
+        return values;
+    }
+
+    @Override
+    public void extractInto(HttpServletRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        if (!StringUtils.hasText(paramName)) {
+            log.error("参数名称为空，无法提取");
+            return;
+        }
+
+        switch (source) {
+            case QUERY:
+                extractQueryParams(request, paramName, values);
+                break;
+            case HEADER:
+                extractHeaderParam(request, paramName, values);
+                break;
+            case COOKIE:
+                extractCookieValue(request, paramName, values);
+                break;
+            case FORM:
+                addAll(RequestIndex.of(request).form(request, paramName, formMaxBytes), values);
+                break;
+            default:
+                log.warn("不支持的参数来源[{}]，参数名[{}]", source, paramName);
+                return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("参数[{}]从[{}]提取到{}个值，分别为: {}", paramName, source, values.size(), values);
+        }
+    }
+
+    /**
+     * 提取Cookie值（请求级索引，同一请求只解析一次Cookie数组）
+     */
+    private void extractCookieValue(HttpServletRequest request, String paramName, ValueList values) {
+        String value = RequestIndex.of(request).cookie(request, paramName);
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.DEFAULT.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Arrays.asList(ParamSource.QUERY, ParamSource.HEADER, ParamSource.COOKIE, ParamSource.FORM);
+    }
+
+    /**
+     * 提取查询参数（只解析查询字符串，不会触发表单请求体的解析）
+     */
+    private void extractQueryParams(HttpServletRequest request, String paramName, ValueList values) {
+        addAll(RequestIndex.of(request).query(request, paramName), values);
+    }
+
+    private static void addAll(List<String> paramValues, ValueList values) {
+        if (paramValues == null) {
+            return;
+        }
+        for (String paramValue : paramValues) {
+            values.add(paramValue);
+        }
+    }
+
+    private void extractHeaderParam(HttpServletRequest request, String paramName, ValueList values) {
+        String headerValue = RequestIndex.of(request).header(request, paramName);
+        if (headerValue != null) {
+            values.add(headerValue);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.security.extractor;
+
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.filter.MultipartFieldRequestWrapper;
+import com.security.filter.ReplayableRequestWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 表单与文件上传请求体中的文本字段提取（BODY来源，解析方式FORM_FIELD，字段名取parseConfig，未配置时使用参数名）
+ * <p>
+ * 过滤器包装过的请求流式读取：x-www-form-urlencoded按上限解析，multipart只读取第一个文件部分之前的文本字段，
+ * 文件内容不缓存，字段不在文件部分之前时拒绝访问（不按空值交给验证器）；请求体已被容器解析（如拦截器阶段的multipart请求）时直接读取容器的参数。
+ */
+@Slf4j
+public class FormFieldExtractor implements ParameterExtractor {
+
+    private final int formMaxBytes;
+
+    public FormFieldExtractor(int formMaxBytes) {
+        this.formMaxBytes = formMaxBytes;
+    }
+
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        if (ParamSource.BODY != source) {
+            log.trace("参数[{}]来源非BODY，表单字段提取器不处理", paramName);
+            return Collections.emptyList();
+        }
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return Collections.emptyList();
+        }
+        String field = StringUtils.hasText(parseConfig) ? parseConfig.trim() : paramName;
+        try {
+            List<String> values;
+            if (contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+                values = extractFormField(request, field);
+            } else if (contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+                values = extractMultipartField(request, field);
+            } else {
+                log.trace("参数[{}]请求体不是表单，表单字段提取器不处理", paramName);
+                return Collections.emptyList();
+            }
+            return values != null ? values : Collections.emptyList();
+        } catch (IOException e) {
+            log.error("参数[{}]表单字段读取失败", paramName, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private List<String> extractFormField(HttpServletRequest request, String field) throws IOException {
+        ReplayableRequestWrapper wrapper = WebUtils.getNativeRequest(request, ReplayableRequestWrapper.class);
+        if (wrapper != null) {
+            return wrapper.getFormParameters(formMaxBytes).get(field);
+        }
+        String[] values = request.getParameterValues(field);
+        return values != null ? Arrays.asList(values) : null;
+    }
+
+    private List<String> extractMultipartField(HttpServletRequest request, String field) throws IOException {
+        MultipartFieldRequestWrapper wrapper = WebUtils.getNativeRequest(request, MultipartFieldRequestWrapper.class);
+        if (wrapper != null && wrapper.isScannable()) {
+            // 字段位于文件部分之后时抛出CustomAccessDeniedException
+            return wrapper.getFieldValues(field);
+        }
+        // 容器已解析multipart请求（文本字段以请求参数形式提供）
+        String[] values = request.getParameterValues(field);
+        return values != null ? Arrays.asList(values) : null;
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.FORM_FIELD.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.BODY);
+    }
+}
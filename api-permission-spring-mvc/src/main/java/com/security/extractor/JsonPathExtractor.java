@@ -0,0 +1,90 @@
+package com.security.extractor;
+
+import com.jayway.jsonpath.JsonPathException;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSONPath提取器（BODY来源）：读取缓存的请求体，声明了Content-Encoding（gzip/deflate）时边解压边解析
+ */
+@Order(1)
+@Slf4j
+public class JsonPathExtractor implements ParameterExtractor {
+
+    // 非阻塞读取请求体时增量匹配得到的值（表达式 -> 值列表），存在时不再解析请求体
+    public static final String STREAMED_VALUES_ATTRIBUTE = JsonPathExtractor.class.getName() + ".STREAMED_VALUES";
+
+    private final ContentDecoding decoding;
+
+    public JsonPathExtractor() {
+        this(new ContentDecoding());
+    }
+
+    public JsonPathExtractor(ContentDecoding decoding) {
+        this.decoding = decoding;
+    }
+
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        // 基础校验链：快速失败原则
+        if (ParamSource.BODY != source) {
+            log.trace("参数[{}]来源非BODY，JSONPath提取器不处理", paramName);
+            return Collections.emptyList();
+        }
+        if (!useCachedRequest) {
+            log.trace("未启用缓存请求，JSONPath提取器不处理参数[{}]", paramName);
+            return Collections.emptyList();
+        }
+        if (!(request instanceof ContentCachingRequestWrapper)) {
+            log.warn("参数[{}]提取失败：请求不是ContentCachingRequestWrapper类型", paramName);
+            return Collections.emptyList();
+        }
+        if (!StringUtils.hasText(parseConfig)) {
+            log.warn("参数[{}]提取失败：JSONPath表达式为空", paramName);
+            return Collections.emptyList();
+        }
+        // 提前校验时使用增量匹配的结果
+        @SuppressWarnings("unchecked")
+        Map<String, List<String>> streamed = (Map<String, List<String>>) request.getAttribute(STREAMED_VALUES_ATTRIBUTE);
+        if (streamed != null && streamed.containsKey(parseConfig)) {
+            return streamed.get(parseConfig);
+        }
+
+        ContentCachingRequestWrapper wrapper = (ContentCachingRequestWrapper) request;
+        byte[] contentBytes = wrapper.getContentAsByteArray();
+
+        if (contentBytes.length == 0) {
+            log.trace("参数[{}]提取结果为空：请求体长度为0", paramName);
+            return Collections.emptyList();
+        }
+
+        try {
+            return JsonPathSupport.read(JsonPathSupport.document(contentBytes, request.getHeader(HttpHeaders.CONTENT_ENCODING), decoding),
+                    parseConfig, paramName);
+        } catch (JsonPathException e) {
+            log.error("参数[{}]JSONPath解析异常，表达式:{}", paramName, parseConfig, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.JSON_PATH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.BODY);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.security.extractor;
+
+import com.security.context.ValueList;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWT声明提取器（HEADER/COOKIE来源，解析方式JWT_CLAIM）
+ * <p>
+ * parseConfig格式为<code>[请求头/Cookie名:]声明路径</code>（如<code>staffId</code>、<code>Authorization:user.id</code>、
+ * <code>access_token:sub</code>）：HEADER来源未指定名称时读取Authorization请求头并去掉Bearer前缀，COOKIE来源必须指定Cookie名。
+ * 验签与声明缓存见{@link JwtVerifier}，令牌不存在或校验未通过时提取结果为空。
+ */
+@Slf4j
+public class JwtClaimExtractor implements ParameterExtractor {
+
+    private final JwtVerifier verifier;
+
+    public JwtClaimExtractor(JwtVerifier verifier) {
+        this.verifier = verifier;
+    }
+
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        ValueList values = new ValueList(1);
+        extractInto(request, paramName, parseConfig, source, useCachedRequest, values);
+        return values;
+    }
+
+    @Override
+    public void extractInto(HttpServletRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        if (!StringUtils.hasText(parseConfig)) {
+            log.warn("参数[{}]提取失败：JWT声明路径为空", paramName);
+            return;
+        }
+        String token;
+        if (ParamSource.HEADER == source) {
+            token = JwtVerifier.stripBearer(request.getHeader(JwtVerifier.tokenName(parseConfig, JwtVerifier.DEFAULT_HEADER)));
+        } else if (ParamSource.COOKIE == source) {
+            token = RequestIndex.of(request).cookie(request, JwtVerifier.tokenName(parseConfig, paramName));
+        } else {
+            log.trace("参数[{}]来源非HEADER/COOKIE，JWT声明提取器不处理", paramName);
+            return;
+        }
+        Map<String, Object> claims = verifier.verify(token);
+        if (claims == null) {
+            log.debug("参数[{}]提取结果为空：令牌不存在或校验未通过", paramName);
+            return;
+        }
+        JwtVerifier.readClaim(claims, JwtVerifier.claimPath(parseConfig), values);
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.JWT_CLAIM.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Arrays.asList(ParamSource.HEADER, ParamSource.COOKIE);
+    }
+}
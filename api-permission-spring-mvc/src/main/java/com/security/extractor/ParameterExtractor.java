@@ -0,0 +1,11 @@
+package com.security.extractor;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 参数提取器接口：定义参数提取的标准行为（Servlet请求）
+ * <p>
+ * 方法定义见{@link RequestExtractor}；Spring容器中的实现由自动配置注册到ExtractorFactory。
+ */
+public interface ParameterExtractor extends RequestExtractor<HttpServletRequest> {
+}
@@ -0,0 +1,88 @@
+package com.security.extractor;
+
+import com.security.context.ValueList;
+import com.security.engine.RuleMatch;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 提取URL路径中的模板变量（如/rest/users/{userId}中的userId）
+ * <p>
+ * 优先读取规则匹配时记录的路径变量（{@link #RULE_MATCH_ATTRIBUTE}），过滤器阶段即可使用，不依赖Spring MVC路由；
+ * 请求未经过规则匹配时回退为HandlerMapping解析的URI模板变量。
+ */
+@Order(1)
+@Slf4j
+public class PathMatchExtractor implements ParameterExtractor {
+
+    // 规则匹配结果（由PermissionFilter/PermissionInterceptor在匹配规则时写入）
+    public static final String RULE_MATCH_ATTRIBUTE = PathMatchExtractor.class.getName() + ".RULE_MATCH";
+
+    /**
+     * @param request          HTTP请求对象
+     * @param paramName        路径参数名称（如userId）
+     * @param parseConfig      预留配置（路径提取暂不使用）
+     * @param source           参数来源（必须为PATH）
+     * @param useCachedRequest 是否使用缓存请求（路径参数无需缓存，此参数忽略）
+     * @return 提取的参数值列表，无结果时返回空列表
+     */
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        String value = resolve(request, paramName, source);
+        return value != null ? Collections.singletonList(value) : Collections.emptyList();
+    }
+
+    @Override
+    public void extractInto(HttpServletRequest request, String paramName, String parseConfig,
+                            ParamSource source, boolean useCachedRequest, ValueList values) {
+        String value = resolve(request, paramName, source);
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private String resolve(HttpServletRequest request, String paramName, ParamSource source) {
+        if (ParamSource.PATH != source) {
+            log.trace("参数[{}]来源为[{}]，非路径参数，提取器不处理", paramName, source);
+            return null;
+        }
+        if (!StringUtils.hasText(paramName)) {
+            log.error("路径参数名称为空，无法执行提取操作");
+            return null;
+        }
+
+        Object match = request.getAttribute(RULE_MATCH_ATTRIBUTE);
+        if (match instanceof RuleMatch) {
+            return ((RuleMatch) match).getPathVariable(paramName);
+        }
+
+        // 未经过规则匹配：使用Spring MVC解析的路径变量
+        Object attrValue = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(attrValue instanceof Map)) {
+            log.debug("当前请求无路径变量，参数[{}]提取失败", paramName);
+            return null;
+        }
+        Object value = ((Map<?, ?>) attrValue).get(paramName);
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.PATH_MATCH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.PATH);
+    }
+}
@@ -0,0 +1,148 @@
+package com.security.extractor;
+
+import com.security.filter.ReplayableRequestWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 请求级的参数索引：Cookie、请求头、查询字符串与表单字段在首次访问时各解析一次，保存在请求属性中，随请求一起释放
+ * <p>
+ * 同一规则配置了多个COOKIE/HEADER/QUERY/FORM参数时只解析一次；索引只属于当前请求，不存在跨请求共享与并发访问。
+ * 查询参数直接解析getQueryString()，不经过容器的getParameter，避免触发表单请求体的读取。
+ * 请求头在读取次数较少时直接按名称读取，达到{@link #HEADER_INDEX_THRESHOLD}次才枚举全部请求头建立索引。
+ * <p>
+ * 请求属性在FORWARD/INCLUDE分发之间共享，而分发后的请求对象（查询字符串等）不同，索引记录创建它的请求对象，
+ * 不是同一对象时重新创建，避免沿用上一次分发的解析结果。
+ */
+@Slf4j
+final class RequestIndex {
+
+    private static final String ATTRIBUTE = RequestIndex.class.getName();
+    // 同一请求读取请求头达到该次数时建立请求头索引
+    private static final int HEADER_INDEX_THRESHOLD = 3;
+
+    // 创建索引的请求对象（每次分发不同）
+    private final HttpServletRequest owner;
+    private Map<String, String> cookies;
+    private Map<String, String> headers;
+    private Map<String, List<String>> query;
+    private Map<String, List<String>> form;
+    private int headerReads;
+    // 容器不允许枚举请求头（getHeaderNames返回null）时直接按名称读取
+    private boolean headerNamesUnavailable;
+
+    private RequestIndex(HttpServletRequest owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * 获取当前请求的索引（不存在或属于另一次分发时创建并保存到请求属性）
+     */
+    static RequestIndex of(HttpServletRequest request) {
+        Object index = request.getAttribute(ATTRIBUTE);
+        if (index instanceof RequestIndex && ((RequestIndex) index).owner == request) {
+            return (RequestIndex) index;
+        }
+        RequestIndex created = new RequestIndex(request);
+        request.setAttribute(ATTRIBUTE, created);
+        return created;
+    }
+
+    /**
+     * Cookie值，不存在时返回null
+     */
+    String cookie(HttpServletRequest request, String name) {
+        if (cookies == null) {
+            cookies = buildCookies(request.getCookies());
+        }
+        return cookies.get(name);
+    }
+
+    /**
+     * 请求头的值（名称不区分大小写，多值时取第一个），不存在时返回null
+     */
+    String header(HttpServletRequest request, String name) {
+        if (headers == null && (headerNamesUnavailable || ++headerReads < HEADER_INDEX_THRESHOLD)) {
+            return request.getHeader(name);
+        }
+        if (headers == null) {
+            Enumeration<String> names = request.getHeaderNames();
+            if (names == null) {
+                headerNamesUnavailable = true;
+                return request.getHeader(name);
+            }
+            headers = buildHeaders(request, names);
+        }
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 查询参数的全部值，不存在时返回null
+     */
+    List<String> query(HttpServletRequest request, String name) {
+        if (query == null) {
+            query = FormUrlEncodedParser.parseQuery(request.getQueryString());
+        }
+        return query.get(name);
+    }
+
+    /**
+     * 表单字段的全部值，不存在时返回null（只有过滤器包装过的请求才能读取请求体）
+     *
+     * @param maxBytes 允许读取的最大表单请求体字节数
+     */
+    List<String> form(HttpServletRequest request, String name, int maxBytes) {
+        if (form == null) {
+            form = buildForm(request, maxBytes);
+        }
+        return form.get(name);
+    }
+
+    // 过滤器之后的其他过滤器（Spring Security、HiddenHttpMethodFilter等）可能再次包装请求，按包装链查找
+    private static Map<String, List<String>> buildForm(HttpServletRequest request, int maxBytes) {
+        ReplayableRequestWrapper wrapper = WebUtils.getNativeRequest(request, ReplayableRequestWrapper.class);
+        if (wrapper == null) {
+            log.warn("表单参数提取失败：请求未经过ReplayableRequestWrapper包装");
+            return Collections.emptyMap();
+        }
+        try {
+            return wrapper.getFormParameters(maxBytes);
+        } catch (IOException e) {
+            log.error("表单请求体读取失败", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private static Map<String, String> buildCookies(Cookie[] cookies) {
+        if (cookies == null || cookies.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> cookieMap = new HashMap<>(cookies.length * 2);
+        for (Cookie cookie : cookies) {
+            cookieMap.put(cookie.getName(), cookie.getValue());
+        }
+        return cookieMap;
+    }
+
+    private static Map<String, String> buildHeaders(HttpServletRequest request, Enumeration<String> names) {
+        if (!names.hasMoreElements()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> headerMap = new HashMap<>();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            headerMap.putIfAbsent(name.toLowerCase(Locale.ROOT), request.getHeader(name));
+        }
+        return headerMap;
+    }
+}
@@ -0,0 +1,193 @@
+package com.security.extractor;
+
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 会话属性提取器（SESSION来源，解析方式SESSION_ATTRIBUTE）
+ * <p>
+ * parseConfig格式为<code>属性名</code>或<code>属性名:属性路径</code>（如<code>loginUser:staffId</code>、<code>loginUser:dept.id</code>），
+ * 留空时读取与参数名同名的会话属性；属性路径按Spring的属性访问语法读取（支持嵌套、<code>list[0]</code>、<code>map[key]</code>），
+ * 属性值本身为Map、List或数组时首段按键或下标取值（如<code>dept:children[1]</code>、<code>ids:[0]</code>）。
+ * 值为字符串、数值、布尔、UUID、枚举时转为字符串，集合/数组按元素展开，其他对象需配置属性路径。
+ * <p>
+ * 只读取已存在的会话（不创建新会话）；配置了{@link SessionValueCache}时按会话ID缓存转换后的值。
+ */
+@Slf4j
+public class SessionAttributeExtractor implements ParameterExtractor {
+
+    private static final char PATH_SEPARATOR = ':';
+
+    private final SessionValueCache cache;
+
+    public SessionAttributeExtractor() {
+        this(null);
+    }
+
+    /**
+     * @param cache 会话值缓存（为null时每次读取会话属性）
+     */
+    public SessionAttributeExtractor(SessionValueCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public List<String> extract(HttpServletRequest request, String paramName, String parseConfig,
+                                ParamSource source, boolean useCachedRequest) {
+        if (ParamSource.SESSION != source) {
+            log.trace("参数[{}]来源非SESSION，会话属性提取器不处理", paramName);
+            return Collections.emptyList();
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            log.trace("参数[{}]提取结果为空：请求没有关联的会话", paramName);
+            return Collections.emptyList();
+        }
+
+        String attribute = paramName;
+        String path = "";
+        if (StringUtils.hasText(parseConfig)) {
+            String config = parseConfig.trim();
+            int separator = config.indexOf(PATH_SEPARATOR);
+            attribute = separator >= 0 ? config.substring(0, separator).trim() : config;
+            path = separator >= 0 ? config.substring(separator + 1).trim() : "";
+        }
+        String propertyPath = path;
+        try {
+            if (cache != null) {
+                return cache.resolve(session, attribute, propertyPath, value -> derive(value, propertyPath, paramName));
+            }
+            return derive(session.getAttribute(attribute), propertyPath, paramName);
+        } catch (IllegalStateException e) {
+            // 会话在读取期间失效
+            log.debug("参数[{}]提取结果为空：会话已失效", paramName);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 从属性值按路径取值并转换为字符串列表
+     */
+    private static List<String> derive(Object attributeValue, String path, String paramName) {
+        Object value = attributeValue;
+        if (value != null && !path.isEmpty()) {
+            value = readPath(value, path, paramName);
+        }
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>(1);
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                addScalar(values, element, paramName);
+            }
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                addScalar(values, Array.get(value, i), paramName);
+            }
+        } else {
+            addScalar(values, value, paramName);
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static Object readPath(Object value, String path, String paramName) {
+        // 属性访问语法只能从Bean开始读取：Map、List、数组上的段（键、下标）逐段取值，遇到Bean后交给属性访问
+        Object current = value;
+        String rest = path;
+        while (current != null && !rest.isEmpty() && isContainer(current)) {
+            boolean indexed = rest.charAt(0) == '[';
+            int end = indexed ? rest.indexOf(']') : segmentEnd(rest);
+            if (end < 0 || (!indexed && !(current instanceof Map))) {
+                log.warn("参数[{}]会话属性路径[{}]读取失败：无法从{}读取[{}]", paramName, path, current.getClass().getName(), rest);
+                return null;
+            }
+            String key = indexed ? rest.substring(1, end) : rest.substring(0, end);
+            rest = rest.substring(indexed ? end + 1 : end);
+            if (rest.startsWith(".")) {
+                rest = rest.substring(1);
+            }
+            current = element(current, key, path, paramName);
+        }
+        if (current == null || rest.isEmpty()) {
+            return current;
+        }
+        try {
+            return PropertyAccessorFactory.forBeanPropertyAccess(current).getPropertyValue(rest);
+        } catch (BeansException e) {
+            log.warn("参数[{}]会话属性路径[{}]读取失败：{}", paramName, path, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isContainer(Object value) {
+        return value instanceof Map || value instanceof List || value.getClass().isArray();
+    }
+
+    // 属性名段的结束位置（下一个'.'或'['）
+    private static int segmentEnd(String path) {
+        int end = 0;
+        while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+            end++;
+        }
+        return end;
+    }
+
+    private static Object element(Object container, String key, String path, String paramName) {
+        if (container instanceof Map) {
+            // 与属性访问语法一致，方括号中的键可加引号（map['key']）
+            boolean quoted = key.length() >= 2 && (key.charAt(0) == '\'' || key.charAt(0) == '"')
+                    && key.charAt(key.length() - 1) == key.charAt(0);
+            return ((Map<?, ?>) container).get(quoted ? key.substring(1, key.length() - 1) : key);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(key.trim());
+        } catch (NumberFormatException e) {
+            log.warn("参数[{}]会话属性路径[{}]读取失败：下标[{}]不是整数", paramName, path, key);
+            return null;
+        }
+        int size = container instanceof List ? ((List<?>) container).size() : Array.getLength(container);
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return container instanceof List ? ((List<?>) container).get(index) : Array.get(container, index);
+    }
+
+    private static void addScalar(List<String> values, Object element, String paramName) {
+        if (element == null) {
+            return;
+        }
+        if (element instanceof CharSequence || element instanceof Number || element instanceof Boolean
+                || element instanceof UUID || element instanceof Enum) {
+            values.add(element.toString());
+        } else {
+            log.warn("参数[{}]会话属性值类型[{}]无法直接作为参数值，请在parseConfig中配置属性路径", paramName, element.getClass().getName());
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.SESSION_ATTRIBUTE.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.SESSION);
+    }
+}
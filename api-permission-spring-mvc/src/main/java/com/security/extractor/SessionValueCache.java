@@ -0,0 +1,161 @@
+package com.security.extractor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionAttributeListener;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionIdListener;
+import javax.servlet.http.HttpSessionListener;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 按会话ID缓存从会话属性得到的参数值（SESSION来源）
+ * <p>
+ * 同一会话的后续请求直接使用缓存值，不再读取会话属性（会话存储在Redis等远端时可避免每次请求反序列化完整的属性对象）。
+ * 作为会话监听器注册到容器：属性新增/替换/移除时使该属性的缓存失效，会话销毁或更换ID时移除整个会话的缓存。
+ * 与读取并发的失效通过会话的变更代数判断，读取期间发生变更的值不会留在缓存中。
+ * <p>
+ * 容器之外管理的会话（如Spring Session）不会触发属性监听，缓存值在cacheTtl后过期重新读取；
+ * 多实例部署时其他节点对会话的修改同样只能依靠过期生效，对时效敏感的属性应把有效期配置为较小值或0。
+ */
+@Slf4j
+public class SessionValueCache implements HttpSessionListener, HttpSessionAttributeListener, HttpSessionIdListener {
+
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final Map<String, SessionEntry> sessions = new ConcurrentHashMap<>(256);
+
+    /**
+     * @param ttlMillis   缓存值的有效期（毫秒，0表示不缓存）
+     * @param maxSessions 最多缓存的会话数
+     */
+    public SessionValueCache(long ttlMillis, int maxSessions) {
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * 获取会话属性得到的参数值：命中缓存时不读取会话属性，否则读取属性、由deriver转换后缓存
+     *
+     * @param session   当前请求的会话（不为null）
+     * @param attribute 会话属性名
+     * @param path      属性内的取值路径（仅作为缓存键的一部分，无路径时传空串）
+     * @param deriver   从属性值得到参数值（返回不可变列表）
+     */
+    public List<String> resolve(HttpSession session, String attribute, String path, Function<Object, List<String>> deriver) {
+        if (ttlMillis <= 0) {
+            return deriver.apply(session.getAttribute(attribute));
+        }
+        long now = System.currentTimeMillis();
+        String sessionId = session.getId();
+        SessionEntry entry = sessions.get(sessionId);
+        if (entry != null) {
+            Map<String, CachedValues> paths = entry.attributes.get(attribute);
+            CachedValues cached = paths != null ? paths.get(path) : null;
+            if (cached != null && cached.expiresAt > now) {
+                return cached.values;
+            }
+        } else {
+            if (sessions.size() >= maxSessions) {
+                evictExpired(now);
+            }
+            if (sessions.size() >= maxSessions) {
+                log.debug("缓存的会话数已达上限{}，会话属性[{}]直接读取", maxSessions, attribute);
+                return deriver.apply(session.getAttribute(attribute));
+            }
+            entry = sessions.computeIfAbsent(sessionId, id -> new SessionEntry());
+        }
+
+        // 读取前记录变更代数，读取期间属性发生变更时丢弃本次写入的缓存
+        long generation = entry.generation.get();
+        List<String> values = deriver.apply(session.getAttribute(attribute));
+        Map<String, CachedValues> paths = entry.attributes.computeIfAbsent(attribute, name -> new ConcurrentHashMap<>(4));
+        paths.put(path, new CachedValues(values, now + ttlMillis));
+        if (entry.generation.get() != generation) {
+            paths.remove(path);
+        }
+        return values;
+    }
+
+    /**
+     * 移除指定会话的全部缓存
+     */
+    public void evict(String sessionId) {
+        if (sessionId != null) {
+            sessions.remove(sessionId);
+        }
+    }
+
+    private void invalidate(HttpSession session, String attribute) {
+        SessionEntry entry = sessions.get(session.getId());
+        if (entry != null) {
+            entry.generation.incrementAndGet();
+            entry.attributes.remove(attribute);
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<SessionEntry> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            SessionEntry entry = iterator.next();
+            entry.attributes.values().removeIf(paths -> {
+                paths.values().removeIf(cached -> cached.expiresAt <= now);
+                return paths.isEmpty();
+            });
+            if (entry.attributes.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void attributeAdded(HttpSessionBindingEvent event) {
+        invalidate(event.getSession(), event.getName());
+    }
+
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        invalidate(event.getSession(), event.getName());
+    }
+
+    @Override
+    public void attributeReplaced(HttpSessionBindingEvent event) {
+        invalidate(event.getSession(), event.getName());
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        evict(event.getSession().getId());
+    }
+
+    @Override
+    public void sessionIdChanged(HttpSessionEvent event, String oldSessionId) {
+        // 更换会话ID（如登录时防御会话固定攻击）通常伴随属性变更，直接丢弃旧ID的缓存
+        evict(oldSessionId);
+    }
+
+    /**
+     * 单个会话的缓存：属性名 -> 取值路径 -> 参数值
+     */
+    private static final class SessionEntry {
+        private final Map<String, Map<String, CachedValues>> attributes = new ConcurrentHashMap<>(4);
+        private final AtomicLong generation = new AtomicLong();
+    }
+
+    private static final class CachedValues {
+        private final List<String> values;
+        private final long expiresAt;
+
+        private CachedValues(List<String> values, long expiresAt) {
+            this.values = values;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.security.filter;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.engine.RuleCheckerRegistry;
+import com.security.engine.ShadowEvaluator;
+import com.security.enums.EnforcementMode;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.exception.ErrorResponse;
+import com.security.extractor.ContentDecoding;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.IncrementalJsonMatcher;
+import com.security.extractor.JsonPathExtractor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步权限校验（ASYNC_FILTER模式）
+ * <p>
+ * 在PermissionFilter中开启AsyncContext，把提取与验证交给专用线程池执行，容器线程立即返回；
+ * 校验通过后dispatch到原请求的处理器，失败时由PermissionResponseWriter直接写出与GlobalExceptionHandler一致的错误响应。
+ * 线程池队列已满时由提交线程（容器线程）同步执行，保证不丢请求。
+ * <p>
+ * 开启early-body-evaluation时，JSON请求体通过ReadListener非阻塞读取并交给{@link IncrementalJsonMatcher}，
+ * 规则的JSONPath参数全部确定后立即校验（通常只需读取请求体的开头），拒绝的请求不再读取剩余内容；
+ * 通过的请求在请求体读完后分发，提前确定的值与完整请求体不一致时（如重复键）按完整解析重新校验。
+ * 提前校验时容器仍在向原请求写入请求体，校验线程只读取在容器线程上创建的{@link EarlyEvaluationRequest}副本。
+ * 每次校验都经过{@link #checkAndShadow}参与影子评估（重复键触发的重新校验同样参与抽样）。
+ */
+@Slf4j
+public class AsyncPermissionEnforcer implements InitializingBean, DisposableBean {
+
+    // 异步校验使用的上下文数据（ASYNC分发时由PermissionFilter绑定）
+    public static final String CONTEXT_ATTRIBUTE = AsyncPermissionEnforcer.class.getName() + ".CONTEXT";
+
+    @Autowired
+    private ApiPermissionConfig globalConfig;
+    @Autowired
+    private RuleCheckerRegistry<HttpServletRequest> ruleCheckerRegistry;
+    @Autowired
+    private PermissionResponseWriter responseWriter;
+    @Autowired
+    private ExtractorFactory<HttpServletRequest> extractorFactory;
+    // 候选规则的影子评估（配置了shadow.file时存在）
+    @Autowired(required = false)
+    private ShadowEvaluator<HttpServletRequest> shadowEvaluator;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (globalConfig.getEnforcementMode() != EnforcementMode.ASYNC_FILTER) {
+            return;
+        }
+        ApiPermissionConfig.AsyncEnforcement config = globalConfig.getAsyncEnforcement();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(config.getCorePoolSize());
+        executor.setMaxPoolSize(config.getMaxPoolSize());
+        executor.setQueueCapacity(config.getQueueCapacity());
+        executor.setThreadNamePrefix("permission-check-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        log.info("异步权限校验线程池初始化完成：core={}，max={}，queue={}",
+                config.getCorePoolSize(), config.getMaxPoolSize(), config.getQueueCapacity());
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 当前请求能否异步校验
+     */
+    public boolean isActive(HttpServletRequest request) {
+        return executor != null && request.isAsyncSupported();
+    }
+
+    /**
+     * 开启异步校验（调用后容器线程不得再处理该请求）
+     */
+    public void enforce(HttpServletRequest request, HttpServletResponse response,
+                        ApiPermissionConfig.Rule rule, PermissionContext.ContextData contextData) {
+        request.setAttribute(CONTEXT_ATTRIBUTE, contextData);
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(globalConfig.getAsyncEnforcement().getTimeoutMillis());
+
+        // 超时与校验结果只处理先到的一个
+        AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.addListener(new TimeoutListener(finished, request.getRequestURI()));
+
+        CompletableFuture
+                .supplyAsync(() -> checkAndShadow(request, rule, contextData), executor)
+                .whenComplete((passed, error) -> {
+                    if (!finished.compareAndSet(false, true)) {
+                        return;
+                    }
+                    if (error == null && Boolean.TRUE.equals(passed)) {
+                        asyncContext.dispatch();
+                        return;
+                    }
+                    try {
+                        responseWriter.writeFailure((HttpServletResponse) asyncContext.getResponse(), unwrap(error));
+                    } finally {
+                        asyncContext.complete();
+                    }
+                });
+    }
+
+    /**
+     * 在校验线程上执行规则校验，之后按抽样比例以候选规则评估同一请求（请求分发前，请求对象仍可读取；租户规则不参与）
+     * <p>
+     * 提前校验时传入的是请求副本，候选规则需要其他请求体字段时该字段提取失败，计为候选规则出错。
+     */
+    private boolean checkAndShadow(HttpServletRequest request, ApiPermissionConfig.Rule rule, PermissionContext.ContextData contextData) {
+        if (shadowEvaluator == null || rule.getTenant() != null) {
+            return ruleCheckerRegistry.getChecker(rule).check(request, contextData);
+        }
+        boolean passed;
+        try {
+            passed = ruleCheckerRegistry.getChecker(rule).check(request, contextData);
+        } catch (RuntimeException e) {
+            shadowEvaluator.evaluate(contextData.getUri(), request, contextData.isUseCachedRequest(), ShadowEvaluator.Outcome.of(e));
+            throw e;
+        }
+        shadowEvaluator.evaluate(contextData.getUri(), request, contextData.isUseCachedRequest(),
+                passed ? ShadowEvaluator.Outcome.ALLOW : ShadowEvaluator.Outcome.DENY);
+        return passed;
+    }
+
+    /**
+     * 创建规则BODY参数的增量匹配器（未开启提前校验、请求体不是未压缩的JSON、BODY参数不全是内置JSONPath提取器支持的表达式时返回null）
+     */
+    public IncrementalJsonMatcher earlyBodyMatcher(HttpServletRequest request, ApiPermissionConfig.Rule rule) {
+        if (!globalConfig.getAsyncEnforcement().isEarlyBodyEvaluation() || !(request instanceof ReplayableRequestWrapper)
+                || !isJson(request.getContentType()) || ContentDecoding.isEncoded(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            return null;
+        }
+        // 增量匹配的结果只由内置的JSONPath提取器读取
+        if (!(extractorFactory.getExtractor(ExtractorType.JSON_PATH.name()) instanceof JsonPathExtractor)) {
+            return null;
+        }
+        List<String> expressions = new ArrayList<>(4);
+        ApiPermissionConfig.PrincipalParam principal = rule.getPrincipalParam();
+        if (principal != null && principal.getSource() == ParamSource.BODY
+                && !addExpression(expressions, principal.getParseMethod(), principal.getParseConfig())) {
+            return null;
+        }
+        if (rule.getParamRules() != null) {
+            for (ApiPermissionConfig.ParamRule paramRule : rule.getParamRules()) {
+                if (paramRule.getSource() == ParamSource.BODY
+                        && !addExpression(expressions, paramRule.getParseMethod(), paramRule.getParseConfig())) {
+                    return null;
+                }
+            }
+        }
+        return IncrementalJsonMatcher.create(expressions);
+    }
+
+    private static boolean addExpression(List<String> expressions, String parseMethod, String parseConfig) {
+        if (!ExtractorType.JSON_PATH.name().equals(parseMethod) || !StringUtils.hasText(parseConfig)) {
+            return false;
+        }
+        expressions.add(parseConfig);
+        return true;
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.includes(type) || type.getSubtype().endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 开启异步校验，同时以非阻塞方式读取请求体（调用后容器线程不得再处理该请求）
+     */
+    public void enforceWhileReading(ReplayableRequestWrapper request, HttpServletResponse response, ApiPermissionConfig.Rule rule,
+                                    PermissionContext.ContextData contextData, IncrementalJsonMatcher matcher) throws IOException {
+        int maxBytes = globalConfig.getBodyMaxBytes();
+        if (request.getContentLengthLong() > maxBytes) {
+            responseWriter.writeFailure(response, ReplayableRequestWrapper.tooLarge(maxBytes));
+            return;
+        }
+        request.setAttribute(CONTEXT_ATTRIBUTE, contextData);
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(globalConfig.getAsyncEnforcement().getTimeoutMillis());
+
+        AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.addListener(new TimeoutListener(finished, request.getRequestURI()));
+
+        ServletInputStream input = request.nonBlockingInputStream();
+        input.setReadListener(new EarlyBodyReader(request, asyncContext, rule, contextData, matcher, input, finished));
+    }
+
+    private Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * 非阻塞读取请求体并在JSONPath参数确定后校验
+     * <p>
+     * 读取回调由容器串行调用，校验在线程池中执行，两者通过本对象上的锁交接状态：
+     * 校验不通过立即写出响应并结束请求；校验通过且请求体读完后分发。
+     */
+    private class EarlyBodyReader implements ReadListener {
+        private final ReplayableRequestWrapper request;
+        private final AsyncContext asyncContext;
+        private final ApiPermissionConfig.Rule rule;
+        private final PermissionContext.ContextData contextData;
+        private final IncrementalJsonMatcher matcher;
+        private final ServletInputStream input;
+        private final AtomicBoolean finished;
+        private final byte[] chunk = new byte[8192];
+        // 已读取的请求体字节数（只在容器的读取回调中访问），超过body-max-bytes时拒绝
+        private long received;
+
+        // 以下状态由this同步
+        private boolean evaluating;
+        private boolean streamedValues;
+        private boolean passed;
+        private boolean bodyComplete;
+        private boolean consistent;
+
+        private EarlyBodyReader(ReplayableRequestWrapper request, AsyncContext asyncContext, ApiPermissionConfig.Rule rule,
+                                PermissionContext.ContextData contextData, IncrementalJsonMatcher matcher,
+                                ServletInputStream input, AtomicBoolean finished) {
+            this.request = request;
+            this.asyncContext = asyncContext;
+            this.rule = rule;
+            this.contextData = contextData;
+            this.matcher = matcher;
+            this.input = input;
+            this.finished = finished;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            int n;
+            while (!finished.get() && input.isReady() && (n = input.read(chunk)) != -1) {
+                received += n;
+                if (received > globalConfig.getBodyMaxBytes()) {
+                    reject(ReplayableRequestWrapper.tooLarge(globalConfig.getBodyMaxBytes()));
+                    return;
+                }
+                // 确定之后继续匹配，用于发现重复键
+                matcher.feed(chunk, 0, n);
+                if (matcher.isResolved()) {
+                    evaluateEarly();
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            matcher.endOfInput();
+            request.completeNonBlockingRead();
+            boolean resolved = matcher.isResolved() && !matcher.isRematched();
+            boolean submit;
+            synchronized (this) {
+                bodyComplete = true;
+                consistent = resolved;
+                submit = !evaluating && !finished.get();
+                if (submit) {
+                    evaluating = true;
+                    streamedValues = resolved;
+                }
+            }
+            if (submit) {
+                // 未能提前确定：读完后校验，匹配结果可用时仍免去完整解析
+                if (resolved) {
+                    request.setAttribute(JsonPathExtractor.STREAMED_VALUES_ATTRIBUTE, matcher.values());
+                }
+                evaluate(request, contextData);
+            } else {
+                settle();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("请求 [{}] 读取请求体失败", request.getRequestURI(), t);
+            if (finished.compareAndSet(false, true)) {
+                asyncContext.complete();
+            }
+        }
+
+        private void evaluateEarly() {
+            synchronized (this) {
+                if (evaluating) {
+                    return;
+                }
+                evaluating = true;
+                streamedValues = true;
+            }
+            log.debug("请求 [{}] 的JSONPath参数已确定，提前校验", request.getRequestURI());
+            // 容器线程上复制请求信息，校验线程不读取仍在写入请求体的原请求
+            evaluate(new EarlyEvaluationRequest(request, matcher.values()), contextData);
+        }
+
+        /**
+         * 在线程池中校验（target为请求副本或已读完请求体的原请求）
+         */
+        private void evaluate(HttpServletRequest target, PermissionContext.ContextData data) {
+            CompletableFuture
+                    .supplyAsync(() -> checkAndShadow(target, rule, data), executor)
+                    .whenComplete((result, error) -> {
+                        if (error != null || !Boolean.TRUE.equals(result)) {
+                            reject(error);
+                            return;
+                        }
+                        synchronized (this) {
+                            passed = true;
+                        }
+                        settle();
+                    });
+        }
+
+        /**
+         * 校验通过且请求体读完后分发；提前确定的值与完整请求体不一致时重新校验
+         */
+        private void settle() {
+            boolean recheck;
+            synchronized (this) {
+                // 已超时或已拒绝的请求不再重新校验
+                if (!passed || !bodyComplete || finished.get()) {
+                    return;
+                }
+                recheck = streamedValues && !consistent;
+                if (recheck) {
+                    passed = false;
+                    streamedValues = false;
+                }
+            }
+            if (recheck) {
+                log.debug("请求 [{}] 的JSON请求体存在重复匹配，按完整请求体重新校验", request.getRequestURI());
+                PermissionContext.ContextData fresh = PermissionContext.detached();
+                fresh.setUri(contextData.getUri());
+                fresh.setUseCachedRequest(contextData.isUseCachedRequest());
+                fresh.setMultiParamMode(contextData.getMultiParamMode());
+                request.setAttribute(CONTEXT_ATTRIBUTE, fresh);
+                request.removeAttribute(JsonPathExtractor.STREAMED_VALUES_ATTRIBUTE);
+                evaluate(request, fresh);
+                return;
+            }
+            request.removeAttribute(JsonPathExtractor.STREAMED_VALUES_ATTRIBUTE);
+            if (finished.compareAndSet(false, true)) {
+                asyncContext.dispatch();
+            }
+        }
+
+        private void reject(Throwable error) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            synchronized (this) {
+                if (!bodyComplete) {
+                    // 剩余的请求体不再读取，响应后关闭连接
+                    response.setHeader(HttpHeaders.CONNECTION, "close");
+                }
+            }
+            try {
+                responseWriter.writeFailure(response, unwrap(error));
+            } finally {
+                asyncContext.complete();
+            }
+        }
+    }
+
+    /**
+     * 校验超时：返回503并结束请求
+     */
+    private class TimeoutListener implements AsyncListener {
+        private final AtomicBoolean finished;
+        private final String requestUri;
+
+        private TimeoutListener(AtomicBoolean finished, String requestUri) {
+            this.finished = finished;
+            this.requestUri = requestUri;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            log.warn("请求 [{}] 权限校验超时", requestUri);
+            responseWriter.writeJson((HttpServletResponse) event.getSuppliedResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    new ErrorResponse("503", "权限验证超时"));
+            event.getAsyncContext().complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.security.filter;
+
+import com.security.extractor.FormUrlEncodedParser;
+import com.security.extractor.JsonPathExtractor;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 提前校验使用的请求副本（ASYNC_FILTER模式的early-body-evaluation）
+ * <p>
+ * 提前校验在线程池中执行时，容器仍在通过ReadListener向原请求写入请求体，请求对象不是线程安全的。
+ * 本副本在容器线程上创建，复制提取器读取的请求信息（请求行、请求头、Cookie、查询参数、请求属性与会话），
+ * BODY参数只能使用增量匹配得到的JSONPath值；读取请求体时抛出IllegalStateException。
+ * 校验过程中写入的请求属性只保存在副本中。未复制的方法仍委托原请求，提取器与验证器不应在提前校验中使用。
+ */
+class EarlyEvaluationRequest extends ContentCachingRequestWrapper {
+
+    private final String method;
+    private final String requestUri;
+    private final String contextPath;
+    private final String servletPath;
+    private final String pathInfo;
+    private final String queryString;
+    private final String contentType;
+    private final String characterEncoding;
+    private final long contentLength;
+    private final String remoteAddr;
+    private final String serverName;
+    private final Principal userPrincipal;
+    private final HttpSession session;
+    private final Cookie[] cookies;
+    // 请求头：小写名称 -> 值，以及原始名称（保持顺序）
+    private final Map<String, List<String>> headers = new HashMap<>();
+    private final List<String> headerNames = new ArrayList<>();
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private Map<String, String[]> parameters;
+
+    /**
+     * 在容器线程上复制请求信息
+     *
+     * @param streamedValues 增量匹配得到的JSONPath值（表达式 -> 值列表）
+     */
+    EarlyEvaluationRequest(HttpServletRequest request, Map<String, List<String>> streamedValues) {
+        super(request, 0);
+        this.method = request.getMethod();
+        this.requestUri = request.getRequestURI();
+        this.contextPath = request.getContextPath();
+        this.servletPath = request.getServletPath();
+        this.pathInfo = request.getPathInfo();
+        this.queryString = request.getQueryString();
+        this.contentType = request.getContentType();
+        this.characterEncoding = request.getCharacterEncoding();
+        this.contentLength = request.getContentLengthLong();
+        this.remoteAddr = request.getRemoteAddr();
+        this.serverName = request.getServerName();
+        this.userPrincipal = request.getUserPrincipal();
+        this.session = request.getSession(false);
+        Cookie[] original = request.getCookies();
+        this.cookies = original != null ? original.clone() : null;
+        Enumeration<String> names = request.getHeaderNames();
+        if (names != null) {
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                List<String> values = headers.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> {
+                    headerNames.add(name);
+                    return new ArrayList<>(1);
+                });
+                values.addAll(Collections.list(request.getHeaders(name)));
+            }
+        }
+        Enumeration<String> attributeNames = request.getAttributeNames();
+        while (attributeNames.hasMoreElements()) {
+            String name = attributeNames.nextElement();
+            attributes.put(name, request.getAttribute(name));
+        }
+        attributes.put(JsonPathExtractor.STREAMED_VALUES_ATTRIBUTE, streamedValues);
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    @Override
+    public String getServletPath() {
+        return servletPath;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return pathInfo;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public int getContentLength() {
+        return contentLength > Integer.MAX_VALUE ? -1 : (int) contentLength;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return contentLength;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    @Override
+    public String getServerName() {
+        return serverName;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return userPrincipal;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return userPrincipal != null ? userPrincipal.getName() : null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (session == null && create) {
+            throw new IllegalStateException("提前校验时不能创建会话");
+        }
+        return session;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return cookies;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        List<String> values = headers.get(name.toLowerCase(Locale.ROOT));
+        return Collections.enumeration(values != null ? values : Collections.emptyList());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headerNames);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(new ArrayList<>(attributes.keySet()));
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // JSON请求没有表单字段，参数只来自查询字符串
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterMap().get(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        String[] values = getParameterMap().get(name);
+        return values != null ? values.clone() : null;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameters == null) {
+            Map<String, String[]> parsed = new LinkedHashMap<>();
+            FormUrlEncodedParser.parseQuery(queryString).forEach((name, values) -> parsed.put(name, values.toArray(new String[0])));
+            parameters = Collections.unmodifiableMap(parsed);
+        }
+        return parameters;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        throw bodyUnavailable();
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        throw bodyUnavailable();
+    }
+
+    @Override
+    public byte[] getContentAsByteArray() {
+        throw bodyUnavailable();
+    }
+
+    private static IllegalStateException bodyUnavailable() {
+        return new IllegalStateException("提前校验时请求体仍在读取，只能使用已确定的JSONPath值");
+    }
+}
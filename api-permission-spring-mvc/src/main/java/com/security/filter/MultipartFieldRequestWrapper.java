@@ -0,0 +1,589 @@
+package com.security.filter;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.extractor.FormUrlEncodedParser;
+import com.security.extractor.MultipartStreamParser;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件上传请求的流式字段包装
+ * <p>
+ * {@link #getFieldValues(String)}只读取第一个文件部分之前的文本字段（有字节上限），读到文件部分的头信息即停止，
+ * 文件内容不会被读取或缓存，因此过滤器阶段可以在上传完成之前做出校验决定。请求中存在文件部分而要校验的字段不在其之前时，
+ * 字段可能位于文件部分之后（处理器仍能读到），无法校验，按拒绝处理。
+ * 扫描过的字节保存在内存中，之后getInputStream从这些字节与剩余的输入流拼接重放；容器已无法解析完整的请求体，
+ * getParts/getParameter系列方法改为由本包装解析，遵循MultipartConfigElement：maxFileSize限制每个部分，
+ * maxRequestSize限制整个请求体，不超过fileSizeThreshold的文件部分保留在内存，超过时写入临时文件。
+ * 未扫描时所有方法直接委托给容器。
+ */
+@Slf4j
+public class MultipartFieldRequestWrapper extends HttpServletRequestWrapper {
+
+    private final ApiPermissionConfig.Multipart limits;
+    private final MultipartConfigElement multipartConfig;
+
+    // 扫描到的文本字段（第一个文件部分之前）
+    private final Map<String, List<String>> fields = new HashMap<>();
+    private RecordingInputStream recording;
+    private boolean scanned;
+    // 扫描在文件部分处停止（其后的字段未读取）
+    private boolean stoppedAtFile;
+    // 容器已经读取过请求体（未扫描时调用了getInputStream/getParts等），不能再扫描
+    private boolean delegated;
+
+    private ServletInputStream replay;
+    private Map<String, List<String>> partParameters;
+    private List<Part> parts;
+
+    public MultipartFieldRequestWrapper(HttpServletRequest request, ApiPermissionConfig.Multipart limits,
+                                        MultipartConfigElement multipartConfig) {
+        super(request);
+        this.limits = limits;
+        this.multipartConfig = multipartConfig;
+    }
+
+    /**
+     * 请求体是否仍可由本包装扫描（容器尚未读取）
+     */
+    public boolean isScannable() {
+        return !delegated;
+    }
+
+    /**
+     * 第一个文件部分之前的文本字段值，请求中没有文件部分且字段不存在时返回null
+     *
+     * @throws IllegalArgumentException    单个字段或文件部分之前的内容超过上限
+     * @throws CustomAccessDeniedException 字段不在第一个文件部分之前（可能位于文件部分之后，无法在不缓存上传内容的情况下校验）
+     */
+    public List<String> getFieldValues(String name) throws IOException {
+        if (!scanned) {
+            scanLeadingFields();
+        }
+        List<String> values = fields.get(name);
+        if (values == null && stoppedAtFile) {
+            throw CustomAccessDeniedException.stackless("multipart字段[" + name + "]不在第一个文件部分之前，无法校验");
+        }
+        return values;
+    }
+
+    private void scanLeadingFields() throws IOException {
+        scanned = true;
+        String boundary = MultipartStreamParser.boundaryOf(getContentType());
+        recording = new RecordingInputStream(super.getInputStream(), limits.getMaxScanBytes());
+        MultipartStreamParser parser = new MultipartStreamParser(recording, boundary);
+        Charset charset = requestCharset();
+        MultipartStreamParser.PartHeaders part;
+        while ((part = parser.nextPart()) != null) {
+            if (part.isFile()) {
+                stoppedAtFile = true;
+                break;
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            parser.readContent(content, limits.getMaxFieldBytes());
+            if (part.getName() != null) {
+                fields.computeIfAbsent(part.getName(), k -> new ArrayList<>(1)).add(new String(content.toByteArray(), charset));
+            }
+        }
+        log.debug("multipart请求扫描到{}个文本字段，读取{}字节", fields.size(), recording.size());
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (!scanned) {
+            delegated = true;
+            return super.getInputStream();
+        }
+        if (replay == null) {
+            replay = new ReplayInputStream(new SequenceInputStream(
+                    new ByteArrayInputStream(recording.toByteArray()), recording.remaining()));
+        }
+        return replay;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (!scanned) {
+            delegated = true;
+            return super.getReader();
+        }
+        return new BufferedReader(new InputStreamReader(getInputStream(), requestCharset()));
+    }
+
+    @Override
+    public Collection<Part> getParts() throws IOException, ServletException {
+        if (!scanned) {
+            delegated = true;
+            return super.getParts();
+        }
+        parseParts();
+        return Collections.unmodifiableList(parts);
+    }
+
+    @Override
+    public Part getPart(String name) throws IOException, ServletException {
+        if (!scanned) {
+            delegated = true;
+            return super.getPart(name);
+        }
+        parseParts();
+        for (Part part : parts) {
+            if (name.equals(part.getName())) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterValues(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        if (!scanned) {
+            delegated = true;
+            return super.getParameterValues(name);
+        }
+        List<String> values = parameters().get(name);
+        return values != null ? values.toArray(new String[0]) : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (!scanned) {
+            delegated = true;
+            return super.getParameterMap();
+        }
+        Map<String, String[]> parameterMap = new LinkedHashMap<>();
+        parameters().forEach((name, values) -> parameterMap.put(name, values.toArray(new String[0])));
+        return Collections.unmodifiableMap(parameterMap);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        if (!scanned) {
+            delegated = true;
+            return super.getParameterNames();
+        }
+        return Collections.enumeration(parameters().keySet());
+    }
+
+    /**
+     * 删除解析时创建的临时文件（请求结束时调用）
+     */
+    public void cleanup() {
+        if (parts == null) {
+            return;
+        }
+        for (Part part : parts) {
+            try {
+                part.delete();
+            } catch (IOException e) {
+                log.warn("删除上传临时文件失败：{}", part.getSubmittedFileName(), e);
+            }
+        }
+    }
+
+    // 查询参数在前、文本字段在后（与容器的合并顺序一致），查询参数直接解析查询字符串，不经过容器
+    private Map<String, List<String>> parameters() {
+        if (partParameters != null) {
+            return partParameters;
+        }
+        try {
+            parseParts();
+        } catch (IOException e) {
+            throw new IllegalStateException("multipart请求体读取失败", e);
+        }
+        Map<String, List<String>> merged = new LinkedHashMap<>();
+        FormUrlEncodedParser.parseQuery(getQueryString()).forEach((name, values) -> merged.put(name, new ArrayList<>(values)));
+        for (Part part : parts) {
+            if (part instanceof StreamedPart && ((StreamedPart) part).text != null && part.getName() != null) {
+                merged.computeIfAbsent(part.getName(), k -> new ArrayList<>(1)).add(((StreamedPart) part).text);
+            }
+        }
+        partParameters = merged;
+        return partParameters;
+    }
+
+    /**
+     * 从重放流解析全部部分：文本字段保留在内存，文件部分按fileSizeThreshold保留在内存或写入临时文件
+     */
+    private void parseParts() throws IOException {
+        if (parts != null) {
+            return;
+        }
+        long maxFileSize = multipartConfig != null ? multipartConfig.getMaxFileSize() : -1;
+        long maxRequestSize = multipartConfig != null ? multipartConfig.getMaxRequestSize() : -1;
+        int fileSizeThreshold = multipartConfig != null ? multipartConfig.getFileSizeThreshold() : 0;
+        File location = uploadLocation();
+        Charset charset = requestCharset();
+        if (maxRequestSize >= 0 && getContentLengthLong() > maxRequestSize) {
+            // 与容器一致的提示，Spring据此转换为MaxUploadSizeExceededException
+            throw new IllegalStateException("multipart请求体超过" + maxRequestSize + "字节：maximum request size exceeded");
+        }
+
+        List<Part> parsed = new ArrayList<>();
+        CountingInputStream body = new CountingInputStream(getInputStream(), maxRequestSize);
+        MultipartStreamParser parser = new MultipartStreamParser(body, MultipartStreamParser.boundaryOf(getContentType()));
+        try {
+            MultipartStreamParser.PartHeaders headers;
+            while ((headers = parser.nextPart()) != null) {
+                if (!headers.isFile()) {
+                    ByteArrayOutputStream content = new ByteArrayOutputStream();
+                    parser.readContent(content, maxFileSize);
+                    parsed.add(new StreamedPart(headers, new String(content.toByteArray(), charset), content.toByteArray(), null, location));
+                    continue;
+                }
+                ThresholdOutputStream content = new ThresholdOutputStream(fileSizeThreshold, location);
+                try {
+                    parser.readContent(content, maxFileSize);
+                    content.close();
+                } catch (IOException | RuntimeException e) {
+                    content.discard();
+                    throw e;
+                }
+                parsed.add(new StreamedPart(headers, null, content.bytes(), content.file(), location));
+            }
+        } catch (IOException | RuntimeException e) {
+            parsed.forEach(part -> {
+                try {
+                    part.delete();
+                } catch (IOException ignored) {
+                    // 清理失败不影响异常传播
+                }
+            });
+            if (body.exceeded()) {
+                throw new IllegalStateException("multipart请求体超过" + maxRequestSize + "字节：maximum request size exceeded", e);
+            }
+            if (e instanceof MultipartStreamParser.SizeLimitExceededException) {
+                throw new IllegalStateException("上传部分超过" + maxFileSize + "字节：maximum file size exceeded", e);
+            }
+            if (e instanceof IllegalArgumentException) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            throw e;
+        }
+        parts = parsed;
+    }
+
+    private File uploadLocation() {
+        if (multipartConfig != null && multipartConfig.getLocation() != null && !multipartConfig.getLocation().isEmpty()) {
+            return new File(multipartConfig.getLocation());
+        }
+        ServletContext servletContext = getServletContext();
+        Object tempDir = servletContext != null ? servletContext.getAttribute(ServletContext.TEMPDIR) : null;
+        return tempDir instanceof File ? (File) tempDir : new File(System.getProperty("java.io.tmpdir"));
+    }
+
+    private Charset requestCharset() {
+        String encoding = getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 记录已读取字节的输入流（扫描阶段使用）
+     * <p>
+     * 每次最多读取剩余额度内的字节，解析器的预读不会超出上限；额度用完后解析器仍需要数据，
+     * 说明文件部分之前的内容确实超过上限（请求体恰好在上限处结束时正常返回结束）。
+     */
+    private static class RecordingInputStream extends InputStream {
+        private final InputStream delegate;
+        private final int maxBytes;
+        private final ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+
+        private RecordingInputStream(InputStream delegate, int maxBytes) {
+            this.delegate = delegate;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int allowed = maxBytes - recorded.size();
+            if (allowed <= 0) {
+                if (delegate.read() == -1) {
+                    return -1;
+                }
+                throw new IllegalArgumentException("multipart请求中文件部分之前的内容超过" + maxBytes + "字节，无法进行权限校验");
+            }
+            int read = delegate.read(b, off, Math.min(len, allowed));
+            if (read > 0) {
+                recorded.write(b, off, read);
+            }
+            return read;
+        }
+
+        int size() {
+            return recorded.size();
+        }
+
+        byte[] toByteArray() {
+            return recorded.toByteArray();
+        }
+
+        InputStream remaining() {
+            return delegate;
+        }
+    }
+
+    /**
+     * 统计请求体字节数的输入流（解析全部部分时使用，超过maxRequestSize时失败）
+     */
+    private static class CountingInputStream extends InputStream {
+        private final InputStream delegate;
+        private final long maxBytes;
+        private long count;
+
+        private CountingInputStream(InputStream delegate, long maxBytes) {
+            this.delegate = delegate;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (exceeded()) {
+                throw new MultipartStreamParser.SizeLimitExceededException("multipart请求体超过" + maxBytes + "字节");
+            }
+        }
+
+        boolean exceeded() {
+            return maxBytes >= 0 && count > maxBytes;
+        }
+    }
+
+    /**
+     * 文件部分的内容：不超过阈值时保留在内存，超过时把已有内容与后续内容写入临时文件
+     */
+    private static class ThresholdOutputStream extends OutputStream {
+        private final int threshold;
+        private final File location;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream fileOut;
+
+        private ThresholdOutputStream(int threshold, File location) {
+            this.threshold = threshold;
+            this.location = location;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && memory.size() + len > threshold) {
+                file = File.createTempFile("api-permission-upload-", ".tmp", location);
+                fileOut = Files.newOutputStream(file.toPath());
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        /**
+         * 读取失败时关闭并删除临时文件
+         */
+        void discard() throws IOException {
+            close();
+            if (file != null) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+
+        byte[] bytes() {
+            return memory != null ? memory.toByteArray() : null;
+        }
+
+        File file() {
+            return file;
+        }
+    }
+
+    private static class ReplayInputStream extends ServletInputStream {
+        private final InputStream delegate;
+        private boolean finished;
+
+        private ReplayInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            finished = b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            finished = read == -1;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("请求体已部分读取，不支持非阻塞读取");
+        }
+    }
+
+    /**
+     * 本包装解析出的部分：文本字段与不超过阈值的文件保存在内存，其余文件部分对应临时文件
+     */
+    private static class StreamedPart implements Part {
+        private final MultipartStreamParser.PartHeaders headers;
+        private final String text;
+        private final byte[] bytes;
+        private final File file;
+        private final File location;
+
+        private StreamedPart(MultipartStreamParser.PartHeaders headers, String text, byte[] bytes, File file, File location) {
+            this.headers = headers;
+            this.text = text;
+            this.bytes = bytes;
+            this.file = file;
+            this.location = location;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return file != null ? Files.newInputStream(file.toPath()) : new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public String getContentType() {
+            return headers.getContentType();
+        }
+
+        @Override
+        public String getName() {
+            return headers.getName();
+        }
+
+        @Override
+        public String getSubmittedFileName() {
+            return headers.getFilename();
+        }
+
+        @Override
+        public long getSize() {
+            return file != null ? file.length() : bytes.length;
+        }
+
+        @Override
+        public void write(String fileName) throws IOException {
+            // 相对路径按上传目录解析（与容器一致），临时文件由delete统一清理
+            File target = new File(fileName);
+            if (!target.isAbsolute()) {
+                target = new File(location, fileName);
+            }
+            if (file == null) {
+                Files.write(target.toPath(), bytes);
+                return;
+            }
+            Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public void delete() throws IOException {
+            if (file != null) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.getHeader(name);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            String value = headers.getHeader(name);
+            return value != null ? Collections.singletonList(value) : Collections.emptyList();
+        }
+
+        @Override
+        public Collection<String> getHeaderNames() {
+            return headers.getHeaderNames();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.security.filter;
+
+import com.security.async.PermissionContextAsyncInterceptor;
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleSnapshot;
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+import com.security.engine.RuleCheckerRegistry;
+import com.security.engine.RuleMatch;
+import com.security.engine.RuleMatcher;
+import com.security.engine.ShadowEvaluator;
+import com.security.exception.RequestBodyTooLargeException;
+import com.security.extractor.IncrementalJsonMatcher;
+import com.security.extractor.PathMatchExtractor;
+import com.security.enums.EnforcementMode;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+public class PermissionFilter implements Filter {
+
+    // 使用Spring自带的HttpMethod枚举定义需要读取请求体的方法
+    private static final List<HttpMethod> METHODS_NEEDING_BODY = Arrays.asList(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    // 过滤器阶段已完成校验的标记（PermissionInterceptor据此跳过）
+    public static final String ENFORCED_ATTRIBUTE = PermissionFilter.class.getName() + ".ENFORCED";
+
+    // 文件上传的Content-Type前缀
+    private static final String MULTIPART_CONTENT_TYPE_PREFIX = "multipart/";
+
+    @Autowired
+    private ApiPermissionConfig globalConfig;
+    @Autowired
+    private RuleMatcher ruleMatcher;
+    @Autowired
+    private RuleCheckerRegistry<HttpServletRequest> ruleCheckerRegistry;
+    @Autowired
+    private AsyncPermissionEnforcer asyncPermissionEnforcer;
+    @Autowired
+    private PermissionResponseWriter responseWriter;
+    // 文件上传的大小限制（由本过滤器解析上传内容时遵循），未配置时不限制
+    @Autowired(required = false)
+    private MultipartConfigElement multipartConfig;
+    // 候选规则的影子评估（配置了shadow.file时存在）
+    @Autowired(required = false)
+    private ShadowEvaluator<HttpServletRequest> shadowEvaluator;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+
+        if (!(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        // 异步结果的再分发：权限已在原始请求中校验，只恢复上下文
+        if (httpRequest.getDispatcherType() == DispatcherType.ASYNC) {
+            // 过滤器异步校验通过后的分发：绑定校验时使用的上下文数据
+            PermissionContext.ContextData offloaded = (PermissionContext.ContextData) httpRequest.getAttribute(AsyncPermissionEnforcer.CONTEXT_ATTRIBUTE);
+            if (offloaded != null) {
+                runBound(offloaded, () -> chain.doFilter(request, response));
+                return;
+            }
+            ContextSnapshot snapshot = (ContextSnapshot) httpRequest.getAttribute(PermissionContextAsyncInterceptor.SNAPSHOT_ATTRIBUTE);
+            try (PermissionContext.Scope ignored = PermissionContext.restore(snapshot)) {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        // 在上下文绑定范围内处理请求（JDK 25的虚拟线程上为ScopedValue绑定，其余为线程复用的ThreadLocal）
+        runBound(null, () -> doFilterInContext(httpRequest, response, chain));
+    }
+
+    // 在上下文绑定范围内执行：data为null时绑定新的请求上下文，否则绑定已有的上下文数据
+    private static void runBound(PermissionContext.ContextData data, PermissionContext.BoundAction<Exception> action) throws IOException, ServletException {
+        try {
+            if (data == null) {
+                PermissionContext.runBound(action);
+            } else {
+                PermissionContext.runBound(data, action);
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    private void doFilterInContext(HttpServletRequest httpRequest, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        String requestUri = httpRequest.getRequestURI();
+        HttpServletRequest wrappedRequest = httpRequest;
+
+        // 解析请求方法为Spring HttpMethod枚举（自动处理大小写和非法值）
+        HttpMethod httpMethod = HttpMethod.resolve(httpRequest.getMethod());
+
+        // 初始化上下文
+        PermissionContext.init();
+        PermissionContext.getContextData().setUri(requestUri);
+
+        try {
+            // 判断是否需要缓存请求体（基于HttpMethod枚举）
+            if (shouldCacheRequestBody(httpRequest, httpMethod)) {
+                wrappedRequest = new ReplayableRequestWrapper(httpRequest);
+                PermissionContext.getContextData().setUseCachedRequest(true);
+            } else if (isMultipartUpload(httpRequest, httpMethod)) {
+                // 文件上传不缓存，只在需要时流式读取文件部分之前的文本字段
+                wrappedRequest = new MultipartFieldRequestWrapper(httpRequest, globalConfig.getMultipart(), multipartConfig);
+            }
+            // FILTER/ASYNC_FILTER模式：在进入DispatcherServlet之前校验，拒绝或转入异步校验时不再执行过滤器链
+            if (enforceInFilter(wrappedRequest, (HttpServletResponse) response)) {
+                return;
+            }
+            // 执行过滤器链
+            chain.doFilter(wrappedRequest, response);
+        } catch (Exception e) {
+            log.error("请求 [{} {}] 处理异常", httpMethod, requestUri, e);
+            throw e;
+        } finally {
+            // 直接使用AsyncContext等未经过MVC异步拦截器的场景，在清理前保存快照供ASYNC分发恢复
+            if (httpRequest.isAsyncStarted() && httpRequest.getAttribute(PermissionContextAsyncInterceptor.SNAPSHOT_ATTRIBUTE) == null
+                    && httpRequest.getAttribute(AsyncPermissionEnforcer.CONTEXT_ATTRIBUTE) == null) {
+                ContextSnapshot snapshot = PermissionContext.capture();
+                if (snapshot != null) {
+                    httpRequest.setAttribute(PermissionContextAsyncInterceptor.SNAPSHOT_ATTRIBUTE, snapshot);
+                }
+            }
+            if (wrappedRequest instanceof MultipartFieldRequestWrapper && !httpRequest.isAsyncStarted()) {
+                ((MultipartFieldRequestWrapper) wrappedRequest).cleanup();
+            }
+            PermissionContext.clear();
+        }
+    }
+
+    /**
+     * 过滤器阶段校验：FILTER模式在容器线程同步校验，ASYNC_FILTER模式转入专用线程池
+     *
+     * @return 请求已处理完毕（拒绝已写出响应，或已开启异步校验）时返回true
+     */
+    private boolean enforceInFilter(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        EnforcementMode mode = globalConfig.getEnforcementMode();
+        if (!globalConfig.isEnabled() || mode == EnforcementMode.INTERCEPTOR) {
+            return false;
+        }
+        // 不支持异步的请求仍由拦截器同步校验
+        boolean offload = mode == EnforcementMode.ASYNC_FILTER;
+        if (offload && !asyncPermissionEnforcer.isActive(request)) {
+            return false;
+        }
+        RuleMatch match;
+        try {
+            RuleSnapshot snapshot = ruleMatcher.snapshotFor(request.getRequestURI(), request::getHeader, request.getServerName());
+            match = ruleMatcher.matchFor(snapshot, request.getRequestURI());
+        } catch (RuntimeException e) {
+            // 租户标识格式不正确（400）或租户规则加载失败（500）
+            responseWriter.writeFailure(response, e);
+            return true;
+        }
+        if (match == null || !match.getRule().isEnabled()) {
+            return false;
+        }
+
+        // 路径变量在规则匹配时已记录，PATH参数无需等待MVC路由
+        ApiPermissionConfig.Rule rule = match.getRule();
+        request.setAttribute(PathMatchExtractor.RULE_MATCH_ATTRIBUTE, match);
+        // JSON请求体边读边校验，不预读
+        IncrementalJsonMatcher matcher = offload ? asyncPermissionEnforcer.earlyBodyMatcher(request, rule) : null;
+        if (matcher == null) {
+            try {
+                preloadBodyIfRequired(request, rule);
+            } catch (RequestBodyTooLargeException e) {
+                responseWriter.writeFailure(response, e);
+                return true;
+            }
+        }
+        if (offload) {
+            offloadPermissionCheck(request, response, rule, matcher);
+            return true;
+        }
+
+        PermissionContext.ContextData contextData = PermissionContext.getContextData();
+        contextData.setMultiParamMode(rule.getMultiParamMode());
+        request.setAttribute(ENFORCED_ATTRIBUTE, Boolean.TRUE);
+        try {
+            if (ruleCheckerRegistry.getChecker(rule).check(request, contextData)) {
+                shadow(request, rule, contextData, ShadowEvaluator.Outcome.ALLOW);
+                return false;
+            }
+            shadow(request, rule, contextData, ShadowEvaluator.Outcome.DENY);
+            responseWriter.writeDenied(response);
+        } catch (RuntimeException e) {
+            shadow(request, rule, contextData, ShadowEvaluator.Outcome.of(e));
+            responseWriter.writeFailure(response, e);
+        }
+        return true;
+    }
+
+    /**
+     * 按抽样比例以候选规则评估同一请求（只记录决策，不影响本次校验结果；候选规则对应全局规则，按租户规则校验的请求不参与）
+     */
+    private void shadow(HttpServletRequest request, ApiPermissionConfig.Rule rule, PermissionContext.ContextData contextData,
+                        ShadowEvaluator.Outcome active) {
+        if (shadowEvaluator != null && rule.getTenant() == null) {
+            shadowEvaluator.evaluate(request.getRequestURI(), request, contextData.isUseCachedRequest(), active);
+        }
+    }
+
+    /**
+     * 异步校验：使用独立于线程复用容器的上下文数据，校验线程与后续的ASYNC分发共享
+     */
+    private void offloadPermissionCheck(HttpServletRequest request, HttpServletResponse response, ApiPermissionConfig.Rule rule,
+                                        IncrementalJsonMatcher matcher) throws IOException {
+        PermissionContext.ContextData pooled = PermissionContext.getContextData();
+        PermissionContext.ContextData contextData = PermissionContext.detached();
+        contextData.setUri(pooled.getUri());
+        contextData.setUseCachedRequest(pooled.isUseCachedRequest());
+        contextData.setMultiParamMode(rule.getMultiParamMode());
+        if (matcher != null) {
+            asyncPermissionEnforcer.enforceWhileReading((ReplayableRequestWrapper) request, response, rule, contextData, matcher);
+        } else {
+            asyncPermissionEnforcer.enforce(request, response, rule, contextData);
+        }
+    }
+
+    /**
+     * 规则需要BODY参数时按body-max-bytes预读请求体（过滤器阶段下游尚未读取请求体；表单请求不预读，FORM参数由提取器按上限流式解析）
+     */
+    private void preloadBodyIfRequired(HttpServletRequest request, ApiPermissionConfig.Rule rule) throws IOException {
+        if (!(request instanceof ReplayableRequestWrapper) || !requiresBody(rule)) {
+            return;
+        }
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+            return;
+        }
+        ((ReplayableRequestWrapper) request).preload(globalConfig.getBodyMaxBytes());
+    }
+
+    private boolean requiresBody(ApiPermissionConfig.Rule rule) {
+        if (rule.getPrincipalParam() != null && rule.getPrincipalParam().getSource() == ParamSource.BODY) {
+            return true;
+        }
+        if (rule.getParamRules() != null) {
+            for (ApiPermissionConfig.ParamRule paramRule : rule.getParamRules()) {
+                if (paramRule.getSource() == ParamSource.BODY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isMultipartUpload(HttpServletRequest request, HttpMethod httpMethod) {
+        if (httpMethod == null || !METHODS_NEEDING_BODY.contains(httpMethod)) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    /**
+     * 判断是否需要缓存请求体IO流（基于Spring HttpMethod枚举）
+     */
+    private boolean shouldCacheRequestBody(HttpServletRequest request, HttpMethod httpMethod) {
+        // 1. 排除无法识别的HTTP方法
+        if (httpMethod == null) {
+            return false;
+        }
+
+        // 2. 检查是否是需要请求体的方法（使用枚举集合判断）
+        if (!METHODS_NEEDING_BODY.contains(httpMethod)) {
+            return false;
+        }
+
+        // 3. 排除文件上传请求
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith(MULTIPART_CONTENT_TYPE_PREFIX)) {
+            log.debug("请求 [{} {}] 是文件上传，不缓存IO流", httpMethod, request.getRequestURI());
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+package com.security.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.exception.ErrorResponse;
+import com.security.exception.RequestBodyTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 过滤器阶段直接写出校验失败响应（状态码与响应体与GlobalExceptionHandler保持一致）
+ * <p>
+ * 403响应体按提示信息预编码并缓存（提示信息来自规则配置的参数名，数量有限），
+ * 拒绝请求时只写出字节，不经过DispatcherServlet、异常处理器和Jackson序列化。
+ */
+@Slf4j
+public class PermissionResponseWriter {
+
+    // 校验未通过的提示（与PermissionInterceptor一致）
+    public static final String DENIED_MESSAGE = "越权访问：参数不归属当前主体";
+    // 预编码403响应体的缓存上限（超出后按需编码，不再缓存）
+    private static final int MAX_CACHED_BODIES = 256;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, byte[]> deniedBodies = new ConcurrentHashMap<>();
+
+    public PermissionResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        deniedBodies.put(DENIED_MESSAGE, encode(new ErrorResponse("403", DENIED_MESSAGE)));
+    }
+
+    /**
+     * 写出默认提示的403响应
+     */
+    public void writeDenied(HttpServletResponse response) {
+        writeDenied(response, DENIED_MESSAGE);
+    }
+
+    /**
+     * 写出403响应（响应体按提示信息预编码）
+     */
+    public void writeDenied(HttpServletResponse response, String message) {
+        log.warn("越权访问：{}", message);
+        byte[] body = deniedBodies.get(message);
+        if (body == null) {
+            body = encode(new ErrorResponse("403", message));
+            if (deniedBodies.size() < MAX_CACHED_BODIES) {
+                deniedBodies.putIfAbsent(message, body);
+            }
+        }
+        writeBytes(response, HttpStatus.FORBIDDEN, body);
+    }
+
+    /**
+     * 按异常类型写出失败响应（error为null表示校验未通过）
+     */
+    public void writeFailure(HttpServletResponse response, Throwable error) {
+        if (error == null) {
+            writeDenied(response);
+        } else if (error instanceof CustomAccessDeniedException) {
+            writeDenied(response, error.getMessage());
+        } else if (error instanceof RequestBodyTooLargeException) {
+            log.warn("请求体过大：{}", error.getMessage());
+            writeJson(response, HttpStatus.PAYLOAD_TOO_LARGE, new ErrorResponse("413", error.getMessage()));
+        } else if (error instanceof IllegalArgumentException) {
+            log.error("参数错误：{}", error.getMessage());
+            writeJson(response, HttpStatus.BAD_REQUEST, new ErrorResponse("400", error.getMessage()));
+        } else {
+            log.error("权限验证异常", error);
+            writeJson(response, HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponse("500", "权限验证过程中发生错误"));
+        }
+    }
+
+    public void writeJson(HttpServletResponse response, HttpStatus status, ErrorResponse body) {
+        writeBytes(response, status, encode(body));
+    }
+
+    private void writeBytes(HttpServletResponse response, HttpStatus status, byte[] body) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        } catch (IOException e) {
+            log.warn("写出权限校验结果失败：{}", e.getMessage());
+        }
+    }
+
+    private byte[] encode(ErrorResponse body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("错误响应序列化失败", e);
+        }
+    }
+}
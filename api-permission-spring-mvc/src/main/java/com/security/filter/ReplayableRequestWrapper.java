@@ -0,0 +1,226 @@
+package com.security.filter;
+
+import com.security.exception.RequestBodyTooLargeException;
+import com.security.extractor.FormUrlEncodedParser;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可预读请求体的缓存包装
+ * <p>
+ * ContentCachingRequestWrapper只缓存下游已经读过的内容，过滤器阶段校验BODY参数时请求体尚未被读取；
+ * 调用{@link #preload()}后请求体被完整读入缓存，之后的getInputStream/getReader从缓存重放。
+ * 未预读时行为与ContentCachingRequestWrapper一致。
+ * <p>
+ * 表单请求体由{@link #getFormParameters(int)}按字节上限流式解析；解析后容器不再能从已读取的输入流解析表单，
+ * getParameter系列方法改为合并容器的查询参数与已解析的表单字段。
+ */
+public class ReplayableRequestWrapper extends ContentCachingRequestWrapper {
+
+    private boolean preloaded;
+    // 已解析的表单字段；formConsumed表示请求体由本包装读取，需自行合并表单字段
+    private Map<String, List<String>> formParameters;
+    private boolean formConsumed;
+
+    public ReplayableRequestWrapper(HttpServletRequest request) {
+        super(request);
+    }
+
+    /**
+     * 把请求体完整读入缓存（重复调用无副作用）
+     *
+     * @param maxBytes 允许读取的最大请求体字节数（Content-Length超过时不读取）
+     * @throws RequestBodyTooLargeException 请求体超过上限
+     */
+    public void preload(int maxBytes) throws IOException {
+        if (preloaded) {
+            return;
+        }
+        if (getContentLengthLong() > maxBytes) {
+            throw tooLarge(maxBytes);
+        }
+        InputStream in = super.getInputStream();
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw tooLarge(maxBytes);
+            }
+        }
+        preloaded = true;
+    }
+
+    static RequestBodyTooLargeException tooLarge(int maxBytes) {
+        return new RequestBodyTooLargeException("请求体超过" + maxBytes + "字节，无法进行权限校验");
+    }
+
+    /**
+     * 以非阻塞方式读取请求体的输入流（读取的内容同样写入缓存），读完后调用{@link #completeNonBlockingRead()}
+     */
+    ServletInputStream nonBlockingInputStream() throws IOException {
+        return super.getInputStream();
+    }
+
+    /**
+     * 非阻塞读取已完成：之后的读取从缓存重放，与预读等效
+     */
+    void completeNonBlockingRead() {
+        preloaded = true;
+    }
+
+    /**
+     * 解析x-www-form-urlencoded请求体（结果缓存，非表单请求返回空Map）
+     *
+     * @param maxBytes 允许读取的最大请求体字节数
+     * @throws RequestBodyTooLargeException 请求体超过上限
+     */
+    public Map<String, List<String>> getFormParameters(int maxBytes) throws IOException {
+        if (formParameters != null) {
+            return formParameters;
+        }
+        String contentType = getContentType();
+        if (contentType == null || !contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)) {
+            formParameters = Collections.emptyMap();
+            return formParameters;
+        }
+        byte[] cached = getContentAsByteArray();
+        if (preloaded || cached.length > 0) {
+            // 请求体已由预读或容器参数解析写入缓存
+            if (cached.length > maxBytes) {
+                throw new RequestBodyTooLargeException("表单请求体超过" + maxBytes + "字节，无法进行权限校验");
+            }
+            formParameters = FormUrlEncodedParser.parseForm(cached, formCharset());
+            return formParameters;
+        }
+        formParameters = FormUrlEncodedParser.parseForm(super.getInputStream(), formCharset(), maxBytes);
+        preloaded = true;
+        formConsumed = true;
+        return formParameters;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        if (!formConsumed) {
+            return super.getParameter(name);
+        }
+        String[] values = getParameterValues(name);
+        return values != null ? values[0] : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        if (!formConsumed) {
+            return super.getParameterValues(name);
+        }
+        return merge(super.getParameterValues(name), formParameters.get(name));
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (!formConsumed) {
+            return super.getParameterMap();
+        }
+        Map<String, String[]> parameterMap = new LinkedHashMap<>(super.getParameterMap());
+        formParameters.forEach((name, values) -> parameterMap.put(name, merge(parameterMap.get(name), values)));
+        return Collections.unmodifiableMap(parameterMap);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        if (!formConsumed) {
+            return super.getParameterNames();
+        }
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    // 查询参数在前、表单字段在后（与容器的合并顺序一致）
+    private static String[] merge(String[] queryValues, List<String> formValues) {
+        if (formValues == null || formValues.isEmpty()) {
+            return queryValues;
+        }
+        int queryCount = queryValues != null ? queryValues.length : 0;
+        String[] merged = new String[queryCount + formValues.size()];
+        if (queryCount > 0) {
+            System.arraycopy(queryValues, 0, merged, 0, queryCount);
+        }
+        for (int i = 0; i < formValues.size(); i++) {
+            merged[queryCount + i] = formValues.get(i);
+        }
+        return merged;
+    }
+
+    private Charset formCharset() {
+        String encoding = getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (!preloaded) {
+            return super.getInputStream();
+        }
+        return new ReplayInputStream(getContentAsByteArray());
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (!preloaded) {
+            return super.getReader();
+        }
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    private static class ReplayInputStream extends ServletInputStream {
+        private final ByteArrayInputStream delegate;
+
+        private ReplayInputStream(byte[] content) {
+            this.delegate = new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public int read() {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return delegate.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("请求体已缓存，不支持非阻塞读取");
+        }
+    }
+}
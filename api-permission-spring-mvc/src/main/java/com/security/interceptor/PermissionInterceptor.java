@@ -0,0 +1,89 @@
+package com.security.interceptor;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.RuleSnapshot;
+import com.security.context.PermissionContext;
+import com.security.engine.RuleChecker;
+import com.security.engine.RuleCheckerRegistry;
+import com.security.engine.RuleMatch;
+import com.security.engine.RuleMatcher;
+import com.security.engine.ShadowEvaluator;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.extractor.PathMatchExtractor;
+import com.security.filter.PermissionFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class PermissionInterceptor implements HandlerInterceptor {
+    @Autowired
+    private ApiPermissionConfig globalConfig;
+
+    @Autowired
+    private RuleCheckerRegistry<HttpServletRequest> ruleCheckerRegistry;
+
+    @Autowired
+    private RuleMatcher ruleMatcher;
+
+    // 候选规则的影子评估（配置了shadow.file时存在）
+    @Autowired(required = false)
+    private ShadowEvaluator<HttpServletRequest> shadowEvaluator;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // 1. 异步结果的再分发（已在原始请求中校验）或已在过滤器阶段校验，直接放行
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                || request.getAttribute(PermissionFilter.ENFORCED_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (!globalConfig.isEnabled()) {
+            shadow(request, null, ShadowEvaluator.Outcome.ALLOW); // 全局开关关闭
+            return true;
+        }
+
+        // 2. 匹配当前URI对应的规则（配置了多租户规则时在租户生效的规则中匹配，未匹配时再匹配全局规则）
+        String requestUri = request.getRequestURI();
+        RuleSnapshot snapshot = ruleMatcher.snapshotFor(requestUri, request::getHeader, request.getServerName());
+        RuleMatch match = ruleMatcher.matchFor(snapshot, requestUri);
+        if (match == null || !match.getRule().isEnabled()) {
+            shadow(request, snapshot.getTenant(), ShadowEvaluator.Outcome.ALLOW);
+            return true; // 无匹配规则或规则关闭
+        }
+        ApiPermissionConfig.Rule matchedRule = match.getRule();
+        request.setAttribute(PathMatchExtractor.RULE_MATCH_ATTRIBUTE, match);
+
+        // 3. 设置多参数验证模式
+        PermissionContext.ContextData contextData = PermissionContext.getContextData();
+        contextData.setMultiParamMode(matchedRule.getMultiParamMode());
+
+        // 4. 执行规则校验（提取主体、按策略提取并验证目标参数）
+        RuleChecker<HttpServletRequest> checker = ruleCheckerRegistry.getChecker(matchedRule);
+        boolean validationPassed;
+        try {
+            validationPassed = checker.check(request, contextData);
+        } catch (RuntimeException e) {
+            shadow(request, matchedRule.getTenant(), ShadowEvaluator.Outcome.of(e));
+            throw e;
+        }
+        shadow(request, matchedRule.getTenant(), validationPassed ? ShadowEvaluator.Outcome.ALLOW : ShadowEvaluator.Outcome.DENY);
+
+        if (!validationPassed) {
+            throw CustomAccessDeniedException.stackless("越权访问：参数不归属当前主体");
+        }
+
+        return true;
+    }
+
+    /**
+     * 按抽样比例以候选规则评估同一请求（只记录决策，不影响本次校验结果；候选规则对应全局规则，按租户规则校验的请求不参与）
+     */
+    private void shadow(HttpServletRequest request, String tenant, ShadowEvaluator.Outcome active) {
+        if (shadowEvaluator != null && tenant == null) {
+            PermissionContext.ContextData contextData = PermissionContext.getContextData();
+            shadowEvaluator.evaluate(request.getRequestURI(), request, contextData != null && contextData.isUseCachedRequest(), active);
+        }
+    }
+}
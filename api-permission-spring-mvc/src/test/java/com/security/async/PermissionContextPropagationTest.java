@@ -0,0 +1,135 @@
+package com.security.async;
+
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 权限上下文的异步传递：提交线程的快照在工作线程恢复，任务结束后从工作线程移除
+ */
+class PermissionContextPropagationTest {
+
+    // 单线程池：同一工作线程依次执行包装与未包装的任务，可验证恢复的快照没有残留
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void bindRequest() {
+        PermissionContext.init();
+        PermissionContext.ContextData data = PermissionContext.getContextData();
+        data.setUri("/orders/1");
+        data.beginPrincipal("uid").getValues().add("7");
+        data.nextTarget("orderId", "owned").getValues().add("1");
+    }
+
+    @AfterEach
+    void close() {
+        PermissionContext.release();
+        worker.shutdownNow();
+    }
+
+    @Test
+    void wrappedTasksSeeTheSubmittingRequestAndLeaveNothingBehind() throws Exception {
+        ContextSnapshot submitted = PermissionContext.capture();
+
+        Runnable runnable = PermissionContextExecutors.wrap(() -> assertRestored(submitted));
+        worker.submit(runnable).get(5, TimeUnit.SECONDS);
+        Callable<ContextSnapshot> callable = PermissionContext::snapshot;
+        assertThat(worker.submit(PermissionContextExecutors.wrap(callable)).get(5, TimeUnit.SECONDS)).isSameAs(submitted);
+        Supplier<String> readUri = () -> PermissionContext.snapshot().getUri();
+        Supplier<String> supplier = PermissionContextExecutors.wrap(readUri);
+        Function<String, String> function = PermissionContextExecutors.wrap(uri -> uri + "@" + PermissionContext.snapshot().getPrincipalValues());
+        assertThat(CompletableFuture.supplyAsync(supplier, worker).thenApplyAsync(function, worker).get(5, TimeUnit.SECONDS))
+                .isEqualTo("/orders/1@[7]");
+
+        assertNothingRestoredOnWorker();
+    }
+
+    @Test
+    void wrappedExecutorCapturesAtEachExecute() throws Exception {
+        ContextSnapshot submitted = PermissionContext.capture();
+        Executor executor = PermissionContextExecutors.wrap(worker);
+        assertThat(PermissionContextExecutors.wrap(executor)).isSameAs(executor);
+
+        assertThat(CompletableFuture.supplyAsync(PermissionContext::snapshot, executor).get(5, TimeUnit.SECONDS)).isSameAs(submitted);
+        assertNothingRestoredOnWorker();
+
+        // 请求结束后提交的任务不携带上下文
+        PermissionContext.clear();
+        assertThat(CompletableFuture.supplyAsync(PermissionContext::snapshot, executor).get(5, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void taskDecoratorPropagatesThroughASpringExecutor() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setTaskDecorator(new PermissionContextTaskDecorator());
+        executor.initialize();
+        try {
+            ContextSnapshot submitted = PermissionContext.capture();
+            assertThat(executor.submit(PermissionContext::snapshot).get(5, TimeUnit.SECONDS)).isSameAs(submitted);
+
+            PermissionContext.clear();
+            assertThat(executor.submit(PermissionContext::snapshot).get(5, TimeUnit.SECONDS)).isNull();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void asyncInterceptorRestoresOnTheAsyncThreadAndClearsAfterwards() throws Exception {
+        PermissionContextAsyncInterceptor interceptor = new PermissionContextAsyncInterceptor();
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/orders/1"));
+        Callable<String> task = () -> "done";
+        ContextSnapshot submitted = PermissionContext.capture();
+
+        // 开始异步处理时仍在请求线程
+        interceptor.beforeConcurrentHandling(request, task);
+        assertThat(request.getAttribute(PermissionContextAsyncInterceptor.SNAPSHOT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))
+                .isSameAs(submitted);
+
+        worker.submit(() -> {
+            interceptor.preProcess(request, task);
+            try {
+                assertRestored(submitted);
+            } finally {
+                interceptor.postProcess(request, task, "done");
+            }
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+
+        assertNothingRestoredOnWorker();
+    }
+
+    private static void assertRestored(ContextSnapshot submitted) {
+        // 工作线程只能读取快照，不持有请求线程复用的ContextData
+        assertThat(PermissionContext.getContextData()).isNull();
+        ContextSnapshot restored = PermissionContext.snapshot();
+        assertThat(restored).isSameAs(submitted);
+        assertThat(restored.getUri()).isEqualTo("/orders/1");
+        assertThat(restored.getPrincipalValues()).containsExactly("7");
+        assertThat(restored.getTargetParameters()).singleElement()
+                .satisfies(target -> assertThat(target.getValues()).containsExactly("1"));
+    }
+
+    private void assertNothingRestoredOnWorker() throws Exception {
+        assertThat(worker.submit(PermissionContext::snapshot).get(5, TimeUnit.SECONDS)).isNull();
+    }
+}
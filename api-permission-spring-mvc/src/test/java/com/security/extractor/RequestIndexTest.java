@@ -0,0 +1,92 @@
+package com.security.extractor;
+
+import com.security.filter.ReplayableRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestIndexTest {
+
+    @Test
+    void fewHeaderReadsGoStraightToTheRequest() {
+        CountingRequest request = new CountingRequest();
+        request.addHeader("X-Owner", "7");
+        request.addHeader("uid", "7");
+        RequestIndex index = RequestIndex.of(request);
+
+        assertThat(index.header(request, "x-owner")).isEqualTo("7");
+        assertThat(index.header(request, "UID")).isEqualTo("7");
+        assertThat(request.headerNameEnumerations).isZero();
+    }
+
+    @Test
+    void repeatedHeaderReadsBuildTheIndexOnce() {
+        CountingRequest request = new CountingRequest();
+        request.addHeader("X-Owner", "7");
+        request.addHeader("X-Tenant", "t1");
+        RequestIndex index = RequestIndex.of(request);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(index.header(request, "x-owner")).isEqualTo("7");
+            assertThat(index.header(request, "X-TENANT")).isEqualTo("t1");
+            assertThat(index.header(request, "missing")).isNull();
+        }
+        assertThat(request.headerNameEnumerations).isEqualTo(1);
+    }
+
+    @Test
+    void forwardedRequestDoesNotReuseTheQueryOfThePreviousDispatch() {
+        MockHttpServletRequest original = new MockHttpServletRequest("GET", "/orders");
+        original.setQueryString("ownerId=7");
+        assertThat(RequestIndex.of(original).query(original, "ownerId")).containsExactly("7");
+
+        // 请求属性与原请求共享，查询字符串为转发目标的
+        HttpServletRequest forwarded = new HttpServletRequestWrapper(original) {
+            @Override
+            public String getQueryString() {
+                return "ownerId=8";
+            }
+
+            @Override
+            public DispatcherType getDispatcherType() {
+                return DispatcherType.FORWARD;
+            }
+        };
+        assertThat(RequestIndex.of(forwarded).query(forwarded, "ownerId")).containsExactly("8");
+        assertThat(RequestIndex.of(original).query(original, "ownerId")).containsExactly("7");
+    }
+
+    @Test
+    void formIsReadThroughWrappersAddedByLaterFilters() {
+        MockHttpServletRequest original = new MockHttpServletRequest("POST", "/orders");
+        original.setContentType("application/x-www-form-urlencoded");
+        original.setContent("ownerId=7&ownerId=8".getBytes(StandardCharsets.UTF_8));
+        // PermissionFilter的包装之外又被其他过滤器（如Spring Security）包装
+        HttpServletRequest wrapped = new HttpServletRequestWrapper(new ReplayableRequestWrapper(original));
+
+        assertThat(RequestIndex.of(wrapped).form(wrapped, "ownerId", 1024)).containsExactly("7", "8");
+    }
+
+    @Test
+    void sameRequestReusesItsIndex() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+        assertThat(RequestIndex.of(request)).isSameAs(RequestIndex.of(request));
+    }
+
+    private static class CountingRequest extends MockHttpServletRequest {
+        private int headerNameEnumerations;
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            headerNameEnumerations++;
+            return super.getHeaderNames();
+        }
+    }
+}
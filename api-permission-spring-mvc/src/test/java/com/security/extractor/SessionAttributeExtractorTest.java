@@ -0,0 +1,107 @@
+package com.security.extractor;
+
+import com.security.enums.ParamSource;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionAttributeExtractorTest {
+
+    private final SessionAttributeExtractor extractor = new SessionAttributeExtractor();
+
+    @Test
+    void requestWithoutASessionYieldsNothingAndCreatesNoSession() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+
+        assertThat(extract(request, "staffId", "loginUser:staffId")).isEmpty();
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void attributeIsReadByParamNameOrByConfiguredName() {
+        MockHttpServletRequest request = requestWith("staffId", 7L);
+        request.getSession().setAttribute("owner", UUID.fromString("00000000-0000-0001-0000-0000000000aa"));
+
+        assertThat(extract(request, "staffId", null)).containsExactly("7");
+        assertThat(extract(request, "ownerId", " owner ")).containsExactly("00000000-0000-0001-0000-0000000000aa");
+        assertThat(extract(request, "missing", null)).isEmpty();
+    }
+
+    @Test
+    void propertyPathsReachNestedBeansListsAndMaps() {
+        Map<String, Object> dept = new HashMap<>();
+        dept.put("id", 30);
+        dept.put("children", Arrays.asList(31, 32));
+        LoginUser user = new LoginUser(7L, new Dept(20L), Arrays.asList(new Dept(21L), new Dept(22L)),
+                Collections.singletonMap("home", new Dept(23L)));
+        MockHttpServletRequest request = requestWith("loginUser", user);
+        request.getSession().setAttribute("dept", dept);
+        request.getSession().setAttribute("depts", Arrays.asList(new Dept(21L), new Dept(22L)));
+        request.getSession().setAttribute("ids", new long[]{41, 42});
+
+        assertThat(extract(request, "staffId", "loginUser:staffId")).containsExactly("7");
+        assertThat(extract(request, "deptId", "loginUser:dept.id")).containsExactly("20");
+        assertThat(extract(request, "deptId", "loginUser:depts[1].id")).containsExactly("22");
+        assertThat(extract(request, "deptId", "loginUser:deptsByName[home].id")).containsExactly("23");
+        // 集合按元素展开，元素不是标量时忽略
+        assertThat(extract(request, "deptId", "loginUser:depts")).isEmpty();
+        // Map类型的属性按键取值，键之后的路径继续读取
+        assertThat(extract(request, "deptId", "dept:id")).containsExactly("30");
+        assertThat(extract(request, "deptId", "dept:children")).containsExactly("31", "32");
+        assertThat(extract(request, "deptId", "dept:children[1]")).containsExactly("32");
+        assertThat(extract(request, "deptId", "dept:['id']")).containsExactly("30");
+        // List、数组类型的属性按下标取值
+        assertThat(extract(request, "deptId", "depts:[1].id")).containsExactly("22");
+        assertThat(extract(request, "deptId", "ids:[0]")).containsExactly("41");
+        assertThat(extract(request, "deptId", "ids")).containsExactly("41", "42");
+        assertThat(extract(request, "deptId", "ids:[2]")).isEmpty();
+        assertThat(extract(request, "deptId", "depts:id")).isEmpty();
+        // 路径不存在时为空，不抛出异常
+        assertThat(extract(request, "deptId", "loginUser:dept.missing")).isEmpty();
+        assertThat(extract(request, "deptId", "dept:missing.id")).isEmpty();
+    }
+
+    @Test
+    void invalidatedSessionYieldsNothing() {
+        MockHttpServletRequest request = requestWith("staffId", 7L);
+        ((MockHttpSession) request.getSession()).invalidate();
+
+        assertThat(extract(request, "staffId", null)).isEmpty();
+    }
+
+    private List<String> extract(MockHttpServletRequest request, String paramName, String parseConfig) {
+        return extractor.extract(request, paramName, parseConfig, ParamSource.SESSION, true);
+    }
+
+    private static MockHttpServletRequest requestWith(String attribute, Object value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders");
+        request.getSession().setAttribute(attribute, value);
+        return request;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LoginUser {
+        private Long staffId;
+        private Dept dept;
+        private List<Dept> depts;
+        private Map<String, Dept> deptsByName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Dept {
+        private Long id;
+    }
+}
@@ -0,0 +1,138 @@
+package com.security.extractor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionEvent;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionValueCacheTest {
+
+    private static final long TTL = 60_000;
+
+    private int derivations;
+
+    @Test
+    void cachedValuesAreReusedUntilTheAttributeChanges() {
+        SessionValueCache cache = new SessionValueCache(TTL, 16);
+        MockHttpSession session = session("s1");
+
+        assertThat(resolve(cache, session, "loginUser", "staffId")).containsExactly("staffId");
+        assertThat(resolve(cache, session, "loginUser", "staffId")).containsExactly("staffId");
+        resolve(cache, session, "loginUser", "dept.id");
+        resolve(cache, session, "tenant", "");
+        assertThat(derivations).isEqualTo(3);
+
+        // 替换属性只使该属性的全部路径失效
+        cache.attributeReplaced(new HttpSessionBindingEvent(session, "loginUser", "old"));
+        resolve(cache, session, "loginUser", "staffId");
+        resolve(cache, session, "loginUser", "dept.id");
+        resolve(cache, session, "tenant", "");
+        assertThat(derivations).isEqualTo(5);
+
+        cache.attributeRemoved(new HttpSessionBindingEvent(session, "tenant", "t1"));
+        resolve(cache, session, "tenant", "");
+        cache.attributeAdded(new HttpSessionBindingEvent(session, "tenant", "t2"));
+        resolve(cache, session, "tenant", "");
+        resolve(cache, session, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(7);
+    }
+
+    @Test
+    void changedSessionIdAndDestroyedSessionDropTheCache() {
+        SessionValueCache cache = new SessionValueCache(TTL, 16);
+        MockHttpSession session = session("s1");
+        resolve(cache, session, "loginUser", "staffId");
+
+        // 登录时更换会话ID：旧ID的缓存移除，新ID重新读取
+        String oldId = session.getId();
+        session.changeSessionId();
+        cache.sessionIdChanged(new HttpSessionEvent(session), oldId);
+        resolve(cache, session("s1"), "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(2);
+        resolve(cache, session, "loginUser", "staffId");
+        resolve(cache, session, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(3);
+
+        cache.sessionDestroyed(new HttpSessionEvent(session));
+        resolve(cache, session, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(4);
+    }
+
+    @Test
+    void valueReadWhileTheAttributeChangesIsNotCached() {
+        SessionValueCache cache = new SessionValueCache(TTL, 16);
+        MockHttpSession session = session("s1");
+        resolve(cache, session, "other", "");
+
+        // 读取属性与转换期间，另一请求替换了该属性（监听在读取之后、写入缓存之前触发）
+        List<String> stale = cache.resolve(session, "loginUser", "staffId", value -> {
+            derivations++;
+            cache.attributeReplaced(new HttpSessionBindingEvent(session, "loginUser", value));
+            return Collections.singletonList("stale");
+        });
+        assertThat(stale).containsExactly("stale");
+        assertThat(resolve(cache, session, "loginUser", "staffId")).containsExactly("staffId");
+        assertThat(derivations).isEqualTo(3);
+        // 之后的读取正常缓存
+        resolve(cache, session, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(3);
+    }
+
+    @Test
+    void sessionsBeyondTheLimitAreReadWithoutCaching() throws InterruptedException {
+        SessionValueCache cache = new SessionValueCache(TTL, 1);
+        MockHttpSession first = session("s1");
+        MockHttpSession second = session("s2");
+        resolve(cache, first, "loginUser", "staffId");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(resolve(cache, second, "loginUser", "staffId")).containsExactly("staffId");
+        }
+        assertThat(derivations).isEqualTo(4);
+        resolve(cache, first, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(4);
+
+        // 会话销毁后腾出位置
+        cache.sessionDestroyed(new HttpSessionEvent(first));
+        resolve(cache, second, "loginUser", "staffId");
+        resolve(cache, second, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(5);
+
+        // 已过期的缓存在达到上限时清理
+        SessionValueCache shortLived = new SessionValueCache(10, 1);
+        resolve(shortLived, first, "loginUser", "staffId");
+        Thread.sleep(30);
+        resolve(shortLived, second, "loginUser", "staffId");
+        resolve(shortLived, second, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(7);
+    }
+
+    @Test
+    void zeroTtlReadsTheAttributeEveryTime() {
+        SessionValueCache cache = new SessionValueCache(0, 16);
+        MockHttpSession session = session("s1");
+
+        resolve(cache, session, "loginUser", "staffId");
+        resolve(cache, session, "loginUser", "staffId");
+        assertThat(derivations).isEqualTo(2);
+    }
+
+    private List<String> resolve(SessionValueCache cache, HttpSession session, String attribute, String path) {
+        Function<Object, List<String>> deriver = value -> {
+            derivations++;
+            return Collections.singletonList(path.isEmpty() ? attribute : path);
+        };
+        return cache.resolve(session, attribute, path, deriver);
+    }
+
+    private static MockHttpSession session(String id) {
+        return new MockHttpSession(null, id);
+    }
+}
@@ -0,0 +1,450 @@
+package com.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.engine.RuleCheckerRegistry;
+import com.security.engine.ShadowEvaluator;
+import com.security.enums.EnforcementMode;
+import com.security.enums.MultiParamMode;
+import com.security.enums.ParamSource;
+import com.security.extractor.DefaultExtractor;
+import com.security.extractor.ExtractorFactory;
+import com.security.extractor.IncrementalJsonMatcher;
+import com.security.extractor.JsonPathExtractor;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncPermissionEnforcerTest {
+
+    private static final String SAME_AS_PRINCIPAL = "sameAsPrincipal";
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    void deniedValueIsRejectedBeforeTheBodyEnds() throws Exception {
+        ApiPermissionConfig config = config(rule(SAME_AS_PRINCIPAL));
+        ExtractorFactory<HttpServletRequest> extractors = extractors();
+        ValidatorFactory validators = new ValidatorFactory(Collections.singletonList(new SameAsPrincipal()));
+        ShadowEvaluator<HttpServletRequest> shadow = new ShadowEvaluator<>(config, extractors, validators);
+        resources.add(shadow);
+        assertThat(shadow.load("candidate.json", true, Collections.singletonList(rule(SAME_AS_PRINCIPAL)))).isEmpty();
+        Exchange exchange = start(enforcer(config, extractors, validators, shadow), config);
+
+        exchange.feed("{\"ownerId\":8,");
+        exchange.awaitDone();
+
+        assertThat(exchange.response.getStatus()).isEqualTo(403);
+        assertThat(exchange.response.getHeader(HttpHeaders.CONNECTION)).isEqualTo("close");
+        assertThat(exchange.dispatched()).isFalse();
+        // 剩余的请求体没有读取，校验线程没有读取原请求
+        assertThat(exchange.request.input.ended).isFalse();
+        assertThat(exchange.request.offThreadReads).isEmpty();
+        // 提前校验同样参与影子评估，候选规则读取的是同一份提前确定的值
+        assertThat(shadow.report().getSampled()).isEqualTo(1);
+        awaitEvaluated(shadow, 1);
+        assertThat(shadow.report().count(ShadowEvaluator.Outcome.DENY, ShadowEvaluator.Outcome.DENY)).isEqualTo(1);
+    }
+
+    @Test
+    void allowedRequestIsDispatchedOnceTheBodyEnds() throws Exception {
+        ApiPermissionConfig config = config(rule(SAME_AS_PRINCIPAL));
+        Exchange exchange = start(enforcer(config, new SameAsPrincipal()), config);
+
+        exchange.feed("{\"ownerId\":7,");
+        exchange.feed("\"note\":\"x\"}");
+        exchange.end();
+        exchange.awaitDone();
+
+        assertThat(exchange.dispatched()).isTrue();
+        assertThat(exchange.response.getStatus()).isEqualTo(200);
+        assertThat(exchange.request.offThreadReads).isEmpty();
+        // 分发后处理器从缓存重放完整请求体
+        assertThat(new String(exchange.wrapper.getContentAsByteArray(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"ownerId\":7,\"note\":\"x\"}");
+        assertThat(exchange.wrapper.getAttribute(JsonPathExtractor.STREAMED_VALUES_ATTRIBUTE)).isNull();
+    }
+
+    @Test
+    void laterDuplicateKeyIsRecheckedAgainstTheFullBody() throws Exception {
+        ApiPermissionConfig config = config(rule(SAME_AS_PRINCIPAL));
+        Exchange exchange = start(enforcer(config, new SameAsPrincipal()), config);
+
+        exchange.feed("{\"ownerId\":7,");
+        exchange.feed("\"x\":1,\"ownerId\":8}");
+        exchange.end();
+        exchange.awaitDone();
+
+        // 完整解析取最后一个重复键，按8重新校验后拒绝
+        assertThat(exchange.dispatched()).isFalse();
+        assertThat(exchange.response.getStatus()).isEqualTo(403);
+        assertThat(exchange.response.getHeader(HttpHeaders.CONNECTION)).isNull();
+        assertThat(exchange.request.offThreadReads).isEmpty();
+
+        Exchange same = start(enforcer(config, new SameAsPrincipal()), config);
+        same.feed("{\"ownerId\":7,\"ownerId\":7}");
+        same.end();
+        same.awaitDone();
+        assertThat(same.dispatched()).isTrue();
+    }
+
+    @Test
+    void timeoutWinsOverALateResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        PermissionValidator blocking = new PermissionValidator() {
+            @Override
+            public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+
+            @Override
+            public String getValidatorId() {
+                return "blocking";
+            }
+        };
+        ApiPermissionConfig config = config(rule("blocking"));
+        Exchange exchange = start(enforcer(config, blocking), config);
+
+        exchange.feed("{\"ownerId\":7,");
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        exchange.timeout();
+        exchange.awaitDone();
+        assertThat(exchange.response.getStatus()).isEqualTo(503);
+
+        // 超时后到达的校验结果与请求体结束都不再分发
+        release.countDown();
+        exchange.feed("}");
+        exchange.end();
+        Thread.sleep(200);
+        assertThat(exchange.dispatched()).isFalse();
+        assertThat(exchange.response.getStatus()).isEqualTo(503);
+    }
+
+    private AsyncPermissionEnforcer enforcer(ApiPermissionConfig config, PermissionValidator validator) {
+        return enforcer(config, extractors(), new ValidatorFactory(Collections.singletonList(validator)), null);
+    }
+
+    private AsyncPermissionEnforcer enforcer(ApiPermissionConfig config, ExtractorFactory<HttpServletRequest> extractors,
+                                             ValidatorFactory validators, ShadowEvaluator<HttpServletRequest> shadow) {
+        AsyncPermissionEnforcer enforcer = new AsyncPermissionEnforcer();
+        ReflectionTestUtils.setField(enforcer, "globalConfig", config);
+        ReflectionTestUtils.setField(enforcer, "ruleCheckerRegistry", new RuleCheckerRegistry<>(config, extractors, validators));
+        ReflectionTestUtils.setField(enforcer, "responseWriter", new PermissionResponseWriter(new ObjectMapper()));
+        ReflectionTestUtils.setField(enforcer, "extractorFactory", extractors);
+        ReflectionTestUtils.setField(enforcer, "shadowEvaluator", shadow);
+        enforcer.afterPropertiesSet();
+        resources.add(enforcer::destroy);
+        return enforcer;
+    }
+
+    private static ExtractorFactory<HttpServletRequest> extractors() {
+        return new ExtractorFactory<>(Arrays.asList(new DefaultExtractor(), new JsonPathExtractor()));
+    }
+
+    private static ApiPermissionConfig config(ApiPermissionConfig.Rule rule) {
+        ApiPermissionConfig config = new ApiPermissionConfig();
+        config.setEnabled(true);
+        config.setEnforcementMode(EnforcementMode.ASYNC_FILTER);
+        config.getAsyncEnforcement().setCorePoolSize(2);
+        config.getAsyncEnforcement().setMaxPoolSize(2);
+        config.getAsyncEnforcement().setEarlyBodyEvaluation(true);
+        config.getShadow().setSampleRate(1);
+        config.setRules(new ArrayList<>(Collections.singletonList(rule)));
+        config.initialize();
+        return config;
+    }
+
+    // 主体取自请求头uid，目标参数取自请求体的$.ownerId
+    private static ApiPermissionConfig.Rule rule(String validatorId) {
+        ApiPermissionConfig.Rule rule = new ApiPermissionConfig.Rule();
+        rule.setUriPattern("/orders/**");
+        rule.setEnabled(true);
+        rule.setMultiParamMode(MultiParamMode.ANY_MATCH);
+        ApiPermissionConfig.PrincipalParam principal = new ApiPermissionConfig.PrincipalParam();
+        principal.setName("uid");
+        principal.setSource(ParamSource.HEADER);
+        rule.setPrincipalParam(principal);
+        ApiPermissionConfig.ParamRule ownerId = new ApiPermissionConfig.ParamRule();
+        ownerId.setParamName("ownerId");
+        ownerId.setSource(ParamSource.BODY);
+        ownerId.setParseMethod("JSON_PATH");
+        ownerId.setParseConfig("$.ownerId");
+        ownerId.setValidatorId(validatorId);
+        rule.setParamRules(new ArrayList<>(Collections.singletonList(ownerId)));
+        return rule;
+    }
+
+    private static Exchange start(AsyncPermissionEnforcer enforcer, ApiPermissionConfig config) throws IOException {
+        Exchange exchange = new Exchange();
+        ApiPermissionConfig.Rule rule = config.getRules().get(0);
+        IncrementalJsonMatcher matcher = enforcer.earlyBodyMatcher(exchange.wrapper, rule);
+        assertThat(matcher).isNotNull();
+        PermissionContext.ContextData contextData = PermissionContext.detached();
+        contextData.setUri("/orders/1");
+        contextData.setUseCachedRequest(true);
+        contextData.setMultiParamMode(rule.getMultiParamMode());
+        enforcer.enforceWhileReading(exchange.wrapper, exchange.response, rule, contextData, matcher);
+        exchange.attach();
+        return exchange;
+    }
+
+    private static void awaitEvaluated(ShadowEvaluator<?> shadow, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shadow.report().getEvaluated() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(shadow.report().getEvaluated()).isEqualTo(expected);
+    }
+
+    /**
+     * 一次请求：由测试线程充当容器线程逐段写入请求体并调用ReadListener
+     */
+    private static final class Exchange {
+        private final FeedingRequest request = new FeedingRequest();
+        private final ReplayableRequestWrapper wrapper = new ReplayableRequestWrapper(request);
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private MockAsyncContext asyncContext;
+
+        private void attach() {
+            asyncContext = (MockAsyncContext) request.getAsyncContext();
+            asyncContext.addDispatchHandler(done::countDown);
+            asyncContext.addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+
+        private void feed(String chunk) throws IOException {
+            request.input.push(chunk.getBytes(StandardCharsets.UTF_8));
+            request.input.listener.onDataAvailable();
+        }
+
+        private void end() throws IOException {
+            request.input.ended = true;
+            // 请求体读完后原请求可以在校验线程上读取
+            request.feeding = false;
+            request.input.listener.onAllDataRead();
+        }
+
+        private void timeout() throws IOException {
+            for (AsyncListener listener : new ArrayList<>(asyncContext.getListeners())) {
+                listener.onTimeout(new AsyncEvent(asyncContext, wrapper, response));
+            }
+        }
+
+        private void awaitDone() throws InterruptedException {
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        private boolean dispatched() {
+            return asyncContext.getDispatchedPath() != null;
+        }
+    }
+
+    /**
+     * 记录请求体写入期间其他线程对请求的读取（真实容器中请求对象不是线程安全的）
+     */
+    private static final class FeedingRequest extends MockHttpServletRequest {
+        private final Thread container = Thread.currentThread();
+        private final FeedingInputStream input = new FeedingInputStream();
+        private final List<String> offThreadReads = new CopyOnWriteArrayList<>();
+        private volatile boolean feeding = true;
+
+        private FeedingRequest() {
+            super("POST", "/orders/1");
+            setAsyncSupported(true);
+            setContentType("application/json");
+            addHeader("uid", "7");
+        }
+
+        private void guard(String method) {
+            if (feeding && Thread.currentThread() != container) {
+                offThreadReads.add(method);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return input;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            guard("getHeader");
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            guard("getHeaders");
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            guard("getHeaderNames");
+            return super.getHeaderNames();
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            guard("getAttribute");
+            return super.getAttribute(name);
+        }
+
+        @Override
+        public Cookie[] getCookies() {
+            guard("getCookies");
+            return super.getCookies();
+        }
+
+        @Override
+        public String getQueryString() {
+            guard("getQueryString");
+            return super.getQueryString();
+        }
+
+        @Override
+        public String getParameter(String name) {
+            guard("getParameter");
+            return super.getParameter(name);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            guard("getSession");
+            return super.getSession(create);
+        }
+    }
+
+    /**
+     * 逐段写入的非阻塞输入流：没有可读数据且未结束时isReady返回false
+     */
+    private static final class FeedingInputStream extends ServletInputStream {
+        private final Deque<byte[]> chunks = new ArrayDeque<>();
+        private byte[] current = new byte[0];
+        private int position;
+        private volatile boolean ended;
+        private ReadListener listener;
+
+        private void push(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        private boolean hasData() {
+            while (position == current.length && !chunks.isEmpty()) {
+                current = chunks.poll();
+                position = 0;
+            }
+            return position < current.length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return ended && !hasData();
+        }
+
+        @Override
+        public boolean isReady() {
+            return hasData() || ended;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+
+        @Override
+        public int read() {
+            if (!hasData()) {
+                return ended ? -1 : failNotReady();
+            }
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!hasData()) {
+                return ended ? -1 : failNotReady();
+            }
+            int n = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private static int failNotReady() {
+            throw new IllegalStateException("isReady()为false时不能读取");
+        }
+    }
+
+    private static final class SameAsPrincipal implements PermissionValidator {
+        @Override
+        public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            return !target.getValues().isEmpty() && target.getValues().stream().allMatch(principal.getValues().get(0)::equals);
+        }
+
+        @Override
+        public String getValidatorId() {
+            return SAME_AS_PRINCIPAL;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.security.filter;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.enums.ParamSource;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.extractor.FormFieldExtractor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.Part;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultipartFieldRequestWrapperTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void leadingFieldsAreReadWithinAScanBudgetSmallerThanTheParserBuffer() throws IOException {
+        byte[] body = body(4000, 100_000);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body, true), 256, null);
+
+        assertThat(wrapper.getFieldValues("ownerId")).containsExactly("7");
+        // 文件部分之后的内容没有读取，不能当作字段不存在
+        assertThatThrownBy(() -> wrapper.getFieldValues("file")).isInstanceOf(CustomAccessDeniedException.class);
+        // 扫描过的字节与剩余的请求体拼接后与原始请求体一致
+        assertThat(StreamUtils.copyToByteArray(wrapper.getInputStream())).isEqualTo(body);
+    }
+
+    @Test
+    void leadingContentOverTheScanBudgetIsRejected() {
+        String padding = new String(new char[300]).replace('\0', 'x');
+        byte[] body = ("--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n" + padding + "\r\n"
+                + "--XyZ\r\nContent-Disposition: form-data; name=\"ownerId\"\r\n\r\n7\r\n--XyZ--\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body, true), 256, null);
+
+        assertThatThrownBy(() -> wrapper.getFieldValues("ownerId")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fieldAfterAFilePartIsDeniedInsteadOfReadAsMissing() throws IOException {
+        byte[] body = ("--XyZ\r\nContent-Disposition: form-data; name=\"note\"\r\n\r\nhi\r\n"
+                + "--XyZ\r\nContent-Disposition: form-data; name=\"dummy\"; filename=\"d.bin\"\r\n\r\nxx\r\n"
+                + "--XyZ\r\nContent-Disposition: form-data; name=\"classId\"\r\n\r\n9\r\n--XyZ--\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body, true), 256, null);
+
+        assertThat(wrapper.getFieldValues("note")).containsExactly("hi");
+        assertThatThrownBy(() -> wrapper.getFieldValues("classId")).isInstanceOf(CustomAccessDeniedException.class);
+        // 经其他过滤器再次包装后，提取器同样拒绝，不会返回空值交给验证器
+        HttpServletRequest wrapped = new HttpServletRequestWrapper(wrapper);
+        assertThatThrownBy(() -> new FormFieldExtractor(1024).extract(wrapped, "classId", null, ParamSource.BODY, true))
+                .isInstanceOf(CustomAccessDeniedException.class);
+        // 处理器读到的字段包含文件部分之后的字段
+        assertThat(wrapper.getParameter("classId")).isEqualTo("9");
+    }
+
+    @Test
+    void missingFieldIsEmptyWhenThereIsNoFilePart() throws IOException {
+        byte[] body = "--XyZ\r\nContent-Disposition: form-data; name=\"note\"\r\n\r\nhi\r\n--XyZ--\r\n"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body, true), 256, null);
+
+        assertThat(wrapper.getFieldValues("classId")).isNull();
+        assertThat(new FormFieldExtractor(1024).extract(wrapper, "classId", null, ParamSource.BODY, true)).isEmpty();
+    }
+
+    @Test
+    void bodyEndingExactlyAtTheScanBudgetIsAccepted() throws IOException {
+        byte[] body = "--XyZ\r\nContent-Disposition: form-data; name=\"ownerId\"\r\n\r\n7\r\n--XyZ--"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body, true), body.length, null);
+
+        assertThat(wrapper.getFieldValues("ownerId")).containsExactly("7");
+    }
+
+    @Test
+    void filePartsFollowTheThresholdAndAreDeletedOnCleanup() throws Exception {
+        MultipartConfigElement config = new MultipartConfigElement(uploadDir.toString(), 10_000, 200_000, 1024);
+        MultipartFieldRequestWrapper wrapper = wrapper(request(body(10, 5000), true), 256, config);
+        wrapper.getFieldValues("ownerId");
+
+        Collection<Part> parts = wrapper.getParts();
+        assertThat(parts).extracting(Part::getName).containsExactly("ownerId", "small", "file");
+        assertThat(wrapper.getParameter("ownerId")).isEqualTo("7");
+        assertThat(wrapper.getPart("small").getSize()).isEqualTo(10);
+        assertThat(wrapper.getPart("file").getSize()).isEqualTo(5000);
+        assertThat(StreamUtils.copyToByteArray(wrapper.getPart("file").getInputStream())).isEqualTo(content(5000));
+        // 只有超过阈值的文件写入临时文件
+        assertThat(files()).hasSize(1);
+
+        wrapper.cleanup();
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void fileSizeAndRequestSizeLimitsAreReportedSeparately() throws IOException {
+        byte[] body = body(10, 5000);
+
+        MultipartConfigElement fileLimit = new MultipartConfigElement(uploadDir.toString(), 4000, 200_000, 1024);
+        MultipartFieldRequestWrapper perFile = wrapper(request(body, false), 256, fileLimit);
+        perFile.getFieldValues("ownerId");
+        assertThatThrownBy(perFile::getParts).hasMessageContaining("maximum file size exceeded");
+
+        // 请求体超过上限但每个部分都不超过单个部分的上限（未声明Content-Length，读取时发现）
+        MultipartConfigElement requestLimit = new MultipartConfigElement(uploadDir.toString(), 10_000, 4000, 1024);
+        MultipartFieldRequestWrapper chunked = wrapper(request(body, false), 256, requestLimit);
+        chunked.getFieldValues("ownerId");
+        assertThatThrownBy(chunked::getParts).hasMessageContaining("maximum request size exceeded");
+
+        // 声明的Content-Length超过上限时不读取请求体
+        MultipartFieldRequestWrapper declared = wrapper(request(body, true), 256, requestLimit);
+        declared.getFieldValues("ownerId");
+        assertThatThrownBy(declared::getParts).hasMessageContaining("maximum request size exceeded");
+        // 失败时不残留临时文件
+        assertThat(files()).isEmpty();
+    }
+
+    private MultipartFieldRequestWrapper wrapper(MockHttpServletRequest request, int maxScanBytes,
+                                                 MultipartConfigElement config) {
+        ApiPermissionConfig.Multipart limits = new ApiPermissionConfig.Multipart();
+        limits.setMaxFieldBytes(64);
+        limits.setMaxScanBytes(maxScanBytes);
+        return new MultipartFieldRequestWrapper(request, limits, config);
+    }
+
+    private Path[] files() throws IOException {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.toArray(Path[]::new);
+        }
+    }
+
+    private static MockHttpServletRequest request(byte[] body, boolean withContentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload") {
+            @Override
+            public long getContentLengthLong() {
+                return withContentLength ? super.getContentLengthLong() : -1;
+            }
+        };
+        request.setContentType("multipart/form-data; boundary=XyZ");
+        request.setContent(body);
+        return request;
+    }
+
+    // 文本字段ownerId、文件small与文件file
+    private static byte[] body(int smallSize, int fileSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--XyZ\r\nContent-Disposition: form-data; name=\"ownerId\"\r\n\r\n7\r\n"
+                + "--XyZ\r\nContent-Disposition: form-data; name=\"small\"; filename=\"s.bin\"\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.write(content(smallSize));
+        out.write(("\r\n--XyZ\r\nContent-Disposition: form-data; name=\"file\"; filename=\"f.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.write(content(fileSize));
+        out.write("\r\n--XyZ--\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        return out.toByteArray();
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) 'a');
+        for (int i = 0; i < size; i += 97) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+}
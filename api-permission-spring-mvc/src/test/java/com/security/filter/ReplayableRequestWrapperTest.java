@@ -0,0 +1,82 @@
+package com.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.exception.RequestBodyTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplayableRequestWrapperTest {
+
+    @Test
+    void preloadedBodyIsReplayedToTheHandler() throws IOException {
+        ReplayableRequestWrapper wrapper = new ReplayableRequestWrapper(request("{\"ownerId\":7}", true));
+        wrapper.preload(64);
+
+        assertThat(StreamUtils.copyToString(wrapper.getInputStream(), StandardCharsets.UTF_8)).isEqualTo("{\"ownerId\":7}");
+        assertThat(StreamUtils.copyToString(wrapper.getInputStream(), StandardCharsets.UTF_8)).isEqualTo("{\"ownerId\":7}");
+    }
+
+    @Test
+    void declaredContentLengthOverTheLimitIsRejectedWithoutReading() {
+        MockHttpServletRequest request = request(body(100), true);
+        ReplayableRequestWrapper wrapper = new ReplayableRequestWrapper(request);
+
+        assertThatThrownBy(() -> wrapper.preload(64)).isInstanceOf(RequestBodyTooLargeException.class);
+        assertThat(wrapper.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void chunkedBodyOverTheLimitIsRejectedWhileReading() {
+        ReplayableRequestWrapper wrapper = new ReplayableRequestWrapper(request(body(100_000), false));
+
+        assertThatThrownBy(() -> wrapper.preload(64)).isInstanceOf(RequestBodyTooLargeException.class);
+        // 超过上限后停止读取，缓存不超过上限加一个读取缓冲区
+        assertThat(wrapper.getContentAsByteArray().length).isLessThanOrEqualTo(64 + StreamUtils.BUFFER_SIZE);
+    }
+
+    @Test
+    void formBodyOverTheLimitIsRejected() {
+        MockHttpServletRequest request = request("a=" + body(100), false);
+        request.setContentType("application/x-www-form-urlencoded");
+        ReplayableRequestWrapper wrapper = new ReplayableRequestWrapper(request);
+
+        assertThatThrownBy(() -> wrapper.getFormParameters(64)).isInstanceOf(RequestBodyTooLargeException.class);
+    }
+
+    @Test
+    void bodyTooLargeIsWrittenAs413() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new PermissionResponseWriter(new ObjectMapper()).writeFailure(response, ReplayableRequestWrapper.tooLarge(64));
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains("\"413\"");
+    }
+
+    private static MockHttpServletRequest request(String body, boolean declareLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/items") {
+            @Override
+            public long getContentLengthLong() {
+                return declareLength ? super.getContentLengthLong() : -1;
+            }
+        };
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String body(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append('x');
+        }
+        return builder.toString();
+    }
+}
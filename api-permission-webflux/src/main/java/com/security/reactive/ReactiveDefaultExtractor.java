@@ -0,0 +1,53 @@
+package com.security.reactive;
+
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QUERY/HEADER/COOKIE参数提取（与DefaultExtractor语义一致：QUERY多值，HEADER/COOKIE取第一个值）
+ */
+@Slf4j
+public class ReactiveDefaultExtractor implements ReactiveParameterExtractor {
+
+    @Override
+    public Mono<List<String>> extract(ReactiveRequest request, String paramName, String parseConfig, ParamSource source) {
+        if (!StringUtils.hasText(paramName)) {
+            log.error("参数名称为空，无法提取");
+            return Mono.just(Collections.emptyList());
+        }
+        ServerHttpRequest httpRequest = request.getExchange().getRequest();
+        switch (source) {
+            case QUERY:
+                List<String> values = httpRequest.getQueryParams().get(paramName);
+                return Mono.just(values != null ? values : Collections.emptyList());
+            case HEADER:
+                String headerValue = httpRequest.getHeaders().getFirst(paramName);
+                return Mono.just(headerValue != null ? Collections.singletonList(headerValue) : Collections.emptyList());
+            case COOKIE:
+                HttpCookie cookie = httpRequest.getCookies().getFirst(paramName);
+                return Mono.just(cookie != null ? Collections.singletonList(cookie.getValue()) : Collections.emptyList());
+            default:
+                log.warn("不支持的参数来源[{}]，参数名[{}]", source, paramName);
+                return Mono.just(Collections.emptyList());
+        }
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.DEFAULT.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Arrays.asList(ParamSource.QUERY, ParamSource.HEADER, ParamSource.COOKIE);
+    }
+}
@@ -0,0 +1,69 @@
+package com.security.reactive;
+
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 非阻塞提取器工厂：按解析方式注册ReactiveParameterExtractor（解析方式的规范化规则与ExtractorFactory一致）
+ */
+@Slf4j
+public class ReactiveExtractorFactory implements InitializingBean {
+
+    private final Map<String, ReactiveParameterExtractor> extractorMap = new HashMap<>();
+
+    @Setter
+    @Autowired(required = false)
+    private List<ReactiveParameterExtractor> extractors;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (extractors == null || extractors.isEmpty()) {
+            log.warn("未发现任何ReactiveParameterExtractor实现类");
+            return;
+        }
+        for (ReactiveParameterExtractor extractor : extractors) {
+            String parseMethod = extractor.supportParseMethod();
+            if (parseMethod == null || parseMethod.trim().isEmpty()) {
+                log.error("非阻塞提取器[{}]的supportParseMethod返回空值，跳过注册", extractor.getClass().getName());
+                continue;
+            }
+            if (extractor.supportSources() == null || extractor.supportSources().isEmpty()) {
+                log.warn("非阻塞提取器[{}]未指定支持的参数来源，跳过注册", extractor.getClass().getName());
+                continue;
+            }
+            String key = ExtractorType.getExtractorType(parseMethod.trim());
+            ReactiveParameterExtractor existing = extractorMap.put(key, extractor);
+            if (existing != null) {
+                log.warn("解析方式[{}]存在重复的非阻塞实现：现有[{}]，新实现[{}]将覆盖旧实现", key, existing.getClass().getName(), extractor.getClass().getName());
+            }
+        }
+        log.info("非阻塞参数提取器初始化完成，解析方式列表: {}", extractorMap.keySet());
+    }
+
+    /**
+     * 获取支持指定来源的提取器
+     *
+     * @throws IllegalArgumentException 解析方式不被支持或来源不匹配
+     */
+    public ReactiveParameterExtractor getExtractor(String parseMethod, ParamSource source, String paramDesc) {
+        if (parseMethod == null || parseMethod.trim().isEmpty()) {
+            throw new IllegalArgumentException("解析方式不能为空");
+        }
+        ReactiveParameterExtractor extractor = extractorMap.get(ExtractorType.getExtractorType(parseMethod.trim()));
+        if (extractor == null) {
+            throw new IllegalArgumentException("不支持的参数解析方式: " + parseMethod + "，已注册的方式: " + extractorMap.keySet());
+        }
+        if (!extractor.supportSources().contains(source)) {
+            throw new IllegalArgumentException(parseMethod + "提取器不支持" + source + "来源（" + paramDesc + "）");
+        }
+        return extractor;
+    }
+}
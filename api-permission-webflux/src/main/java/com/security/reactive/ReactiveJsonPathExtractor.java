@@ -0,0 +1,51 @@
+package com.security.reactive;
+
+import com.jayway.jsonpath.JsonPathException;
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import com.security.extractor.JsonPathSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * BODY参数的JSONPath提取：请求体由{@link ReactiveRequest}按需聚合一次，多个参数共用
+ */
+@Slf4j
+public class ReactiveJsonPathExtractor implements ReactiveParameterExtractor {
+
+    @Override
+    public Mono<List<String>> extract(ReactiveRequest request, String paramName, String parseConfig, ParamSource source) {
+        if (ParamSource.BODY != source) {
+            return Mono.just(Collections.emptyList());
+        }
+        if (!StringUtils.hasText(parseConfig)) {
+            log.warn("参数[{}]提取失败：JSONPath表达式为空", paramName);
+            return Mono.just(Collections.emptyList());
+        }
+        return request.body().map(bytes -> {
+            if (bytes.length == 0) {
+                return Collections.<String>emptyList();
+            }
+            try {
+                return JsonPathSupport.read(bytes, parseConfig, paramName);
+            } catch (JsonPathException e) {
+                log.error("参数[{}]JSONPath解析异常，表达式:{}", paramName, parseConfig, e);
+                return Collections.<String>emptyList();
+            }
+        });
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.JSON_PATH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.BODY);
+    }
+}
@@ -0,0 +1,32 @@
+package com.security.reactive;
+
+import com.security.enums.ParamSource;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 非阻塞参数提取器（{@link com.security.extractor.ParameterExtractor}的WebFlux对应接口）
+ */
+public interface ReactiveParameterExtractor {
+    /**
+     * 提取参数值
+     *
+     * @param request     请求提取上下文（exchange、路径变量、按需读取的请求体）
+     * @param paramName   参数名
+     * @param parseConfig 解析配置（如JSONPath表达式）
+     * @param source      参数来源
+     * @return 参数值列表（无值时为空列表，不应返回空Mono）
+     */
+    Mono<List<String>> extract(ReactiveRequest request, String paramName, String parseConfig, ParamSource source);
+
+    /**
+     * 支持的解析方式（与ParameterExtractor的取值一致，如"JSON_PATH"）
+     */
+    String supportParseMethod();
+
+    /**
+     * 支持的参数来源
+     */
+    List<ParamSource> supportSources();
+}
@@ -0,0 +1,33 @@
+package com.security.reactive;
+
+import com.security.enums.ExtractorType;
+import com.security.enums.ParamSource;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PATH参数提取：取值自规则匹配时记录的路径变量（WebFilter运行在处理器映射之前）
+ */
+public class ReactivePathMatchExtractor implements ReactiveParameterExtractor {
+
+    @Override
+    public Mono<List<String>> extract(ReactiveRequest request, String paramName, String parseConfig, ParamSource source) {
+        if (ParamSource.PATH != source) {
+            return Mono.just(Collections.emptyList());
+        }
+        String value = request.getPathVariable(paramName);
+        return Mono.just(value != null ? Collections.singletonList(value) : Collections.emptyList());
+    }
+
+    @Override
+    public String supportParseMethod() {
+        return ExtractorType.PATH_MATCH.name();
+    }
+
+    @Override
+    public List<ParamSource> supportSources() {
+        return Collections.singletonList(ParamSource.PATH);
+    }
+}
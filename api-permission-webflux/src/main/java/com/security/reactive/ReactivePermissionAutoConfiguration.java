@@ -0,0 +1,100 @@
+package com.security.reactive;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.config.FileRuleConfigSource;
+import com.security.config.RuleConfigSource;
+import com.security.config.RuleReloader;
+import com.security.engine.RuleMatcher;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+import java.nio.file.Paths;
+import java.util.stream.Collectors;
+
+/**
+ * 权限校验的WebFlux自动配置（仅REACTIVE类型的Web应用生效）
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePermissionAutoConfiguration {
+
+    @Bean(initMethod = "initialize")
+    @ConfigurationProperties(prefix = "api.permission")
+    @ConditionalOnMissingBean
+    public ApiPermissionConfig apiPermissionConfig() {
+        return new ApiPermissionConfig();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ValidatorFactory validatorFactory(ObjectProvider<PermissionValidator> validators) {
+        return new ValidatorFactory(validators.orderedStream().collect(Collectors.toList()));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RuleMatcher ruleMatcher(ApiPermissionConfig globalConfig) {
+        return new RuleMatcher(globalConfig);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public RuleReloader ruleReloader(ApiPermissionConfig globalConfig, ObjectProvider<RuleConfigSource> sources) {
+        RuleReloader reloader = new RuleReloader(globalConfig);
+        sources.orderedStream().forEach(reloader::register);
+        return reloader;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "api.permission.reload", name = "file")
+    public FileRuleConfigSource fileRuleConfigSource(ApiPermissionConfig globalConfig) {
+        ApiPermissionConfig.Reload reload = globalConfig.getReload();
+        return new FileRuleConfigSource(Paths.get(reload.getFile()), reload.getDebounceMillis());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveDefaultExtractor reactiveDefaultExtractor() {
+        return new ReactiveDefaultExtractor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactivePathMatchExtractor reactivePathMatchExtractor() {
+        return new ReactivePathMatchExtractor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveJsonPathExtractor reactiveJsonPathExtractor() {
+        return new ReactiveJsonPathExtractor();
+    }
+
+    @Bean
+    public ReactiveExtractorFactory reactiveExtractorFactory() {
+        return new ReactiveExtractorFactory();
+    }
+
+    @Bean
+    public ReactiveValidatorFactory reactiveValidatorFactory() {
+        return new ReactiveValidatorFactory();
+    }
+
+    @Bean
+    public ReactiveRuleEvaluator reactiveRuleEvaluator() {
+        return new ReactiveRuleEvaluator();
+    }
+
+    @Bean
+    public ReactivePermissionWebFilter reactivePermissionWebFilter() {
+        return new ReactivePermissionWebFilter();
+    }
+}
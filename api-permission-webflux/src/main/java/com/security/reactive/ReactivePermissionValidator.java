@@ -0,0 +1,23 @@
+package com.security.reactive;
+
+import com.security.context.PermissionContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * 非阻塞权限验证器（{@link com.security.validator.PermissionValidator}的WebFlux对应接口）
+ * <p>
+ * 未提供非阻塞实现的validatorId会使用同ID的PermissionValidator，在boundedElastic调度器上执行。
+ */
+public interface ReactivePermissionValidator {
+    /**
+     * 验证目标参数是否归属当前主体
+     *
+     * @return 验证结果（true：通过；false：不通过）
+     */
+    Mono<Boolean> validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target);
+
+    /**
+     * 验证器唯一标识（与配置中的validatorId对应）
+     */
+    String getValidatorId();
+}
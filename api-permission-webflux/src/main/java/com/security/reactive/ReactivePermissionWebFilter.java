@@ -0,0 +1,135 @@
+package com.security.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.security.config.ApiPermissionConfig;
+import com.security.engine.RuleMatch;
+import com.security.engine.RuleMatcher;
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+import com.security.exception.CustomAccessDeniedException;
+import com.security.exception.ErrorResponse;
+import com.security.exception.RequestBodyTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux权限校验过滤器：复用ApiPermissionConfig的规则、解析方式和多参数模式语义，在Netty上端到端非阻塞执行
+ * <p>
+ * 通过后把不可变快照放入exchange属性{@link #SNAPSHOT_ATTRIBUTE}和Reactor Context（键为ContextSnapshot.class），
+ * 响应式代码中没有ThreadLocal上下文；失败时直接写出与GlobalExceptionHandler一致的错误响应。
+ */
+@Slf4j
+public class ReactivePermissionWebFilter implements WebFilter, Ordered, InitializingBean {
+
+    // 校验通过后的上下文快照
+    public static final String SNAPSHOT_ATTRIBUTE = ReactivePermissionWebFilter.class.getName() + ".SNAPSHOT";
+    // 校验未通过的提示（与PermissionInterceptor一致）
+    private static final String DENIED_MESSAGE = "越权访问：参数不归属当前主体";
+
+    @Autowired
+    private ApiPermissionConfig globalConfig;
+    @Autowired
+    private ReactiveRuleEvaluator ruleEvaluator;
+    @Autowired
+    private RuleMatcher ruleMatcher;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 预编码的403响应体
+    private byte[] deniedBody;
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        deniedBody = objectMapper.writeValueAsBytes(new ErrorResponse("403", DENIED_MESSAGE));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!globalConfig.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        String requestUri = exchange.getRequest().getPath().value();
+        RuleMatch match = ruleMatcher.matchWithVariables(requestUri);
+        if (match == null || !match.getRule().isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ApiPermissionConfig.Rule rule = match.getRule();
+
+        PermissionContext.ContextData contextData = PermissionContext.detached();
+        contextData.setUri(requestUri);
+        contextData.setMultiParamMode(rule.getMultiParamMode());
+        ReactiveRequest request = new ReactiveRequest(exchange, match, globalConfig.getReactive().getMaxBodyBytes());
+
+        // 校验失败写出错误响应后以空信号结束，不会进入后续过滤器
+        return ruleEvaluator.check(rule, request, contextData)
+                .onErrorResume(error -> writeFailure(exchange.getResponse(), error).then(Mono.<Boolean>empty()))
+                .flatMap(passed -> passed ? proceed(exchange, chain, request, contextData)
+                        : writeBody(exchange.getResponse(), HttpStatus.FORBIDDEN, deniedBody, DENIED_MESSAGE));
+    }
+
+    private Mono<Void> proceed(ServerWebExchange exchange, WebFilterChain chain, ReactiveRequest request,
+                               PermissionContext.ContextData contextData) {
+        ServerWebExchange target = request.decorateIfBodyRead(exchange);
+        ContextSnapshot snapshot = contextData.snapshot();
+        target.getAttributes().put(SNAPSHOT_ATTRIBUTE, snapshot);
+        return chain.filter(target).contextWrite(context -> context.put(ContextSnapshot.class, snapshot));
+    }
+
+    /**
+     * 写出失败响应（状态码与响应体与GlobalExceptionHandler保持一致）
+     */
+    private Mono<Void> writeFailure(ServerHttpResponse response, Throwable error) {
+        if (error instanceof CustomAccessDeniedException) {
+            return writeJson(response, HttpStatus.FORBIDDEN, new ErrorResponse("403", error.getMessage()));
+        }
+        if (error instanceof RequestBodyTooLargeException) {
+            log.warn("请求体过大：{}", error.getMessage());
+            return writeJson(response, HttpStatus.PAYLOAD_TOO_LARGE, new ErrorResponse("413", error.getMessage()));
+        }
+        if (error instanceof IllegalArgumentException) {
+            log.error("参数错误：{}", error.getMessage());
+            return writeJson(response, HttpStatus.BAD_REQUEST, new ErrorResponse("400", error.getMessage()));
+        }
+        log.error("权限验证异常", error);
+        return writeJson(response, HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponse("500", "权限验证过程中发生错误"));
+    }
+
+    private Mono<Void> writeJson(ServerHttpResponse response, HttpStatus status, ErrorResponse body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            bytes = body.getMessage().getBytes(StandardCharsets.UTF_8);
+        }
+        return writeBody(response, status, bytes, body.getMessage());
+    }
+
+    private Mono<Void> writeBody(ServerHttpResponse response, HttpStatus status, byte[] bytes, String message) {
+        if (status == HttpStatus.FORBIDDEN) {
+            log.warn("越权访问：{}", message);
+        }
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(bytes)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.security.reactive;
+
+import com.security.engine.RuleMatch;
+import com.security.exception.RequestBodyTooLargeException;
+import lombok.Getter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * 一次WebFlux请求的提取上下文
+ * <p>
+ * 请求体只在规则真正需要BODY参数时才读取：按上限聚合一次并缓存，同一请求的多个BODY参数共用；
+ * 读取过请求体时，{@link #decorateIfBodyRead(ServerWebExchange)}返回可重放请求体的exchange交给后续处理器。
+ */
+public class ReactiveRequest {
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    @Getter
+    private final ServerWebExchange exchange;
+    private final RuleMatch ruleMatch; // 规则匹配结果（含路径变量位置）
+    private final Mono<byte[]> body;
+    private volatile byte[] cachedBody;
+
+    public ReactiveRequest(ServerWebExchange exchange, RuleMatch ruleMatch, int maxBodyBytes) {
+        this.exchange = exchange;
+        this.ruleMatch = ruleMatch;
+        this.body = DataBufferUtils.join(exchange.getRequest().getBody(), maxBodyBytes)
+                .map(ReactiveRequest::toBytes)
+                .defaultIfEmpty(EMPTY_BODY)
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new RequestBodyTooLargeException("请求体超过" + maxBodyBytes + "字节，无法进行权限校验"))
+                .doOnNext(bytes -> cachedBody = bytes)
+                .cache();
+    }
+
+    /**
+     * 路径变量的值（取自规则匹配时记录的位置），不存在时返回null
+     */
+    public String getPathVariable(String name) {
+        return ruleMatch.getPathVariable(name);
+    }
+
+    /**
+     * 请求体字节（首次订阅时读取，之后复用）
+     */
+    public Mono<byte[]> body() {
+        return body;
+    }
+
+    /**
+     * 读取过请求体时返回重放缓存内容的exchange，否则原样返回
+     */
+    public ServerWebExchange decorateIfBodyRead(ServerWebExchange source) {
+        byte[] bytes = cachedBody;
+        if (bytes == null) {
+            return source;
+        }
+        ServerHttpRequest request = new ServerHttpRequestDecorator(source.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                if (bytes.length == 0) {
+                    return Flux.empty();
+                }
+                return Flux.defer(() -> Flux.just(source.getResponse().bufferFactory().wrap(bytes)));
+            }
+        };
+        return source.mutate().request(request).build();
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.security.reactive;
+
+import com.security.config.ApiPermissionConfig;
+import com.security.context.PermissionContext;
+import com.security.engine.RuleCheckerSupport;
+import com.security.policy.CompiledPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 非阻塞规则求值：语义与InterpretedRuleChecker一致（主体为空或格式错误拒绝，策略短路求值，
+ * 同一参数最多提取、验证一次），目标参数按策略顺序依次提取和验证，上下文数据不会被并发修改
+ */
+public class ReactiveRuleEvaluator {
+
+    @Autowired
+    private ReactiveExtractorFactory extractorFactory;
+    @Autowired
+    private ReactiveValidatorFactory validatorFactory;
+
+    /**
+     * 校验规则
+     *
+     * @return true：放行；false：拒绝。主体缺失等以CustomAccessDeniedException错误信号结束
+     */
+    public Mono<Boolean> check(ApiPermissionConfig.Rule rule, ReactiveRequest request, PermissionContext.ContextData contextData) {
+        return Mono.defer(() -> {
+            ApiPermissionConfig.PrincipalParam principalParam = rule.getPrincipalParam();
+            ReactiveParameterExtractor extractor = extractorFactory.getExtractor(principalParam.getParseMethod(),
+                    principalParam.getSource(), "主体参数：" + principalParam.getName());
+            return extractor.extract(request, principalParam.getName(), principalParam.getParseConfig(), principalParam.getSource())
+                    .defaultIfEmpty(Collections.emptyList())
+                    .flatMap(values -> {
+                        PermissionContext.PrincipalData principal = RuleCheckerSupport.beginPrincipal(principalParam.getName(), contextData);
+                        principal.setValues(values);
+                        RuleCheckerSupport.requirePrincipal(principal, principalParam.getValueType());
+                        Evaluation evaluation = new Evaluation(rule, request, contextData, principal);
+                        return evaluation.node(evaluation.policy.root());
+                    });
+        }).defaultIfEmpty(false);
+    }
+
+    /**
+     * 单次求值状态：每个策略节点的结果Mono被缓存，DAG中共享的节点只求值一次
+     */
+    private final class Evaluation {
+        private final ApiPermissionConfig.Rule rule;
+        private final CompiledPolicy policy;
+        private final ReactiveRequest request;
+        private final PermissionContext.ContextData contextData;
+        private final PermissionContext.PrincipalData principal;
+        private final Mono<?>[] nodes;
+
+        private Evaluation(ApiPermissionConfig.Rule rule, ReactiveRequest request, PermissionContext.ContextData contextData,
+                           PermissionContext.PrincipalData principal) {
+            this.rule = rule;
+            this.policy = rule.getCompiledPolicy();
+            this.request = request;
+            this.contextData = contextData;
+            this.principal = principal;
+            this.nodes = new Mono<?>[policy.size()];
+        }
+
+        @SuppressWarnings("unchecked")
+        Mono<Boolean> node(int node) {
+            Mono<Boolean> cached = (Mono<Boolean>) nodes[node];
+            if (cached != null) {
+                return cached;
+            }
+            Mono<Boolean> result;
+            switch (policy.operator(node)) {
+                case PARAM:
+                    result = Mono.defer(() -> checkParam(policy.paramIndex(node)));
+                    break;
+                case NOT:
+                    result = Mono.defer(() -> node(policy.child(node, 0))).map(passed -> !passed);
+                    break;
+                case AND:
+                    result = Flux.range(0, policy.childCount(node))
+                            .concatMap(i -> node(policy.child(node, i)))
+                            .all(Boolean::booleanValue);
+                    break;
+                case OR:
+                    result = Flux.range(0, policy.childCount(node))
+                            .concatMap(i -> node(policy.child(node, i)))
+                            .any(Boolean::booleanValue);
+                    break;
+                default:
+                    result = Mono.just(false);
+            }
+            result = result.cache();
+            nodes[node] = result;
+            return result;
+        }
+
+        private Mono<Boolean> checkParam(int index) {
+            ApiPermissionConfig.ParamRule paramRule = rule.getParamRules().get(index);
+            ReactiveParameterExtractor extractor = extractorFactory.getExtractor(paramRule.getParseMethod(),
+                    paramRule.getSource(), "参数：" + paramRule.getParamName());
+            return extractor.extract(request, paramRule.getParamName(), paramRule.getParseConfig(), paramRule.getSource())
+                    .defaultIfEmpty(Collections.emptyList())
+                    .flatMap(values -> validate(paramRule, values));
+        }
+
+        private Mono<Boolean> validate(ApiPermissionConfig.ParamRule paramRule, List<String> values) {
+            PermissionContext.TargetParameter target = RuleCheckerSupport.nextTarget(paramRule.getParamName(), paramRule.getValidatorId(), contextData);
+            target.setValues(values);
+            if (!RuleCheckerSupport.completeTarget(target, paramRule.getValueType(),
+                    paramRule.isDistinctValues(), paramRule.getMaxValues())) {
+                return Mono.just(false);
+            }
+            return validatorFactory.getValidator(paramRule.getValidatorId())
+                    .validate(principal, target)
+                    .defaultIfEmpty(false);
+        }
+    }
+}
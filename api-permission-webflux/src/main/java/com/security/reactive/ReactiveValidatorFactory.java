@@ -0,0 +1,94 @@
+package com.security.reactive;
+
+import com.security.context.PermissionContext;
+import com.security.validator.PermissionValidator;
+import com.security.validator.ValidatorFactory;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 非阻塞验证器工厂：优先使用ReactivePermissionValidator，
+ * 没有时把同ID的PermissionValidator包装为在boundedElastic调度器上执行的非阻塞验证器，避免阻塞事件循环线程
+ */
+@Slf4j
+public class ReactiveValidatorFactory implements InitializingBean {
+
+    private final Map<String, ReactivePermissionValidator> validatorMap = new HashMap<>();
+    // 阻塞验证器的包装（按ID缓存）
+    private final Map<String, ReactivePermissionValidator> adaptedValidators = new ConcurrentHashMap<>();
+
+    @Setter
+    @Autowired(required = false)
+    private List<ReactivePermissionValidator> validators;
+
+    @Autowired
+    private ValidatorFactory validatorFactory;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (validators == null) {
+            return;
+        }
+        for (ReactivePermissionValidator validator : validators) {
+            String validatorId = validator.getValidatorId();
+            if (validatorId == null || validatorId.trim().isEmpty()) {
+                log.error("非阻塞验证器[{}]的validatorId为空，已跳过注册", validator.getClass().getName());
+                continue;
+            }
+            ReactivePermissionValidator existing = validatorMap.put(validatorId, validator);
+            if (existing != null) {
+                log.warn("非阻塞验证器ID[{}]冲突，已存在实现[{}]，新实现[{}]将覆盖旧实现", validatorId, existing.getClass().getName(), validator.getClass().getName());
+            }
+        }
+        log.info("非阻塞验证器初始化完成，ID列表: {}", validatorMap.keySet());
+    }
+
+    /**
+     * 根据validatorId获取验证器
+     *
+     * @throws IllegalArgumentException 不存在该ID的验证器
+     */
+    public ReactivePermissionValidator getValidator(String validatorId) {
+        ReactivePermissionValidator validator = validatorMap.get(validatorId);
+        if (validator != null) {
+            return validator;
+        }
+        ReactivePermissionValidator adapted = adaptedValidators.get(validatorId);
+        if (adapted == null) {
+            adapted = new BlockingValidatorAdapter(validatorFactory.getValidator(validatorId));
+            adaptedValidators.put(validatorId, adapted);
+        }
+        return adapted;
+    }
+
+    /**
+     * 阻塞验证器的非阻塞包装
+     */
+    private static final class BlockingValidatorAdapter implements ReactivePermissionValidator {
+        private final PermissionValidator delegate;
+
+        private BlockingValidatorAdapter(PermissionValidator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Mono<Boolean> validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            return Mono.fromCallable(() -> delegate.validate(principal, target))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+
+        @Override
+        public String getValidatorId() {
+            return delegate.getValidatorId();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.security.reactive;
+
+import com.security.context.ContextSnapshot;
+import com.security.context.PermissionContext;
+import com.security.validator.PermissionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ReactivePermissionWebFilter与ReactiveRuleEvaluator的端到端校验（WebTestClient绑定应用上下文，不启动Netty）
+ */
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "api.permission.enabled=true",
+        "api.permission.reactive.max-body-bytes=64",
+        // 规则0：路径变量orderId与请求头owner任一归属主体即通过
+        "api.permission.rules[0].enabled=true",
+        "api.permission.rules[0].uri-pattern=/orders/{orderId}",
+        "api.permission.rules[0].principal-param.name=uid",
+        "api.permission.rules[0].principal-param.source=HEADER",
+        "api.permission.rules[0].param-rules[0].param-name=orderId",
+        "api.permission.rules[0].param-rules[0].source=PATH",
+        "api.permission.rules[0].param-rules[0].parse-method=PATH_MATCH",
+        "api.permission.rules[0].param-rules[0].validator-id=same",
+        "api.permission.rules[0].param-rules[1].param-name=owner",
+        "api.permission.rules[0].param-rules[1].source=HEADER",
+        "api.permission.rules[0].param-rules[1].validator-id=counting",
+        "api.permission.rules[0].multi-param-mode=ANY_MATCH",
+        // 规则1：请求体$.ownerId与查询参数tag都需归属主体
+        "api.permission.rules[1].enabled=true",
+        "api.permission.rules[1].uri-pattern=/items",
+        "api.permission.rules[1].principal-param.name=uid",
+        "api.permission.rules[1].principal-param.source=HEADER",
+        "api.permission.rules[1].param-rules[0].param-name=ownerId",
+        "api.permission.rules[1].param-rules[0].source=BODY",
+        "api.permission.rules[1].param-rules[0].parse-method=JSON_PATH",
+        "api.permission.rules[1].param-rules[0].parse-config=$.ownerId",
+        "api.permission.rules[1].param-rules[0].validator-id=same",
+        "api.permission.rules[1].param-rules[1].param-name=tag",
+        "api.permission.rules[1].param-rules[1].source=QUERY",
+        "api.permission.rules[1].param-rules[1].validator-id=same",
+        "api.permission.rules[1].multi-param-mode=ALL_MATCH"
+})
+@AutoConfigureWebTestClient
+class ReactivePermissionWebFilterTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private CountingValidator countingValidator;
+
+    @BeforeEach
+    void setUp() {
+        countingValidator.calls.set(0);
+    }
+
+    @Test
+    void permittedRequestReachesTheHandlerWithTheSnapshotInTheReactorContext() {
+        client.get().uri("/orders/7").header("uid", "7").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("uid=7,targets=1");
+        // ANY_MATCH在第一个参数通过后短路，不再验证owner
+        assertThat(countingValidator.calls.get()).isZero();
+    }
+
+    @Test
+    void laterParameterIsValidatedByTheReactiveValidatorWhenTheFirstFails() {
+        client.get().uri("/orders/8").header("uid", "7").header("owner", "7").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("uid=7,targets=2");
+        assertThat(countingValidator.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void deniedRequestGets403WithTheErrorBody() {
+        client.get().uri("/orders/8").header("uid", "7").header("owner", "9").exchange()
+                .expectStatus().isForbidden()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$.code").isEqualTo("403");
+    }
+
+    @Test
+    void missingPrincipalIsDenied() {
+        client.get().uri("/orders/7").exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.code").isEqualTo("403");
+    }
+
+    @Test
+    void bodyReadForTheCheckIsReplayedToTheHandler() {
+        client.post().uri("/items?tag=7").header("uid", "7").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ownerId\":7}").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("{\"ownerId\":7}");
+    }
+
+    @Test
+    void allMatchDeniesWhenTheBodyValueBelongsToSomeoneElse() {
+        client.post().uri("/items?tag=7").header("uid", "7").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ownerId\":8}").exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void bodyOverTheLimitIsRejectedWith413() {
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            padding.append('x');
+        }
+        client.post().uri("/items?tag=7").header("uid", "7").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ownerId\":7,\"padding\":\"" + padding + "\"}").exchange()
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE)
+                .expectBody().jsonPath("$.code").isEqualTo("413");
+    }
+
+    @Test
+    void requestsWithoutAMatchingRulePassThrough() {
+        client.get().uri("/open").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("open");
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class TestApplication {
+
+        @Bean
+        PermissionValidator sameValidator() {
+            return new PermissionValidator() {
+                @Override
+                public boolean validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+                    return !target.getValues().isEmpty() && principal.getValues().get(0).equals(target.getValues().get(0));
+                }
+
+                @Override
+                public String getValidatorId() {
+                    return "same";
+                }
+            };
+        }
+
+        @Bean
+        CountingValidator countingValidator() {
+            return new CountingValidator();
+        }
+
+        @Bean
+        TestController testController() {
+            return new TestController();
+        }
+    }
+
+    /**
+     * 非阻塞验证器：记录调用次数
+     */
+    static class CountingValidator implements ReactivePermissionValidator {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<Boolean> validate(PermissionContext.PrincipalData principal, PermissionContext.TargetParameter target) {
+            calls.incrementAndGet();
+            return Mono.just(!target.getValues().isEmpty() && principal.getValues().get(0).equals(target.getValues().get(0)));
+        }
+
+        @Override
+        public String getValidatorId() {
+            return "counting";
+        }
+    }
+
+    @RestController
+    static class TestController {
+
+        @GetMapping("/orders/{orderId}")
+        Mono<String> order(@PathVariable String orderId) {
+            return Mono.deferContextual(context -> {
+                ContextSnapshot snapshot = context.get(ContextSnapshot.class);
+                return Mono.just("uid=" + snapshot.getPrincipalValues().get(0) + ",targets=" + snapshot.getTargetParameters().size());
+            });
+        }
+
+        @PostMapping("/items")
+        Mono<String> items(@RequestBody String body) {
+            return Mono.just(body);
+        }
+
+        @GetMapping("/open")
+        Mono<String> open() {
+            return Mono.just("open");
+        }
+    }
+}